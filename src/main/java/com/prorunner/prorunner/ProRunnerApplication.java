@@ -2,8 +2,10 @@ package com.prorunner.prorunner;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication // meta-annotations --> combines 3 annotations
+@EnableScheduling
 public class ProRunnerApplication {
 
 	public static void main(String[] args) {
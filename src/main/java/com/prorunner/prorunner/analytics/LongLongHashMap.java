@@ -0,0 +1,270 @@
+package com.prorunner.prorunner.analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from long keys to long counters, kept in two parallel primitive arrays
+ * with linear probing, so counting a sale allocates nothing and a map of 100,000 SKUs is two
+ * arrays instead of 200,000 boxed objects. Key 0 marks a free slot and cannot be stored; ids
+ * start at 1. Not thread-safe.
+ */
+public final class LongLongHashMap {
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private static final int MIN_CAPACITY = 16;
+
+    // Resize at 2/3 full to keep probe sequences short
+    private static final int LOAD_NUMERATOR = 2;
+    private static final int LOAD_DENOMINATOR = 3;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public LongLongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    // Adds delta to the key's value, inserting the key at 0 first; returns the new value
+    public long addTo(long key, long delta) {
+        checkKey(key);
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot] += delta;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return delta;
+    }
+
+    // The key's value, 0 when absent
+    public long get(long key) {
+        checkKey(key);
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    public boolean containsKey(long key) {
+        checkKey(key);
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    // An independent copy with the same capacity, made by copying the two arrays
+    public LongLongHashMap copy() {
+        LongLongHashMap copy = new LongLongHashMap();
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.mask = mask;
+        copy.size = size;
+        copy.resizeAt = resizeAt;
+        return copy;
+    }
+
+    public void addAll(LongLongHashMap other) {
+        other.forEach(this::addTo);
+    }
+
+    // Keeps the arrays, so a reused rollup bucket does not grow them again
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    /**
+     * Up to limit keys with the highest values, highest first, ties by lower key. Selected with a
+     * bounded min-heap over the entries: O(size log limit), allocating only the result and heap.
+     */
+    public long[] topKeys(int limit) {
+        int capacity = Math.min(limit, size);
+        if (capacity <= 0) {
+            return new long[0];
+        }
+        long[] heapKeys = new long[capacity];
+        long[] heapValues = new long[capacity];
+        int heapSize = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            long key = keys[slot];
+            if (key == 0) {
+                continue;
+            }
+            long value = values[slot];
+            if (heapSize < capacity) {
+                heapKeys[heapSize] = key;
+                heapValues[heapSize] = value;
+                siftUp(heapKeys, heapValues, heapSize++);
+            } else if (ranksAbove(key, value, heapKeys[0], heapValues[0])) {
+                heapKeys[0] = key;
+                heapValues[0] = value;
+                siftDown(heapKeys, heapValues, heapSize);
+            }
+        }
+        // Popping the min-heap yields the lowest first, so fill the result from the back
+        long[] top = new long[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            top[i] = heapKeys[0];
+            heapKeys[0] = heapKeys[i];
+            heapValues[0] = heapValues[i];
+            siftDown(heapKeys, heapValues, i);
+        }
+        return top;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                out.writeLong(keys[slot]);
+                out.writeLong(values[slot]);
+            }
+        }
+    }
+
+    public static LongLongHashMap readFrom(DataInput in) throws IOException {
+        int entries = in.readInt();
+        if (entries < 0) {
+            throw new IOException("Negative map size " + entries);
+        }
+        LongLongHashMap map = new LongLongHashMap(entries);
+        for (int i = 0; i < entries; i++) {
+            map.addTo(in.readLong(), in.readLong());
+        }
+        return map;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            long key = oldKeys[slot];
+            if (key != 0) {
+                int target = slot(key);
+                while (keys[target] != 0) {
+                    target = (target + 1) & mask;
+                }
+                keys[target] = key;
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity / LOAD_DENOMINATOR * LOAD_NUMERATOR;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.max(expectedSize, 1) * LOAD_DENOMINATOR / LOAD_NUMERATOR + 1;
+        int capacity = MIN_CAPACITY;
+        while (capacity < needed) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static void checkKey(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved for free slots");
+        }
+    }
+
+    private static boolean ranksAbove(long key, long value, long otherKey, long otherValue) {
+        return value > otherValue || (value == otherValue && key < otherKey);
+    }
+
+    private static void siftUp(long[] heapKeys, long[] heapValues, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(heapKeys[parent], heapValues[parent], heapKeys[index], heapValues[index])) {
+                return;
+            }
+            swap(heapKeys, heapValues, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] heapKeys, long[] heapValues, int heapSize) {
+        int index = 0;
+        while (true) {
+            int lowest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && ranksAbove(heapKeys[lowest], heapValues[lowest], heapKeys[left], heapValues[left])) {
+                lowest = left;
+            }
+            if (right < heapSize && ranksAbove(heapKeys[lowest], heapValues[lowest], heapKeys[right], heapValues[right])) {
+                lowest = right;
+            }
+            if (lowest == index) {
+                return;
+            }
+            swap(heapKeys, heapValues, lowest, index);
+            index = lowest;
+        }
+    }
+
+    private static void swap(long[] heapKeys, long[] heapValues, int i, int j) {
+        long key = heapKeys[i];
+        heapKeys[i] = heapKeys[j];
+        heapKeys[j] = key;
+        long value = heapValues[i];
+        heapValues[i] = heapValues[j];
+        heapValues[j] = value;
+    }
+}
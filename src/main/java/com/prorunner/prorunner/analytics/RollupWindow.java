@@ -0,0 +1,43 @@
+package com.prorunner.prorunner.analytics;
+
+/**
+ * Granularities the sales rollups keep, each as a ring of the most recent periods:
+ * two hours of minutes, two days of hours and five weeks of days.
+ */
+public enum RollupWindow {
+
+    MINUTE(60, 120),
+    HOUR(3_600, 48),
+    DAY(86_400, 35);
+
+    private final long seconds;
+
+    private final int periods;
+
+    RollupWindow(long seconds, int periods) {
+        this.seconds = seconds;
+        this.periods = periods;
+    }
+
+    public long getSeconds() {
+        return seconds;
+    }
+
+    // Periods kept, the longest span a query can cover
+    public int getPeriods() {
+        return periods;
+    }
+
+    public long periodOf(long epochSecond) {
+        return Math.floorDiv(epochSecond, seconds);
+    }
+
+    public static RollupWindow parse(String value) {
+        for (RollupWindow window : values()) {
+            if (window.name().equalsIgnoreCase(value)) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Unknown window " + value + ", expected minute, hour or day");
+    }
+}
@@ -0,0 +1,7 @@
+package com.prorunner.prorunner.analytics;
+
+/**
+ * One order line as the sales rollups count it: units sold and revenue after discounts, in minor units.
+ */
+public record SaleLine(long productId, String category, String gender, int quantity, long revenueMinor) {
+}
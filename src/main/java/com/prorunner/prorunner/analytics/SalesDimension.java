@@ -0,0 +1,12 @@
+package com.prorunner.prorunner.analytics;
+
+/**
+ * What the sales rollups count sales by. Products are keyed by product id, categories and genders
+ * by an id interned from their name (see SalesRollups.label).
+ */
+public enum SalesDimension {
+
+    PRODUCT,
+    CATEGORY,
+    GENDER
+}
@@ -0,0 +1,289 @@
+package com.prorunner.prorunner.analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental sales rollups: for every RollupWindow a ring of period buckets, each holding order,
+ * unit and revenue totals plus units and revenue per product, category and gender in
+ * LongLongHashMaps. Folding an order touches one bucket per window, and reading a window costs
+ * the buckets it spans times the distinct keys in them, however many orders were ever placed.
+ * A bucket is reset when its ring slot moves on to a newer period; sales older than a ring are
+ * dropped. Times are epoch seconds of the orders' local wall-clock time, so day buckets start at
+ * local midnight. Not thread-safe; SalesAnalyticsService guards it.
+ */
+public final class SalesRollups {
+
+    public static final String UNKNOWN_LABEL = "unknown";
+
+    private static final int MAGIC = 0x50525341;
+    private static final int FORMAT_VERSION = 1;
+
+    private static final SalesDimension[] DIMENSIONS = SalesDimension.values();
+    private static final RollupWindow[] WINDOWS = RollupWindow.values();
+
+    public record Ranking(long key, long units, long revenueMinor) {
+    }
+
+    public record PeriodTotals(long period, long orders, long units, long revenueMinor) {
+    }
+
+    private static final class Tally {
+
+        private final LongLongHashMap units;
+        private final LongLongHashMap revenue;
+
+        private Tally(LongLongHashMap units, LongLongHashMap revenue) {
+            this.units = units;
+            this.revenue = revenue;
+        }
+
+        private Tally() {
+            this(new LongLongHashMap(), new LongLongHashMap());
+        }
+
+        private void add(long key, long quantity, long revenueMinor) {
+            units.addTo(key, quantity);
+            revenue.addTo(key, revenueMinor);
+        }
+    }
+
+    private static final class Bucket {
+
+        private long period = Long.MIN_VALUE;
+        private long orders;
+        private long units;
+        private long revenueMinor;
+        private final Tally[] tallies = new Tally[DIMENSIONS.length];
+
+        private Bucket() {
+            for (int i = 0; i < tallies.length; i++) {
+                tallies[i] = new Tally();
+            }
+        }
+
+        private void reset(long newPeriod) {
+            period = newPeriod;
+            orders = 0;
+            units = 0;
+            revenueMinor = 0;
+            for (Tally tally : tallies) {
+                tally.units.clear();
+                tally.revenue.clear();
+            }
+        }
+    }
+
+    private final Bucket[][] rings = new Bucket[WINDOWS.length][];
+
+    // Category and gender names, interned to ids from 1 so they can key the primitive maps
+    private final Map<String, Integer> labelIds = new HashMap<>();
+    private final List<String> labels = new ArrayList<>();
+
+    private long lastOrderId;
+    private long ordersFolded;
+
+    public SalesRollups() {
+        for (RollupWindow window : WINDOWS) {
+            Bucket[] ring = new Bucket[window.getPeriods()];
+            for (int i = 0; i < ring.length; i++) {
+                ring[i] = new Bucket();
+            }
+            rings[window.ordinal()] = ring;
+        }
+        labels.add(null);
+    }
+
+    public void add(long orderId, long epochSecond, List<SaleLine> lines) {
+        long orderUnits = 0;
+        long orderRevenueMinor = 0;
+        for (SaleLine line : lines) {
+            orderUnits += line.quantity();
+            orderRevenueMinor = Math.addExact(orderRevenueMinor, line.revenueMinor());
+        }
+        long[] categoryIds = new long[lines.size()];
+        long[] genderIds = new long[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            categoryIds[i] = labelId(lines.get(i).category());
+            genderIds[i] = labelId(lines.get(i).gender());
+        }
+
+        for (RollupWindow window : WINDOWS) {
+            long period = window.periodOf(epochSecond);
+            Bucket[] ring = rings[window.ordinal()];
+            Bucket bucket = ring[(int) Math.floorMod(period, (long) ring.length)];
+            if (bucket.period < period) {
+                bucket.reset(period);
+            } else if (bucket.period > period) {
+                // Older than this window's ring
+                continue;
+            }
+            bucket.orders++;
+            bucket.units += orderUnits;
+            bucket.revenueMinor += orderRevenueMinor;
+            for (int i = 0; i < lines.size(); i++) {
+                SaleLine line = lines.get(i);
+                bucket.tallies[SalesDimension.PRODUCT.ordinal()].add(line.productId(), line.quantity(), line.revenueMinor());
+                bucket.tallies[SalesDimension.CATEGORY.ordinal()].add(categoryIds[i], line.quantity(), line.revenueMinor());
+                bucket.tallies[SalesDimension.GENDER.ordinal()].add(genderIds[i], line.quantity(), line.revenueMinor());
+            }
+        }
+        lastOrderId = Math.max(lastOrderId, orderId);
+        ordersFolded++;
+    }
+
+    /**
+     * The limit keys with the most units (or revenue) over the last periods periods of window,
+     * the one containing nowEpochSecond included. A single period is read straight from its
+     * bucket; longer spans are merged into scratch maps first.
+     */
+    public List<Ranking> top(SalesDimension dimension, RollupWindow window, int periods, int limit,
+                             boolean byRevenue, long nowEpochSecond) {
+        checkPeriods(window, periods);
+        long current = window.periodOf(nowEpochSecond);
+        Tally tally = null;
+        Tally merged = null;
+        for (Bucket bucket : rings[window.ordinal()]) {
+            if (bucket.period <= current - periods || bucket.period > current) {
+                continue;
+            }
+            Tally bucketTally = bucket.tallies[dimension.ordinal()];
+            if (tally == null) {
+                tally = bucketTally;
+            } else {
+                if (merged == null) {
+                    merged = new Tally();
+                    merged.units.addAll(tally.units);
+                    merged.revenue.addAll(tally.revenue);
+                    tally = merged;
+                }
+                merged.units.addAll(bucketTally.units);
+                merged.revenue.addAll(bucketTally.revenue);
+            }
+        }
+        if (tally == null) {
+            return List.of();
+        }
+        long[] keys = (byRevenue ? tally.revenue : tally.units).topKeys(limit);
+        List<Ranking> rankings = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            rankings.add(new Ranking(key, tally.units.get(key), tally.revenue.get(key)));
+        }
+        return rankings;
+    }
+
+    // Totals of the last periods periods of window, oldest first, zero for periods without sales
+    public List<PeriodTotals> series(RollupWindow window, int periods, long nowEpochSecond) {
+        checkPeriods(window, periods);
+        long current = window.periodOf(nowEpochSecond);
+        Bucket[] ring = rings[window.ordinal()];
+        List<PeriodTotals> series = new ArrayList<>(periods);
+        for (long period = current - periods + 1; period <= current; period++) {
+            Bucket bucket = ring[(int) Math.floorMod(period, (long) ring.length)];
+            series.add(bucket.period == period
+                    ? new PeriodTotals(period, bucket.orders, bucket.units, bucket.revenueMinor)
+                    : new PeriodTotals(period, 0, 0, 0));
+        }
+        return series;
+    }
+
+    // Category or gender name of an interned id
+    public String label(long id) {
+        return id > 0 && id < labels.size() ? labels.get((int) id) : UNKNOWN_LABEL;
+    }
+
+    // Highest order id folded so far, where a replay from the orders table resumes
+    public long getLastOrderId() {
+        return lastOrderId;
+    }
+
+    public long getOrdersFolded() {
+        return ordersFolded;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(lastOrderId);
+        out.writeLong(ordersFolded);
+        out.writeInt(labels.size() - 1);
+        for (int i = 1; i < labels.size(); i++) {
+            out.writeUTF(labels.get(i));
+        }
+        for (RollupWindow window : WINDOWS) {
+            Bucket[] ring = rings[window.ordinal()];
+            out.writeUTF(window.name());
+            out.writeInt(ring.length);
+            for (Bucket bucket : ring) {
+                out.writeLong(bucket.period);
+                out.writeLong(bucket.orders);
+                out.writeLong(bucket.units);
+                out.writeLong(bucket.revenueMinor);
+                for (Tally tally : bucket.tallies) {
+                    tally.units.writeTo(out);
+                    tally.revenue.writeTo(out);
+                }
+            }
+        }
+    }
+
+    public static SalesRollups readFrom(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a sales rollup checkpoint");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported sales rollup checkpoint version " + version);
+        }
+        SalesRollups rollups = new SalesRollups();
+        rollups.lastOrderId = in.readLong();
+        rollups.ordersFolded = in.readLong();
+        int labelCount = in.readInt();
+        for (int i = 0; i < labelCount; i++) {
+            rollups.labelId(in.readUTF());
+        }
+        for (RollupWindow window : WINDOWS) {
+            Bucket[] ring = rollups.rings[window.ordinal()];
+            String name = in.readUTF();
+            int length = in.readInt();
+            if (!window.name().equals(name) || length != ring.length) {
+                throw new IOException("Checkpoint has " + length + " " + name + " buckets, expected " +
+                        ring.length + " " + window.name());
+            }
+            for (int i = 0; i < ring.length; i++) {
+                Bucket bucket = ring[i];
+                bucket.period = in.readLong();
+                bucket.orders = in.readLong();
+                bucket.units = in.readLong();
+                bucket.revenueMinor = in.readLong();
+                for (int t = 0; t < bucket.tallies.length; t++) {
+                    bucket.tallies[t] = new Tally(LongLongHashMap.readFrom(in), LongLongHashMap.readFrom(in));
+                }
+            }
+        }
+        return rollups;
+    }
+
+    private long labelId(String label) {
+        String name = label == null || label.isBlank() ? UNKNOWN_LABEL : label;
+        Integer id = labelIds.get(name);
+        if (id == null) {
+            id = labels.size();
+            labels.add(name);
+            labelIds.put(name, id);
+        }
+        return id;
+    }
+
+    private static void checkPeriods(RollupWindow window, int periods) {
+        if (periods < 1 || periods > window.getPeriods()) {
+            throw new IllegalArgumentException("periods must be between 1 and " + window.getPeriods() +
+                    " for window " + window.name().toLowerCase());
+        }
+    }
+}
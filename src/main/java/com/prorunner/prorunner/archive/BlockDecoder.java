@@ -0,0 +1,48 @@
+package com.prorunner.prorunner.archive;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads what BlockEncoder wrote, from an inflated block.
+ */
+final class BlockDecoder {
+
+    private final byte[] bytes;
+    private int position;
+
+    BlockDecoder(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    long getVarLong() {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = bytes[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    long getZigZag() {
+        return unZigZag(getVarLong());
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    int getByte() {
+        return bytes[position++];
+    }
+
+    String getString() {
+        int length = (int) getVarLong();
+        String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+}
@@ -0,0 +1,55 @@
+package com.prorunner.prorunner.archive;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer for one segment block before compression: unsigned and zigzag varints
+ * plus length-prefixed UTF-8 strings, see BlockDecoder.
+ */
+final class BlockEncoder {
+
+    private byte[] bytes = new byte[1 << 14];
+    private int size;
+
+    void putVarLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[size++] = (byte) value;
+    }
+
+    // Small negative values stay short: 0, -1, 1, -2, ... become 0, 1, 2, 3, ...
+    void putZigZag(long value) {
+        putVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void putByte(int value) {
+        ensure(1);
+        bytes[size++] = (byte) value;
+    }
+
+    void putString(String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        putVarLong(utf8.length);
+        ensure(utf8.length);
+        System.arraycopy(utf8, 0, bytes, size, utf8.length);
+        size += utf8.length;
+    }
+
+    byte[] bytes() {
+        return bytes;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.prorunner.prorunner.archive;
+
+import com.prorunner.prorunner.dto.OrderDTO;
+import com.prorunner.prorunner.model.OrderStatus;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * The archived orders: every OrderSegment in the archive directory, opened at startup, plus
+ * the segments OrderArchiveService writes while running. Segments never change once written.
+ */
+@Component
+public class OrderArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchive.class);
+
+    public static final String SEGMENT_SUFFIX = ".seg";
+
+    @Value("${prorunner.order-archive.directory:order-archive}")
+    private Path directory;
+
+    private final List<OrderSegment> segments = new CopyOnWriteArrayList<>();
+
+    // A segment that cannot be opened fails startup: its orders are no longer in the database
+    @PostConstruct
+    public void open() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.sorted().toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(SEGMENT_SUFFIX + ".tmp")) {
+                // Left by a write that never completed; its orders are still live
+                Files.delete(file);
+            } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                segments.add(OrderSegment.open(file));
+            }
+        }
+        logger.info("Opened {} order archive segments in {} holding {} orders",
+                segments.size(), directory.toAbsolutePath(), segments.stream().mapToLong(OrderSegment::getOrderCount).sum());
+    }
+
+    public OrderSegment write(List<OrderDTO> orders) {
+        long minId = orders.stream().mapToLong(OrderDTO::getId).min().orElseThrow();
+        long maxId = orders.stream().mapToLong(OrderDTO::getId).max().orElseThrow();
+        try {
+            Files.createDirectories(directory);
+            OrderSegment segment = OrderSegmentWriter.write(
+                    directory.resolve(String.format("orders-%012d-%012d%s", minId, maxId, SEGMENT_SUFFIX)), orders);
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Writing an order archive segment failed: " + e.getMessage(), e);
+        }
+    }
+
+    // The user's archived orders, in no particular order across segments
+    public List<OrderDTO> findByUser(long userId) {
+        List<OrderDTO> orders = new ArrayList<>();
+        for (OrderSegment segment : segments) {
+            orders.addAll(segment.findByUser(userId));
+        }
+        return orders;
+    }
+
+    public Optional<OrderDTO> findById(long orderId) {
+        for (OrderSegment segment : segments) {
+            Optional<OrderDTO> order = segment.findById(orderId);
+            if (order.isPresent()) {
+                return order;
+            }
+        }
+        return Optional.empty();
+    }
+
+    public boolean contains(long orderId) {
+        for (OrderSegment segment : segments) {
+            if (segment.contains(orderId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Map<OrderStatus, Long> countByStatus() {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        for (OrderSegment segment : segments) {
+            segment.getStatusCounts().forEach((status, count) -> counts.merge(status, count, Long::sum));
+        }
+        return counts;
+    }
+
+    public List<OrderSegment> getSegments() {
+        return Collections.unmodifiableList(segments);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+}
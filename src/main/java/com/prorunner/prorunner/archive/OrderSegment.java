@@ -0,0 +1,403 @@
+package com.prorunner.prorunner.archive;
+
+import com.prorunner.prorunner.dto.OrderDTO;
+import com.prorunner.prorunner.dto.OrderItemDTO;
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.model.OrderStatus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only, memory-mapped segment of archived orders, written by OrderSegmentWriter.
+ * <p>
+ * Orders are sorted by (userId, createdAt, id) and cut into blocks of
+ * OrderSegmentWriter.ORDERS_PER_BLOCK orders. Each block stores its orders column by column
+ * (user ids, creation times, ids, ... then the item columns and a product name dictionary) as
+ * delta and zigzag varints, deflated. The sparse index keeps the (userId, createdAt) of each
+ * block's first order and the last user id, so a user's orders cost a binary search over the
+ * in-heap index and the inflation of the one or two blocks holding them. A second, fixed-width
+ * index of (orderId, block) sorted by id answers lookups by id straight from the mapped file.
+ * <p>
+ * Layout: header, blocks, sparse index, id index. Times are microseconds since the epoch of the
+ * orders' local wall-clock time; a missing createdAt is Long.MIN_VALUE.
+ */
+public final class OrderSegment {
+
+    static final int MAGIC = 0x4F524453;
+    static final int FORMAT_VERSION = 1;
+
+    static final int INDEX_ENTRY_BYTES = 8 + 8 + 8 + 8 + 4 + 4;
+    static final int ID_ENTRY_BYTES = 8 + 4;
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long fileBytes;
+
+    private final int orderCount;
+    private final int itemCount;
+    private final long minOrderId;
+    private final long maxOrderId;
+    private final long oldestCreatedMicros;
+    private final long newestCreatedMicros;
+    private final Map<OrderStatus, Long> statusCounts = new EnumMap<>(OrderStatus.class);
+
+    // Sparse index, one entry per block
+    private final long[] firstUserIds;
+    private final long[] firstCreatedMicros;
+    private final long[] lastUserIds;
+    private final long[] blockOffsets;
+    private final int[] blockLengths;
+    private final int[] blockOrders;
+
+    private final int idIndexOffset;
+
+    private OrderSegment(Path path, MappedByteBuffer buffer, long fileBytes) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        this.fileBytes = fileBytes;
+
+        ByteBuffer header = buffer.duplicate();
+        if (header.getInt() != MAGIC) {
+            throw new IOException(path + " is not an order archive segment");
+        }
+        int version = header.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException(path + " has unsupported segment version " + version);
+        }
+        orderCount = header.getInt();
+        itemCount = header.getInt();
+        int blockCount = header.getInt();
+        minOrderId = header.getLong();
+        maxOrderId = header.getLong();
+        oldestCreatedMicros = header.getLong();
+        newestCreatedMicros = header.getLong();
+        int statusCount = header.getInt();
+        for (int i = 0; i < statusCount; i++) {
+            long count = header.getLong();
+            if (i < STATUSES.length && count > 0) {
+                statusCounts.put(STATUSES[i], count);
+            }
+        }
+        int indexOffset = (int) header.getLong();
+        idIndexOffset = (int) header.getLong();
+
+        firstUserIds = new long[blockCount];
+        firstCreatedMicros = new long[blockCount];
+        lastUserIds = new long[blockCount];
+        blockOffsets = new long[blockCount];
+        blockLengths = new int[blockCount];
+        blockOrders = new int[blockCount];
+        ByteBuffer index = buffer.duplicate().position(indexOffset);
+        for (int b = 0; b < blockCount; b++) {
+            firstUserIds[b] = index.getLong();
+            firstCreatedMicros[b] = index.getLong();
+            lastUserIds[b] = index.getLong();
+            blockOffsets[b] = index.getLong();
+            blockLengths[b] = index.getInt();
+            blockOrders[b] = index.getInt();
+        }
+    }
+
+    public static OrderSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(path + " is larger than a segment can be");
+            }
+            // The mapping stays valid after the channel is closed
+            return new OrderSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, size), size);
+        }
+    }
+
+    // The user's orders in this segment, newest first
+    public List<OrderDTO> findByUser(long userId) {
+        List<OrderDTO> orders = new ArrayList<>();
+        // Last block starting before (userId, earliest time): its tail may hold the user's first orders
+        int block = lastBlockBefore(userId, Long.MIN_VALUE);
+        for (int b = Math.max(block, 0); b < firstUserIds.length && firstUserIds[b] <= userId; b++) {
+            if (lastUserIds[b] < userId) {
+                continue;
+            }
+            Block decoded = decode(b);
+            for (int row = 0; row < decoded.orders; row++) {
+                if (decoded.userIds[row] == userId) {
+                    orders.add(decoded.toDTO(row));
+                }
+            }
+        }
+        Collections.reverse(orders);
+        return orders;
+    }
+
+    public Optional<OrderDTO> findById(long orderId) {
+        int block = blockOf(orderId);
+        if (block < 0) {
+            return Optional.empty();
+        }
+        Block decoded = decode(block);
+        for (int row = 0; row < decoded.orders; row++) {
+            if (decoded.orderIds[row] == orderId) {
+                return Optional.of(decoded.toDTO(row));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public boolean contains(long orderId) {
+        return blockOf(orderId) >= 0;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public int getBlockCount() {
+        return blockOffsets.length;
+    }
+
+    public long getMinOrderId() {
+        return minOrderId;
+    }
+
+    public long getMaxOrderId() {
+        return maxOrderId;
+    }
+
+    public LocalDateTime getOldestCreatedAt() {
+        return fromMicros(oldestCreatedMicros);
+    }
+
+    public LocalDateTime getNewestCreatedAt() {
+        return fromMicros(newestCreatedMicros);
+    }
+
+    public Map<OrderStatus, Long> getStatusCounts() {
+        return Collections.unmodifiableMap(statusCounts);
+    }
+
+    static long toMicros(LocalDateTime time) {
+        if (time == null) {
+            return Long.MIN_VALUE;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        if (micros == Long.MIN_VALUE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000,
+                ZoneOffset.UTC);
+    }
+
+    private int lastBlockBefore(long userId, long createdMicros) {
+        int low = 0;
+        int high = firstUserIds.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            boolean before = firstUserIds[mid] < userId
+                    || (firstUserIds[mid] == userId && firstCreatedMicros[mid] < createdMicros);
+            if (before) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    // Block holding the order, -1 when the segment does not have it
+    private int blockOf(long orderId) {
+        if (orderId < minOrderId || orderId > maxOrderId) {
+            return -1;
+        }
+        int low = 0;
+        int high = orderCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long id = buffer.getLong(idIndexOffset + mid * ID_ENTRY_BYTES);
+            if (id < orderId) {
+                low = mid + 1;
+            } else if (id > orderId) {
+                high = mid - 1;
+            } else {
+                return buffer.getInt(idIndexOffset + mid * ID_ENTRY_BYTES + 8);
+            }
+        }
+        return -1;
+    }
+
+    private Block decode(int block) {
+        ByteBuffer compressed = buffer.slice((int) blockOffsets[block], blockLengths[block]);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] bytes = new byte[Math.max(1024, blockOrders[block] * 128)];
+            int size = 0;
+            while (!inflater.finished()) {
+                if (size == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                int inflated = inflater.inflate(bytes, size, bytes.length - size);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated block " + block + " in " + path);
+                }
+                size += inflated;
+            }
+            return new Block(new BlockDecoder(bytes));
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt block " + block + " in " + path + ": " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // One inflated block, column by column
+    private static final class Block {
+
+        private final int orders;
+        private final long[] userIds;
+        private final long[] createdMicros;
+        private final long[] orderIds;
+        private final long[] addressIds;
+        private final int[] statuses;
+        private final long[] statusUpdatedMicros;
+        private final long[] totalMinor;
+        private final int[] firstItem;
+
+        private final long[] itemIds;
+        private final long[] productIds;
+        private final int[] quantities;
+        private final long[] unitPriceMinor;
+        private final long[] discountMinor;
+        private final long[] subtotalMinor;
+        private final long[] promotionIds;
+        private final String[] productNames;
+
+        private Block(BlockDecoder in) {
+            orders = (int) in.getVarLong();
+            int items = (int) in.getVarLong();
+            userIds = deltas(in, orders);
+            createdMicros = deltas(in, orders);
+            orderIds = deltas(in, orders);
+            addressIds = deltas(in, orders);
+            statuses = new int[orders];
+            for (int i = 0; i < orders; i++) {
+                statuses[i] = in.getByte();
+            }
+            statusUpdatedMicros = new long[orders];
+            for (int i = 0; i < orders; i++) {
+                // Offset from createdAt, shifted by one so 0 can mark a missing time
+                long encoded = in.getVarLong();
+                statusUpdatedMicros[i] = encoded == 0 ? Long.MIN_VALUE : createdMicros[i] + BlockDecoder.unZigZag(encoded - 1);
+            }
+            totalMinor = new long[orders];
+            for (int i = 0; i < orders; i++) {
+                totalMinor[i] = in.getZigZag();
+            }
+            firstItem = new int[orders + 1];
+            for (int i = 0; i < orders; i++) {
+                firstItem[i + 1] = firstItem[i] + (int) in.getVarLong();
+            }
+
+            itemIds = deltas(in, items);
+            productIds = deltas(in, items);
+            quantities = new int[items];
+            for (int i = 0; i < items; i++) {
+                quantities[i] = (int) in.getZigZag();
+            }
+            unitPriceMinor = values(in, items);
+            discountMinor = values(in, items);
+            subtotalMinor = values(in, items);
+            promotionIds = new long[items];
+            for (int i = 0; i < items; i++) {
+                promotionIds[i] = in.getVarLong();
+            }
+            String[] dictionary = new String[(int) in.getVarLong()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = in.getString();
+            }
+            productNames = new String[items];
+            for (int i = 0; i < items; i++) {
+                int entry = (int) in.getVarLong();
+                productNames[i] = entry == 0 ? null : dictionary[entry - 1];
+            }
+        }
+
+        private OrderDTO toDTO(int row) {
+            OrderDTO order = new OrderDTO();
+            order.setId(orderIds[row]);
+            order.setUserId(userIds[row]);
+            order.setShippingAddressId(addressIds[row]);
+            order.setCreatedAt(fromMicros(createdMicros[row]));
+            order.setStatus(STATUSES[statuses[row]]);
+            order.setStatusUpdatedAt(fromMicros(statusUpdatedMicros[row]));
+            order.setTotalPrice(Money.ofMinor(totalMinor[row]));
+            List<OrderItemDTO> items = new ArrayList<>(firstItem[row + 1] - firstItem[row]);
+            for (int i = firstItem[row]; i < firstItem[row + 1]; i++) {
+                OrderItemDTO item = new OrderItemDTO();
+                item.setId(itemIds[i]);
+                item.setProductId(productIds[i]);
+                item.setProductName(productNames[i]);
+                item.setQuantity(quantities[i]);
+                item.setUnitPrice(Money.ofMinor(unitPriceMinor[i]));
+                item.setDiscount(Money.ofMinor(discountMinor[i]));
+                item.setSubtotal(Money.ofMinor(subtotalMinor[i]));
+                item.setPromotionId(promotionIds[i] == 0 ? null : promotionIds[i]);
+                items.add(item);
+            }
+            order.setOrderItems(items);
+            return order;
+        }
+
+        private static long[] deltas(BlockDecoder in, int count) {
+            long[] values = new long[count];
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                previous += in.getZigZag();
+                values[i] = previous;
+            }
+            return values;
+        }
+
+        private static long[] values(BlockDecoder in, int count) {
+            long[] values = new long[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = in.getZigZag();
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.prorunner.prorunner.archive;
+
+import com.prorunner.prorunner.dto.OrderDTO;
+import com.prorunner.prorunner.dto.OrderItemDTO;
+import com.prorunner.prorunner.model.OrderStatus;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a list of orders as an OrderSegment file (see there for the layout). The file is
+ * written next to the target, synced and moved into place, so a segment is either complete or
+ * absent.
+ */
+public final class OrderSegmentWriter {
+
+    public static final int ORDERS_PER_BLOCK = 512;
+
+    private static final Comparator<OrderDTO> SEGMENT_ORDER = Comparator
+            .comparingLong((OrderDTO order) -> order.getUserId())
+            .thenComparingLong(order -> OrderSegment.toMicros(order.getCreatedAt()))
+            .thenComparingLong(OrderDTO::getId);
+
+    private OrderSegmentWriter() {
+    }
+
+    public static OrderSegment write(Path target, List<OrderDTO> orders) throws IOException {
+        if (orders.isEmpty()) {
+            throw new IllegalArgumentException("A segment needs at least one order");
+        }
+        List<OrderDTO> sorted = new ArrayList<>(orders);
+        sorted.sort(SEGMENT_ORDER);
+
+        int blockCount = (sorted.size() + ORDERS_PER_BLOCK - 1) / ORDERS_PER_BLOCK;
+        List<byte[]> blocks = new ArrayList<>(blockCount);
+        long[] idIndex = new long[sorted.size()];
+        long[] statusCounts = new long[OrderStatus.values().length];
+        long minOrderId = Long.MAX_VALUE;
+        long maxOrderId = Long.MIN_VALUE;
+        long oldest = Long.MAX_VALUE;
+        long newest = Long.MIN_VALUE;
+        int items = 0;
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            for (int b = 0; b < blockCount; b++) {
+                int from = b * ORDERS_PER_BLOCK;
+                List<OrderDTO> block = sorted.subList(from, Math.min(from + ORDERS_PER_BLOCK, sorted.size()));
+                blocks.add(compress(deflater, encode(block)));
+                for (int row = 0; row < block.size(); row++) {
+                    OrderDTO order = block.get(row);
+                    idIndex[from + row] = order.getId();
+                    statusCounts[order.getStatus().ordinal()]++;
+                    minOrderId = Math.min(minOrderId, order.getId());
+                    maxOrderId = Math.max(maxOrderId, order.getId());
+                    if (order.getCreatedAt() != null) {
+                        long created = OrderSegment.toMicros(order.getCreatedAt());
+                        oldest = Math.min(oldest, created);
+                        newest = Math.max(newest, created);
+                    }
+                    items += order.getOrderItems().size();
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+
+        int headerBytes = 4 * 5 + 8 * 4 + 4 + 8 * statusCounts.length + 8 * 2;
+        long offset = headerBytes;
+        for (byte[] block : blocks) {
+            offset += block.length;
+        }
+        long indexOffset = offset;
+        long idIndexOffset = indexOffset + (long) blockCount * OrderSegment.INDEX_ENTRY_BYTES;
+        if (idIndexOffset + (long) sorted.size() * OrderSegment.ID_ENTRY_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many orders for one segment: " + sorted.size());
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(OrderSegment.MAGIC);
+            out.writeInt(OrderSegment.FORMAT_VERSION);
+            out.writeInt(sorted.size());
+            out.writeInt(items);
+            out.writeInt(blockCount);
+            out.writeLong(minOrderId);
+            out.writeLong(maxOrderId);
+            out.writeLong(oldest == Long.MAX_VALUE ? Long.MIN_VALUE : oldest);
+            out.writeLong(newest);
+            out.writeInt(statusCounts.length);
+            for (long count : statusCounts) {
+                out.writeLong(count);
+            }
+            out.writeLong(indexOffset);
+            out.writeLong(idIndexOffset);
+            for (byte[] block : blocks) {
+                out.write(block);
+            }
+
+            long blockOffset = headerBytes;
+            for (int b = 0; b < blockCount; b++) {
+                OrderDTO first = sorted.get(b * ORDERS_PER_BLOCK);
+                OrderDTO last = sorted.get(Math.min((b + 1) * ORDERS_PER_BLOCK, sorted.size()) - 1);
+                out.writeLong(first.getUserId());
+                out.writeLong(OrderSegment.toMicros(first.getCreatedAt()));
+                out.writeLong(last.getUserId());
+                out.writeLong(blockOffset);
+                out.writeInt(blocks.get(b).length);
+                out.writeInt(Math.min(ORDERS_PER_BLOCK, sorted.size() - b * ORDERS_PER_BLOCK));
+                blockOffset += blocks.get(b).length;
+            }
+
+            int[] byId = IntStream.range(0, sorted.size()).boxed()
+                    .sorted(Comparator.comparingLong(row -> idIndex[row]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            for (int row : byId) {
+                out.writeLong(idIndex[row]);
+                out.writeInt(row / ORDERS_PER_BLOCK);
+            }
+            out.flush();
+            file.getChannel().force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return OrderSegment.open(target);
+    }
+
+    private static BlockEncoder encode(List<OrderDTO> orders) {
+        BlockEncoder out = new BlockEncoder();
+        List<OrderItemDTO> items = new ArrayList<>();
+        for (OrderDTO order : orders) {
+            items.addAll(order.getOrderItems());
+        }
+        out.putVarLong(orders.size());
+        out.putVarLong(items.size());
+
+        putDeltas(out, orders, OrderDTO::getUserId);
+        long previous = 0;
+        for (OrderDTO order : orders) {
+            long created = OrderSegment.toMicros(order.getCreatedAt());
+            out.putZigZag(created - previous);
+            previous = created;
+        }
+        putDeltas(out, orders, OrderDTO::getId);
+        putDeltas(out, orders, OrderDTO::getShippingAddressId);
+        for (OrderDTO order : orders) {
+            out.putByte(order.getStatus().ordinal());
+        }
+        for (OrderDTO order : orders) {
+            if (order.getStatusUpdatedAt() == null) {
+                out.putVarLong(0);
+            } else {
+                long offset = OrderSegment.toMicros(order.getStatusUpdatedAt()) - OrderSegment.toMicros(order.getCreatedAt());
+                out.putVarLong(((offset << 1) ^ (offset >> 63)) + 1);
+            }
+        }
+        for (OrderDTO order : orders) {
+            out.putZigZag(order.getTotalPrice().getMinorUnits());
+        }
+        for (OrderDTO order : orders) {
+            out.putVarLong(order.getOrderItems().size());
+        }
+
+        putDeltas(out, items, OrderItemDTO::getId);
+        putDeltas(out, items, OrderItemDTO::getProductId);
+        for (OrderItemDTO item : items) {
+            out.putZigZag(item.getQuantity());
+        }
+        for (OrderItemDTO item : items) {
+            out.putZigZag(item.getUnitPrice().getMinorUnits());
+        }
+        for (OrderItemDTO item : items) {
+            out.putZigZag(item.getDiscount().getMinorUnits());
+        }
+        for (OrderItemDTO item : items) {
+            out.putZigZag(item.getSubtotal().getMinorUnits());
+        }
+        for (OrderItemDTO item : items) {
+            out.putVarLong(item.getPromotionId() == null ? 0 : item.getPromotionId());
+        }
+
+        // Product names once per block, referenced by position (0 = none)
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        int[] references = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            String name = items.get(i).getProductName();
+            if (name != null) {
+                references[i] = dictionary.computeIfAbsent(name, n -> {
+                    names.add(n);
+                    return names.size();
+                });
+            }
+        }
+        out.putVarLong(names.size());
+        for (String name : names) {
+            out.putString(name);
+        }
+        for (int reference : references) {
+            out.putVarLong(reference);
+        }
+        return out;
+    }
+
+    private static <T> void putDeltas(BlockEncoder out, List<T> rows, ToLongFunction<T> column) {
+        long previous = 0;
+        for (T row : rows) {
+            long value = column.applyAsLong(row);
+            out.putZigZag(value - previous);
+            previous = value;
+        }
+    }
+
+    private static byte[] compress(Deflater deflater, BlockEncoder block) {
+        deflater.reset();
+        deflater.setInput(block.bytes(), 0, block.size());
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(block.size() / 3 + 64);
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(chunk);
+            compressed.write(chunk, 0, length);
+        }
+        return compressed.toByteArray();
+    }
+}
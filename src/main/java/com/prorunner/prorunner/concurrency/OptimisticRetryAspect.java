@@ -0,0 +1,152 @@
+package com.prorunner.prorunner.concurrency;
+
+import com.prorunner.prorunner.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.JDBCException;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Retries {@link RetryOnConflict} methods a bounded number of times when a version check fails
+ * or the write loses a lock or unique-key race to a concurrent request.
+ * Ordered ahead of the transaction interceptor so every attempt runs in a fresh transaction
+ * that re-reads the rows. Conflicts are counted as prorunner.optimistic.conflicts{entity, operation},
+ * entity being the table whose version check failed, so hot rows show up per entity.
+ * Calls that run out of attempts are counted as prorunner.optimistic.exhausted and fail with a 409.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+public class OptimisticRetryAspect {
+
+    public static final String CONFLICT_METRIC = "prorunner.optimistic.conflicts";
+    public static final String EXHAUSTED_METRIC = "prorunner.optimistic.exhausted";
+
+    private static final Pattern STATEMENT_TABLE = Pattern.compile("(?i)\\b(?:update|delete\\s+from|insert\\s+into)\\s+(\\w+)\\s+(?:set|where|\\()");
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryAspect.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${prorunner.optimistic-retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${prorunner.optimistic-retry.backoff-ms:20}")
+    private long backoffMs;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Around("@annotation(com.prorunner.prorunner.concurrency.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Inside a caller's transaction a retry would reuse the failed persistence context; let the caller decide
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (RuntimeException e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                String entity = entityName(e);
+                counter(CONFLICT_METRIC, entity, operation).increment();
+                if (attempt >= maxAttempts) {
+                    counter(EXHAUSTED_METRIC, entity, operation).increment();
+                    logger.warn("{} gave up after {} conflicting attempts on {}", operation, attempt, entity);
+                    throw new ConcurrentUpdateException(
+                            "The data was changed by another request. Please retry.", e);
+                }
+                logger.debug("{} conflicted on {} (attempt {}), retrying", operation, entity, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    // Version check failures, plus what the same race looks like when it surfaces elsewhere:
+    // deadlock victims and lock timeouts, and two writers inserting the same unique row
+    private static boolean isConflict(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConcurrencyFailureException
+                    || t instanceof OptimisticLockException
+                    || t instanceof StaleStateException) {
+                return true;
+            }
+            if (t instanceof ConstraintViolationException violation
+                    && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String entityName(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ObjectOptimisticLockingFailureException objectFailure
+                    && objectFailure.getPersistentClassName() != null) {
+                // Named like the table (CartProduct -> cart_product) to match the statement branch below
+                String className = objectFailure.getPersistentClassName();
+                return className.substring(className.lastIndexOf('.') + 1)
+                        .replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+            }
+            // Batched flushes and constraint errors only report the statement, so name the table it touched
+            String statement = t instanceof JDBCException jdbcException ? jdbcException.getSQL()
+                    : t instanceof StaleStateException ? t.getMessage() : null;
+            if (statement != null) {
+                Matcher matcher = STATEMENT_TABLE.matcher(statement);
+                if (matcher.find()) {
+                    return matcher.group(1).toLowerCase(Locale.ROOT);
+                }
+            }
+        }
+        return "unknown";
+    }
+
+    // Jittered linear backoff spreads out writers that collided on the same row
+    private void backoff(int attempt) {
+        if (backoffMs <= 0) {
+            return;
+        }
+        long sleep = backoffMs * attempt + ThreadLocalRandom.current().nextLong(backoffMs);
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Interrupted while retrying a conflicting update", e);
+        }
+    }
+
+    private Counter counter(String name, String entity, String operation) {
+        return counters.computeIfAbsent(name + '|' + entity + '|' + operation, key -> Counter.builder(name)
+                .description("Optimistic locking conflicts on service writes")
+                .tag("entity", entity)
+                .tag("operation", operation)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,16 @@
+package com.prorunner.prorunner.concurrency;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs a service method when its transaction loses an optimistic version check.
+ * Only put this on methods that re-read everything they write, so running them again
+ * after a rollback is safe.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
@@ -0,0 +1,102 @@
+package com.prorunner.prorunner.config;
+
+import com.prorunner.prorunner.datasource.ReplicaDataSource;
+import com.prorunner.prorunner.datasource.ReplicaLagMonitor;
+import com.prorunner.prorunner.datasource.TransactionRoutingDataSource;
+import com.prorunner.prorunner.metrics.SqlStatsDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends the read-only transactions of {@code @ReplicaRead} methods to the replicas listed in
+ * prorunner.datasource.replica.urls. The exposed dataSource is a LazyConnectionDataSourceProxy
+ * over a TransactionRoutingDataSource, so the physical connection is picked on the first
+ * statement, once the transaction is known to be read-only. Everything else, including other
+ * read-only transactions, Flyway and JdbcTemplate writes, goes to the primary. Without replica urls this configuration is skipped and Spring Boot's
+ * single datasource is used.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "prorunner.datasource.replica", name = "urls")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaDataSource replicaDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                               DataSourceProperties properties,
+                                               Environment environment,
+                                               MeterRegistry meterRegistry) {
+        String[] urls = environment.getRequiredProperty("prorunner.datasource.replica.urls", String[].class);
+        String username = environment.getProperty("prorunner.datasource.replica.username", properties.determineUsername());
+        String password = environment.getProperty("prorunner.datasource.replica.password", properties.determinePassword());
+        int poolSize = environment.getProperty("prorunner.datasource.replica.maximum-pool-size", Integer.class, 10);
+        long connectionTimeout = environment.getProperty("prorunner.datasource.replica.connection-timeout-ms", Long.class, 1000L);
+        long slowStatementMs = environment.getProperty("prorunner.sql-stats.slow-statement-ms", Long.class, 200L);
+
+        List<ReplicaDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("prorunner-replica-" + i);
+            pool.setJdbcUrl(urls[i].trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setDriverClassName(properties.determineDriverClassName());
+            pool.setMaximumPoolSize(poolSize);
+            pool.setConnectionTimeout(connectionTimeout);
+            pool.setReadOnly(true);
+            // Replicas may be down at startup; the lag monitor keeps them out of rotation until they answer
+            pool.setInitializationFailTimeout(-1);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new ReplicaDataSource.Replica(pool.getPoolName(), new SqlStatsDataSource(pool, slowStatementMs)));
+        }
+
+        ReplicaDataSource replicaDataSource = new ReplicaDataSource(primaryDataSource, replicas);
+        for (ReplicaDataSource.Replica replica : replicas) {
+            Gauge.builder("prorunner.datasource.replica.lag", replica, ReplicaDataSource.Replica::getLagMillis)
+                    .description("Replication lag at the last check in milliseconds, -1 when unreachable")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+        FunctionCounter.builder("prorunner.datasource.replica.fallbacks", replicaDataSource, ReplicaDataSource::getFallbackCount)
+                .description("Read-only connections served by the primary because no replica was usable")
+                .register(meterRegistry);
+        return replicaDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 ReplicaDataSource replicaDataSource) {
+        return new LazyConnectionDataSourceProxy(new TransactionRoutingDataSource(primaryDataSource, replicaDataSource));
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                               ReplicaDataSource replicaDataSource,
+                                               Environment environment) {
+        long maxLagMillis = environment.getProperty("prorunner.datasource.replica.max-lag-ms", Long.class, 5000L);
+        long checkIntervalMillis = environment.getProperty("prorunner.datasource.replica.check-interval-ms", Long.class, 1000L);
+        // Replicas stay out of rotation until the first check, so early reads go to the primary
+        return new ReplicaLagMonitor(primaryDataSource, replicaDataSource, maxLagMillis, checkIntervalMillis);
+    }
+}
@@ -3,6 +3,7 @@ package com.prorunner.prorunner.config;
 import com.prorunner.prorunner.security.JwtAuthenticationFilter;
 import com.prorunner.prorunner.service.UserService;
 import com.prorunner.prorunner.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -26,15 +27,17 @@ public class SecurityConfig {
 
     private final JwtUtil jwtUtil;
     private final UserService userService;
+    private final MeterRegistry meterRegistry;
 
-    public SecurityConfig(JwtUtil jwtUtil, UserService userService) {
+    public SecurityConfig(JwtUtil jwtUtil, UserService userService, MeterRegistry meterRegistry) {
         this.jwtUtil = jwtUtil;
         this.userService = userService;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtUtil, userService);
+        return new JwtAuthenticationFilter(jwtUtil, userService, meterRegistry);
     }
 
     @Bean
@@ -54,7 +57,9 @@ public class SecurityConfig {
                                 "/swagger-ui.html",
                                 "/swagger-ui/**",
                                 "/v3/api-docs/**",
-                                "/v2/api-docs/**"
+                                "/v2/api-docs/**",
+                                "/actuator/health",
+                                "/actuator/prometheus"
                         ).permitAll()
                         .anyRequest().authenticated()
                 )
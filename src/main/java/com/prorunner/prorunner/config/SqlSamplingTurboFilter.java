@@ -0,0 +1,43 @@
+package com.prorunner.prorunner.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback turbo filter that lets through only one in every {@code sampleRate} events of the
+ * loggers under {@code loggerPrefix} (Hibernate SQL logging in the prod profile).
+ * Dropped events are denied before any layout or appender work happens.
+ */
+public class SqlSamplingTurboFilter extends TurboFilter {
+
+    private final AtomicLong counter = new AtomicLong();
+
+    private String loggerPrefix = "org.hibernate.SQL";
+
+    private int sampleRate = 100;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (format == null) {
+            // isDebugEnabled() style checks: leave the decision to the logger level
+            return FilterReply.NEUTRAL;
+        }
+        return counter.incrementAndGet() % sampleRate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+}
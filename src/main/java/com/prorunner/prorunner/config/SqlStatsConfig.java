@@ -0,0 +1,28 @@
+package com.prorunner.prorunner.config;
+
+import com.prorunner.prorunner.metrics.SqlStatsDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class SqlStatsConfig {
+
+    // Wraps each connection pool (the primary one when read replicas are configured).
+    // Static so the post processor is registered before the datasource is created
+    @Bean
+    public static BeanPostProcessor sqlStatsDataSourcePostProcessor(Environment environment) {
+        long slowStatementMs = environment.getProperty("prorunner.sql-stats.slow-statement-ms", Long.class, 200L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool) {
+                    return new SqlStatsDataSource(pool, slowStatementMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,10 +1,30 @@
 package com.prorunner.prorunner.controller;
 
+import com.prorunner.prorunner.dto.CartJanitorReportDTO;
+import com.prorunner.prorunner.dto.EndpointSqlStatsDTO;
+import com.prorunner.prorunner.dto.OrderArchiveReportDTO;
+import com.prorunner.prorunner.dto.OrderArchiveSegmentDTO;
+import com.prorunner.prorunner.dto.OrderStatusTransitionDTO;
+import com.prorunner.prorunner.dto.OrderStatusTransitionResultDTO;
+import com.prorunner.prorunner.dto.PoolDiagnosticsDTO;
+import com.prorunner.prorunner.dto.RecommendationStatusDTO;
+import com.prorunner.prorunner.dto.SalesAnalyticsStatusDTO;
+import com.prorunner.prorunner.dto.SalesPeriodDTO;
+import com.prorunner.prorunner.dto.SalesRankingDTO;
 import com.prorunner.prorunner.dto.UserRegistrationDTO;
 import com.prorunner.prorunner.exception.EmailAlreadyExistsException;
 import com.prorunner.prorunner.exception.UserNotFoundException;
 import com.prorunner.prorunner.exception.UsernameAlreadyExistsException;
+import com.prorunner.prorunner.analytics.SalesDimension;
+import com.prorunner.prorunner.metrics.PoolDiagnostics;
+import com.prorunner.prorunner.metrics.SqlEndpointStatsRegistry;
+import com.prorunner.prorunner.model.OrderStatus;
 import com.prorunner.prorunner.model.User;
+import com.prorunner.prorunner.service.CartJanitorService;
+import com.prorunner.prorunner.service.OrderArchiveService;
+import com.prorunner.prorunner.service.OrderStatusService;
+import com.prorunner.prorunner.service.RecommendationService;
+import com.prorunner.prorunner.service.SalesAnalyticsService;
 import com.prorunner.prorunner.service.SecurityService;
 import com.prorunner.prorunner.service.UserService;
 import com.prorunner.prorunner.util.StandardResponse;
@@ -23,6 +43,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @RestController
@@ -35,6 +56,27 @@ public class AdminController {
     @Autowired
     private SecurityService securityService;
 
+    @Autowired
+    private SqlEndpointStatsRegistry sqlEndpointStatsRegistry;
+
+    @Autowired
+    private PoolDiagnostics poolDiagnostics;
+
+    @Autowired
+    private CartJanitorService cartJanitorService;
+
+    @Autowired
+    private OrderStatusService orderStatusService;
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
     private final List<String> adminLogs = new ArrayList<>();
 
     @PostMapping("/register")
@@ -201,7 +243,201 @@ public class AdminController {
         return ResponseEntity.ok(new StandardResponse<>("Logs fetched successfully", paginatedLogs));
     }
 
+    // Endpoints with the highest SQL cost per request since startup (or the last reset)
+    @GetMapping("/sql-stats")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Slow endpoint report", description = "Top endpoints by average duration, SQL time or statement count")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Report fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid orderBy value")
+    })
+    public ResponseEntity<StandardResponse<List<EndpointSqlStatsDTO>>> getSqlStats(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "duration") String orderBy) {
+        return ResponseEntity.ok(new StandardResponse<>("SQL statistics fetched successfully",
+                sqlEndpointStatsRegistry.top(limit, orderBy)));
+    }
+
+    @DeleteMapping("/sql-stats")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Reset slow endpoint report", description = "Clears the collected per-endpoint SQL statistics")
+    public ResponseEntity<StandardResponse<String>> resetSqlStats() {
+        sqlEndpointStatsRegistry.reset();
+        return ResponseEntity.ok(new StandardResponse<>("SQL statistics reset", null));
+    }
+
+    // Pool state plus the endpoints with the longest connection hold (or wait) times
+    @GetMapping("/db-pool")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Connection pool diagnostics", description = "Pool usage and per-endpoint connection wait and hold times")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Diagnostics fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid orderBy value")
+    })
+    public ResponseEntity<StandardResponse<PoolDiagnosticsDTO>> getPoolDiagnostics(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "connectionHold") String orderBy) {
+        return ResponseEntity.ok(new StandardResponse<>("Pool diagnostics fetched successfully",
+                poolDiagnostics.snapshot(limit, orderBy)));
+    }
+
+    // Outcome of the last guest cart janitor run (scheduled or manual)
+    @GetMapping("/cart-janitor")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Cart janitor report", description = "Rows reclaimed by the last idle guest cart cleanup")
+    public ResponseEntity<StandardResponse<CartJanitorReportDTO>> getCartJanitorReport() {
+        CartJanitorReportDTO report = cartJanitorService.getLastReport();
+        return ResponseEntity.ok(new StandardResponse<>(
+                report == null ? "Cart janitor has not run yet" : "Cart janitor report fetched successfully", report));
+    }
+
+    @PostMapping("/cart-janitor/run")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Run cart janitor", description = "Deletes idle guest carts now and releases their reserved stock")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Cart janitor run completed"),
+            @ApiResponse(responseCode = "400", description = "Cart janitor is already running")
+    })
+    public ResponseEntity<StandardResponse<CartJanitorReportDTO>> runCartJanitor() {
+        return ResponseEntity.ok(new StandardResponse<>("Cart janitor run completed", cartJanitorService.run()));
+    }
+
+    // Orders that are missing or not in a status that allows the move are reported, not failed
+    @PostMapping("/orders/status")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Bulk order status transition", description = "Moves the given orders to a status, " +
+            "following PLACED -> PAID -> PICKED -> SHIPPED -> DELIVERED, with CANCELLED allowed before shipping; " +
+            "cancelled orders return their items to product stock")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transition applied"),
+            @ApiResponse(responseCode = "400", description = "Missing status or order ids, or too many orders")
+    })
+    public ResponseEntity<StandardResponse<OrderStatusTransitionResultDTO>> transitionOrders(
+            @RequestBody OrderStatusTransitionDTO request) {
+        OrderStatusTransitionResultDTO result = orderStatusService.transition(request.getOrderIds(), request.getStatus());
+        return ResponseEntity.ok(new StandardResponse<>("Order status transition applied", result));
+    }
+
+    @GetMapping("/orders/status-counts")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Order counts per status", description = "Maintained counters, no scan of the orders table")
+    public ResponseEntity<StandardResponse<Map<OrderStatus, Long>>> getOrderStatusCounts() {
+        return ResponseEntity.ok(new StandardResponse<>("Order status counts fetched successfully",
+                orderStatusService.getStatusCounts()));
+    }
+
+    @PostMapping("/orders/status-counts/reconcile")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Recount orders per status", description = "Rebuilds the maintained counters from the orders table")
+    public ResponseEntity<StandardResponse<Map<OrderStatus, Long>>> reconcileOrderStatusCounts() {
+        return ResponseEntity.ok(new StandardResponse<>("Order status counts reconciled",
+                orderStatusService.reconcileCounts()));
+    }
+
+    @GetMapping("/order-archive")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Order archive report", description = "Orders moved into archive segments by the last archive run")
+    public ResponseEntity<StandardResponse<OrderArchiveReportDTO>> getOrderArchiveReport() {
+        OrderArchiveReportDTO report = orderArchiveService.getLastReport();
+        return ResponseEntity.ok(new StandardResponse<>(
+                report == null ? "Order archive has not run yet" : "Order archive report fetched successfully", report));
+    }
+
+    @PostMapping("/order-archive/run")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Archive old orders now", description = "Moves delivered and cancelled orders past the minimum age into archive segments")
+    public ResponseEntity<StandardResponse<OrderArchiveReportDTO>> runOrderArchive() {
+        return ResponseEntity.ok(new StandardResponse<>("Order archive run completed", orderArchiveService.run()));
+    }
+
+    @GetMapping("/order-archive/segments")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Order archive segments", description = "Segment files with their order counts, id and date ranges")
+    public ResponseEntity<StandardResponse<List<OrderArchiveSegmentDTO>>> getOrderArchiveSegments() {
+        return ResponseEntity.ok(new StandardResponse<>("Order archive segments fetched successfully",
+                orderArchiveService.getSegments()));
+    }
+
+
+    // Sales rollups: window is minute, hour or day, periods how many of them back from now (1 = the current one)
+    @GetMapping("/analytics/top-products")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Top selling products", description = "Best sellers by units or revenue over the last periods of a window, e.g. today = window=day&periods=1")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Ranking fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid window, periods, limit or by")
+    })
+    public ResponseEntity<StandardResponse<List<SalesRankingDTO>>> getTopProducts(
+            @RequestParam(defaultValue = "day") String window,
+            @RequestParam(defaultValue = "1") int periods,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "units") String by) {
+        return ResponseEntity.ok(new StandardResponse<>("Top products fetched successfully",
+                salesAnalyticsService.getTopProducts(window, periods, limit, by)));
+    }
 
+    @GetMapping("/analytics/categories")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Sales per category", description = "Units and revenue per category over the last periods of a window")
+    public ResponseEntity<StandardResponse<List<SalesRankingDTO>>> getCategorySales(
+            @RequestParam(defaultValue = "day") String window,
+            @RequestParam(defaultValue = "1") int periods,
+            @RequestParam(defaultValue = "units") String by) {
+        return ResponseEntity.ok(new StandardResponse<>("Category sales fetched successfully",
+                salesAnalyticsService.getRanking(SalesDimension.CATEGORY, window, periods, by)));
+    }
+
+    @GetMapping("/analytics/genders")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Sales per gender", description = "Units and revenue per gender over the last periods of a window")
+    public ResponseEntity<StandardResponse<List<SalesRankingDTO>>> getGenderSales(
+            @RequestParam(defaultValue = "day") String window,
+            @RequestParam(defaultValue = "1") int periods,
+            @RequestParam(defaultValue = "units") String by) {
+        return ResponseEntity.ok(new StandardResponse<>("Gender sales fetched successfully",
+                salesAnalyticsService.getRanking(SalesDimension.GENDER, window, periods, by)));
+    }
+
+    @GetMapping("/analytics/sales")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Sales over time", description = "Orders, units and revenue per period, oldest first")
+    public ResponseEntity<StandardResponse<List<SalesPeriodDTO>>> getSalesSeries(
+            @RequestParam(defaultValue = "hour") String window,
+            @RequestParam(defaultValue = "24") int periods) {
+        return ResponseEntity.ok(new StandardResponse<>("Sales fetched successfully",
+                salesAnalyticsService.getSeries(window, periods)));
+    }
+
+    @GetMapping("/analytics/status")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Sales rollup status", description = "Orders folded and the last checkpoint")
+    public ResponseEntity<StandardResponse<SalesAnalyticsStatusDTO>> getAnalyticsStatus() {
+        return ResponseEntity.ok(new StandardResponse<>("Sales rollup status fetched successfully",
+                salesAnalyticsService.getStatus()));
+    }
+
+    @PostMapping("/analytics/checkpoint")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Checkpoint sales rollups", description = "Writes the sales rollups to the checkpoint file now")
+    public ResponseEntity<StandardResponse<SalesAnalyticsStatusDTO>> checkpointAnalytics() {
+        return ResponseEntity.ok(new StandardResponse<>("Sales rollups checkpointed",
+                salesAnalyticsService.checkpoint()));
+    }
+
+    @GetMapping("/recommendations/status")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Recommendation status", description = "Co-occurrence matrix size and the last rebuild")
+    public ResponseEntity<StandardResponse<RecommendationStatusDTO>> getRecommendationStatus() {
+        return ResponseEntity.ok(new StandardResponse<>("Recommendation status fetched successfully",
+                recommendationService.getStatus()));
+    }
+
+    @PostMapping("/recommendations/rebuild")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Rebuild recommendations", description = "Recounts all orders and wishlists and recomputes every product's neighbors")
+    public ResponseEntity<StandardResponse<RecommendationStatusDTO>> rebuildRecommendations() {
+        return ResponseEntity.ok(new StandardResponse<>("Recommendations rebuilt", recommendationService.rebuild()));
+    }
 
 }
 
@@ -2,6 +2,7 @@ package com.prorunner.prorunner.controller;
 
 import com.prorunner.prorunner.dto.CartDTO;
 import com.prorunner.prorunner.dto.CartProductDTO;
+import com.prorunner.prorunner.exception.ConcurrentUpdateException;
 import com.prorunner.prorunner.service.CartService;
 import com.prorunner.prorunner.util.StandardResponse;
 import io.swagger.v3.oas.annotations.Operation;
@@ -40,7 +41,7 @@ public class CartController {
                                                      @RequestParam(defaultValue = "0") int page,
                                                      @RequestParam(defaultValue = "10") int size){
         try {
-            logger.info("Fetching cart with ID: {}", cartId);
+            logger.debug("Fetching cart with ID: {}", cartId);
             CartDTO cartDTO = cartService.getCartById(cartId);
             return ResponseEntity.ok(new StandardResponse<>("Cart fetched successfully", cartDTO));
         } catch (Exception e) {
@@ -57,6 +58,7 @@ public class CartController {
             "specifying cart ID, user ID, product ID, and quantity.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Product added to cart successfully"),
+            @ApiResponse(responseCode = "409", description = "Concurrent update, retry the request"),
             @ApiResponse(responseCode = "400", description = "Error adding product to cart")
     })
     @PostMapping("/add")
@@ -67,14 +69,17 @@ public class CartController {
                                                                       @RequestParam(name = "productId") Long productId,
                                                                       @RequestParam(name = "quantity") int quantity){
         try {
-            System.out.println("Received request: sessionId = " + sessionId + ", userId = " + userId +
-                    ", productId = " + productId + ", quantity = " + quantity);
-            logger.info("Adding product {} with quantity {} to cart", productId, quantity);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Adding product {} with quantity {} to cart (sessionId: {}, userId: {})",
+                        productId, quantity, sessionId, userId);
+            }
             if((sessionId == null || sessionId.isEmpty()) && userId == null){
                 throw new IllegalArgumentException("Either sessionId or userId must be provide...");
             }
             CartDTO updatedCart = cartService.addProductToCart(sessionId, userId, productId, quantity);
             return ResponseEntity.ok(new StandardResponse<>("Product added to cart successfully", updatedCart));
+        } catch (ConcurrentUpdateException e) {
+            throw e; // answered with 409 by GlobalExceptionHandler, not by the catch-all below
         } catch (IllegalArgumentException e) {
             logger.error("Invalid input: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(new StandardResponse<>(e.getMessage(), null));
@@ -91,6 +96,7 @@ public class CartController {
     @Operation(summary = "Remove a product from the cart", description = "Remove a specific product from the cart.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Product removed from the cart successfully"),
+            @ApiResponse(responseCode = "409", description = "Concurrent update, retry the request"),
             @ApiResponse(responseCode = "404", description = "Cart or Product not found")
     })
     @DeleteMapping("/remove/{productId}")
@@ -102,9 +108,11 @@ public class CartController {
             if((sessionId == null || sessionId.isEmpty()) && userId == null){
                 throw new IllegalArgumentException("Either sessionId or userId must be provided");
             }
-            logger.info("Removing product {} from cart {}", productId, userId);
+            logger.debug("Removing product {} from cart {}", productId, userId);
             CartDTO updatedCart = cartService.removeProductFromCart(sessionId, userId, productId);
             return ResponseEntity.ok(new StandardResponse<>("Product removed from the cart successfully", updatedCart));
+        } catch (ConcurrentUpdateException e) {
+            throw e; // answered with 409 by GlobalExceptionHandler, not by the catch-all below
         } catch (RuntimeException e) {
             logger.error("Error removing product from cart: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -122,6 +130,7 @@ public class CartController {
     @Operation(summary = "Update product quantity in the cart")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Product quantity updated successfully"),
+            @ApiResponse(responseCode = "409", description = "Concurrent update, retry the request"),
             @ApiResponse(responseCode = "404", description = "Cart or Product not found"),
             @ApiResponse(responseCode = "400", description = "Invalid input")
     })
@@ -133,13 +142,15 @@ public class CartController {
             @PathVariable Long productId,
             @RequestParam boolean increment){
         try {
-            logger.info("Received request to update the quantity for product with ID :{} with increment: {}",productId, increment);
+            logger.debug("Received request to update the quantity for product with ID :{} with increment: {}",productId, increment);
             if((sessionId == null || sessionId.isEmpty()) && userId == null){
                 throw new IllegalArgumentException("Either sessionId or userId must be provided");
             }
             CartDTO updatedCart = cartService.addProductQuantity(sessionId, userId, productId, increment);
             String action = increment ? "incremented":"decremented";
             return ResponseEntity.ok(new StandardResponse<>("Product Quantity "+action+" successfully",updatedCart));
+        } catch (ConcurrentUpdateException e) {
+            throw e; // answered with 409 by GlobalExceptionHandler, not by the catch-all below
         } catch (IllegalArgumentException e){
             logger.error("Invalid input: {}", e.getMessage(),e);
             return ResponseEntity.badRequest().body(new StandardResponse<>(e.getMessage(),null));
@@ -157,6 +168,7 @@ public class CartController {
     @Operation(summary = "Clear the cart", description = "Remove all items from the cart and reset the total price.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Cart cleared successfully"),
+            @ApiResponse(responseCode = "409", description = "Concurrent update, retry the request"),
             @ApiResponse(responseCode = "400", description = "Error clearing cart"),
             @ApiResponse(responseCode = "404", description = "Cart not found")
     })
@@ -167,6 +179,8 @@ public class CartController {
             logger.info("Clearing cart with ID: {}", cartId);
             CartDTO clearedCart = cartService.clearCart(cartId);
             return ResponseEntity.ok(new StandardResponse<>("Cart cleared successfully", clearedCart));
+        } catch (ConcurrentUpdateException e) {
+            throw e; // answered with 409 by GlobalExceptionHandler, not by the catch-all below
         } catch (RuntimeException e) {
             logger.error("Error clearing the cart: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -188,7 +202,7 @@ public class CartController {
     @PreAuthorize("hasAuthority('ADMIN') or @securityService.isCartOwner(#cartId)")
     public ResponseEntity<StandardResponse<Integer>> getCartProductCount(@PathVariable Long cartId) {
         try {
-            logger.info("Fetching product count for cart ID: {}", cartId);
+            logger.debug("Fetching product count for cart ID: {}", cartId);
             int productCount = cartService.getCartProductCount(cartId);
             return ResponseEntity.ok(new StandardResponse<>("Product count fetched successfully", productCount));
         } catch (RuntimeException e) {
@@ -208,7 +222,7 @@ public class CartController {
     @PreAuthorize("hasAuthority('ADMIN') or @securityService.isCartOwner(#cartId)")
     public ResponseEntity<StandardResponse<List<CartProductDTO>>> getCartProducts(@PathVariable Long cartId) {
         try {
-            logger.info("Fetching all products in cart ID: {}", cartId);
+            logger.debug("Fetching all products in cart ID: {}", cartId);
             List<CartProductDTO> cartProducts = cartService.getCartProducts(cartId);
             return ResponseEntity.ok(new StandardResponse<>("Products fetched successfully", cartProducts));
         } catch (RuntimeException e) {
@@ -250,7 +264,7 @@ public class CartController {
             @PathVariable(required = false) String sessionId,
             @PathVariable(required = false) Long userId) {
         try {
-            logger.info("Fetching or creating cart for user ID: {}", userId);
+            logger.debug("Fetching or creating cart for user ID: {}", userId);
             CartDTO cartDTO = cartService.getOrCreateCart(sessionId,userId);
             return ResponseEntity.ok(new StandardResponse<>("Cart fetched or created successfully", cartDTO));
         } catch (RuntimeException e) {
@@ -263,7 +277,7 @@ public class CartController {
     @GetMapping("/session/{sessionId}")
     public ResponseEntity<StandardResponse<CartDTO>> getOrCreateGuestCart(@PathVariable String sessionId) {
         try {
-            logger.info("Fetching or creating cart for session ID: {}", sessionId);
+            logger.debug("Fetching or creating cart for session ID: {}", sessionId);
             CartDTO cartDTO = cartService.getOrCreateCart(sessionId, null); // userId is null for guest cart
             return ResponseEntity.ok(new StandardResponse<>("Cart fetched or created successfully", cartDTO));
         } catch (RuntimeException e) {
@@ -281,6 +295,7 @@ public class CartController {
     @Operation(summary = "Merge two carts")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Carts merged successfully"),
+            @ApiResponse(responseCode = "409", description = "Concurrent update, retry the request"),
             @ApiResponse(responseCode = "404", description = "One or both carts not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
@@ -290,9 +305,11 @@ public class CartController {
             @RequestParam String guestSessionId,
             @RequestParam Long userId) {
         try {
-            logger.info("Merging guest cart with session ID: {} into user cart for user ID: {}", guestSessionId, userId);
+            logger.debug("Merging guest cart with session ID: {} into user cart for user ID: {}", guestSessionId, userId);
             CartDTO updatedCart = cartService.mergeCarts(guestSessionId, userId);
             return ResponseEntity.ok(new StandardResponse<>("Carts merged successfully", updatedCart));
+        } catch (ConcurrentUpdateException e) {
+            throw e; // answered with 409 by GlobalExceptionHandler, not by the catch-all below
         } catch (RuntimeException e) {
             logger.error("Error merging carts: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
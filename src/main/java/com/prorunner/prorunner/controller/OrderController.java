@@ -1,6 +1,7 @@
 package com.prorunner.prorunner.controller;
 
 import com.prorunner.prorunner.dto.OrderDTO;
+import com.prorunner.prorunner.exception.ConcurrentUpdateException;
 import com.prorunner.prorunner.service.OrderService;
 import com.prorunner.prorunner.util.StandardResponse;
 import io.swagger.v3.oas.annotations.Operation;
@@ -24,6 +25,7 @@ public class OrderController {
     @Operation(summary = "Place an order", description = "Place an order for a given cart and user.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Order placed successfully"),
+            @ApiResponse(responseCode = "409", description = "Concurrent update, retry the request"),
             @ApiResponse(responseCode = "400", description = "Invalid request or error placing order")
     })
     @PostMapping("/{cartId}")
@@ -34,6 +36,8 @@ public class OrderController {
         try {
             OrderDTO order = orderService.placeOrder(cartId,userId,addressId);
             return ResponseEntity.ok(new StandardResponse<>("Order placed successfully", order));
+        } catch (ConcurrentUpdateException e) {
+            throw e; // answered with 409 by GlobalExceptionHandler, not by the catch-all below
         } catch (Exception e){
             return ResponseEntity.badRequest().body(new StandardResponse<>(e.getMessage(), null));
         }
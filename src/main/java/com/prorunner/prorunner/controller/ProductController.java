@@ -1,18 +1,37 @@
 package com.prorunner.prorunner.controller;
 
+import com.prorunner.prorunner.dto.NavigationTreeDTO;
 import com.prorunner.prorunner.dto.ProductDTO;
+import com.prorunner.prorunner.dto.ProductImportReportDTO;
+import com.prorunner.prorunner.dto.ProductRecommendationDTO;
+import com.prorunner.prorunner.dto.ProductRetirementJobDTO;
+import com.prorunner.prorunner.dto.StockSyncResultDTO;
+import com.prorunner.prorunner.dto.StockUpdateDTO;
+import com.prorunner.prorunner.exception.ConcurrentUpdateException;
 import com.prorunner.prorunner.service.CartService;
+import com.prorunner.prorunner.service.CatalogVersionService;
+import com.prorunner.prorunner.service.NavigationService;
+import com.prorunner.prorunner.service.ProductImportService;
+import com.prorunner.prorunner.service.ProductRetirementService;
+import com.prorunner.prorunner.service.RecommendationService;
+import com.prorunner.prorunner.service.StockSyncService;
 import com.prorunner.prorunner.util.StandardResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import com.prorunner.prorunner.service.ProductService;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -30,6 +49,39 @@ public class ProductController {
     @Autowired
     private CartService cartService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private StockSyncService stockSyncService;
+
+    @Autowired
+    private ProductRetirementService productRetirementService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private NavigationService navigationService;
+
+    // Cache-Control per endpoint: browsers keep catalog responses for max-age, shared caches
+    // (CDN) for s-maxage, and both revalidate with the catalog ETag afterwards
+    private final CacheControl productCacheControl;
+    private final CacheControl catalogCacheControl;
+
+    public ProductController(
+            @Value("${prorunner.http-cache.product.max-age-seconds:60}") long productMaxAge,
+            @Value("${prorunner.http-cache.catalog.max-age-seconds:30}") long catalogMaxAge,
+            @Value("${prorunner.http-cache.shared-max-age-seconds:300}") long sharedMaxAge) {
+        this.productCacheControl = CacheControl.maxAge(Duration.ofSeconds(productMaxAge))
+                .sMaxAge(Duration.ofSeconds(sharedMaxAge)).cachePublic();
+        this.catalogCacheControl = CacheControl.maxAge(Duration.ofSeconds(catalogMaxAge))
+                .sMaxAge(Duration.ofSeconds(sharedMaxAge)).cachePublic();
+    }
+
     //private static final log log = logFactory.getlog(ProductController.class);
 
 
@@ -53,14 +105,19 @@ public class ProductController {
             @RequestParam(required = false) Boolean availability,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int pageSize,
-            @RequestParam(defaultValue = "id") String sortBy
+            @RequestParam(defaultValue = "id") String sortBy,
+            WebRequest request
     ) {
+        String etag = catalogVersionService.etag();
+        if (request.checkNotModified(etag)) {
+            return notModified(etag, catalogCacheControl);
+        }
         try {
-            log.info("Fetching products with filters and pagination");
-            log.debug("Fetching products with filters and pagination in debug");
+            log.debug("Fetching products with filters and pagination");
             Page<ProductDTO> products = productService.filterProducts(
                     category, gender, color, size, minPrice, maxPrice, availability, page, pageSize, sortBy);
-            return ResponseEntity.ok(new StandardResponse<>("Products fetched successfully", products));
+            return ResponseEntity.ok().eTag(etag).cacheControl(catalogCacheControl)
+                    .body(new StandardResponse<>("Products fetched successfully", products));
         } catch (Exception e) {
             log.error("Error fetching products: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -76,6 +133,7 @@ public class ProductController {
     @Operation(summary = "Add or update a product")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Product saved successfully"),
+            @ApiResponse(responseCode = "409", description = "Concurrent update, retry the request"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping
@@ -85,6 +143,8 @@ public class ProductController {
             log.info("Adding/updating product: {}", productDTO.getName());
             ProductDTO savedProduct = productService.saveOrUpdateProduct(productDTO);
             return ResponseEntity.ok(new StandardResponse<>("Product saved successfully", savedProduct));
+        } catch (ConcurrentUpdateException e) {
+            throw e; // answered with 409 by GlobalExceptionHandler, not by the catch-all below
         } catch (Exception e) {
             log.error("Error adding/updating product: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -109,6 +169,8 @@ public class ProductController {
             List<ProductDTO> savedProducts = productService.saveAllProducts(products);
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(new StandardResponse<>("Products added successfully", savedProducts));
+        } catch (ConcurrentUpdateException e) {
+            throw e; // answered with 409 by GlobalExceptionHandler, not by the catch-all below
         } catch (Exception e) {
             log.error("Error adding products in bulk: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -117,12 +179,38 @@ public class ProductController {
     }
 
 
+    /**
+     * Stream a product catalog in CSV (with header row) or NDJSON format.
+     * Rows with an id update the existing product, rows without one are inserted.
+     */
+    @Operation(summary = "Import products from a CSV or NDJSON stream")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Products imported, see report for rejected rows"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StandardResponse<ProductImportReportDTO>> importProducts(HttpServletRequest request) {
+        try {
+            ProductImportService.Format format = ProductImportService.Format.fromContentType(request.getContentType());
+            log.info("Importing products from {} stream", format);
+            ProductImportReportDTO report = productImportService.importProducts(request.getInputStream(), format);
+            return ResponseEntity.ok(new StandardResponse<>("Products imported successfully", report));
+        } catch (IOException e) {
+            log.error("Error reading product import stream: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new StandardResponse<>("Error importing products", null));
+        }
+    }
+
+
     /**
      * Update stock for a specific product.
      */
     @Operation(summary = "Update product stock")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Product stock updated successfully"),
+            @ApiResponse(responseCode = "409", description = "Concurrent update, retry the request"),
             @ApiResponse(responseCode = "400", description = "Invalid stock value"),
             @ApiResponse(responseCode = "404", description = "Product not found")
     })
@@ -133,6 +221,8 @@ public class ProductController {
             log.info("Updating stock for product ID: {}, new stock: {}", productId, stock);
             ProductDTO updatedProduct = productService.updateProductStock(productId, stock);
             return ResponseEntity.ok(new StandardResponse<>("Product stock updated successfully", updatedProduct));
+        } catch (ConcurrentUpdateException e) {
+            throw e; // answered with 409 by GlobalExceptionHandler, not by the catch-all below
         } catch (IllegalArgumentException e) {
             log.error("Invalid stock value: {}", e.getMessage(), e);
             return ResponseEntity.badRequest()
@@ -145,21 +235,56 @@ public class ProductController {
     }
 
 
+    /**
+     * Apply stock levels for many products in one request (warehouse sync).
+     * Only products whose stock changed are written; the response lists the diff.
+     */
+    @Operation(summary = "Bulk update product stock")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stock levels synchronized successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid stock value")
+    })
+    @PatchMapping("/stock")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StandardResponse<StockSyncResultDTO>> syncProductStock(@RequestBody List<StockUpdateDTO> updates) {
+        try {
+            log.info("Synchronizing stock for {} products", updates.size());
+            StockSyncResultDTO result = stockSyncService.syncStock(updates);
+            return ResponseEntity.ok(new StandardResponse<>("Stock levels synchronized successfully", result));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid stock sync request: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest()
+                    .body(new StandardResponse<>(e.getMessage(), null));
+        }
+    }
+
+
     /**
      * Delete a product by ID.
+     * With async=true the removal from carts runs as a background job whose progress
+     * can be polled via /retirements/{jobId}.
      */
     @Operation(summary = "Delete a product")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Product deleted successfully"),
+            @ApiResponse(responseCode = "202", description = "Product retirement job started"),
             @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "Product is still referenced by orders or wishlists"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<StandardResponse<String>> deleteProduct(@PathVariable Long id) {
+    public ResponseEntity<StandardResponse<?>> deleteProduct(@PathVariable Long id,
+                                                             @RequestParam(defaultValue = "false") boolean async) {
         try {
             log.info("Deleting product with ID: {}", id);
 
+            if (async) {
+                ProductRetirementJobDTO job = productRetirementService.startRetirement(id);
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .body(new StandardResponse<>("Product retirement job started", job));
+            }
+
             //checking if product exists
             ProductDTO product = productService.getProductById(id);
             if (product == null) {
@@ -176,6 +301,10 @@ public class ProductController {
             productService.deleteProduct(id);
             log.info("Product with ID {} deleted successfully", id);
             return ResponseEntity.ok(new StandardResponse<>("Product deleted successfully", null));
+        } catch (IllegalStateException e) {
+            log.warn("Product {} cannot be deleted: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new StandardResponse<>(e.getMessage(), null));
         } catch (RuntimeException e) {
             log.error("Error deleting product: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -188,6 +317,28 @@ public class ProductController {
     }
 
 
+    /**
+     * Progress of a background product retirement started with DELETE /{id}?async=true.
+     */
+    @Operation(summary = "Fetch product retirement job status")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Job status fetched successfully"),
+            @ApiResponse(responseCode = "404", description = "Job not found")
+    })
+    @GetMapping("/retirements/{jobId}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StandardResponse<ProductRetirementJobDTO>> getRetirementJob(@PathVariable String jobId) {
+        try {
+            ProductRetirementJobDTO job = productRetirementService.getJob(jobId);
+            return ResponseEntity.ok(new StandardResponse<>("Job status fetched successfully", job));
+        } catch (RuntimeException e) {
+            log.error("Error fetching retirement job: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new StandardResponse<>(e.getMessage(), null));
+        }
+    }
+
+
     /**
      * Fetch a product by ID.
      */
@@ -197,11 +348,16 @@ public class ProductController {
             @ApiResponse(responseCode = "404", description = "Product not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<StandardResponse<ProductDTO>> getProductById(@PathVariable Long id) {
+    public ResponseEntity<StandardResponse<ProductDTO>> getProductById(@PathVariable Long id, WebRequest request) {
+        String etag = catalogVersionService.etag();
+        if (request.checkNotModified(etag)) {
+            return notModified(etag, productCacheControl);
+        }
         try {
-            log.info("Fetching product with ID: {}", id);
+            log.debug("Fetching product with ID: {}", id);
             ProductDTO productDTO = productService.getProductById(id);
-            return ResponseEntity.ok(new StandardResponse<>("Product fetched successfully", productDTO));
+            return ResponseEntity.ok().eTag(etag).cacheControl(productCacheControl)
+                    .body(new StandardResponse<>("Product fetched successfully", productDTO));
         } catch (Exception e) {
             log.error("Error fetching product: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -210,6 +366,51 @@ public class ProductController {
     }
 
 
+    /**
+     * Products bought or wishlisted together with this one ("customers also bought").
+     * Served from precomputed neighbor lists; a product without any returns an empty list.
+     */
+    @Operation(summary = "Fetch product recommendations")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Recommendations fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit")
+    })
+    @GetMapping("/{id}/recommendations")
+    public ResponseEntity<StandardResponse<List<ProductRecommendationDTO>>> getRecommendations(
+            @PathVariable Long id, @RequestParam(defaultValue = "10") int limit) {
+        try {
+            log.debug("Fetching recommendations for product ID: {}", id);
+            List<ProductRecommendationDTO> recommendations = recommendationService.getRecommendations(id, limit);
+            return ResponseEntity.ok(new StandardResponse<>("Recommendations fetched successfully", recommendations));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid recommendations request: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest()
+                    .body(new StandardResponse<>(e.getMessage(), null));
+        }
+    }
+
+
+    /**
+     * Categories with their genders, colors and sizes and product counts, for the storefront
+     * navigation. Served from memory; the ETag only changes when the navigation does.
+     */
+    @Operation(summary = "Fetch the navigation tree")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Navigation fetched successfully"),
+            @ApiResponse(responseCode = "304", description = "Navigation unchanged since the given ETag")
+    })
+    @GetMapping("/navigation")
+    public ResponseEntity<StandardResponse<NavigationTreeDTO>> getNavigation(WebRequest request) {
+        NavigationTreeDTO tree = navigationService.getTree();
+        String etag = navigationService.etag(tree);
+        if (request.checkNotModified(etag)) {
+            return notModified(etag, catalogCacheControl);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(catalogCacheControl)
+                .body(new StandardResponse<>("Navigation fetched successfully", tree));
+    }
+
+
     /**
      * Fetch products with pagination.
      */
@@ -222,12 +423,18 @@ public class ProductController {
     public ResponseEntity<StandardResponse<Page<ProductDTO>>> getProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "id") String sortBy
+            @RequestParam(defaultValue = "id") String sortBy,
+            WebRequest request
     ){
+        String etag = catalogVersionService.etag();
+        if (request.checkNotModified(etag)) {
+            return notModified(etag, catalogCacheControl);
+        }
         try {
-            log.info("Fetching paginated products");
+            log.debug("Fetching paginated products");
             Page<ProductDTO> products = productService.getProducts(page, size, sortBy);
-            return ResponseEntity.ok(new StandardResponse<>("Products fetched successfully", products));
+            return ResponseEntity.ok().eTag(etag).cacheControl(catalogCacheControl)
+                    .body(new StandardResponse<>("Products fetched successfully", products));
         } catch (Exception e) {
             log.error("Error fetching paginated products: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -235,5 +442,8 @@ public class ProductController {
         }
     }
 
-
-}
\ No newline at end of file
+    // If-None-Match matched the current catalog version: answer before any database work
+    private static <T> ResponseEntity<T> notModified(String etag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.prorunner.prorunner.controller;
+
+import com.prorunner.prorunner.dto.PromotionDTO;
+import com.prorunner.prorunner.service.PromotionService;
+import com.prorunner.prorunner.util.StandardResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/promotions")
+public class PromotionController {
+
+    @Autowired
+    private PromotionService promotionService;
+
+    @GetMapping
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "List promotions", description = "All promotions, active and inactive")
+    public ResponseEntity<StandardResponse<List<PromotionDTO>>> getPromotions() {
+        return ResponseEntity.ok(new StandardResponse<>("Promotions fetched successfully", promotionService.getPromotions()));
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Create a promotion",
+            description = "Percent off, buy-X-get-Y or tiered volume pricing for one product or a whole category")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Promotion created"),
+            @ApiResponse(responseCode = "400", description = "Invalid promotion")
+    })
+    public ResponseEntity<StandardResponse<PromotionDTO>> createPromotion(@RequestBody PromotionDTO promotionDTO) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new StandardResponse<>("Promotion created", promotionService.createPromotion(promotionDTO)));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Deactivate a promotion", description = "Stops the promotion from applying to carts and orders")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Promotion deactivated"),
+            @ApiResponse(responseCode = "400", description = "Promotion not found")
+    })
+    public ResponseEntity<StandardResponse<PromotionDTO>> deactivatePromotion(@PathVariable Long id) {
+        return ResponseEntity.ok(new StandardResponse<>("Promotion deactivated", promotionService.deactivatePromotion(id)));
+    }
+}
@@ -1,12 +1,14 @@
 package com.prorunner.prorunner.controller;
 
 import com.prorunner.prorunner.dto.WishlistDTO;
+import com.prorunner.prorunner.dto.WishlistItemDTO;
 import com.prorunner.prorunner.service.WishlistService;
 import com.prorunner.prorunner.util.StandardResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -32,6 +34,21 @@ public class WishlistController {
     }
 
 
+    @Operation(summary = "Get a page of wishlist items", description = "Fetches the user's wishlist items, oldest first, one page at a time.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Wishlist items fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid pagination or wishlist not found")
+    })
+    @GetMapping("/items")
+    //@PreAuthorize("hasAuthority('USER') or @securityService.isUser(#userId)")
+    public ResponseEntity<StandardResponse<Page<WishlistItemDTO>>> getWishlistItems(@RequestParam Long userId,
+                                                                                   @RequestParam(defaultValue = "0") int page,
+                                                                                   @RequestParam(defaultValue = "20") int size) {
+        Page<WishlistItemDTO> items = wishlistService.getWishlistItems(userId, page, size);
+        return ResponseEntity.ok(new StandardResponse<>("Wishlist items fetched successfully", items));
+    }
+
+
     @Operation(summary = "Add a product to the wishlist", description = "Adds a product to the user's wishlist.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Product added successfully"),
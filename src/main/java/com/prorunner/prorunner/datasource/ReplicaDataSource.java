@@ -0,0 +1,115 @@
+package com.prorunner.prorunner.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out connections for read-only transactions, round-robin over the replicas that
+ * ReplicaLagMonitor last found reachable and within the allowed lag. A check only vouches
+ * for a replica until its measured lag plus the time since the check reaches the allowed
+ * lag, so a replica drops out of rotation when checks stop arriving. When no replica
+ * qualifies, or the chosen one cannot give a connection, the primary is used instead.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long healthyUntil;
+        private volatile long lagMillis = -1;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return System.currentTimeMillis() < healthyUntil;
+        }
+
+        // Replication lag seen at the last check, -1 when the replica could not be read
+        public long getLagMillis() {
+            return lagMillis;
+        }
+
+        // The replica serves reads until healthyUntil (epoch millis) unless a later check renews it
+        void update(long lagMillis, long healthyUntil) {
+            this.lagMillis = lagMillis;
+            this.healthyUntil = healthyUntil;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReplicaDataSource(DataSource primary, List<Replica> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    // Read-only connections that had to be served by the primary
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int size = replicas.size();
+        int start = next.getAndIncrement();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, size));
+            if (!replica.isHealthy()) {
+                continue;
+            }
+            try {
+                return replica.getDataSource().getConnection();
+            } catch (SQLException e) {
+                // Taken out of rotation until the next lag check finds it healthy again
+                replica.update(-1, 0);
+                logger.warn("Replica {} unavailable, removed from read rotation: {}", replica.getName(), e.getMessage());
+            }
+        }
+        fallbacks.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // The replica pools are set up with the configured credentials only
+        return primary.getConnection(username, password);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.prorunner.prorunner.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures replication lag with a heartbeat row: every check stamps the current time
+ * into replication_heartbeat on the primary, then reads the replicated stamp back from
+ * each replica. A replica is used for reads only while it answers and its stamp is no
+ * older than the allowed lag. Checks run every check-interval-ms on the monitor's own
+ * thread, so long jobs on the shared scheduler cannot hold them up.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String BEAT_SQL = "UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1";
+    private static final String READ_SQL = "SELECT beat_at FROM replication_heartbeat WHERE id = 1";
+
+    private final JdbcTemplate primary;
+    private final ReplicaDataSource replicaDataSource;
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+    private ScheduledExecutorService executor;
+
+    public ReplicaLagMonitor(DataSource primary, ReplicaDataSource replicaDataSource, long maxLagMillis,
+                             long checkIntervalMillis) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicaDataSource = replicaDataSource;
+        this.maxLagMillis = maxLagMillis;
+        this.checkIntervalMillis = checkIntervalMillis;
+    }
+
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                check();
+            } catch (RuntimeException e) {
+                logger.error("Replica lag check failed: {}", e.getMessage(), e);
+            }
+        }, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public synchronized void check() {
+        long now = System.currentTimeMillis();
+        try {
+            primary.update(BEAT_SQL, now);
+        } catch (RuntimeException e) {
+            logger.warn("Could not write the replication heartbeat to the primary: {}", e.getMessage());
+        }
+
+        for (ReplicaDataSource.Replica replica : replicaDataSource.getReplicas()) {
+            boolean wasHealthy = replica.isHealthy();
+            try {
+                Long beatAt = new JdbcTemplate(replica.getDataSource()).queryForObject(READ_SQL, Long.class);
+                long lag = beatAt == null ? Long.MAX_VALUE : Math.max(now - beatAt, 0);
+                // Even if replication stalls right after this read, the lag stays allowed until then
+                replica.update(lag, lag <= maxLagMillis ? now + maxLagMillis - lag : 0);
+            } catch (RuntimeException e) {
+                replica.update(-1, 0);
+            }
+
+            if (wasHealthy != replica.isHealthy()) {
+                logger.warn("Replica {} is now {} (lag {} ms)", replica.getName(),
+                        replica.isHealthy() ? "serving reads" : "out of rotation", replica.getLagMillis());
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.prorunner.prorunner.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lets the read-only transaction of a service method run on a replica. Only put this on
+ * queries that tolerate a few seconds of replication lag, such as catalog browsing and
+ * history or search pages; reads that must see the caller's own writes stay unmarked and
+ * run on the primary.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReplicaRead {
+}
@@ -0,0 +1,29 @@
+package com.prorunner.prorunner.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks the calling thread as allowed to read from a replica while a {@link ReplicaRead}
+ * method runs. Ordered ahead of the transaction interceptor so the mark covers the whole
+ * transaction, from the first statement that picks the connection to the commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 200)
+public class ReplicaReadAspect {
+
+    @Around("@annotation(com.prorunner.prorunner.datasource.ReplicaRead)")
+    public Object allowReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean previous = TransactionRoutingDataSource.allowReplicaReads(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            TransactionRoutingDataSource.allowReplicaReads(previous);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.prorunner.prorunner.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Routes read-only transactions started by a {@link ReplicaRead} method to the replicas and
+ * everything else, including other read-only transactions and work outside a transaction,
+ * to the primary. Must sit behind a LazyConnectionDataSourceProxy:
+ * the transaction is only flagged read-only after it has begun, so the physical
+ * connection has to be chosen on the first statement rather than at begin.
+ */
+public class TransactionRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private static final ThreadLocal<Boolean> replicaReads = ThreadLocal.withInitial(() -> false);
+
+    public TransactionRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    // Sets whether read-only transactions on this thread may use a replica, returning the previous setting
+    static boolean allowReplicaReads(boolean allowed) {
+        boolean previous = replicaReads.get();
+        if (allowed) {
+            replicaReads.set(true);
+        } else {
+            replicaReads.remove();
+        }
+        return previous;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return replicaReads.get() && TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? REPLICA : PRIMARY;
+    }
+}
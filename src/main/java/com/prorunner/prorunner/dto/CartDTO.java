@@ -1,6 +1,7 @@
 package com.prorunner.prorunner.dto;
 
 import com.prorunner.prorunner.model.CartProduct;
+import com.prorunner.prorunner.model.Money;
 
 import java.util.List;
 
@@ -12,7 +13,7 @@ public class CartDTO {
 
     private List<CartProductDTO> cartProducts;
 
-    private Double totalPrice;
+    private Money totalPrice;
 
     public Long getId() {
         return id;
@@ -38,11 +39,11 @@ public class CartDTO {
         this.cartProducts = cartProducts;
     }
 
-    public Double getTotalPrice() {
+    public Money getTotalPrice() {
         return totalPrice;
     }
 
-    public void setTotalPrice(Double totalPrice) {
+    public void setTotalPrice(Money totalPrice) {
         this.totalPrice = totalPrice;
     }
 }
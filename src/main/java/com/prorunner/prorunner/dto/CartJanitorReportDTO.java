@@ -0,0 +1,97 @@
+package com.prorunner.prorunner.dto;
+
+import java.time.LocalDateTime;
+
+public class CartJanitorReportDTO {
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private long durationMs;
+
+    private LocalDateTime idleBefore;
+
+    private int chunks;
+
+    private long cartsDeleted;
+
+    private long cartLinesDeleted;
+
+    private long reservedUnitsReleased;
+
+    // False when the run stopped at the chunk limit with idle carts left for the next run
+    private boolean completed;
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public LocalDateTime getIdleBefore() {
+        return idleBefore;
+    }
+
+    public void setIdleBefore(LocalDateTime idleBefore) {
+        this.idleBefore = idleBefore;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+
+    public long getCartsDeleted() {
+        return cartsDeleted;
+    }
+
+    public void setCartsDeleted(long cartsDeleted) {
+        this.cartsDeleted = cartsDeleted;
+    }
+
+    public long getCartLinesDeleted() {
+        return cartLinesDeleted;
+    }
+
+    public void setCartLinesDeleted(long cartLinesDeleted) {
+        this.cartLinesDeleted = cartLinesDeleted;
+    }
+
+    public long getReservedUnitsReleased() {
+        return reservedUnitsReleased;
+    }
+
+    public void setReservedUnitsReleased(long reservedUnitsReleased) {
+        this.reservedUnitsReleased = reservedUnitsReleased;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+}
@@ -1,5 +1,7 @@
 package com.prorunner.prorunner.dto;
 
+import com.prorunner.prorunner.model.Money;
+
 public class CartProductDTO {
 
     private Long id;
@@ -12,9 +14,13 @@ public class CartProductDTO {
 
     private int quantity;
 
-    private Double unitPrice;
+    private Money unitPrice;
+
+    private Money subTotal;
+
+    private Money discount;
 
-    private Double subTotal;
+    private Long promotionId;
 
 
 
@@ -58,19 +64,35 @@ public class CartProductDTO {
         this.quantity = quantity;
     }
 
-    public Double getUnitPrice() {
+    public Money getUnitPrice() {
         return unitPrice;
     }
 
-    public void setUnitPrice(Double unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
         this.unitPrice = unitPrice;
     }
 
-    public Double getSubTotal() {
+    public Money getSubTotal() {
         return subTotal;
     }
 
-    public void setSubTotal(Double subTotal) {
+    public void setSubTotal(Money subTotal) {
         this.subTotal = subTotal;
     }
+
+    public Money getDiscount() {
+        return discount;
+    }
+
+    public void setDiscount(Money discount) {
+        this.discount = discount;
+    }
+
+    public Long getPromotionId() {
+        return promotionId;
+    }
+
+    public void setPromotionId(Long promotionId) {
+        this.promotionId = promotionId;
+    }
 }
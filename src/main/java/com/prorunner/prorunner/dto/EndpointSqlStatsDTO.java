@@ -0,0 +1,154 @@
+package com.prorunner.prorunner.dto;
+
+public class EndpointSqlStatsDTO {
+
+    private String endpoint;
+
+    private long requests;
+
+    private long overBudgetRequests;
+
+    private double avgStatements;
+
+    private long maxStatements;
+
+    private double avgSqlTimeMs;
+
+    private double maxSqlTimeMs;
+
+    private double avgRows;
+
+    private double avgDurationMs;
+
+    private double maxDurationMs;
+
+    private double avgConnections;
+
+    private double avgConnectionWaitMs;
+
+    private double maxConnectionWaitMs;
+
+    private double avgConnectionHoldMs;
+
+    private double maxConnectionHoldMs;
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public void setRequests(long requests) {
+        this.requests = requests;
+    }
+
+    public long getOverBudgetRequests() {
+        return overBudgetRequests;
+    }
+
+    public void setOverBudgetRequests(long overBudgetRequests) {
+        this.overBudgetRequests = overBudgetRequests;
+    }
+
+    public double getAvgStatements() {
+        return avgStatements;
+    }
+
+    public void setAvgStatements(double avgStatements) {
+        this.avgStatements = avgStatements;
+    }
+
+    public long getMaxStatements() {
+        return maxStatements;
+    }
+
+    public void setMaxStatements(long maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    public double getAvgSqlTimeMs() {
+        return avgSqlTimeMs;
+    }
+
+    public void setAvgSqlTimeMs(double avgSqlTimeMs) {
+        this.avgSqlTimeMs = avgSqlTimeMs;
+    }
+
+    public double getMaxSqlTimeMs() {
+        return maxSqlTimeMs;
+    }
+
+    public void setMaxSqlTimeMs(double maxSqlTimeMs) {
+        this.maxSqlTimeMs = maxSqlTimeMs;
+    }
+
+    public double getAvgRows() {
+        return avgRows;
+    }
+
+    public void setAvgRows(double avgRows) {
+        this.avgRows = avgRows;
+    }
+
+    public double getAvgDurationMs() {
+        return avgDurationMs;
+    }
+
+    public void setAvgDurationMs(double avgDurationMs) {
+        this.avgDurationMs = avgDurationMs;
+    }
+
+    public double getMaxDurationMs() {
+        return maxDurationMs;
+    }
+
+    public void setMaxDurationMs(double maxDurationMs) {
+        this.maxDurationMs = maxDurationMs;
+    }
+
+    public double getAvgConnections() {
+        return avgConnections;
+    }
+
+    public void setAvgConnections(double avgConnections) {
+        this.avgConnections = avgConnections;
+    }
+
+    public double getAvgConnectionWaitMs() {
+        return avgConnectionWaitMs;
+    }
+
+    public void setAvgConnectionWaitMs(double avgConnectionWaitMs) {
+        this.avgConnectionWaitMs = avgConnectionWaitMs;
+    }
+
+    public double getMaxConnectionWaitMs() {
+        return maxConnectionWaitMs;
+    }
+
+    public void setMaxConnectionWaitMs(double maxConnectionWaitMs) {
+        this.maxConnectionWaitMs = maxConnectionWaitMs;
+    }
+
+    public double getAvgConnectionHoldMs() {
+        return avgConnectionHoldMs;
+    }
+
+    public void setAvgConnectionHoldMs(double avgConnectionHoldMs) {
+        this.avgConnectionHoldMs = avgConnectionHoldMs;
+    }
+
+    public double getMaxConnectionHoldMs() {
+        return maxConnectionHoldMs;
+    }
+
+    public void setMaxConnectionHoldMs(double maxConnectionHoldMs) {
+        this.maxConnectionHoldMs = maxConnectionHoldMs;
+    }
+}
@@ -0,0 +1,68 @@
+package com.prorunner.prorunner.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class NavigationCategoryDTO {
+
+    private String name;
+
+    private long products;
+
+    private long available;
+
+    // Values present in this category, by value; products without one are only in the totals
+    private List<NavigationFacetDTO> genders = new ArrayList<>();
+
+    private List<NavigationFacetDTO> colors = new ArrayList<>();
+
+    private List<NavigationFacetDTO> sizes = new ArrayList<>();
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getProducts() {
+        return products;
+    }
+
+    public void setProducts(long products) {
+        this.products = products;
+    }
+
+    public long getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(long available) {
+        this.available = available;
+    }
+
+    public List<NavigationFacetDTO> getGenders() {
+        return genders;
+    }
+
+    public void setGenders(List<NavigationFacetDTO> genders) {
+        this.genders = genders;
+    }
+
+    public List<NavigationFacetDTO> getColors() {
+        return colors;
+    }
+
+    public void setColors(List<NavigationFacetDTO> colors) {
+        this.colors = colors;
+    }
+
+    public List<NavigationFacetDTO> getSizes() {
+        return sizes;
+    }
+
+    public void setSizes(List<NavigationFacetDTO> sizes) {
+        this.sizes = sizes;
+    }
+}
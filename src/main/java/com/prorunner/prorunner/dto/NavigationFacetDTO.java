@@ -0,0 +1,36 @@
+package com.prorunner.prorunner.dto;
+
+public class NavigationFacetDTO {
+
+    // Gender, color or size as stored on the products
+    private String value;
+
+    private long products;
+
+    // Of those, products marked available
+    private long available;
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public long getProducts() {
+        return products;
+    }
+
+    public void setProducts(long products) {
+        this.products = products;
+    }
+
+    public long getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(long available) {
+        this.available = available;
+    }
+}
@@ -0,0 +1,71 @@
+package com.prorunner.prorunner.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class NavigationTreeDTO {
+
+    // Moves only when the tree's content changes; part of the ETag
+    private long version;
+
+    private LocalDateTime builtAt;
+
+    private long products;
+
+    private long available;
+
+    // Products without a category count in the totals only
+    private List<NavigationCategoryDTO> categories = new ArrayList<>();
+
+    // Across all categories
+    private List<NavigationFacetDTO> genders = new ArrayList<>();
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    public void setBuiltAt(LocalDateTime builtAt) {
+        this.builtAt = builtAt;
+    }
+
+    public long getProducts() {
+        return products;
+    }
+
+    public void setProducts(long products) {
+        this.products = products;
+    }
+
+    public long getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(long available) {
+        this.available = available;
+    }
+
+    public List<NavigationCategoryDTO> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<NavigationCategoryDTO> categories) {
+        this.categories = categories;
+    }
+
+    public List<NavigationFacetDTO> getGenders() {
+        return genders;
+    }
+
+    public void setGenders(List<NavigationFacetDTO> genders) {
+        this.genders = genders;
+    }
+}
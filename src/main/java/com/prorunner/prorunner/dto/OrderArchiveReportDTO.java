@@ -0,0 +1,108 @@
+package com.prorunner.prorunner.dto;
+
+import java.time.LocalDateTime;
+
+public class OrderArchiveReportDTO {
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private long durationMs;
+
+    private LocalDateTime createdBefore;
+
+    private int segmentsWritten;
+
+    private long ordersArchived;
+
+    private long itemsArchived;
+
+    private long bytesWritten;
+
+    // Found in a segment but still live, e.g. after a crash between writing and deleting
+    private long ordersAlreadyArchived;
+
+    // False when the run stopped at the segment limit with archivable orders left for the next run
+    private boolean completed;
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public LocalDateTime getCreatedBefore() {
+        return createdBefore;
+    }
+
+    public void setCreatedBefore(LocalDateTime createdBefore) {
+        this.createdBefore = createdBefore;
+    }
+
+    public int getSegmentsWritten() {
+        return segmentsWritten;
+    }
+
+    public void setSegmentsWritten(int segmentsWritten) {
+        this.segmentsWritten = segmentsWritten;
+    }
+
+    public long getOrdersArchived() {
+        return ordersArchived;
+    }
+
+    public void setOrdersArchived(long ordersArchived) {
+        this.ordersArchived = ordersArchived;
+    }
+
+    public long getItemsArchived() {
+        return itemsArchived;
+    }
+
+    public void setItemsArchived(long itemsArchived) {
+        this.itemsArchived = itemsArchived;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public void setBytesWritten(long bytesWritten) {
+        this.bytesWritten = bytesWritten;
+    }
+
+    public long getOrdersAlreadyArchived() {
+        return ordersAlreadyArchived;
+    }
+
+    public void setOrdersAlreadyArchived(long ordersAlreadyArchived) {
+        this.ordersAlreadyArchived = ordersAlreadyArchived;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+}
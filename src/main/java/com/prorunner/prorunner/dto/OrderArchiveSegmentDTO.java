@@ -0,0 +1,109 @@
+package com.prorunner.prorunner.dto;
+
+import com.prorunner.prorunner.model.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class OrderArchiveSegmentDTO {
+
+    private String file;
+
+    private int orders;
+
+    private int items;
+
+    private int blocks;
+
+    private long bytes;
+
+    private long minOrderId;
+
+    private long maxOrderId;
+
+    private LocalDateTime oldestCreatedAt;
+
+    private LocalDateTime newestCreatedAt;
+
+    private Map<OrderStatus, Long> statusCounts;
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public int getOrders() {
+        return orders;
+    }
+
+    public void setOrders(int orders) {
+        this.orders = orders;
+    }
+
+    public int getItems() {
+        return items;
+    }
+
+    public void setItems(int items) {
+        this.items = items;
+    }
+
+    public int getBlocks() {
+        return blocks;
+    }
+
+    public void setBlocks(int blocks) {
+        this.blocks = blocks;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public long getMinOrderId() {
+        return minOrderId;
+    }
+
+    public void setMinOrderId(long minOrderId) {
+        this.minOrderId = minOrderId;
+    }
+
+    public long getMaxOrderId() {
+        return maxOrderId;
+    }
+
+    public void setMaxOrderId(long maxOrderId) {
+        this.maxOrderId = maxOrderId;
+    }
+
+    public LocalDateTime getOldestCreatedAt() {
+        return oldestCreatedAt;
+    }
+
+    public void setOldestCreatedAt(LocalDateTime oldestCreatedAt) {
+        this.oldestCreatedAt = oldestCreatedAt;
+    }
+
+    public LocalDateTime getNewestCreatedAt() {
+        return newestCreatedAt;
+    }
+
+    public void setNewestCreatedAt(LocalDateTime newestCreatedAt) {
+        this.newestCreatedAt = newestCreatedAt;
+    }
+
+    public Map<OrderStatus, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public void setStatusCounts(Map<OrderStatus, Long> statusCounts) {
+        this.statusCounts = statusCounts;
+    }
+}
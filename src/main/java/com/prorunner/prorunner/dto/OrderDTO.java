@@ -1,5 +1,8 @@
 package com.prorunner.prorunner.dto;
 
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.model.OrderStatus;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -9,8 +12,9 @@ public class OrderDTO {
     private Long userId;
     private List<OrderItemDTO> orderItems;
     private Long shippingAddressId;
-    private Double totalPrice;
-    private String status;
+    private Money totalPrice;
+    private OrderStatus status;
+    private LocalDateTime statusUpdatedAt;
     private LocalDateTime createdAt;
 
     public Long getId() {
@@ -45,22 +49,30 @@ public class OrderDTO {
         this.shippingAddressId = shippingAddressId;
     }
 
-    public Double getTotalPrice() {
+    public Money getTotalPrice() {
         return totalPrice;
     }
 
-    public void setTotalPrice(Double totalPrice) {
+    public void setTotalPrice(Money totalPrice) {
         this.totalPrice = totalPrice;
     }
 
-    public String getStatus() {
+    public OrderStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(OrderStatus status) {
         this.status = status;
     }
 
+    public LocalDateTime getStatusUpdatedAt() {
+        return statusUpdatedAt;
+    }
+
+    public void setStatusUpdatedAt(LocalDateTime statusUpdatedAt) {
+        this.statusUpdatedAt = statusUpdatedAt;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
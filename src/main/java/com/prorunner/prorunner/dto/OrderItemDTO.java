@@ -1,13 +1,17 @@
 package com.prorunner.prorunner.dto;
 
+import com.prorunner.prorunner.model.Money;
+
 public class OrderItemDTO {
 
     private Long id;
     private Long productId;
     private String productName;
     private int quantity;
-    private Double unitPrice;
-    private Double subtotal;
+    private Money unitPrice;
+    private Money subtotal;
+    private Money discount;
+    private Long promotionId;
 
     public Long getId() {
         return id;
@@ -41,19 +45,35 @@ public class OrderItemDTO {
         this.quantity = quantity;
     }
 
-    public Double getUnitPrice() {
+    public Money getUnitPrice() {
         return unitPrice;
     }
 
-    public void setUnitPrice(Double unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
         this.unitPrice = unitPrice;
     }
 
-    public Double getSubtotal() {
+    public Money getSubtotal() {
         return subtotal;
     }
 
-    public void setSubtotal(Double subtotal) {
+    public void setSubtotal(Money subtotal) {
         this.subtotal = subtotal;
     }
+
+    public Money getDiscount() {
+        return discount;
+    }
+
+    public void setDiscount(Money discount) {
+        this.discount = discount;
+    }
+
+    public Long getPromotionId() {
+        return promotionId;
+    }
+
+    public void setPromotionId(Long promotionId) {
+        this.promotionId = promotionId;
+    }
 }
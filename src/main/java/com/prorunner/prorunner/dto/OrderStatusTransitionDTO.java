@@ -0,0 +1,28 @@
+package com.prorunner.prorunner.dto;
+
+import com.prorunner.prorunner.model.OrderStatus;
+
+import java.util.List;
+
+public class OrderStatusTransitionDTO {
+
+    private List<Long> orderIds;
+
+    private OrderStatus status;
+
+    public List<Long> getOrderIds() {
+        return orderIds;
+    }
+
+    public void setOrderIds(List<Long> orderIds) {
+        this.orderIds = orderIds;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,83 @@
+package com.prorunner.prorunner.dto;
+
+import com.prorunner.prorunner.model.OrderStatus;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class OrderStatusTransitionResultDTO {
+
+    private OrderStatus status;
+
+    private int requested;
+
+    private int updated;
+
+    // Already in the target status, e.g. a retried request
+    private int unchanged;
+
+    private long durationMs;
+
+    private List<Long> notFoundOrderIds = new ArrayList<>();
+
+    // Orders whose current status does not allow the transition, with that status
+    private Map<Long, OrderStatus> rejected = new LinkedHashMap<>();
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    public void setUnchanged(int unchanged) {
+        this.unchanged = unchanged;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public List<Long> getNotFoundOrderIds() {
+        return notFoundOrderIds;
+    }
+
+    public void setNotFoundOrderIds(List<Long> notFoundOrderIds) {
+        this.notFoundOrderIds = notFoundOrderIds;
+    }
+
+    public Map<Long, OrderStatus> getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(Map<Long, OrderStatus> rejected) {
+        this.rejected = rejected;
+    }
+}
@@ -0,0 +1,106 @@
+package com.prorunner.prorunner.dto;
+
+import java.util.List;
+
+public class PoolDiagnosticsDTO {
+
+    private String poolName;
+
+    private int maximumPoolSize;
+
+    private int minimumIdle;
+
+    private long connectionTimeoutMs;
+
+    private int activeConnections;
+
+    private int idleConnections;
+
+    private int totalConnections;
+
+    private int threadsAwaitingConnection;
+
+    private int peakActiveConnections;
+
+    private List<EndpointSqlStatsDTO> endpoints;
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public void setPoolName(String poolName) {
+        this.poolName = poolName;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    public void setMinimumIdle(int minimumIdle) {
+        this.minimumIdle = minimumIdle;
+    }
+
+    public long getConnectionTimeoutMs() {
+        return connectionTimeoutMs;
+    }
+
+    public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+        this.connectionTimeoutMs = connectionTimeoutMs;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public void setActiveConnections(int activeConnections) {
+        this.activeConnections = activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public void setIdleConnections(int idleConnections) {
+        this.idleConnections = idleConnections;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public void setTotalConnections(int totalConnections) {
+        this.totalConnections = totalConnections;
+    }
+
+    public int getThreadsAwaitingConnection() {
+        return threadsAwaitingConnection;
+    }
+
+    public void setThreadsAwaitingConnection(int threadsAwaitingConnection) {
+        this.threadsAwaitingConnection = threadsAwaitingConnection;
+    }
+
+    public int getPeakActiveConnections() {
+        return peakActiveConnections;
+    }
+
+    public void setPeakActiveConnections(int peakActiveConnections) {
+        this.peakActiveConnections = peakActiveConnections;
+    }
+
+    public List<EndpointSqlStatsDTO> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(List<EndpointSqlStatsDTO> endpoints) {
+        this.endpoints = endpoints;
+    }
+}
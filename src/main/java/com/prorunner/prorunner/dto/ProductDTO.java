@@ -1,5 +1,7 @@
 package com.prorunner.prorunner.dto;
 
+import com.prorunner.prorunner.model.Money;
+
 public class ProductDTO {
 
     private Long id;
@@ -8,7 +10,7 @@ public class ProductDTO {
 
     private String description;
 
-    private Double price;
+    private Money price;
 
     private String size;
 
@@ -48,11 +50,11 @@ public class ProductDTO {
         this.description = description;
     }
 
-    public Double getPrice() {
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(Double price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
 
@@ -0,0 +1,57 @@
+package com.prorunner.prorunner.dto;
+
+import com.prorunner.prorunner.model.Money;
+
+public class ProductRecommendationDTO {
+
+    private Long productId;
+
+    private String name;
+
+    private String imageUrl;
+
+    private Money price;
+
+    // Cosine similarity of the co-purchase and co-wishlist counts, 0 to 1
+    private double score;
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public Money getPrice() {
+        return price;
+    }
+
+    public void setPrice(Money price) {
+        this.price = price;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,86 @@
+package com.prorunner.prorunner.dto;
+
+import java.time.LocalDateTime;
+
+public class ProductRetirementJobDTO {
+
+    private String jobId;
+
+    private Long productId;
+
+    private String status;
+
+    private long totalCartLines;
+
+    private long cartLinesRemoved;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private String error;
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getTotalCartLines() {
+        return totalCartLines;
+    }
+
+    public void setTotalCartLines(long totalCartLines) {
+        this.totalCartLines = totalCartLines;
+    }
+
+    public long getCartLinesRemoved() {
+        return cartLinesRemoved;
+    }
+
+    public void setCartLinesRemoved(long cartLinesRemoved) {
+        this.cartLinesRemoved = cartLinesRemoved;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
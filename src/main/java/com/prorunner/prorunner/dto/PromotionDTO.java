@@ -0,0 +1,136 @@
+package com.prorunner.prorunner.dto;
+
+import com.prorunner.prorunner.model.PromotionTier;
+import com.prorunner.prorunner.model.PromotionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PromotionDTO {
+
+    private Long id;
+
+    private String name;
+
+    private PromotionType type;
+
+    // Exactly one of productId and category
+    private Long productId;
+
+    private String category;
+
+    // PERCENT_OFF
+    private BigDecimal percentOff;
+
+    // BUY_X_GET_Y
+    private Integer buyQuantity;
+
+    private Integer freeQuantity;
+
+    // TIERED
+    private List<PromotionTier> tiers = new ArrayList<>();
+
+    private LocalDateTime startsAt;
+
+    private LocalDateTime endsAt;
+
+    private boolean active = true;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public PromotionType getType() {
+        return type;
+    }
+
+    public void setType(PromotionType type) {
+        this.type = type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public BigDecimal getPercentOff() {
+        return percentOff;
+    }
+
+    public void setPercentOff(BigDecimal percentOff) {
+        this.percentOff = percentOff;
+    }
+
+    public Integer getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    public void setBuyQuantity(Integer buyQuantity) {
+        this.buyQuantity = buyQuantity;
+    }
+
+    public Integer getFreeQuantity() {
+        return freeQuantity;
+    }
+
+    public void setFreeQuantity(Integer freeQuantity) {
+        this.freeQuantity = freeQuantity;
+    }
+
+    public List<PromotionTier> getTiers() {
+        return tiers;
+    }
+
+    public void setTiers(List<PromotionTier> tiers) {
+        this.tiers = tiers;
+    }
+
+    public LocalDateTime getStartsAt() {
+        return startsAt;
+    }
+
+    public void setStartsAt(LocalDateTime startsAt) {
+        this.startsAt = startsAt;
+    }
+
+    public LocalDateTime getEndsAt() {
+        return endsAt;
+    }
+
+    public void setEndsAt(LocalDateTime endsAt) {
+        this.endsAt = endsAt;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+}
@@ -0,0 +1,89 @@
+package com.prorunner.prorunner.dto;
+
+import java.time.LocalDateTime;
+
+public class RecommendationStatusDTO {
+
+    // Products with at least one co-occurrence, and the pairs between them
+    private int products;
+
+    private long pairs;
+
+    // Products with a non-empty neighbor list
+    private int productsWithNeighbors;
+
+    // Products whose neighbor lists wait for the next refresh
+    private int pendingRefresh;
+
+    private long ordersScanned;
+
+    private long wishlistsScanned;
+
+    private LocalDateTime lastRebuildAt;
+
+    private long lastRebuildMs;
+
+    public int getProducts() {
+        return products;
+    }
+
+    public void setProducts(int products) {
+        this.products = products;
+    }
+
+    public long getPairs() {
+        return pairs;
+    }
+
+    public void setPairs(long pairs) {
+        this.pairs = pairs;
+    }
+
+    public int getProductsWithNeighbors() {
+        return productsWithNeighbors;
+    }
+
+    public void setProductsWithNeighbors(int productsWithNeighbors) {
+        this.productsWithNeighbors = productsWithNeighbors;
+    }
+
+    public int getPendingRefresh() {
+        return pendingRefresh;
+    }
+
+    public void setPendingRefresh(int pendingRefresh) {
+        this.pendingRefresh = pendingRefresh;
+    }
+
+    public long getOrdersScanned() {
+        return ordersScanned;
+    }
+
+    public void setOrdersScanned(long ordersScanned) {
+        this.ordersScanned = ordersScanned;
+    }
+
+    public long getWishlistsScanned() {
+        return wishlistsScanned;
+    }
+
+    public void setWishlistsScanned(long wishlistsScanned) {
+        this.wishlistsScanned = wishlistsScanned;
+    }
+
+    public LocalDateTime getLastRebuildAt() {
+        return lastRebuildAt;
+    }
+
+    public void setLastRebuildAt(LocalDateTime lastRebuildAt) {
+        this.lastRebuildAt = lastRebuildAt;
+    }
+
+    public long getLastRebuildMs() {
+        return lastRebuildMs;
+    }
+
+    public void setLastRebuildMs(long lastRebuildMs) {
+        this.lastRebuildMs = lastRebuildMs;
+    }
+}
@@ -0,0 +1,67 @@
+package com.prorunner.prorunner.dto;
+
+import java.time.LocalDateTime;
+
+public class SalesAnalyticsStatusDTO {
+
+    // Orders counted since the rollups were first built, across restarts
+    private long ordersFolded;
+
+    private long lastOrderId;
+
+    private String checkpointPath;
+
+    private LocalDateTime lastCheckpointAt;
+
+    private long lastCheckpointBytes;
+
+    private long lastCheckpointMs;
+
+    public long getOrdersFolded() {
+        return ordersFolded;
+    }
+
+    public void setOrdersFolded(long ordersFolded) {
+        this.ordersFolded = ordersFolded;
+    }
+
+    public long getLastOrderId() {
+        return lastOrderId;
+    }
+
+    public void setLastOrderId(long lastOrderId) {
+        this.lastOrderId = lastOrderId;
+    }
+
+    public String getCheckpointPath() {
+        return checkpointPath;
+    }
+
+    public void setCheckpointPath(String checkpointPath) {
+        this.checkpointPath = checkpointPath;
+    }
+
+    public LocalDateTime getLastCheckpointAt() {
+        return lastCheckpointAt;
+    }
+
+    public void setLastCheckpointAt(LocalDateTime lastCheckpointAt) {
+        this.lastCheckpointAt = lastCheckpointAt;
+    }
+
+    public long getLastCheckpointBytes() {
+        return lastCheckpointBytes;
+    }
+
+    public void setLastCheckpointBytes(long lastCheckpointBytes) {
+        this.lastCheckpointBytes = lastCheckpointBytes;
+    }
+
+    public long getLastCheckpointMs() {
+        return lastCheckpointMs;
+    }
+
+    public void setLastCheckpointMs(long lastCheckpointMs) {
+        this.lastCheckpointMs = lastCheckpointMs;
+    }
+}
@@ -0,0 +1,48 @@
+package com.prorunner.prorunner.dto;
+
+import com.prorunner.prorunner.model.Money;
+
+import java.time.LocalDateTime;
+
+public class SalesPeriodDTO {
+
+    private LocalDateTime periodStart;
+
+    private long orders;
+
+    private long units;
+
+    private Money revenue;
+
+    public LocalDateTime getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(LocalDateTime periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public void setOrders(long orders) {
+        this.orders = orders;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(Money revenue) {
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,48 @@
+package com.prorunner.prorunner.dto;
+
+import com.prorunner.prorunner.model.Money;
+
+public class SalesRankingDTO {
+
+    // Null for category and gender rankings
+    private Long productId;
+
+    // Product name, category or gender
+    private String name;
+
+    private long units;
+
+    private Money revenue;
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(Money revenue) {
+        this.revenue = revenue;
+    }
+}
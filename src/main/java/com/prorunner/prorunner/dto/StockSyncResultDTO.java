@@ -0,0 +1,68 @@
+package com.prorunner.prorunner.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StockSyncResultDTO {
+
+    private int requested;
+
+    private int updated;
+
+    private int unchanged;
+
+    private long durationMs;
+
+    // Compact diff: one [productId, oldStock, newStock] triple per changed product
+    private List<long[]> changes = new ArrayList<>();
+
+    private List<Long> missingProductIds = new ArrayList<>();
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    public void setUnchanged(int unchanged) {
+        this.unchanged = unchanged;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public List<long[]> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<long[]> changes) {
+        this.changes = changes;
+    }
+
+    public List<Long> getMissingProductIds() {
+        return missingProductIds;
+    }
+
+    public void setMissingProductIds(List<Long> missingProductIds) {
+        this.missingProductIds = missingProductIds;
+    }
+}
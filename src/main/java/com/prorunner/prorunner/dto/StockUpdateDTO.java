@@ -0,0 +1,32 @@
+package com.prorunner.prorunner.dto;
+
+public class StockUpdateDTO {
+
+    private Long productId;
+
+    private Integer stock;
+
+    public StockUpdateDTO() {
+    }
+
+    public StockUpdateDTO(Long productId, Integer stock) {
+        this.productId = productId;
+        this.stock = stock;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+}
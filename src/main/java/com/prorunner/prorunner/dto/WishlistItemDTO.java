@@ -1,5 +1,7 @@
 package com.prorunner.prorunner.dto;
 
+import com.prorunner.prorunner.model.Money;
+
 public class WishlistItemDTO {
 
     private Long productId;
@@ -9,7 +11,7 @@ public class WishlistItemDTO {
     private String imageUrl;
     private String size;
     private String color;
-    private Double unitPrice;
+    private Money unitPrice;
 
     public Long getProductId() {
         return productId;
@@ -51,11 +53,11 @@ public class WishlistItemDTO {
         this.color = color;
     }
 
-    public Double getUnitPrice() {
+    public Money getUnitPrice() {
         return unitPrice;
     }
 
-    public void setUnitPrice(Double unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
         this.unitPrice = unitPrice;
     }
 }
@@ -0,0 +1,37 @@
+package com.prorunner.prorunner.event;
+
+import com.prorunner.prorunner.analytics.SaleLine;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published by placeOrder with the order's lines as the sales rollups count them,
+ * so listeners need no further queries to fold the order in.
+ */
+public class OrderPlacedEvent {
+
+    private final long orderId;
+
+    private final LocalDateTime createdAt;
+
+    private final List<SaleLine> lines;
+
+    public OrderPlacedEvent(long orderId, LocalDateTime createdAt, List<SaleLine> lines) {
+        this.orderId = orderId;
+        this.createdAt = createdAt;
+        this.lines = lines;
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<SaleLine> getLines() {
+        return lines;
+    }
+}
@@ -0,0 +1,25 @@
+package com.prorunner.prorunner.event;
+
+/**
+ * Published after writes to the product table. Bulk writes (import, stock sync, ...)
+ * publish it once, so downstream caches rebuild a single time instead of once per row.
+ */
+public class ProductCatalogChangedEvent {
+
+    private final String source;
+
+    private final int affectedProducts;
+
+    public ProductCatalogChangedEvent(String source, int affectedProducts) {
+        this.source = source;
+        this.affectedProducts = affectedProducts;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getAffectedProducts() {
+        return affectedProducts;
+    }
+}
@@ -0,0 +1,18 @@
+package com.prorunner.prorunner.event;
+
+/**
+ * Published when a promotion is created, changed or deactivated. PricingService drops its
+ * compiled rules once the writing transaction has committed and recompiles on next use.
+ */
+public class PromotionsChangedEvent {
+
+    private final Long promotionId;
+
+    public PromotionsChangedEvent(Long promotionId) {
+        this.promotionId = promotionId;
+    }
+
+    public Long getPromotionId() {
+        return promotionId;
+    }
+}
@@ -0,0 +1,41 @@
+package com.prorunner.prorunner.event;
+
+import java.util.List;
+
+/**
+ * Published when a product is added to or removed from a wishlist, with the products the
+ * wishlist holds besides it, so co-wishlist counts can be adjusted without another query.
+ */
+public class WishlistItemChangedEvent {
+
+    private final long wishlistId;
+
+    private final long productId;
+
+    private final List<Long> otherProductIds;
+
+    private final boolean added;
+
+    public WishlistItemChangedEvent(long wishlistId, long productId, List<Long> otherProductIds, boolean added) {
+        this.wishlistId = wishlistId;
+        this.productId = productId;
+        this.otherProductIds = otherProductIds;
+        this.added = added;
+    }
+
+    public long getWishlistId() {
+        return wishlistId;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public List<Long> getOtherProductIds() {
+        return otherProductIds;
+    }
+
+    public boolean isAdded() {
+        return added;
+    }
+}
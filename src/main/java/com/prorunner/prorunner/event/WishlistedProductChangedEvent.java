@@ -0,0 +1,46 @@
+package com.prorunner.prorunner.event;
+
+import com.prorunner.prorunner.model.WishlistNotificationType;
+
+import java.util.List;
+
+/**
+ * Published by product writes that may interest shoppers who wishlisted the products:
+ * a restock or a price drop. Publish it inside the write's transaction, which records the
+ * change durably before commit. Bulk writes publish it once per transaction for all affected
+ * products. previousPriceMinor is the price before a drop and 0 for restocks.
+ */
+public class WishlistedProductChangedEvent {
+
+    private final WishlistNotificationType type;
+
+    private final List<Long> productIds;
+
+    private final long previousPriceMinor;
+
+    public WishlistedProductChangedEvent(WishlistNotificationType type, List<Long> productIds, long previousPriceMinor) {
+        this.type = type;
+        this.productIds = productIds;
+        this.previousPriceMinor = previousPriceMinor;
+    }
+
+    public static WishlistedProductChangedEvent restocked(List<Long> productIds) {
+        return new WishlistedProductChangedEvent(WishlistNotificationType.BACK_IN_STOCK, productIds, 0);
+    }
+
+    public static WishlistedProductChangedEvent priceDropped(Long productId, long previousPriceMinor) {
+        return new WishlistedProductChangedEvent(WishlistNotificationType.PRICE_DROP, List.of(productId), previousPriceMinor);
+    }
+
+    public WishlistNotificationType getType() {
+        return type;
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+
+    public long getPreviousPriceMinor() {
+        return previousPriceMinor;
+    }
+}
@@ -1,6 +1,8 @@
 package com.prorunner.prorunner.exception;
 
 import com.prorunner.prorunner.util.StandardResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -14,6 +16,8 @@ import java.util.Map;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
     // Handle validation errors
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<StandardResponse<Map<String, String>>> handleValidationExceptions(MethodArgumentNotValidException ex) {
@@ -32,6 +36,14 @@ public class GlobalExceptionHandler {
                 .body(new StandardResponse<>(ex.getMessage(), null));
     }
 
+    // Optimistic locking retries ran out; the client can safely resend the request
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    public ResponseEntity<StandardResponse<String>> handleConcurrentUpdateException(ConcurrentUpdateException ex) {
+        logger.warn("Concurrent update conflict: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new StandardResponse<>(ex.getMessage(), null));
+    }
+
     // Handle runtime exceptions (e.g., custom exceptions)
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<StandardResponse<String>> handleRuntimeException(RuntimeException ex, WebRequest request) {
@@ -0,0 +1,53 @@
+package com.prorunner.prorunner.metrics;
+
+import com.prorunner.prorunner.dto.PoolDiagnosticsDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Snapshot of the connection pool next to the endpoints that wait for and hold its
+ * connections the longest, for sizing the pool against real traffic. A peak close to
+ * maximumPoolSize together with growing connection waits means the pool is too small,
+ * or that some endpoints hold connections for too long.
+ */
+@Component
+public class PoolDiagnostics {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private SqlEndpointStatsRegistry sqlEndpointStatsRegistry;
+
+    public PoolDiagnosticsDTO snapshot(int limit, String orderBy) {
+        PoolDiagnosticsDTO diagnostics = new PoolDiagnosticsDTO();
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+                diagnostics.setPoolName(hikari.getPoolName());
+                diagnostics.setMaximumPoolSize(hikari.getMaximumPoolSize());
+                diagnostics.setMinimumIdle(hikari.getMinimumIdle());
+                diagnostics.setConnectionTimeoutMs(hikari.getConnectionTimeout());
+                HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                if (pool != null) {
+                    diagnostics.setActiveConnections(pool.getActiveConnections());
+                    diagnostics.setIdleConnections(pool.getIdleConnections());
+                    diagnostics.setTotalConnections(pool.getTotalConnections());
+                    diagnostics.setThreadsAwaitingConnection(pool.getThreadsAwaitingConnection());
+                }
+            }
+            if (dataSource.isWrapperFor(SqlStatsDataSource.class)) {
+                diagnostics.setPeakActiveConnections(dataSource.unwrap(SqlStatsDataSource.class).getPeakActiveConnections());
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not read connection pool state: " + e.getMessage(), e);
+        }
+        diagnostics.setEndpoints(sqlEndpointStatsRegistry.top(limit, orderBy));
+        return diagnostics;
+    }
+}
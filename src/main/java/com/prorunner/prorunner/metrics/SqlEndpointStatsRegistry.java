@@ -0,0 +1,104 @@
+package com.prorunner.prorunner.metrics;
+
+import com.prorunner.prorunner.dto.EndpointSqlStatsDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated SQL cost per endpoint ("GET /api/products/{id}") since startup,
+ * fed by SqlStatsFilter and read by the admin slow endpoint report.
+ */
+@Component
+public class SqlEndpointStatsRegistry {
+
+    private static final double NANOS_PER_MS = 1_000_000.0;
+
+    private static final class EndpointStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder overBudget = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final LongAdder sqlNanos = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder durationNanos = new LongAdder();
+        final LongAdder connections = new LongAdder();
+        final LongAdder connectionWaitNanos = new LongAdder();
+        final LongAdder connectionHoldNanos = new LongAdder();
+        final AtomicLong maxStatements = new AtomicLong();
+        final AtomicLong maxSqlNanos = new AtomicLong();
+        final AtomicLong maxDurationNanos = new AtomicLong();
+        final AtomicLong maxConnectionWaitNanos = new AtomicLong();
+        final AtomicLong maxConnectionHoldNanos = new AtomicLong();
+    }
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, SqlStats stats, long durationNanos, boolean overBudget) {
+        EndpointStats endpointStats = endpoints.computeIfAbsent(endpoint, key -> new EndpointStats());
+        endpointStats.requests.increment();
+        if (overBudget) {
+            endpointStats.overBudget.increment();
+        }
+        endpointStats.statements.add(stats.getStatements());
+        endpointStats.sqlNanos.add(stats.getSqlNanos());
+        endpointStats.rows.add(stats.getRows());
+        endpointStats.durationNanos.add(durationNanos);
+        endpointStats.connections.add(stats.getConnections());
+        endpointStats.connectionWaitNanos.add(stats.getConnectionWaitNanos());
+        endpointStats.connectionHoldNanos.add(stats.getConnectionHoldNanos());
+        endpointStats.maxStatements.accumulateAndGet(stats.getStatements(), Math::max);
+        endpointStats.maxSqlNanos.accumulateAndGet(stats.getSqlNanos(), Math::max);
+        endpointStats.maxDurationNanos.accumulateAndGet(durationNanos, Math::max);
+        endpointStats.maxConnectionWaitNanos.accumulateAndGet(stats.getConnectionWaitNanos(), Math::max);
+        endpointStats.maxConnectionHoldNanos.accumulateAndGet(stats.getConnectionHoldNanos(), Math::max);
+    }
+
+    // Slowest endpoints first, ordered by the average of "duration", "sqlTime", "statements",
+    // "connectionWait" or "connectionHold"
+    public List<EndpointSqlStatsDTO> top(int limit, String orderBy) {
+        Comparator<EndpointSqlStatsDTO> order = switch (orderBy) {
+            case "statements" -> Comparator.comparingDouble(EndpointSqlStatsDTO::getAvgStatements);
+            case "sqlTime" -> Comparator.comparingDouble(EndpointSqlStatsDTO::getAvgSqlTimeMs);
+            case "duration" -> Comparator.comparingDouble(EndpointSqlStatsDTO::getAvgDurationMs);
+            case "connectionWait" -> Comparator.comparingDouble(EndpointSqlStatsDTO::getAvgConnectionWaitMs);
+            case "connectionHold" -> Comparator.comparingDouble(EndpointSqlStatsDTO::getAvgConnectionHoldMs);
+            default -> throw new IllegalArgumentException(
+                    "orderBy must be one of duration, sqlTime, statements, connectionWait or connectionHold");
+        };
+        return endpoints.entrySet().stream()
+                .map(entry -> toDTO(entry.getKey(), entry.getValue()))
+                .sorted(order.reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    private EndpointSqlStatsDTO toDTO(String endpoint, EndpointStats stats) {
+        long requests = Math.max(stats.requests.sum(), 1);
+        EndpointSqlStatsDTO dto = new EndpointSqlStatsDTO();
+        dto.setEndpoint(endpoint);
+        dto.setRequests(stats.requests.sum());
+        dto.setOverBudgetRequests(stats.overBudget.sum());
+        dto.setAvgStatements(stats.statements.sum() / (double) requests);
+        dto.setMaxStatements(stats.maxStatements.get());
+        dto.setAvgSqlTimeMs(stats.sqlNanos.sum() / NANOS_PER_MS / requests);
+        dto.setMaxSqlTimeMs(stats.maxSqlNanos.get() / NANOS_PER_MS);
+        dto.setAvgRows(stats.rows.sum() / (double) requests);
+        dto.setAvgDurationMs(stats.durationNanos.sum() / NANOS_PER_MS / requests);
+        dto.setMaxDurationMs(stats.maxDurationNanos.get() / NANOS_PER_MS);
+        dto.setAvgConnections(stats.connections.sum() / (double) requests);
+        dto.setAvgConnectionWaitMs(stats.connectionWaitNanos.sum() / NANOS_PER_MS / requests);
+        dto.setMaxConnectionWaitMs(stats.maxConnectionWaitNanos.get() / NANOS_PER_MS);
+        dto.setAvgConnectionHoldMs(stats.connectionHoldNanos.sum() / NANOS_PER_MS / requests);
+        dto.setMaxConnectionHoldMs(stats.maxConnectionHoldNanos.get() / NANOS_PER_MS);
+        return dto;
+    }
+}
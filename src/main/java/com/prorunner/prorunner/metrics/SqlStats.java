@@ -0,0 +1,77 @@
+package com.prorunner.prorunner.metrics;
+
+/**
+ * SQL and connection counters for the request being served on the current thread.
+ * Started and removed by SqlStatsFilter, incremented by SqlStatsDataSource.
+ * Work handed to other threads (async jobs) is not attributed to the request.
+ */
+public final class SqlStats {
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long sqlNanos;
+    private long rows;
+    private long connections;
+    private long connectionWaitNanos;
+    private long connectionHoldNanos;
+
+    public static SqlStats start() {
+        SqlStats stats = new SqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    // Null when the current thread is not serving an instrumented request
+    public static SqlStats current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    void recordStatement(long nanos) {
+        statements++;
+        sqlNanos += nanos;
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    void recordConnectionAcquired(long waitNanos) {
+        connections++;
+        connectionWaitNanos += waitNanos;
+    }
+
+    void recordConnectionReleased(long holdNanos) {
+        connectionHoldNanos += holdNanos;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getSqlNanos() {
+        return sqlNanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getConnections() {
+        return connections;
+    }
+
+    // Time spent waiting for the pool to hand out a connection
+    public long getConnectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+
+    // Time between getting a connection from the pool and returning it
+    public long getConnectionHoldNanos() {
+        return connectionHoldNanos;
+    }
+}
@@ -0,0 +1,155 @@
+package com.prorunner.prorunner.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps the pool so every statement executed through it is counted and timed, and the
+ * rows read from its result sets are counted, against the current request's SqlStats,
+ * together with the time spent waiting for and holding each connection.
+ * Statements slower than the configured threshold are logged with their SQL, whether
+ * or not a request is being instrumented.
+ */
+public class SqlStatsDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatsDataSource.class);
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final long slowStatementNanos;
+
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final AtomicInteger peakActiveConnections = new AtomicInteger();
+
+    public SqlStatsDataSource(DataSource targetDataSource, long slowStatementMs) {
+        super(targetDataSource);
+        this.slowStatementNanos = TimeUnit.MILLISECONDS.toNanos(slowStatementMs);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        return wrapConnection(super.getConnection(), start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        return wrapConnection(super.getConnection(username, password), start);
+    }
+
+    // Connections currently checked out through this datasource
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    // Highest number of connections checked out at once since startup or the last reset
+    public int getPeakActiveConnections() {
+        return peakActiveConnections.get();
+    }
+
+    public void resetPeakActiveConnections() {
+        peakActiveConnections.set(activeConnections.get());
+    }
+
+    // Lets the container shut the wrapped pool down with the bean
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection wrapConnection(Connection connection, long requestedAt) {
+        long acquiredAt = System.nanoTime();
+        peakActiveConnections.accumulateAndGet(activeConnections.incrementAndGet(), Math::max);
+        SqlStats acquiringStats = SqlStats.current();
+        if (acquiringStats != null) {
+            acquiringStats.recordConnectionAcquired(acquiredAt - requestedAt);
+        }
+        AtomicBoolean closed = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                        activeConnections.decrementAndGet();
+                        if (acquiringStats != null) {
+                            acquiringStats.recordConnectionReleased(System.nanoTime() - acquiredAt);
+                        }
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement) {
+                        // prepareStatement/prepareCall carry the SQL up front, createStatement passes it on execute
+                        String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                        return wrapStatement(statement, sql);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement wrapStatement(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (!EXECUTE_METHODS.contains(method.getName())) {
+                        Object result = invoke(statement, method, args);
+                        return result instanceof ResultSet resultSet ? wrapResultSet(resultSet) : result;
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        Object result = invoke(statement, method, args);
+                        return result instanceof ResultSet resultSet ? wrapResultSet(resultSet) : result;
+                    } finally {
+                        long elapsed = System.nanoTime() - start;
+                        SqlStats stats = SqlStats.current();
+                        if (stats != null) {
+                            stats.recordStatement(elapsed);
+                        }
+                        if (elapsed >= slowStatementNanos) {
+                            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+                            logger.warn("Slow SQL statement ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(elapsed), sql);
+                        }
+                    }
+                });
+    }
+
+    private ResultSet wrapResultSet(ResultSet resultSet) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(resultSet, method, args);
+                    if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+                        SqlStats stats = SqlStats.current();
+                        if (stats != null) {
+                            stats.recordRow();
+                        }
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.prorunner.prorunner.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements, database time and rows fetched for each HTTP request.
+ * Runs ahead of the security chain so the user lookup done for the JWT is included.
+ * Requests over the statement budget are logged, every request feeds the per-endpoint
+ * report, and outside prod the totals are returned as X-Sql-* response headers.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatsFilter.class);
+
+    @Autowired
+    private SqlEndpointStatsRegistry registry;
+
+    @Value("${prorunner.sql-stats.statement-budget:20}")
+    private int statementBudget;
+
+    @Value("${prorunner.sql-stats.response-headers:true}")
+    private boolean responseHeaders;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // The body is buffered so the headers can still be set once lazy loading during serialization is done
+        ContentCachingResponseWrapper wrapper = responseHeaders ? new ContentCachingResponseWrapper(response) : null;
+        SqlStats stats = SqlStats.start();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, wrapper != null ? wrapper : response);
+        } finally {
+            long duration = System.nanoTime() - start;
+            SqlStats.clear();
+
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "unmapped");
+            boolean overBudget = stats.getStatements() > statementBudget;
+            if (overBudget) {
+                logger.warn("{} issued {} SQL statements (budget {}), {} ms in the database, {} rows fetched",
+                        endpoint, stats.getStatements(), statementBudget, stats.getSqlNanos() / 1_000_000, stats.getRows());
+            }
+            registry.record(endpoint, stats, duration, overBudget);
+
+            if (wrapper != null) {
+                wrapper.setHeader("X-Sql-Statements", Long.toString(stats.getStatements()));
+                wrapper.setHeader("X-Sql-Time-Ms", Long.toString(stats.getSqlNanos() / 1_000_000));
+                wrapper.setHeader("X-Sql-Rows", Long.toString(stats.getRows()));
+                wrapper.copyBodyToResponse();
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.prorunner.prorunner.model;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,11 +24,25 @@ public class Cart {
     @JsonManagedReference
     private List<CartProduct> cartProducts = new ArrayList<>();
 
-    private Double totalPrice;
+    @Column(name = "total_price_minor", nullable = false)
+    private Money totalPrice = Money.ZERO;
 
     @Column(unique = true)
     private String sessionId; // To uniquely identify guest carts
 
+    @Version
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime lastActivityAt;
+
+
+    // Every write to the cart counts as activity; idle guest carts are removed by CartJanitorService
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastActivityAt = LocalDateTime.now();
+    }
 
     public Cart(){
 
@@ -49,11 +64,11 @@ public class Cart {
         this.cartProducts = cartProducts;
     }
 
-    public double getTotalPrice() {
+    public Money getTotalPrice() {
         return totalPrice;
     }
 
-    public void setTotalPrice(double totalPrice) {
+    public void setTotalPrice(Money totalPrice) {
         this.totalPrice = totalPrice;
     }
 
@@ -65,10 +80,6 @@ public class Cart {
         this.user = user;
     }
 
-    public void setTotalPrice(Double totalPrice) {
-        this.totalPrice = totalPrice;
-    }
-
     public String getSessionId() {
         return sessionId;
     }
@@ -76,4 +87,20 @@ public class Cart {
     public void setSessionId(String sessionId) {
         this.sessionId = sessionId;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    public void setLastActivityAt(LocalDateTime lastActivityAt) {
+        this.lastActivityAt = lastActivityAt;
+    }
 }
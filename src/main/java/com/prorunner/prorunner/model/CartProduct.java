@@ -20,23 +20,32 @@ public class CartProduct {
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
-    @Column
-    private Double unitPrice;
+    @Column(name = "unit_price_minor", nullable = false)
+    private Money unitPrice = Money.ZERO;
 
-    @Column
-    private Double subtotal;
+    @Column(name = "subtotal_minor", nullable = false)
+    private Money subtotal = Money.ZERO;
+
+    // Discount of the promotion applied by PricingService; subtotal is already net of it
+    @Column(name = "discount_minor", nullable = false)
+    private Money discount = Money.ZERO;
+
+    private Long promotionId;
 
     @Column(nullable = false)
     private int quantity;
 
+    @Version
+    private Long version;
+
     public CartProduct(){}
 
-    public CartProduct(Cart cart, Product product, int quantity, Double unitPrice) {
+    public CartProduct(Cart cart, Product product, int quantity, Money unitPrice) {
         this.cart = cart;
         this.product = product;
         this.quantity = quantity;
         this.unitPrice = unitPrice;
-        this.subtotal = unitPrice * quantity;
+        this.subtotal = unitPrice.times(quantity);
     }
 
     public Long getId() {
@@ -69,32 +78,58 @@ public class CartProduct {
 
     public void setQuantity(int quantity) {
         this.quantity = quantity;
-        this.subtotal = this.unitPrice * quantity;
         this.updateSubtotal();
     }
 
-    public Double getUnitPrice() {
+    public Money getUnitPrice() {
         return unitPrice;
     }
 
-    public void setUnitPrice(Double unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
         this.unitPrice = unitPrice;
         this.updateSubtotal();
     }
 
-    public Double getSubtotal() {
+    public Money getSubtotal() {
         return subtotal;
     }
 
-    public void setSubtotal(Double subtotal) {
+    public void setSubtotal(Money subtotal) {
         this.subtotal = subtotal;
     }
 
+    public Money getDiscount() {
+        return discount;
+    }
+
+    public void setDiscount(Money discount) {
+        this.discount = discount;
+    }
+
+    public Long getPromotionId() {
+        return promotionId;
+    }
+
+    public void setPromotionId(Long promotionId) {
+        this.promotionId = promotionId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    // List price without promotions; PricingService.applyTo prices the line with them
     public void updateSubtotal(){
+        this.discount = Money.ZERO;
+        this.promotionId = null;
         if(this.unitPrice != null){
-            this.subtotal = this.unitPrice * this.quantity;
+            this.subtotal = this.unitPrice.times(this.quantity);
         } else {
-            this.subtotal = 0.0;
+            this.subtotal = Money.ZERO;
         }
     }
 
@@ -0,0 +1,25 @@
+package com.prorunner.prorunner.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Stores Money attributes as a bigint of minor units in the store currency
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Money money) {
+        if (money == null) {
+            return null;
+        }
+        if (!Money.STORE_CURRENCY.equals(money.getCurrency())) {
+            throw new IllegalArgumentException("Only " + Money.STORE_CURRENCY + " amounts can be stored, got " + money.getCurrency());
+        }
+        return money.getMinorUnits();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(Long minorUnits) {
+        return minorUnits == null ? null : Money.ofMinor(minorUnits);
+    }
+}
@@ -27,9 +27,14 @@ public class Order {
     private Address shippingAddress;
 
 
-    private Double totalPrice;
+    @Column(name = "total_price_minor", nullable = false)
+    private Money totalPrice = Money.ZERO;
 
-    private String status;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OrderStatus status = OrderStatus.PLACED;
+
+    private LocalDateTime statusUpdatedAt;
 
     private LocalDateTime createdAt;
 
@@ -57,22 +62,30 @@ public class Order {
         this.orderItems = orderItems;
     }
 
-    public Double getTotalPrice() {
+    public Money getTotalPrice() {
         return totalPrice;
     }
 
-    public void setTotalPrice(Double totalPrice) {
+    public void setTotalPrice(Money totalPrice) {
         this.totalPrice = totalPrice;
     }
 
-    public String getStatus() {
+    public OrderStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(OrderStatus status) {
         this.status = status;
     }
 
+    public LocalDateTime getStatusUpdatedAt() {
+        return statusUpdatedAt;
+    }
+
+    public void setStatusUpdatedAt(LocalDateTime statusUpdatedAt) {
+        this.statusUpdatedAt = statusUpdatedAt;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
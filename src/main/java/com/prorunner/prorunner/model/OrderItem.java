@@ -19,9 +19,17 @@ public class OrderItem {
 
     private int quantity;
 
-    private Double unitPrice;
+    @Column(name = "unit_price_minor", nullable = false)
+    private Money unitPrice = Money.ZERO;
 
-    private Double subtotal;
+    @Column(name = "subtotal_minor", nullable = false)
+    private Money subtotal = Money.ZERO;
+
+    // Discount of the promotion applied by PricingService; subtotal is already net of it
+    @Column(name = "discount_minor", nullable = false)
+    private Money discount = Money.ZERO;
+
+    private Long promotionId;
 
     public Long getId() {
         return id;
@@ -55,19 +63,35 @@ public class OrderItem {
         this.quantity = quantity;
     }
 
-    public Double getUnitPrice() {
+    public Money getUnitPrice() {
         return unitPrice;
     }
 
-    public void setUnitPrice(Double unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
         this.unitPrice = unitPrice;
     }
 
-    public Double getSubtotal() {
+    public Money getSubtotal() {
         return subtotal;
     }
 
-    public void setSubtotal(Double subtotal) {
+    public void setSubtotal(Money subtotal) {
         this.subtotal = subtotal;
     }
+
+    public Money getDiscount() {
+        return discount;
+    }
+
+    public void setDiscount(Money discount) {
+        this.discount = discount;
+    }
+
+    public Long getPromotionId() {
+        return promotionId;
+    }
+
+    public void setPromotionId(Long promotionId) {
+        this.promotionId = promotionId;
+    }
 }
@@ -0,0 +1,42 @@
+package com.prorunner.prorunner.model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Lifecycle of an order: PLACED -> PAID -> PICKED -> SHIPPED -> DELIVERED, with cancellation
+ * possible until the order has shipped. DELIVERED and CANCELLED are final.
+ */
+public enum OrderStatus {
+    PLACED,
+    PAID,
+    PICKED,
+    SHIPPED,
+    DELIVERED,
+    CANCELLED;
+
+    public Set<OrderStatus> next() {
+        return switch (this) {
+            case PLACED -> EnumSet.of(PAID, CANCELLED);
+            case PAID -> EnumSet.of(PICKED, CANCELLED);
+            case PICKED -> EnumSet.of(SHIPPED, CANCELLED);
+            case SHIPPED -> EnumSet.of(DELIVERED);
+            case DELIVERED, CANCELLED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return next().contains(target);
+    }
+
+    // The statuses an order may be in to move to this one
+    public Set<OrderStatus> previous() {
+        Set<OrderStatus> previous = EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus status : values()) {
+            if (status.canTransitionTo(this)) {
+                previous.add(status);
+            }
+        }
+        return previous;
+    }
+}
@@ -18,8 +18,8 @@ public class Product {
     @Column(length = 500)
     private String description;
 
-    @Column(nullable = false)
-    private Double price;
+    @Column(name = "price_minor", nullable = false)
+    private Money price;
 
     private String size;
 
@@ -45,6 +45,9 @@ public class Product {
 
     private String color;
 
+    @Version
+    private Long version;
+
 
     public Integer getAvailableStock(){
         return stock-reservedStock;
@@ -78,11 +81,11 @@ public class Product {
         this.description = description;
     }
 
-    public double getPrice() {
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(double price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
 
@@ -149,4 +152,12 @@ public class Product {
     public void setColor(String color) {
         this.color = color;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
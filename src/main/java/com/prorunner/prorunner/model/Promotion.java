@@ -0,0 +1,146 @@
+package com.prorunner.prorunner.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A promotion targets either one product (productId) or a whole category.
+ * Active promotions are compiled into per-SKU and per-category rules by PricingService.
+ */
+@Entity
+public class Promotion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private PromotionType type;
+
+    // Not a relation: compiling thousands of promotions must not load their products
+    private Long productId;
+
+    private String category;
+
+    @Column(precision = 5, scale = 2)
+    private BigDecimal percentOff;
+
+    private Integer buyQuantity;
+
+    private Integer freeQuantity;
+
+    @ElementCollection
+    @CollectionTable(name = "promotion_tier", joinColumns = @JoinColumn(name = "promotion_id"))
+    private List<PromotionTier> tiers = new ArrayList<>();
+
+    private LocalDateTime startsAt;
+
+    private LocalDateTime endsAt;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public PromotionType getType() {
+        return type;
+    }
+
+    public void setType(PromotionType type) {
+        this.type = type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public BigDecimal getPercentOff() {
+        return percentOff;
+    }
+
+    public void setPercentOff(BigDecimal percentOff) {
+        this.percentOff = percentOff;
+    }
+
+    public Integer getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    public void setBuyQuantity(Integer buyQuantity) {
+        this.buyQuantity = buyQuantity;
+    }
+
+    public Integer getFreeQuantity() {
+        return freeQuantity;
+    }
+
+    public void setFreeQuantity(Integer freeQuantity) {
+        this.freeQuantity = freeQuantity;
+    }
+
+    public List<PromotionTier> getTiers() {
+        return tiers;
+    }
+
+    public void setTiers(List<PromotionTier> tiers) {
+        this.tiers = tiers;
+    }
+
+    public LocalDateTime getStartsAt() {
+        return startsAt;
+    }
+
+    public void setStartsAt(LocalDateTime startsAt) {
+        this.startsAt = startsAt;
+    }
+
+    public LocalDateTime getEndsAt() {
+        return endsAt;
+    }
+
+    public void setEndsAt(LocalDateTime endsAt) {
+        this.endsAt = endsAt;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+}
@@ -0,0 +1,40 @@
+package com.prorunner.prorunner.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.math.BigDecimal;
+
+@Embeddable
+public class PromotionTier {
+
+    @Column(nullable = false)
+    private int minQuantity;
+
+    @Column(nullable = false, precision = 5, scale = 2)
+    private BigDecimal percentOff;
+
+    public PromotionTier() {
+    }
+
+    public PromotionTier(int minQuantity, BigDecimal percentOff) {
+        this.minQuantity = minQuantity;
+        this.percentOff = percentOff;
+    }
+
+    public int getMinQuantity() {
+        return minQuantity;
+    }
+
+    public void setMinQuantity(int minQuantity) {
+        this.minQuantity = minQuantity;
+    }
+
+    public BigDecimal getPercentOff() {
+        return percentOff;
+    }
+
+    public void setPercentOff(BigDecimal percentOff) {
+        this.percentOff = percentOff;
+    }
+}
@@ -0,0 +1,13 @@
+package com.prorunner.prorunner.model;
+
+public enum PromotionType {
+
+    // percentOff off every unit
+    PERCENT_OFF,
+
+    // For every buyQuantity units paid, freeQuantity more units are free
+    BUY_X_GET_Y,
+
+    // Volume pricing: the highest tier whose minQuantity the line reaches sets the percent off
+    TIERED
+}
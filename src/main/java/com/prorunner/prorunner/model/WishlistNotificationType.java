@@ -0,0 +1,8 @@
+package com.prorunner.prorunner.model;
+
+public enum WishlistNotificationType {
+    // Stock went from zero to some
+    BACK_IN_STOCK,
+    // Price went below what it was when the change was first seen
+    PRICE_DROP
+}
@@ -0,0 +1,13 @@
+package com.prorunner.prorunner.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of the outbox as handed to the sinks. Delivery is at least once, so consumers
+ * deduplicate on id; ids grow in commit order only approximately.
+ */
+public record OutboxEvent(long id, String aggregateType, long aggregateId, String eventType,
+                          @JsonRawValue String payload, LocalDateTime createdAt) {
+}
@@ -0,0 +1,15 @@
+package com.prorunner.prorunner.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of relayed outbox events. The relay removes a batch only after every enabled sink
+ * returned normally, so a sink that throws sees the whole batch again on the next poll.
+ */
+public interface OutboxSink {
+
+    // Matched against prorunner.outbox.sinks
+    String getName();
+
+    void publish(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,51 @@
+package com.prorunner.prorunner.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * In-process, non-durable test sink: a bounded queue that tests in the same JVM drain. Nothing
+ * in the application consumes it and its events are gone with the process, so configure it only
+ * where a test drains it. A full queue fails the batch, which leaves the events in the outbox
+ * until there is room.
+ */
+@Component
+public class QueueOutboxSink implements OutboxSink {
+
+    private final BlockingQueue<OutboxEvent> queue;
+
+    public QueueOutboxSink(@Value("${prorunner.outbox.queue.capacity:100000}") int capacity) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public String getName() {
+        return "queue";
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        if (queue.remainingCapacity() < events.size()) {
+            throw new IllegalStateException("Outbox queue has room for " + queue.remainingCapacity() +
+                    " events, batch has " + events.size());
+        }
+        queue.addAll(events);
+    }
+
+    public OutboxEvent poll() {
+        return queue.poll();
+    }
+
+    public int drainTo(Collection<? super OutboxEvent> target, int maxEvents) {
+        return queue.drainTo(target, maxEvents);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,105 @@
+package com.prorunner.prorunner.pricing;
+
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.model.Promotion;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable index of the promotions in effect at compile time: one PriceRule per SKU and one per
+ * category. Pricing a line is two hash lookups plus the rule evaluation, independent of how many
+ * promotions exist. Promotions do not stack; the largest discount from either rule wins.
+ * validUntil is the next start or end of a compiled promotion, after which the index is stale.
+ */
+public final class CompiledPromotions {
+
+    private final Map<Long, PriceRule> bySku;
+
+    private final Map<String, PriceRule> byCategory;
+
+    private final LocalDateTime validUntil;
+
+    private final int promotionCount;
+
+    private CompiledPromotions(Map<Long, PriceRule> bySku, Map<String, PriceRule> byCategory,
+                               LocalDateTime validUntil, int promotionCount) {
+        this.bySku = bySku;
+        this.byCategory = byCategory;
+        this.validUntil = validUntil;
+        this.promotionCount = promotionCount;
+    }
+
+    public static CompiledPromotions compile(Collection<Promotion> promotions, LocalDateTime now) {
+        Map<Long, PriceRule.Builder> skuBuilders = new HashMap<>();
+        Map<String, PriceRule.Builder> categoryBuilders = new HashMap<>();
+        LocalDateTime validUntil = null;
+        int compiled = 0;
+
+        for (Promotion promotion : promotions) {
+            if (!promotion.isActive() || (promotion.getEndsAt() != null && !promotion.getEndsAt().isAfter(now))) {
+                continue;
+            }
+            if (promotion.getStartsAt() != null && promotion.getStartsAt().isAfter(now)) {
+                validUntil = earliest(validUntil, promotion.getStartsAt());
+                continue;
+            }
+            validUntil = earliest(validUntil, promotion.getEndsAt());
+
+            PriceRule.Builder builder = promotion.getProductId() != null
+                    ? skuBuilders.computeIfAbsent(promotion.getProductId(), id -> new PriceRule.Builder())
+                    : categoryBuilders.computeIfAbsent(promotion.getCategory(), category -> new PriceRule.Builder());
+            builder.add(promotion);
+            compiled++;
+        }
+
+        Map<Long, PriceRule> bySku = new HashMap<>(Math.max(16, skuBuilders.size() * 4 / 3 + 1));
+        skuBuilders.forEach((sku, builder) -> bySku.put(sku, builder.build()));
+        Map<String, PriceRule> byCategory = new HashMap<>();
+        categoryBuilders.forEach((category, builder) -> byCategory.put(category, builder.build()));
+        return new CompiledPromotions(bySku, byCategory, validUntil, compiled);
+    }
+
+    public LinePrice price(Long productId, String category, Money unitPrice, int quantity) {
+        Money gross = unitPrice.times(quantity);
+        long[] best = {0, 0};
+        PriceRule skuRule = productId == null ? null : bySku.get(productId);
+        if (skuRule != null) {
+            skuRule.offer(unitPrice.getMinorUnits(), quantity, best);
+        }
+        PriceRule categoryRule = category == null ? null : byCategory.get(category);
+        if (categoryRule != null) {
+            categoryRule.offer(unitPrice.getMinorUnits(), quantity, best);
+        }
+        if (best[0] == 0) {
+            return new LinePrice(gross, Money.ZERO, gross, null);
+        }
+        Money discount = Money.ofMinor(Math.min(best[0], gross.getMinorUnits()), unitPrice.getCurrency());
+        return new LinePrice(gross, discount, gross.minus(discount), best[1]);
+    }
+
+    public boolean isStale(LocalDateTime now) {
+        return validUntil != null && !now.isBefore(validUntil);
+    }
+
+    public int getPromotionCount() {
+        return promotionCount;
+    }
+
+    public int getSkuRuleCount() {
+        return bySku.size();
+    }
+
+    public int getCategoryRuleCount() {
+        return byCategory.size();
+    }
+
+    private static LocalDateTime earliest(LocalDateTime current, LocalDateTime candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
+}
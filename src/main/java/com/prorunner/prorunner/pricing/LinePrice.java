@@ -0,0 +1,10 @@
+package com.prorunner.prorunner.pricing;
+
+import com.prorunner.prorunner.model.Money;
+
+/**
+ * Price of one cart line or order item: list amount (unit price x quantity), the discount of the
+ * best applicable promotion and what is charged. promotionId is null when no promotion applies.
+ */
+public record LinePrice(Money gross, Money discount, Money subtotal, Long promotionId) {
+}
@@ -0,0 +1,146 @@
+package com.prorunner.prorunner.pricing;
+
+import com.prorunner.prorunner.model.Promotion;
+import com.prorunner.prorunner.model.PromotionTier;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * All active promotions of one SKU or one category folded into arrays, so pricing a line never
+ * walks individual promotions: percent-off promotions collapse to the best one, tiers of all
+ * tiered promotions merge into one table holding the best percent reached at each threshold
+ * (binary searched by quantity), and buy-X-get-Y offers stay as a short list of (buy, free) pairs.
+ */
+final class PriceRule {
+
+    private final int percentBps;
+    private final long percentPromotionId;
+
+    private final int[] buy;
+    private final int[] free;
+    private final long[] bundlePromotionIds;
+
+    private final int[] tierMinQuantity;
+    private final int[] tierBps;
+    private final long[] tierPromotionIds;
+
+    private PriceRule(Builder builder) {
+        this.percentBps = builder.percentBps;
+        this.percentPromotionId = builder.percentPromotionId;
+
+        int bundles = builder.bundles.size();
+        this.buy = new int[bundles];
+        this.free = new int[bundles];
+        this.bundlePromotionIds = new long[bundles];
+        for (int i = 0; i < bundles; i++) {
+            long[] bundle = builder.bundles.get(i);
+            buy[i] = (int) bundle[0];
+            free[i] = (int) bundle[1];
+            bundlePromotionIds[i] = bundle[2];
+        }
+
+        // Sorted by threshold with a running maximum, so the entry found for a quantity is the best tier reached
+        builder.tiers.sort(Comparator.comparingLong(tier -> tier[0]));
+        List<long[]> merged = new ArrayList<>();
+        for (long[] tier : builder.tiers) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && tier[1] <= last[1]) {
+                continue;
+            }
+            if (last != null && last[0] == tier[0]) {
+                merged.set(merged.size() - 1, tier);
+            } else {
+                merged.add(tier);
+            }
+        }
+        this.tierMinQuantity = new int[merged.size()];
+        this.tierBps = new int[merged.size()];
+        this.tierPromotionIds = new long[merged.size()];
+        for (int i = 0; i < merged.size(); i++) {
+            tierMinQuantity[i] = (int) merged.get(i)[0];
+            tierBps[i] = (int) merged.get(i)[1];
+            tierPromotionIds[i] = merged.get(i)[2];
+        }
+    }
+
+    // Replaces best = {discount, promotionId} when this rule gives a larger discount
+    void offer(long unitMinor, int quantity, long[] best) {
+        long gross = Math.multiplyExact(unitMinor, quantity);
+        if (percentBps > 0) {
+            consider(percentOf(gross, percentBps), percentPromotionId, best);
+        }
+        for (int i = 0; i < buy.length; i++) {
+            long freeUnits = (long) (quantity / (buy[i] + free[i])) * free[i];
+            consider(freeUnits * unitMinor, bundlePromotionIds[i], best);
+        }
+        int tier = tierFor(quantity);
+        if (tier >= 0) {
+            consider(percentOf(gross, tierBps[tier]), tierPromotionIds[tier], best);
+        }
+    }
+
+    private int tierFor(int quantity) {
+        int low = 0;
+        int high = tierMinQuantity.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (tierMinQuantity[mid] <= quantity) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private static void consider(long discount, long promotionId, long[] best) {
+        if (discount > best[0]) {
+            best[0] = discount;
+            best[1] = promotionId;
+        }
+    }
+
+    // Rounded half-up to the minor unit
+    private static long percentOf(long amount, int bps) {
+        return (Math.multiplyExact(amount, bps) + 5_000) / 10_000;
+    }
+
+    static int toBps(BigDecimal percent) {
+        return percent.movePointRight(2).intValue();
+    }
+
+    static final class Builder {
+
+        private int percentBps;
+        private long percentPromotionId;
+        private final List<long[]> bundles = new ArrayList<>(1);
+        private final List<long[]> tiers = new ArrayList<>(0);
+
+        void add(Promotion promotion) {
+            switch (promotion.getType()) {
+                case PERCENT_OFF -> {
+                    int bps = toBps(promotion.getPercentOff());
+                    if (bps > percentBps) {
+                        percentBps = bps;
+                        percentPromotionId = promotion.getId();
+                    }
+                }
+                case BUY_X_GET_Y -> bundles.add(new long[]{promotion.getBuyQuantity(), promotion.getFreeQuantity(), promotion.getId()});
+                case TIERED -> {
+                    for (PromotionTier tier : promotion.getTiers()) {
+                        tiers.add(new long[]{tier.getMinQuantity(), toBps(tier.getPercentOff()), promotion.getId()});
+                    }
+                }
+            }
+        }
+
+        PriceRule build() {
+            return new PriceRule(this);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.prorunner.prorunner.recommendation;
+
+import com.prorunner.prorunner.analytics.LongLongHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Symmetric sparse matrix of how often two products appear in the same basket (an order or a
+ * wishlist), weighted per basket kind, plus each product's own basket weight. Row i is a
+ * LongLongHashMap from neighbor id to pair weight; rowIndex maps a product id to its row, so a
+ * catalog of 100,000 products with a few hundred neighbors each stays in primitive arrays.
+ * Pair weights only drop to 0 when baskets are removed again and are then skipped. Not
+ * thread-safe.
+ */
+public final class CoOccurrenceMatrix {
+
+    private final LongLongHashMap rowIndex = new LongLongHashMap();
+    private final List<LongLongHashMap> rows = new ArrayList<>();
+    private final LongLongHashMap occurrences = new LongLongHashMap();
+    private long pairs;
+
+    /**
+     * Adds weight to every pair of distinct products in the basket and to each product's
+     * occurrences; a negative weight takes a basket back out. Returns the distinct products.
+     */
+    public long[] addBasket(long[] productIds, long weight) {
+        long[] distinct = distinct(productIds);
+        for (int i = 0; i < distinct.length; i++) {
+            occurrences.addTo(distinct[i], weight);
+            for (int j = i + 1; j < distinct.length; j++) {
+                addPair(distinct[i], distinct[j], weight);
+            }
+        }
+        return distinct;
+    }
+
+    // One product joining (or with a negative weight, leaving) a basket that holds others
+    public void addToBasket(long productId, long[] otherProductIds, long weight) {
+        occurrences.addTo(productId, weight);
+        for (long other : distinct(otherProductIds)) {
+            if (other != productId) {
+                addPair(productId, other, weight);
+            }
+        }
+    }
+
+    /**
+     * Up to limit neighbors of the product with a pair weight of at least minSupport, best first
+     * by cosine similarity: weight(a, b) / sqrt(occurrences(a) * occurrences(b)), which keeps
+     * best sellers from topping every list. Ties go to the lower product id.
+     */
+    public ProductNeighbors neighbors(long productId, int limit, long minSupport) {
+        LongLongHashMap row = row(productId);
+        long own = occurrences.get(productId);
+        if (row == null || own <= 0 || limit <= 0) {
+            return ProductNeighbors.EMPTY;
+        }
+        int capacity = Math.min(limit, row.size());
+        long[] heapIds = new long[capacity];
+        double[] heapScores = new double[capacity];
+        int[] heapSize = {0};
+        row.forEach((neighbor, weight) -> {
+            long theirs = occurrences.get(neighbor);
+            if (weight < minSupport || theirs <= 0) {
+                return;
+            }
+            double score = weight / Math.sqrt((double) own * theirs);
+            if (heapSize[0] < capacity) {
+                heapIds[heapSize[0]] = neighbor;
+                heapScores[heapSize[0]] = score;
+                siftUp(heapIds, heapScores, heapSize[0]++);
+            } else if (ranksAbove(neighbor, score, heapIds[0], heapScores[0])) {
+                heapIds[0] = neighbor;
+                heapScores[0] = score;
+                siftDown(heapIds, heapScores, heapSize[0]);
+            }
+        });
+        int size = heapSize[0];
+        long[] ids = new long[size];
+        float[] scores = new float[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ids[i] = heapIds[0];
+            scores[i] = (float) heapScores[0];
+            heapIds[0] = heapIds[i];
+            heapScores[0] = heapScores[i];
+            siftDown(heapIds, heapScores, i);
+        }
+        return new ProductNeighbors(ids, scores);
+    }
+
+    /**
+     * A matrix holding copies of the given products' rows and the occurrences of those products
+     * and their neighbors, enough to answer neighbors() for each of them. Lets a caller copy
+     * under its lock and rank outside it; products(), pairs() and weight() of other products do
+     * not carry over.
+     */
+    public CoOccurrenceMatrix snapshot(long[] productIds) {
+        CoOccurrenceMatrix copy = new CoOccurrenceMatrix();
+        for (long productId : productIds) {
+            LongLongHashMap row = row(productId);
+            if (row == null || copy.rowIndex.containsKey(productId)) {
+                continue;
+            }
+            copy.rows.add(row.copy());
+            copy.rowIndex.addTo(productId, copy.rows.size());
+            copy.copyOccurrences(productId, occurrences);
+            row.forEach((neighbor, weight) -> copy.copyOccurrences(neighbor, occurrences));
+        }
+        return copy;
+    }
+
+    public long weight(long productId, long otherProductId) {
+        LongLongHashMap row = row(productId);
+        return row == null ? 0 : row.get(otherProductId);
+    }
+
+    public long occurrences(long productId) {
+        return occurrences.get(productId);
+    }
+
+    public int products() {
+        return rows.size();
+    }
+
+    // Pairs that have had a positive weight, each counted once
+    public long pairs() {
+        return pairs;
+    }
+
+    public void forEachProduct(LongLongHashMap.EntryConsumer consumer) {
+        rowIndex.forEach(consumer);
+    }
+
+    private void copyOccurrences(long productId, LongLongHashMap source) {
+        if (!occurrences.containsKey(productId)) {
+            occurrences.addTo(productId, source.get(productId));
+        }
+    }
+
+    private void addPair(long a, long b, long weight) {
+        if (rowFor(a).addTo(b, weight) == weight && weight > 0) {
+            pairs++;
+        }
+        rowFor(b).addTo(a, weight);
+    }
+
+    private LongLongHashMap row(long productId) {
+        long index = rowIndex.get(productId);
+        return index == 0 ? null : rows.get((int) index - 1);
+    }
+
+    // Row numbers are stored plus one, since the map reads 0 as absent
+    private LongLongHashMap rowFor(long productId) {
+        long index = rowIndex.get(productId);
+        if (index == 0) {
+            rows.add(new LongLongHashMap());
+            index = rows.size();
+            rowIndex.addTo(productId, index);
+        }
+        return rows.get((int) index - 1);
+    }
+
+    private static long[] distinct(long[] productIds) {
+        long[] sorted = productIds.clone();
+        Arrays.sort(sorted);
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (sorted[i] != 0 && (size == 0 || sorted[size - 1] != sorted[i])) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+
+    private static boolean ranksAbove(long id, double score, long otherId, double otherScore) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    private static void siftUp(long[] ids, double[] scores, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(ids[parent], scores[parent], ids[index], scores[index])) {
+                return;
+            }
+            swap(ids, scores, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] ids, double[] scores, int heapSize) {
+        int index = 0;
+        while (true) {
+            int lowest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && ranksAbove(ids[lowest], scores[lowest], ids[left], scores[left])) {
+                lowest = left;
+            }
+            if (right < heapSize && ranksAbove(ids[lowest], scores[lowest], ids[right], scores[right])) {
+                lowest = right;
+            }
+            if (lowest == index) {
+                return;
+            }
+            swap(ids, scores, lowest, index);
+            index = lowest;
+        }
+    }
+
+    private static void swap(long[] ids, double[] scores, int i, int j) {
+        long id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        double score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+}
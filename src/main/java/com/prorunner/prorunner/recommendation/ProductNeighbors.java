@@ -0,0 +1,33 @@
+package com.prorunner.prorunner.recommendation;
+
+/**
+ * A product's top neighbors, best first, as two parallel arrays: about 12 bytes per neighbor
+ * instead of a list of boxed entries. Instances are never modified after construction.
+ */
+public final class ProductNeighbors {
+
+    public static final ProductNeighbors EMPTY = new ProductNeighbors(new long[0], new float[0]);
+
+    private final long[] productIds;
+    private final float[] scores;
+
+    public ProductNeighbors(long[] productIds, float[] scores) {
+        if (productIds.length != scores.length) {
+            throw new IllegalArgumentException("Expected one score per product");
+        }
+        this.productIds = productIds;
+        this.scores = scores;
+    }
+
+    public int size() {
+        return productIds.length;
+    }
+
+    public long productId(int rank) {
+        return productIds[rank];
+    }
+
+    public float score(int rank) {
+        return scores[rank];
+    }
+}
@@ -9,4 +9,7 @@ import java.util.List;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
+
+    // Served by idx_orders_user_created (user_id, created_at)
+    List<Order> findByUserIdOrderByCreatedAtDesc(Long userId);
 }
@@ -0,0 +1,19 @@
+package com.prorunner.prorunner.repository;
+
+import com.prorunner.prorunner.model.Promotion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PromotionRepository extends JpaRepository<Promotion, Long> {
+
+    // Active promotions that have not ended, tiers included, for compiling the rule index in one query
+    @Query("SELECT DISTINCT p FROM Promotion p LEFT JOIN FETCH p.tiers " +
+            "WHERE p.active = true AND (p.endsAt IS NULL OR p.endsAt > :now)")
+    List<Promotion> findActiveNotEnded(@Param("now") LocalDateTime now);
+}
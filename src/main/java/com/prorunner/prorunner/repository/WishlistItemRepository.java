@@ -1,9 +1,32 @@
 package com.prorunner.prorunner.repository;
 
 import com.prorunner.prorunner.model.WishlistItem;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface WishlistItemRepository extends JpaRepository<WishlistItem,Long> {
+
+    // Answered from uk_wishlist_item_wishlist_product without loading the wishlist's items
+    @Query("SELECT COUNT(wi) > 0 FROM WishlistItem wi WHERE wi.wishlist.id = :wishlistId AND wi.product.id = :productId")
+    boolean existsInWishlist(@Param("wishlistId") Long wishlistId, @Param("productId") Long productId);
+
+    @Modifying
+    @Query("DELETE FROM WishlistItem wi WHERE wi.wishlist.id = :wishlistId AND wi.product.id = :productId")
+    int deleteFromWishlist(@Param("wishlistId") Long wishlistId, @Param("productId") Long productId);
+
+    // Product ids only, oldest line first; the products are hydrated in one batch by the caller
+    @Query("SELECT wi.product.id FROM WishlistItem wi WHERE wi.wishlist.id = :wishlistId ORDER BY wi.id")
+    List<Long> findProductIdsByWishlistId(@Param("wishlistId") Long wishlistId);
+
+    @Query(value = "SELECT wi.product.id FROM WishlistItem wi WHERE wi.wishlist.id = :wishlistId ORDER BY wi.id",
+            countQuery = "SELECT COUNT(wi) FROM WishlistItem wi WHERE wi.wishlist.id = :wishlistId")
+    Page<Long> findProductIdsByWishlistId(@Param("wishlistId") Long wishlistId, Pageable pageable);
 }
@@ -2,6 +2,9 @@ package com.prorunner.prorunner.security;
 
 import com.prorunner.prorunner.service.UserService;
 import com.prorunner.prorunner.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,6 +19,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
@@ -23,10 +27,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserService userService;
+    private final Timer validTokenTimer;
+    private final Timer invalidTokenTimer;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserService userService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserService userService, MeterRegistry meterRegistry) {
         this.jwtUtil = jwtUtil;
         this.userService = userService;
+        this.validTokenTimer = verificationTimer(meterRegistry, "valid");
+        this.invalidTokenTimer = verificationTimer(meterRegistry, "invalid");
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("prorunner.jwt.verification")
+                .description("Time spent verifying JWT signatures and reading claims")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 
     @Override
@@ -39,12 +54,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = authHeader.substring(7); // Extract the token from the header
 
             try {
-                if (jwtUtil.validateToken(token)) {
+                Claims claims = verify(token);
+                if (claims != null) {
 
-                    String username = jwtUtil.extractUsername(token);
+                    String username = claims.getSubject();
 
                     // Extract roles from token
-                    Set<String> roles = jwtUtil.extractRoles(token);
+                    Set<String> roles = jwtUtil.extractRoles(claims);
 
                     // Convert roles to SimpleGrantedAuthority
                     Set<SimpleGrantedAuthority> authorities = roles.stream()
@@ -68,4 +84,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Parses the token once, returns null when the signature or expiry check fails
+    private Claims verify(String token) {
+        long start = System.nanoTime();
+        try {
+            Claims claims = jwtUtil.parseClaims(token);
+            validTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (Exception e) {
+            invalidTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return null;
+        }
+    }
 }
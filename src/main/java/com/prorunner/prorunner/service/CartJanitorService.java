@@ -0,0 +1,212 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.dto.CartJanitorReportDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deletes guest carts (no user) that have seen no activity for the configured idle period and
+ * releases the stock their lines reserved. Carts are removed in chunks, each in its own short
+ * transaction, with a pause between chunks so the janitor never holds locks for long or
+ * saturates the primary. A run stops after max-chunks-per-run; the rest waits for the next run.
+ * A chunk locks product rows before cart rows, the order cart writers take them in, and a chunk
+ * that still loses a deadlock or times out on a lock is retried instead of ending the run.
+ */
+@Service
+public class CartJanitorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartJanitorService.class);
+
+    public static final String RECLAIMED_METRIC = "prorunner.cart.janitor.reclaimed";
+
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    private static final String IDLE_CARTS_SQL = "SELECT id FROM cart WHERE user_id IS NULL AND last_activity_at < ? " +
+            "ORDER BY id LIMIT ?";
+
+    // A chunk's deletes and stock release, applied to the report once the chunk has committed
+    private record ChunkResult(int scanned, int carts, int lines, long units) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${prorunner.cart-janitor.enabled:true}")
+    private boolean enabled;
+
+    @Value("${prorunner.cart-janitor.idle-hours:72}")
+    private long idleHours;
+
+    @Value("${prorunner.cart-janitor.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${prorunner.cart-janitor.throttle-ms:50}")
+    private long throttleMs;
+
+    @Value("${prorunner.cart-janitor.max-chunks-per-run:200}")
+    private int maxChunksPerRun;
+
+    private final Counter cartsReclaimed;
+    private final Counter linesReclaimed;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile CartJanitorReportDTO lastReport;
+
+    public CartJanitorService(MeterRegistry meterRegistry) {
+        this.cartsReclaimed = Counter.builder(RECLAIMED_METRIC)
+                .description("Rows deleted by the guest cart janitor")
+                .tag("table", "cart")
+                .register(meterRegistry);
+        this.linesReclaimed = Counter.builder(RECLAIMED_METRIC)
+                .description("Rows deleted by the guest cart janitor")
+                .tag("table", "cart_product")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${prorunner.cart-janitor.interval-ms:3600000}",
+            initialDelayString = "${prorunner.cart-janitor.interval-ms:3600000}")
+    public void scheduledRun() {
+        // Skips the tick while a manual run triggered from the admin endpoint is still going
+        if (enabled && !running.get()) {
+            run();
+        }
+    }
+
+    // Runs one pass over the idle guest carts; rejected while another pass is in progress
+    public CartJanitorReportDTO run() {
+        return run(LocalDateTime.now().minus(Duration.ofHours(idleHours)));
+    }
+
+    public CartJanitorReportDTO run(LocalDateTime idleBefore) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Cart janitor is already running");
+        }
+        CartJanitorReportDTO report = new CartJanitorReportDTO();
+        report.setStartedAt(LocalDateTime.now());
+        report.setIdleBefore(idleBefore);
+        long start = System.nanoTime();
+        try {
+            Timestamp cutoff = Timestamp.valueOf(idleBefore);
+            while (report.getChunks() < maxChunksPerRun) {
+                ChunkResult chunk = deleteChunkWithRetry(cutoff);
+                if (chunk.scanned() == 0) {
+                    report.setCompleted(true);
+                    break;
+                }
+                report.setChunks(report.getChunks() + 1);
+                report.setCartsDeleted(report.getCartsDeleted() + chunk.carts());
+                report.setCartLinesDeleted(report.getCartLinesDeleted() + chunk.lines());
+                report.setReservedUnitsReleased(report.getReservedUnitsReleased() + chunk.units());
+                cartsReclaimed.increment(chunk.carts());
+                linesReclaimed.increment(chunk.lines());
+                if (chunk.scanned() < chunkSize) {
+                    report.setCompleted(true);
+                    break;
+                }
+                pause();
+            }
+        } finally {
+            report.setFinishedAt(LocalDateTime.now());
+            report.setDurationMs((System.nanoTime() - start) / 1_000_000);
+            lastReport = report;
+            running.set(false);
+        }
+        logger.info("Cart janitor removed {} idle guest carts ({} lines, {} reserved units released) in {} chunks, {} ms{}",
+                report.getCartsDeleted(), report.getCartLinesDeleted(), report.getReservedUnitsReleased(),
+                report.getChunks(), report.getDurationMs(), report.isCompleted() ? "" : "; more remain for the next run");
+        return report;
+    }
+
+    public CartJanitorReportDTO getLastReport() {
+        return lastReport;
+    }
+
+    private ChunkResult deleteChunkWithRetry(Timestamp cutoff) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> deleteChunk(cutoff));
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= MAX_CHUNK_ATTEMPTS) {
+                    throw e;
+                }
+                logger.warn("Cart janitor chunk lost a lock conflict (attempt {}), retrying: {}", attempt, e.getMessage());
+                pause();
+            }
+        }
+    }
+
+    private ChunkResult deleteChunk(Timestamp cutoff) {
+        List<Long> candidates = jdbcTemplate.queryForList(IDLE_CARTS_SQL, Long.class, cutoff, chunkSize);
+        if (candidates.isEmpty()) {
+            return new ChunkResult(0, 0, 0, 0);
+        }
+        String placeholders = String.join(",", Collections.nCopies(candidates.size(), "?"));
+        List<Object> params = new ArrayList<>(candidates);
+
+        // Products first, then carts, as CartService writers lock them, so the two cannot deadlock
+        jdbcTemplate.query("SELECT id FROM product WHERE id IN (SELECT product_id FROM cart_product " +
+                        "WHERE cart_id IN (" + placeholders + ")) ORDER BY id FOR UPDATE",
+                rs -> { },
+                params.toArray());
+        // Idleness is checked again under the lock, so a shopper coming back mid-run keeps the cart
+        params.add(cutoff);
+        List<Long> cartIds = jdbcTemplate.queryForList("SELECT id FROM cart WHERE id IN (" + placeholders + ") " +
+                "AND user_id IS NULL AND last_activity_at < ? ORDER BY id FOR UPDATE", Long.class, params.toArray());
+        if (cartIds.isEmpty()) {
+            return new ChunkResult(candidates.size(), 0, 0, 0);
+        }
+        placeholders = String.join(",", Collections.nCopies(cartIds.size(), "?"));
+        Object[] ids = cartIds.toArray();
+
+        // Product rows are updated in id order so concurrent writers cannot deadlock with the janitor
+        List<Object[]> releases = new ArrayList<>();
+        long[] units = {0};
+        jdbcTemplate.query("SELECT product_id, SUM(quantity) FROM cart_product WHERE cart_id IN (" + placeholders + ") " +
+                        "GROUP BY product_id ORDER BY product_id",
+                rs -> {
+                    long quantity = rs.getLong(2);
+                    releases.add(new Object[]{quantity, rs.getLong(1)});
+                    units[0] += quantity;
+                },
+                ids);
+        if (!releases.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE product SET reserved_stock = GREATEST(reserved_stock - ?, 0), " +
+                    "version = version + 1 WHERE id = ?", releases);
+        }
+
+        int lines = jdbcTemplate.update("DELETE FROM cart_product WHERE cart_id IN (" + placeholders + ")", ids);
+        int carts = jdbcTemplate.update("DELETE FROM cart WHERE id IN (" + placeholders + ")", ids);
+        return new ChunkResult(candidates.size(), carts, lines, units[0]);
+    }
+
+    private void pause() {
+        if (throttleMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(throttleMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,16 +1,19 @@
 package com.prorunner.prorunner.service;
 
+import com.prorunner.prorunner.concurrency.RetryOnConflict;
 import com.prorunner.prorunner.dto.CartDTO;
 import com.prorunner.prorunner.dto.CartProductDTO;
 import com.prorunner.prorunner.model.Cart;
 import com.prorunner.prorunner.model.CartProduct;
+import com.prorunner.prorunner.model.Money;
 import com.prorunner.prorunner.model.Product;
 import com.prorunner.prorunner.model.User;
 import com.prorunner.prorunner.repository.CartProductRepository;
 import com.prorunner.prorunner.repository.CartRepository;
 import com.prorunner.prorunner.repository.ProductRepository;
 import com.prorunner.prorunner.repository.UserRepository;
-import jakarta.transaction.Transactional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,10 +21,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -44,8 +49,31 @@ public class CartService {
     @Autowired
     private ModelMapper modelMapper;
 
+    @Autowired
+    private ProductRetirementService productRetirementService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private static final Logger logger = LoggerFactory.getLogger(CartService.class);
 
+    // Copies guest lines into the user cart; a product already in the user cart gets the guest
+    // quantity added at the user's unit price. subtotal_minor is assigned first so it reads the old quantity.
+    private static final String MERGE_LINES_SQL =
+            "INSERT INTO cart_product (cart_id, product_id, quantity, unit_price_minor, subtotal_minor, version) " +
+            "SELECT ?, g.product_id, g.quantity, g.unit_price_minor, g.subtotal_minor, 0 FROM cart_product g WHERE g.cart_id = ? " +
+            "ON DUPLICATE KEY UPDATE subtotal_minor = unit_price_minor * (quantity + VALUES(quantity)), " +
+            "quantity = quantity + VALUES(quantity), version = version + 1";
+
 
     // Helper methods for mapping
     private CartDTO mapToDTO(Cart cart) {
@@ -74,8 +102,9 @@ public class CartService {
 
 
     // Fetch cart by ID and map to CartDTO class
+    @Transactional(readOnly = true)
     public CartDTO getCartById(Long cartId){
-        logger.info("Fetching cart with ID: {}", cartId);
+        logger.debug("Fetching cart with ID: {}", cartId);
         Cart cart = cartRepository.findById(cartId)
                 .orElseThrow(() -> new RuntimeException("Cart not found with ID: " + cartId));
         return mapToDTO(cart);
@@ -83,6 +112,7 @@ public class CartService {
 
 
     @Transactional
+    @RetryOnConflict
     public CartDTO addProductToCart(String sessionId, Long userId, Long productId, int quantity){
 
         if ((sessionId == null || sessionId.isEmpty()) && userId == null) {
@@ -100,20 +130,28 @@ public class CartService {
 
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product with ID " + productId + " does not exist"));
-        logger.info("Product details: Name: {}, Total Stock: {}, Reserved Stock: {}",
-                product.getName(),
-                product.getAvailableStock(),
-                product.getReservedStock());
+        // Unavailable covers products being retired, whose lines are swept out of every cart
+        if (!Boolean.TRUE.equals(product.getAvailability())) {
+            throw new RuntimeException("Product " + product.getName() + " is not available");
+        }
+        // Guarded: the varargs array and boxed stock values would be allocated even with DEBUG off
+        if (logger.isDebugEnabled()) {
+            logger.debug("Product details: Name: {}, Available Stock: {}, Reserved Stock: {}",
+                    product.getName(),
+                    product.getAvailableStock(),
+                    product.getReservedStock());
+        }
 
         //int availableStock = product.getStock()-product.getReservedStock();
         int availableStock = product.getStock();
-        logger.info("Calculated available stock: {}", availableStock);
         if (availableStock < (quantity)) {
             logger.error("Insufficient stock for product: {}", product.getName());
             throw new RuntimeException("Insufficient stock for product: " + product.getName());
         }
 
-        logger.info("Adding product {} with quantity {} to cart", productId, quantity);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Adding product {} with quantity {} to cart (available stock: {})", productId, quantity, availableStock);
+        }
         
         CartProduct cartProduct = cartProductRepository.findByCartAndProduct(cart, product)
                 .orElseGet(() -> new CartProduct(cart, product, 0, product.getPrice()));
@@ -123,23 +161,23 @@ public class CartService {
         }
 
         cartProduct.setQuantity(cartProduct.getQuantity() + quantity);
-        cartProduct.updateSubtotal();
+        pricingService.applyTo(cartProduct);
         cartProductRepository.save(cartProduct);
 
         product.setReservedStock(product.getReservedStock() + quantity);
         productRepository.save(product);
 
         updateCartTotal(cart);
+        cartChanged(cart, "CartLineAdded", productId, cartProduct.getQuantity());
 
         return mapToDTO(cart);
     }
-    @Transactional
     private Cart getOrCreateCartEntity(String sessionId, Long userId) {
         if (userId != null) {
             return cartRepository.findByUserId(userId)
                     .orElseGet(() -> createUserCart(userId));
         } else if(sessionId != null){
-            logger.info("Checking for existing cart with sessionId: {}", sessionId);
+            logger.debug("Checking for existing cart with sessionId: {}", sessionId);
             return cartRepository.findBySessionId(sessionId)
                     .orElseGet(() -> createGuestCart(sessionId));
         }else {
@@ -169,7 +207,7 @@ public class CartService {
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
         Cart cart = new Cart();
         cart.setUser(user);
-        cart.setTotalPrice(0.0);
+        cart.setTotalPrice(Money.ZERO);
         return cartRepository.save(cart);
     }
 
@@ -177,23 +215,26 @@ public class CartService {
 
         Cart cart = new Cart();
         cart.setSessionId(sessionId);
-        cart.setTotalPrice(0.0);
+        cart.setTotalPrice(Money.ZERO);
         return cartRepository.save(cart);
     }
 
 
     @Transactional
+    @RetryOnConflict
     public CartDTO removeProductFromCart(String sessionId, Long userId, Long productId){
 
         Cart cart = getOrCreateCartEntity(sessionId, userId);
 
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product with ID: "+productId+" does not exist."));
-        logger.info("Product found: {}", product.getName());
 
         CartProduct cartProduct = cartProductRepository.findByCartAndProduct(cart,product)
                 .orElseThrow(() -> new RuntimeException("Product not found in the cart"));
-        logger.info("CartProduct found: Quantity {} at Price {}", cartProduct.getQuantity(), cartProduct.getUnitPrice());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Removing product {} from cart {}: Quantity {} at Price {}",
+                    product.getName(), cart.getId(), cartProduct.getQuantity(), cartProduct.getUnitPrice());
+        }
 
         cart.getCartProducts().removeIf(cp -> Objects.equals(cp.getId(), cartProduct.getId()));
         cartProductRepository.delete(cartProduct);
@@ -201,6 +242,7 @@ public class CartService {
         product.setReservedStock(product.getReservedStock()-cartProduct.getQuantity());
         productRepository.save(product);
         updateCartTotal(cart);
+        cartChanged(cart, "CartLineRemoved", productId, 0);
 
         return mapToDTO(cartRepository.save(cart));
     }
@@ -209,9 +251,10 @@ public class CartService {
      * Update the quantity of a product in the cart.
      */
     @Transactional
+    @RetryOnConflict
     public CartDTO addProductQuantity(String sessionId, Long userId, Long productId, boolean increment){
 
-        logger.info("Adjusting product quantity (increment: {}) for product {}", increment, productId);
+        logger.debug("Adjusting product quantity (increment: {}) for product {}", increment, productId);
         Cart cart = getOrCreateCartEntity(sessionId, userId);
 
         Product product = productRepository.findById(productId)
@@ -223,7 +266,7 @@ public class CartService {
         int updatedQuantity = cartProduct.getQuantity() + (increment ? 1 : -1);
 
         if (updatedQuantity <= 0){
-            logger.info("Deleting product with ID {} from the cart because the quantity is zero", productId);
+            logger.debug("Deleting product with ID {} from the cart because the quantity is zero", productId);
 
             cart.getCartProducts().removeIf(cp -> Objects.equals(cp.getId(), cartProduct.getId()));
             cartProductRepository.delete(cartProduct);
@@ -233,7 +276,7 @@ public class CartService {
             productRepository.save(product);
         } else {
             cartProduct.setQuantity(updatedQuantity);
-            cartProduct.updateSubtotal();
+            pricingService.applyTo(cartProduct);
             if(increment){
                 product.setReservedStock(product.getReservedStock()+1);
             } else{
@@ -242,25 +285,18 @@ public class CartService {
             cartProductRepository.save(cartProduct);
         }
         updateCartTotal(cart);
+        cartChanged(cart, updatedQuantity <= 0 ? "CartLineRemoved" : "CartLineQuantityChanged", productId, Math.max(updatedQuantity, 0));
         return mapToDTO(cartRepository.save(cart));
     }
 
-    @Transactional
+    // Set-based and chunked: each chunk of carts commits on its own, so this must not run inside a transaction
     public void removeProductFromAllCarts(Long productId){
-
-        List<CartProduct> cartProducts = cartProductRepository.findByProductId(productId);
-
-        for (CartProduct cartProduct: cartProducts){
-            Cart cart = cartProduct.getCart();
-            cartProductRepository.delete(cartProduct);
-            updateCartTotal(cart);
-            cartRepository.save(cart);
-        }
-
+        productRetirementService.removeFromAllCarts(productId);
     }
 
+    @Transactional(readOnly = true)
     public Page<CartProductDTO> viewCart(Long cartId, int page, int size){
-        logger.info("Fetching cart products for cart ID: {}", cartId);
+        logger.debug("Fetching cart products for cart ID: {}", cartId);
 
         Cart cart = cartRepository.findById(cartId)
                 .orElseThrow(() -> new RuntimeException("Cart not found with ID: " + cartId));
@@ -272,6 +308,7 @@ public class CartService {
     }
 
     @Transactional
+    @RetryOnConflict
     public CartDTO clearCart(Long cartId) {
 
         Cart cart = cartRepository.findById(cartId)
@@ -282,11 +319,12 @@ public class CartService {
         }
 
         cart.getCartProducts().clear();
-        cart.setTotalPrice(0.0);
+        cart.setTotalPrice(Money.ZERO);
+        cartChanged(cart, "CartCleared", null, 0);
         return mapToDTO(cartRepository.save(cart));
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public List<CartProductDTO> getCartProducts(Long cartId) {
         Cart cart = cartRepository.findById(cartId)
                 .orElseThrow(() -> new RuntimeException("Cart not found with ID: "+cartId));
@@ -294,20 +332,30 @@ public class CartService {
         return mapToDTO(cartProductRepository.findByCart(cart));
     }
 
-    @Transactional
-    private void updateCartTotal(Cart cart) {logger.info("Updating total price for cart ID: {}", cart.getId());
+    // Outbox event in the mutation's transaction; quantity is the line's new quantity, 0 once removed
+    private void cartChanged(Cart cart, String eventType, Long productId, int quantity) {
+        outboxService.append("cart", cart.getId(), eventType, OutboxService.payload(
+                "cartId", cart.getId(), "userId", cart.getUser() == null ? null : cart.getUser().getId(),
+                "productId", productId, "quantity", quantity, "totalPrice", cart.getTotalPrice()));
+    }
 
-        BigDecimal totalPrice = cartProductRepository.findByCart(cart).stream()
-                .map(cartProduct -> BigDecimal.valueOf(cartProduct.getSubtotal()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private void updateCartTotal(Cart cart) {
+        logger.debug("Updating total price for cart ID: {}", cart.getId());
 
-        cart.setTotalPrice(totalPrice.setScale(2, RoundingMode.HALF_UP).doubleValue());
+        // Sums minor units in a long: exact, and no boxing or BigDecimal per line
+        long totalMinor = 0;
+        for (CartProduct cartProduct : cartProductRepository.findByCart(cart)) {
+            totalMinor = Math.addExact(totalMinor, cartProduct.getSubtotal().getMinorUnits());
+        }
+
+        cart.setTotalPrice(Money.ofMinor(totalMinor));
         cartRepository.save(cart);
     }
 
 
+    @Transactional(readOnly = true)
     public int getCartProductCount(Long cartId) {
-        logger.info("Fetching product count for cart ID: {}", cartId);
+        logger.debug("Fetching product count for cart ID: {}", cartId);
         Cart cart = cartRepository.findById(cartId)
                 .orElseThrow(() -> new RuntimeException("Cart not found with ID: " + cartId));
         return cart.getCartProducts().stream()
@@ -316,12 +364,13 @@ public class CartService {
     }
 
 
+    @Transactional
     public CartDTO getOrCreateGuestCart(String sessionId) {
         Cart cart = cartRepository.findBySessionId(sessionId)
                 .orElseGet(() -> {
                     Cart newCart = new Cart();
                     newCart.setSessionId(sessionId);
-                    newCart.setTotalPrice(0.0);
+                    newCart.setTotalPrice(Money.ZERO);
                     return cartRepository.save(newCart);
                 });
         return mapToDTO(cart);
@@ -330,50 +379,63 @@ public class CartService {
 
     /**
      * Merges the contents of a guest cart into a user's cart after login.
+     * Set-based: one upsert copies the guest lines (adding quantities where the user already
+     * has the product), one statement recomputes the total, then the guest cart is deleted.
+     * Reserved stock is unchanged because the reserved quantities just move between carts.
+     * An empty guest cart is deleted without touching the user's cart.
      *
      * @param guestSessionId The session ID of the guest cart.
      * @param userId         The ID of the logged-in user.
      * @return The updated user cart as a DTO.
      */
     @Transactional
+    @RetryOnConflict
     public CartDTO mergeCarts(String guestSessionId, Long userId) {
-        logger.info("Merging guest cart with session ID: {} into user cart for user ID: {}", guestSessionId, userId);
+        logger.debug("Merging guest cart with session ID: {} into user cart for user ID: {}", guestSessionId, userId);
 
-        // Fetch the guest cart by session ID
-        Cart guestCart = cartRepository.findBySessionId(guestSessionId)
-                .orElseThrow(() -> new RuntimeException("Guest cart not found for session: " + guestSessionId));
+        // Locks the guest cart so a second merge of the same session waits and then finds nothing
+        Long guestCartId = jdbcTemplate.query("SELECT id FROM cart WHERE session_id = ? FOR UPDATE",
+                rs -> rs.next() ? rs.getLong(1) : null, guestSessionId);
+        if (guestCartId == null) {
+            throw new RuntimeException("Guest cart not found for session: " + guestSessionId);
+        }
 
-        // Fetch or create the user cart
         Cart userCart = cartRepository.findByUserId(userId)
-                .orElseGet(()->createUserCart(userId));
-
-        if (guestCart == null || guestCart.getCartProducts().isEmpty()) {
-            logger.info("No guest cart found or guest cart is empty. Returning the user's cart.");
+                .orElseGet(() -> createUserCart(userId));
+
+        // Counted up front: the upsert's affected rows count an updated line twice on MySQL
+        Integer merged = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_product WHERE cart_id = ?",
+                Integer.class, guestCartId);
+        if (merged == null || merged == 0) {
+            logger.debug("Guest cart is empty. Deleting it and returning the user's cart.");
+            jdbcTemplate.update("DELETE FROM cart WHERE id = ?", guestCartId);
             return mapToDTO(userCart);
         }
-        // Merge guest cart products into user cart
-        for (CartProduct guestProduct : guestCart.getCartProducts()) {
 
-            CartProduct userProduct = cartProductRepository.findByCartAndProduct(userCart,guestProduct.getProduct())
-                    .orElseGet(()->new CartProduct(userCart,guestProduct.getProduct(),0,guestProduct.getUnitPrice()));
+        jdbcTemplate.update(MERGE_LINES_SQL, userCart.getId(), guestCartId);
 
-            userProduct.setQuantity(userProduct.getQuantity() + guestProduct.getQuantity());
-            userProduct.updateSubtotal();
-            cartProductRepository.save(userProduct);
-        }
-        // Update total price of the user cart
-        userCart.setTotalPrice(userCart.getCartProducts().stream()
-                .mapToDouble(CartProduct::getSubtotal)
-                .sum());
-
-        cartRepository.save(userCart);
+        jdbcTemplate.update("UPDATE cart SET total_price_minor = (SELECT COALESCE(SUM(cp.subtotal_minor), 0) " +
+                        "FROM cart_product cp WHERE cp.cart_id = ?), version = version + 1, last_activity_at = ? WHERE id = ?",
+                userCart.getId(), Timestamp.valueOf(LocalDateTime.now()), userCart.getId());
+        jdbcTemplate.update("DELETE FROM cart_product WHERE cart_id = ?", guestCartId);
+        jdbcTemplate.update("DELETE FROM cart WHERE id = ?", guestCartId);
 
-        // Delete guest cart
-        //cartRepository.delete(guestCart);
-        guestCart.getCartProducts().clear(); // Clear before deletion to avoid orphan removal error
-        cartRepository.delete(guestCart);
-        cartRepository.save(userCart);
+        // The statements above bypassed the persistence context, so reload the user cart and its lines
+        entityManager.refresh(userCart);
 
+        // Merged quantities can reach a promotion tier or bundle; only repriced lines are written back
+        boolean repriced = false;
+        for (CartProduct cartProduct : userCart.getCartProducts()) {
+            Money before = cartProduct.getSubtotal();
+            pricingService.applyTo(cartProduct);
+            repriced |= !before.equals(cartProduct.getSubtotal());
+        }
+        if (repriced) {
+            updateCartTotal(userCart);
+        }
+        outboxService.append("cart", userCart.getId(), "CartsMerged", OutboxService.payload(
+                "cartId", userCart.getId(), "userId", userId, "guestCartId", guestCartId,
+                "mergedLines", merged, "totalPrice", userCart.getTotalPrice()));
         logger.info("Guest cart merged successfully into user cart for user ID: {}", userId);
 
         return mapToDTO(userCart);
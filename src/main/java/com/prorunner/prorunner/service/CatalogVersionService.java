@@ -0,0 +1,88 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.event.ProductCatalogChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Version of the product catalog, used as the ETag of catalog responses so conditional GETs
+ * can be answered with 304 without running the catalog query. The version is the
+ * catalog_version row, bumped by every ProductCatalogChangedEvent inside the writing
+ * transaction, so all instances share it and it survives restarts. Each instance re-reads
+ * the row at most every version-check-ms: its own writes are seen at once, another
+ * instance's within that time.
+ */
+@Service
+public class CatalogVersionService {
+
+    private static final String BUMP_SQL = "UPDATE catalog_version SET version = version + 1 WHERE id = 1";
+    private static final String READ_SQL = "SELECT version FROM catalog_version WHERE id = 1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    // With read replicas a read right after the bump may still see the old rows,
+    // so the version moves again once the replicas are allowed to have caught up
+    @Value("${prorunner.datasource.replica.urls:}")
+    private String replicaUrls;
+
+    @Value("${prorunner.datasource.replica.max-lag-ms:5000}")
+    private long replicaMaxLagMs;
+
+    @Value("${prorunner.catalog.version-check-ms:1000}")
+    private long versionCheckMs;
+
+    private volatile long version;
+    private volatile long checkedAt;
+    private volatile boolean stale = true;
+
+    public long currentVersion() {
+        long now = System.nanoTime();
+        if (stale || now - checkedAt >= versionCheckMs * 1_000_000) {
+            // Cleared before the read, so a bump committing meanwhile marks it stale again
+            stale = false;
+            Long current = jdbcTemplate.queryForObject(READ_SQL, Long.class);
+            version = current == null ? 0 : current;
+            checkedAt = now;
+        }
+        return version;
+    }
+
+    // Weak tag: StandardResponse bodies carry a timestamp, so equal versions are
+    // equivalent but not byte-identical
+    public String etag() {
+        return "W/\"" + currentVersion() + "\"";
+    }
+
+    // Last write of the catalog transaction, so the row lock is only held while it commits
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(ProductCatalogChangedEvent event) {
+        jdbcTemplate.update(BUMP_SQL);
+        // Without a transaction the bump is already committed and the listener below may have run first
+        stale = true;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogCommitted(ProductCatalogChangedEvent event) {
+        stale = true;
+        if (!replicaUrls.isBlank()) {
+            taskScheduler.schedule(this::bumpAfterReplicaLag, Instant.now().plus(Duration.ofMillis(replicaMaxLagMs)));
+        }
+    }
+
+    private void bumpAfterReplicaLag() {
+        jdbcTemplate.update(BUMP_SQL);
+        stale = true;
+    }
+}
@@ -0,0 +1,230 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.dto.NavigationCategoryDTO;
+import com.prorunner.prorunner.dto.NavigationFacetDTO;
+import com.prorunner.prorunner.dto.NavigationTreeDTO;
+import com.prorunner.prorunner.event.ProductCatalogChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Storefront navigation (categories with their genders, colors and sizes and product counts)
+ * kept in memory, so a page view reads one prebuilt tree instead of issuing a filter query per
+ * facet. The tree comes from one aggregate over product grouped by those attributes, which
+ * returns one row per combination rather than per product. Catalog writes schedule a rebuild
+ * debounce-ms after they commit, so a burst of writes (an import, a stock sync, checkout)
+ * costs one aggregate. Writes committed on other instances are noticed through the shared
+ * catalog version, which is compared on each read. The tree's version is a hash of its content,
+ * so every instance serving the same navigation hands out the same ETag, and clients and
+ * shared caches keep their copy across writes that do not affect navigation.
+ */
+@Service
+public class NavigationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NavigationService.class);
+
+    private static final String AGGREGATE_SQL = "SELECT category, gender, color, size, availability, COUNT(*) " +
+            "FROM product GROUP BY category, gender, color, size, availability";
+
+    // One row of the aggregate
+    private record Cell(String category, String gender, String color, String size, boolean available, long products) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Value("${prorunner.navigation.debounce-ms:500}")
+    private long debounceMs;
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final Timer rebuildTimer;
+
+    // Guarded by this
+    private Set<Cell> cells;
+
+    private volatile NavigationTreeDTO tree;
+    // Catalog version read before the aggregate the current tree was checked against
+    private volatile long catalogVersion = -1;
+
+    public NavigationService(MeterRegistry meterRegistry) {
+        this.rebuildTimer = Timer.builder("prorunner.navigation.rebuild")
+                .description("Time to aggregate the product table into the navigation tree")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(ProductCatalogChangedEvent event) {
+        scheduleRebuild();
+    }
+
+    // The current tree; built on first use if startup has not done it yet. A catalog version moved
+    // by another instance schedules a rebuild, and the current tree is served until it lands.
+    public NavigationTreeDTO getTree() {
+        NavigationTreeDTO current = tree;
+        if (current == null) {
+            return rebuild();
+        }
+        if (catalogVersionService.currentVersion() != catalogVersion) {
+            scheduleRebuild();
+        }
+        return current;
+    }
+
+    public String etag(NavigationTreeDTO tree) {
+        return "W/\"nav-" + Long.toHexString(tree.getVersion()) + "\"";
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::scheduledRebuild, Instant.now().plus(Duration.ofMillis(debounceMs)));
+        }
+    }
+
+    /**
+     * Aggregates the product table and replaces the tree if anything changed; otherwise the
+     * current tree, version included, stays. Returns the tree now served.
+     */
+    public synchronized NavigationTreeDTO rebuild() {
+        long start = System.nanoTime();
+        // Read first: a write committing during the aggregate leaves the version ahead and triggers another pass
+        long readVersion = catalogVersionService.currentVersion();
+        Set<Cell> aggregated = new HashSet<>();
+        jdbcTemplate.query(AGGREGATE_SQL, rs -> {
+            aggregated.add(new Cell(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                    rs.getBoolean(5), rs.getLong(6)));
+        });
+        catalogVersion = readVersion;
+        if (tree != null && aggregated.equals(cells)) {
+            rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return tree;
+        }
+        cells = aggregated;
+        NavigationTreeDTO built = build(aggregated, contentHash(aggregated));
+        tree = built;
+        long nanos = System.nanoTime() - start;
+        rebuildTimer.record(nanos, TimeUnit.NANOSECONDS);
+        logger.debug("Navigation tree version {} built from {} combinations in {} ms",
+                Long.toHexString(built.getVersion()), aggregated.size(), nanos / 1_000_000);
+        return built;
+    }
+
+    // Order-independent 64-bit hash of the aggregate, computed the same way on every JVM
+    private static long contentHash(Set<Cell> cells) {
+        long hash = 0;
+        for (Cell cell : cells) {
+            long h = Objects.hashCode(cell.category());
+            h = 31 * h + Objects.hashCode(cell.gender());
+            h = 31 * h + Objects.hashCode(cell.color());
+            h = 31 * h + Objects.hashCode(cell.size());
+            h = 31 * h + (cell.available() ? 1 : 0);
+            h = 31 * h + cell.products();
+            // SplitMix64 finalizer, so cells do not cancel each other out in the sum
+            h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+            h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+            hash += h ^ (h >>> 31);
+        }
+        return hash;
+    }
+
+    private void scheduledRebuild() {
+        // Cleared first, so a write committing during the aggregate schedules another pass
+        rebuildScheduled.set(false);
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.error("Navigation tree rebuild failed, serving the previous tree: {}", e.getMessage(), e);
+        }
+    }
+
+    private static NavigationTreeDTO build(Set<Cell> cells, long version) {
+        NavigationTreeDTO built = new NavigationTreeDTO();
+        built.setVersion(version);
+        built.setBuiltAt(LocalDateTime.now());
+        Map<String, NavigationCategoryDTO> categories = new TreeMap<>();
+        Map<String, NavigationFacetDTO> genders = new TreeMap<>();
+        Map<String, Map<String, NavigationFacetDTO>> categoryGenders = new TreeMap<>();
+        Map<String, Map<String, NavigationFacetDTO>> categoryColors = new TreeMap<>();
+        Map<String, Map<String, NavigationFacetDTO>> categorySizes = new TreeMap<>();
+        long products = 0;
+        long available = 0;
+
+        for (Cell cell : cells) {
+            long cellAvailable = cell.available() ? cell.products() : 0;
+            products += cell.products();
+            available += cellAvailable;
+            count(genders, cell.gender(), cell.products(), cellAvailable);
+            if (cell.category() == null) {
+                continue;
+            }
+            NavigationCategoryDTO category = categories.computeIfAbsent(cell.category(), name -> {
+                NavigationCategoryDTO dto = new NavigationCategoryDTO();
+                dto.setName(name);
+                return dto;
+            });
+            category.setProducts(category.getProducts() + cell.products());
+            category.setAvailable(category.getAvailable() + cellAvailable);
+            count(categoryGenders.computeIfAbsent(cell.category(), c -> new TreeMap<>()), cell.gender(), cell.products(), cellAvailable);
+            count(categoryColors.computeIfAbsent(cell.category(), c -> new TreeMap<>()), cell.color(), cell.products(), cellAvailable);
+            count(categorySizes.computeIfAbsent(cell.category(), c -> new TreeMap<>()), cell.size(), cell.products(), cellAvailable);
+        }
+
+        for (NavigationCategoryDTO category : categories.values()) {
+            category.setGenders(new ArrayList<>(categoryGenders.get(category.getName()).values()));
+            category.setColors(new ArrayList<>(categoryColors.get(category.getName()).values()));
+            category.setSizes(new ArrayList<>(categorySizes.get(category.getName()).values()));
+        }
+        built.setCategories(new ArrayList<>(categories.values()));
+        built.setGenders(new ArrayList<>(genders.values()));
+        built.setProducts(products);
+        built.setAvailable(available);
+        return built;
+    }
+
+    private static void count(Map<String, NavigationFacetDTO> facets, String value, long products, long available) {
+        if (value == null) {
+            return;
+        }
+        NavigationFacetDTO facet = facets.computeIfAbsent(value, v -> {
+            NavigationFacetDTO dto = new NavigationFacetDTO();
+            dto.setValue(v);
+            return dto;
+        });
+        facet.setProducts(facet.getProducts() + products);
+        facet.setAvailable(facet.getAvailable() + available);
+    }
+}
@@ -0,0 +1,238 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.archive.OrderArchive;
+import com.prorunner.prorunner.archive.OrderSegment;
+import com.prorunner.prorunner.dto.OrderArchiveReportDTO;
+import com.prorunner.prorunner.dto.OrderArchiveSegmentDTO;
+import com.prorunner.prorunner.dto.OrderDTO;
+import com.prorunner.prorunner.dto.OrderItemDTO;
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.model.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Moves delivered and cancelled orders older than min-age-days out of orders and order_item
+ * into OrderArchive segments, orders-per-segment orders at a time. Each segment is written and
+ * synced before its orders are deleted (chunk-size orders per transaction), so a crash in between
+ * leaves orders both live and archived; the next run finds them in the archive and only deletes
+ * them. Orders still moving through the status machine are never archived. A run stops after
+ * max-segments-per-run; the rest waits for the next run.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    public static final String ARCHIVED_METRIC = "prorunner.order.archive.archived";
+
+    // Served by idx_orders_status_created (status, created_at)
+    private static final String CANDIDATES_SQL = "SELECT id FROM orders WHERE status IN ('DELIVERED', 'CANCELLED') " +
+            "AND created_at < ? AND id > ? ORDER BY id LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrderArchive orderArchive;
+
+    @Value("${prorunner.order-archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${prorunner.order-archive.min-age-days:365}")
+    private long minAgeDays;
+
+    @Value("${prorunner.order-archive.orders-per-segment:50000}")
+    private int ordersPerSegment;
+
+    @Value("${prorunner.order-archive.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${prorunner.order-archive.max-segments-per-run:20}")
+    private int maxSegmentsPerRun;
+
+    private final Counter ordersArchived;
+    private final Counter itemsArchived;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile OrderArchiveReportDTO lastReport;
+
+    public OrderArchiveService(MeterRegistry meterRegistry) {
+        this.ordersArchived = Counter.builder(ARCHIVED_METRIC)
+                .description("Rows moved from the database into order archive segments")
+                .tag("table", "orders")
+                .register(meterRegistry);
+        this.itemsArchived = Counter.builder(ARCHIVED_METRIC)
+                .description("Rows moved from the database into order archive segments")
+                .tag("table", "order_item")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${prorunner.order-archive.interval-ms:86400000}",
+            initialDelayString = "${prorunner.order-archive.interval-ms:86400000}")
+    public void scheduledRun() {
+        if (enabled && !running.get()) {
+            run();
+        }
+    }
+
+    // Archives the orders older than min-age-days; rejected while another run is in progress
+    public OrderArchiveReportDTO run() {
+        return run(LocalDateTime.now().minus(Duration.ofDays(minAgeDays)));
+    }
+
+    public OrderArchiveReportDTO run(LocalDateTime createdBefore) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Order archiving is already running");
+        }
+        OrderArchiveReportDTO report = new OrderArchiveReportDTO();
+        report.setStartedAt(LocalDateTime.now());
+        report.setCreatedBefore(createdBefore);
+        long start = System.nanoTime();
+        try {
+            Timestamp cutoff = Timestamp.valueOf(createdBefore);
+            long afterId = 0;
+            while (report.getSegmentsWritten() < maxSegmentsPerRun) {
+                List<Long> orderIds = jdbcTemplate.queryForList(CANDIDATES_SQL, Long.class, cutoff, afterId, ordersPerSegment);
+                if (orderIds.isEmpty()) {
+                    report.setCompleted(true);
+                    break;
+                }
+                archive(orderIds, report);
+                afterId = orderIds.get(orderIds.size() - 1);
+                if (orderIds.size() < ordersPerSegment) {
+                    report.setCompleted(true);
+                    break;
+                }
+            }
+        } finally {
+            report.setFinishedAt(LocalDateTime.now());
+            report.setDurationMs((System.nanoTime() - start) / 1_000_000);
+            lastReport = report;
+            running.set(false);
+        }
+        logger.info("Archived {} orders ({} items) created before {} into {} segments of {} bytes, {} ms{}",
+                report.getOrdersArchived(), report.getItemsArchived(), createdBefore, report.getSegmentsWritten(),
+                report.getBytesWritten(), report.getDurationMs(), report.isCompleted() ? "" : "; more remain for the next run");
+        return report;
+    }
+
+    public OrderArchiveReportDTO getLastReport() {
+        return lastReport;
+    }
+
+    public List<OrderArchiveSegmentDTO> getSegments() {
+        return orderArchive.getSegments().stream()
+                .map(segment -> {
+                    OrderArchiveSegmentDTO dto = new OrderArchiveSegmentDTO();
+                    dto.setFile(segment.getPath().getFileName().toString());
+                    dto.setOrders(segment.getOrderCount());
+                    dto.setItems(segment.getItemCount());
+                    dto.setBlocks(segment.getBlockCount());
+                    dto.setBytes(segment.getFileBytes());
+                    dto.setMinOrderId(segment.getMinOrderId());
+                    dto.setMaxOrderId(segment.getMaxOrderId());
+                    dto.setOldestCreatedAt(segment.getOldestCreatedAt());
+                    dto.setNewestCreatedAt(segment.getNewestCreatedAt());
+                    dto.setStatusCounts(segment.getStatusCounts());
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private void archive(List<Long> orderIds, OrderArchiveReportDTO report) {
+        List<Long> toWrite = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            if (!orderArchive.contains(orderId)) {
+                toWrite.add(orderId);
+            }
+        }
+        report.setOrdersAlreadyArchived(report.getOrdersAlreadyArchived() + orderIds.size() - toWrite.size());
+
+        if (!toWrite.isEmpty()) {
+            List<OrderDTO> orders = new ArrayList<>(toWrite.size());
+            for (int from = 0; from < toWrite.size(); from += chunkSize) {
+                orders.addAll(load(toWrite.subList(from, Math.min(from + chunkSize, toWrite.size()))));
+            }
+            OrderSegment segment = orderArchive.write(orders);
+            report.setSegmentsWritten(report.getSegmentsWritten() + 1);
+            report.setBytesWritten(report.getBytesWritten() + segment.getFileBytes());
+        }
+
+        // Only once the segment is on disk
+        for (int from = 0; from < orderIds.size(); from += chunkSize) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + chunkSize, orderIds.size()));
+            transactionTemplate.executeWithoutResult(status -> delete(chunk, report));
+        }
+    }
+
+    private List<OrderDTO> load(List<Long> orderIds) {
+        String placeholders = String.join(",", Collections.nCopies(orderIds.size(), "?"));
+        Object[] ids = orderIds.toArray();
+        Map<Long, OrderDTO> orders = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, user_id, address_id, created_at, status, status_updated_at, total_price_minor " +
+                "FROM orders WHERE id IN (" + placeholders + ") ORDER BY id", rs -> {
+            OrderDTO order = new OrderDTO();
+            order.setId(rs.getLong(1));
+            order.setUserId(rs.getLong(2));
+            order.setShippingAddressId(rs.getLong(3));
+            Timestamp createdAt = rs.getTimestamp(4);
+            order.setCreatedAt(createdAt == null ? null : createdAt.toLocalDateTime());
+            order.setStatus(OrderStatus.valueOf(rs.getString(5)));
+            Timestamp statusUpdatedAt = rs.getTimestamp(6);
+            order.setStatusUpdatedAt(statusUpdatedAt == null ? null : statusUpdatedAt.toLocalDateTime());
+            order.setTotalPrice(Money.ofMinor(rs.getLong(7)));
+            order.setOrderItems(new ArrayList<>());
+            orders.put(order.getId(), order);
+        }, ids);
+        jdbcTemplate.query("SELECT oi.order_id, oi.id, oi.product_id, p.name, oi.quantity, oi.unit_price_minor, " +
+                "oi.discount_minor, oi.subtotal_minor, oi.promotion_id FROM order_item oi " +
+                "LEFT JOIN product p ON p.id = oi.product_id WHERE oi.order_id IN (" + placeholders + ") ORDER BY oi.id", rs -> {
+            OrderItemDTO item = new OrderItemDTO();
+            item.setId(rs.getLong(2));
+            item.setProductId(rs.getLong(3));
+            item.setProductName(rs.getString(4));
+            item.setQuantity(rs.getInt(5));
+            item.setUnitPrice(Money.ofMinor(rs.getLong(6)));
+            item.setDiscount(Money.ofMinor(rs.getLong(7)));
+            item.setSubtotal(Money.ofMinor(rs.getLong(8)));
+            long promotionId = rs.getLong(9);
+            item.setPromotionId(rs.wasNull() ? null : promotionId);
+            orders.get(rs.getLong(1)).getOrderItems().add(item);
+        }, ids);
+        return new ArrayList<>(orders.values());
+    }
+
+    private void delete(List<Long> orderIds, OrderArchiveReportDTO report) {
+        String placeholders = String.join(",", Collections.nCopies(orderIds.size(), "?"));
+        Object[] ids = orderIds.toArray();
+        int items = jdbcTemplate.update("DELETE FROM order_item WHERE order_id IN (" + placeholders + ")", ids);
+        int orders = jdbcTemplate.update("DELETE FROM orders WHERE id IN (" + placeholders + ")", ids);
+        report.setOrdersArchived(report.getOrdersArchived() + orders);
+        report.setItemsArchived(report.getItemsArchived() + items);
+        ordersArchived.increment(orders);
+        itemsArchived.increment(items);
+    }
+}
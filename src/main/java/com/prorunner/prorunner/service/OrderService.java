@@ -1,22 +1,37 @@
 package com.prorunner.prorunner.service;
 
+import com.prorunner.prorunner.archive.OrderArchive;
+import com.prorunner.prorunner.concurrency.RetryOnConflict;
+import com.prorunner.prorunner.datasource.ReplicaRead;
 import com.prorunner.prorunner.dto.OrderDTO;
+import com.prorunner.prorunner.analytics.SaleLine;
 import com.prorunner.prorunner.dto.OrderItemDTO;
+import com.prorunner.prorunner.event.OrderPlacedEvent;
+import com.prorunner.prorunner.event.ProductCatalogChangedEvent;
 import com.prorunner.prorunner.model.*;
+import com.prorunner.prorunner.pricing.LinePrice;
 import com.prorunner.prorunner.repository.*;
-import jakarta.transaction.Transactional;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
 
+    private static final Comparator<OrderDTO> NEWEST_FIRST = Comparator
+            .comparing(OrderDTO::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(OrderDTO::getId, Comparator.reverseOrder());
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -38,6 +53,21 @@ public class OrderService {
     @Autowired
     private ModelMapper modelMapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OrderStatusService orderStatusService;
+
+    @Autowired
+    private OrderArchive orderArchive;
+
 
     public OrderDTO mapToDTO(Order order){
         OrderDTO orderDTO = modelMapper.map(order, OrderDTO.class);
@@ -55,19 +85,17 @@ public class OrderService {
 
 
     @Transactional
+    @RetryOnConflict
     public OrderDTO placeOrder(Long cartId, Long userId, Long addressId){
 
-        logger.info("Placing order for user ID: {}, cart ID: {}", userId, cartId);
+        logger.debug("Placing order for user ID: {}, cart ID: {}", userId, cartId);
 
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
-        logger.info("User found: {}", user.getId());
         Cart cart = cartRepository.findById(cartId)
                 .orElseThrow(()-> new RuntimeException("Cart not found."));
-        logger.info("Cart found with ID: {}", cart.getId());
         Address shippingAddress = addressRepository.findById(addressId)
                 .orElseThrow(() -> new RuntimeException("Address not found with ID: " + addressId));
-        logger.info("Address found with ID: {}", shippingAddress.getId());
 
         if(cart.getCartProducts().isEmpty()){
             throw new RuntimeException("Cannot place order as cart found empty.");
@@ -78,10 +106,11 @@ public class OrderService {
         order.setUser(user);
         order.setShippingAddress(shippingAddress);
         order.setCreatedAt(java.time.LocalDateTime.now());
-        order.setStatus("Placed");
+        order.setStatus(OrderStatus.PLACED);
+        order.setStatusUpdatedAt(order.getCreatedAt());
         order.setOrderItems(new ArrayList<>());  // initializing the order items....
 
-        Double totalPrice = 0.0;
+        long totalMinor = 0;
 
         // Processing each product in the cart...
         for (CartProduct cartProduct:new ArrayList<>(cart.getCartProducts())){
@@ -108,42 +137,82 @@ public class OrderService {
             orderItem.setOrder(order);
             orderItem.setProduct(product);
             orderItem.setQuantity(cartProduct.getQuantity());
+            // Priced at the unit price captured in the cart, with the promotions in effect now
+            LinePrice price = pricingService.price(product, cartProduct.getUnitPrice(), cartProduct.getQuantity());
             orderItem.setUnitPrice(cartProduct.getUnitPrice());
-            orderItem.setSubtotal(cartProduct.getQuantity()*product.getPrice());
+            orderItem.setDiscount(price.discount());
+            orderItem.setPromotionId(price.promotionId());
+            orderItem.setSubtotal(price.subtotal());
 
             // Add order item to the order
             order.getOrderItems().add(orderItem);
             // Total price calculations
-            totalPrice +=orderItem.getSubtotal();
+            totalMinor = Math.addExact(totalMinor, orderItem.getSubtotal().getMinorUnits());
         }
 
         // Setting TotalPrice of the order....
-        order.setTotalPrice(totalPrice);
+        order.setTotalPrice(Money.ofMinor(totalMinor));
 
         // saving the order...
         orderRepository.save(order);
+        orderStatusService.orderPlaced();
 
         //clear cart products and update cart
         cartProductRepository.deleteAllByCart(cart);
         cart.getCartProducts().clear(); // Clear in-memory references
-        cart.setTotalPrice(0.0); // setting the cart total price to 0 after emptying the cart.
+        cart.setTotalPrice(Money.ZERO); // setting the cart total price to 0 after emptying the cart.
         cartRepository.save(cart);
 
-        logger.info("Order placed successfully for user ID: {}", userId);
+        List<Map<String, Object>> items = new ArrayList<>(order.getOrderItems().size());
+        List<SaleLine> saleLines = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem orderItem : order.getOrderItems()) {
+            Product product = orderItem.getProduct();
+            saleLines.add(new SaleLine(product.getId(), product.getCategory(), product.getGender(),
+                    orderItem.getQuantity(), orderItem.getSubtotal().getMinorUnits()));
+            items.add(OutboxService.payload("productId", orderItem.getProduct().getId(), "quantity", orderItem.getQuantity(),
+                    "unitPrice", orderItem.getUnitPrice(), "discount", orderItem.getDiscount(), "subtotal", orderItem.getSubtotal()));
+        }
+        outboxService.append("order", order.getId(), "OrderPlaced", OutboxService.payload(
+                "orderId", order.getId(), "userId", userId, "cartId", cartId, "addressId", addressId,
+                "totalPrice", order.getTotalPrice(), "status", order.getStatus().name(), "items", items));
+
+        // Folded into the sales rollups once the order commits
+        eventPublisher.publishEvent(new OrderPlacedEvent(order.getId(), order.getCreatedAt(), saleLines));
+
+        // Stock levels are part of the catalog, so cached catalog responses must be revalidated
+        eventPublisher.publishEvent(new ProductCatalogChangedEvent("order", order.getOrderItems().size()));
+
+        logger.info("Order {} placed successfully for user ID: {}", order.getId(), userId);
         return mapToDTO(order);
     }
 
+    @ReplicaRead
+    @Transactional(readOnly = true)
     public List<OrderDTO> getUserOrders(Long userId) {
-        logger.info("Fetching orders for user ID: {}", userId);
-        return orderRepository.findByUserId(userId).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        logger.debug("Fetching orders for user ID: {}", userId);
+        Map<Long, OrderDTO> orders = new LinkedHashMap<>();
+        for (Order order : orderRepository.findByUserIdOrderByCreatedAtDesc(userId)) {
+            orders.put(order.getId(), mapToDTO(order));
+        }
+        List<OrderDTO> archived = orderArchive.findByUser(userId);
+        if (archived.isEmpty()) {
+            return new ArrayList<>(orders.values());
+        }
+        // A live copy wins over an archived one left behind by an interrupted archive run
+        for (OrderDTO order : archived) {
+            orders.putIfAbsent(order.getId(), order);
+        }
+        List<OrderDTO> merged = new ArrayList<>(orders.values());
+        merged.sort(NEWEST_FIRST);
+        return merged;
     }
 
+    @Transactional(readOnly = true)
     public OrderDTO getOrderById(Long orderId) {
-        logger.info("Fetching order with ID: {}", orderId);
+        logger.debug("Fetching order with ID: {}", orderId);
         return orderRepository.findById(orderId)
                 .map(this::mapToDTO)
+                .or(() -> orderArchive.findById(orderId))
                 .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
 
     }
@@ -0,0 +1,277 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.archive.OrderArchive;
+import com.prorunner.prorunner.dto.OrderStatusTransitionResultDTO;
+import com.prorunner.prorunner.event.ProductCatalogChangedEvent;
+import com.prorunner.prorunner.event.WishlistedProductChangedEvent;
+import com.prorunner.prorunner.model.OrderStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Moves orders through the OrderStatus state machine and keeps the per-status order counts.
+ * Bulk transitions lock chunk-size orders at a time in id order, check each order's current
+ * status against the allowed transitions and move the valid ones with one UPDATE per chunk,
+ * each chunk in its own transaction. Counts live in order_status_count, spread over SLOTS rows
+ * per status so concurrent writers rarely touch the same row, and change in the transaction
+ * that changes the orders. Cancelling returns the orders' items to product stock in the same
+ * transaction, with a StockChanged outbox event per product.
+ */
+@Service
+public class OrderStatusService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusService.class);
+
+    // Rows per status in order_status_count, see V11__order_status.sql
+    public static final int SLOTS = 16;
+
+    public static final String TRANSITIONS_METRIC = "prorunner.order.transitions";
+
+    private static final String RESTOCK_SQL = "UPDATE product SET stock = stock + ?, version = version + 1 WHERE id = ?";
+
+    private static final String ADJUST_COUNT_SQL = "UPDATE order_status_count SET order_count = order_count + ? " +
+            "WHERE status = ? AND slot = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrderArchive orderArchive;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${prorunner.order-status.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${prorunner.order-status.max-orders-per-request:100000}")
+    private int maxOrdersPerRequest;
+
+    // Counts a new order; runs in placeOrder's transaction
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderPlaced() {
+        Map<OrderStatus, Long> deltas = new EnumMap<>(OrderStatus.class);
+        deltas.put(OrderStatus.PLACED, 1L);
+        adjustCounts(deltas);
+    }
+
+    public OrderStatusTransitionResultDTO transition(List<Long> orderIds, OrderStatus target) {
+        if (target == null) {
+            throw new IllegalArgumentException("Target status is required.");
+        }
+        if (orderIds == null || orderIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one order id is required.");
+        }
+        if (orderIds.size() > maxOrdersPerRequest) {
+            throw new IllegalArgumentException("At most " + maxOrdersPerRequest + " orders can be moved per request.");
+        }
+        if (target.previous().isEmpty()) {
+            throw new IllegalArgumentException("No order can be moved to " + target + ".");
+        }
+        long start = System.currentTimeMillis();
+
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        ids.removeIf(id -> id == null);
+        Collections.sort(ids);
+        OrderStatusTransitionResultDTO result = new OrderStatusTransitionResultDTO();
+        result.setStatus(target);
+        result.setRequested(ids.size());
+
+        int restocked = 0;
+        try {
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                Integer products = transactionTemplate.execute(status -> applyChunk(chunk, target, result));
+                restocked += products == null ? 0 : products;
+            }
+        } finally {
+            // Cancelled chunks that committed changed product stock, also when a later chunk fails
+            if (restocked > 0) {
+                eventPublisher.publishEvent(new ProductCatalogChangedEvent("order-cancel", restocked));
+            }
+        }
+
+        result.setDurationMs(System.currentTimeMillis() - start);
+        logger.info("Order status transition to {}: {} requested, {} updated, {} unchanged, {} rejected, {} missing in {} ms",
+                target, result.getRequested(), result.getUpdated(), result.getUnchanged(), result.getRejected().size(),
+                result.getNotFoundOrderIds().size(), result.getDurationMs());
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<OrderStatus, Long> getStatusCounts() {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status, 0L);
+        }
+        jdbcTemplate.query("SELECT status, SUM(order_count) FROM order_status_count GROUP BY status",
+                rs -> {
+                    counts.put(OrderStatus.valueOf(rs.getString(1)), rs.getLong(2));
+                });
+        return counts;
+    }
+
+    // Recounts from the orders table, for counts drifted by writes that bypassed this service
+    @Transactional
+    public Map<OrderStatus, Long> reconcileCounts() {
+        Map<String, Long> actual = new HashMap<>();
+        jdbcTemplate.query("SELECT status, COUNT(*) FROM orders GROUP BY status",
+                rs -> {
+                    actual.put(rs.getString(1), rs.getLong(2));
+                });
+        // Counts are all-time, so orders moved into the archive still count
+        orderArchive.countByStatus().forEach((status, count) -> actual.merge(status.name(), count, Long::sum));
+        jdbcTemplate.update("UPDATE order_status_count SET order_count = 0 WHERE slot > 0");
+        List<Object[]> rows = new ArrayList<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            rows.add(new Object[]{actual.getOrDefault(status.name(), 0L), status.name()});
+        }
+        jdbcTemplate.batchUpdate("UPDATE order_status_count SET order_count = ? WHERE status = ? AND slot = 0", rows);
+        logger.info("Order status counts reconciled: {}", actual);
+        return getStatusCounts();
+    }
+
+    // Returns the number of products whose stock the chunk changed
+    private int applyChunk(List<Long> chunk, OrderStatus target, OrderStatusTransitionResultDTO result) {
+        String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+        Map<Long, OrderStatus> current = new HashMap<>(chunk.size() * 2);
+        jdbcTemplate.query("SELECT id, status FROM orders WHERE id IN (" + placeholders + ") ORDER BY id FOR UPDATE",
+                rs -> {
+                    current.put(rs.getLong(1), OrderStatus.valueOf(rs.getString(2)));
+                },
+                chunk.toArray());
+
+        Map<OrderStatus, List<Long>> movable = new EnumMap<>(OrderStatus.class);
+        for (Long orderId : chunk) {
+            OrderStatus status = current.get(orderId);
+            if (status == null) {
+                result.getNotFoundOrderIds().add(orderId);
+            } else if (status == target) {
+                result.setUnchanged(result.getUnchanged() + 1);
+            } else if (!status.canTransitionTo(target)) {
+                result.getRejected().put(orderId, status);
+            } else {
+                movable.computeIfAbsent(status, s -> new ArrayList<>()).add(orderId);
+            }
+        }
+        if (movable.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> moving = movable.values().stream().flatMap(List::stream).sorted().toList();
+        List<Object> args = new ArrayList<>(moving.size() + 2);
+        args.add(target.name());
+        args.add(Timestamp.valueOf(LocalDateTime.now()));
+        args.addAll(moving);
+        jdbcTemplate.update("UPDATE orders SET status = ?, status_updated_at = ? WHERE id IN (" +
+                String.join(",", Collections.nCopies(moving.size(), "?")) + ")", args.toArray());
+
+        Map<OrderStatus, Long> deltas = new EnumMap<>(OrderStatus.class);
+        movable.forEach((status, ids) -> deltas.put(status, -(long) ids.size()));
+        deltas.put(target, (long) moving.size());
+        adjustCounts(deltas);
+
+        Map<Long, Map<String, Object>> events = new LinkedHashMap<>();
+        movable.forEach((status, ids) -> ids.forEach(id -> events.put(id,
+                OutboxService.payload("orderId", id, "from", status.name(), "to", target.name()))));
+        outboxService.appendAll("order", "OrderStatusChanged", events);
+
+        movable.forEach((status, ids) -> meterRegistry.counter(TRANSITIONS_METRIC,
+                "from", status.name(), "to", target.name()).increment(ids.size()));
+        result.setUpdated(result.getUpdated() + moving.size());
+        return target == OrderStatus.CANCELLED ? restock(moving) : 0;
+    }
+
+    // Returns the cancelled orders' items to stock, locking the products in id order after the orders
+    private int restock(List<Long> orderIds) {
+        Map<Long, Long> quantities = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT product_id, SUM(quantity) FROM order_item WHERE order_id IN (" +
+                        String.join(",", Collections.nCopies(orderIds.size(), "?")) + ") GROUP BY product_id ORDER BY product_id",
+                rs -> {
+                    quantities.put(rs.getLong(1), rs.getLong(2));
+                },
+                orderIds.toArray());
+        quantities.values().removeIf(quantity -> quantity <= 0);
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Integer> current = new HashMap<>(quantities.size() * 2);
+        jdbcTemplate.query("SELECT id, stock FROM product WHERE id IN (" +
+                        String.join(",", Collections.nCopies(quantities.size(), "?")) + ") ORDER BY id FOR UPDATE",
+                rs -> {
+                    current.put(rs.getLong(1), rs.getInt(2));
+                },
+                quantities.keySet().toArray());
+
+        List<Object[]> rows = new ArrayList<>(current.size());
+        List<Long> backInStock = new ArrayList<>();
+        Map<Long, Map<String, Object>> events = new LinkedHashMap<>();
+        quantities.forEach((productId, quantity) -> {
+            Integer oldStock = current.get(productId);
+            if (oldStock == null) {
+                return;
+            }
+            int newStock = Math.toIntExact(oldStock + quantity);
+            rows.add(new Object[]{quantity, productId});
+            events.put(productId, OutboxService.payload(
+                    "productId", productId, "previousStock", oldStock, "stock", newStock, "source", "order-cancel"));
+            if (oldStock <= 0 && newStock > 0) {
+                backInStock.add(productId);
+            }
+        });
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(RESTOCK_SQL, rows);
+        outboxService.appendAll("product", "StockChanged", events);
+        if (!backInStock.isEmpty()) {
+            eventPublisher.publishEvent(WishlistedProductChangedEvent.restocked(backInStock));
+        }
+        return rows.size();
+    }
+
+    // Applied in status order, one random slot per status, so concurrent writers cannot deadlock on the counts
+    private void adjustCounts(Map<OrderStatus, Long> deltas) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Object[]> rows = deltas.entrySet().stream()
+                .map(delta -> new Object[]{delta.getValue(), delta.getKey().name(), random.nextInt(SLOTS)})
+                .collect(Collectors.toList());
+        if (rows.size() == 1) {
+            jdbcTemplate.update(ADJUST_COUNT_SQL, rows.get(0));
+        } else {
+            jdbcTemplate.batchUpdate(ADJUST_COUNT_SQL, rows);
+        }
+    }
+}
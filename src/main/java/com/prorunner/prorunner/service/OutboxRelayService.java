@@ -0,0 +1,167 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.outbox.OutboxEvent;
+import com.prorunner.prorunner.outbox.OutboxSink;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Relays outbox_event rows to the configured sinks in id order, batch-size rows per transaction.
+ * A batch is locked, handed to every sink and deleted in one transaction, so it is removed only
+ * once all sinks accepted it; a failing sink rolls the batch back and the next poll delivers it
+ * again (at least once). Relayed events are counted per sink, and each event's time from commit
+ * to delivery is recorded as prorunner.outbox.delivery.lag, next to the age of the oldest
+ * undelivered event.
+ */
+@Service
+public class OutboxRelayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelayService.class);
+
+    private static final String BATCH_SQL = "SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at " +
+            "FROM outbox_event ORDER BY id LIMIT ? FOR UPDATE";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${prorunner.outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${prorunner.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${prorunner.outbox.relay.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    private final List<OutboxSink> sinks = new ArrayList<>();
+    private final Map<String, Counter> relayed = new HashMap<>();
+    private final Map<String, Counter> failures = new HashMap<>();
+    private final Timer deliveryLag;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile double oldestAgeSeconds;
+
+    public OutboxRelayService(MeterRegistry meterRegistry, List<OutboxSink> availableSinks,
+                              @Value("${prorunner.outbox.sinks:file}") List<String> sinkNames) {
+        for (String name : sinkNames) {
+            OutboxSink sink = availableSinks.stream()
+                    .filter(candidate -> candidate.getName().equals(name.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Unknown outbox sink: " + name));
+            sinks.add(sink);
+            relayed.put(sink.getName(), Counter.builder("prorunner.outbox.relayed")
+                    .description("Outbox events delivered to a sink")
+                    .tag("sink", sink.getName())
+                    .register(meterRegistry));
+            failures.put(sink.getName(), Counter.builder("prorunner.outbox.failures")
+                    .description("Outbox batches a sink failed to accept")
+                    .tag("sink", sink.getName())
+                    .register(meterRegistry));
+        }
+        this.deliveryLag = Timer.builder("prorunner.outbox.delivery.lag")
+                .description("Time from an outbox event's commit to its delivery to all sinks")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("prorunner.outbox.oldest.age.seconds", this, relay -> relay.oldestAgeSeconds)
+                .description("Age of the oldest undelivered outbox event at the last poll")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${prorunner.outbox.relay.poll-interval-ms:500}")
+    public void poll() {
+        if (enabled && !sinks.isEmpty()) {
+            relay();
+        }
+    }
+
+    // Delivers up to max-batches-per-poll batches; returns the number of events delivered
+    public long relay() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        long delivered = 0;
+        try {
+            for (int batch = 0; batch < maxBatchesPerPoll; batch++) {
+                Integer events = transactionTemplate.execute(status -> relayBatch());
+                if (events == null || events == 0) {
+                    break;
+                }
+                delivered += events;
+                if (events < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            // The failed batch stays in the outbox for the next poll
+            logger.warn("Outbox relay stopped after {} events: {}", delivered, e.getMessage());
+        } finally {
+            oldestAgeSeconds = oldestAgeSeconds();
+            running.set(false);
+        }
+        return delivered;
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = jdbcTemplate.query(BATCH_SQL,
+                (rs, rowNum) -> new OutboxEvent(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4),
+                        rs.getString(5), rs.getTimestamp(6).toLocalDateTime()),
+                batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<OutboxEvent> batch = Collections.unmodifiableList(events);
+        for (OutboxSink sink : sinks) {
+            try {
+                sink.publish(batch);
+            } catch (Exception e) {
+                failures.get(sink.getName()).increment();
+                throw new IllegalStateException("Outbox sink " + sink.getName() + " rejected " + events.size() +
+                        " events: " + e.getMessage(), e);
+            }
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(events.size(), "?"));
+        jdbcTemplate.update("DELETE FROM outbox_event WHERE id IN (" + placeholders + ")",
+                events.stream().map(OutboxEvent::id).toArray());
+
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent event : events) {
+            deliveryLag.record(Duration.between(event.createdAt(), now));
+        }
+        for (OutboxSink sink : sinks) {
+            relayed.get(sink.getName()).increment(events.size());
+        }
+        return events.size();
+    }
+
+    private double oldestAgeSeconds() {
+        List<Timestamp> oldest = jdbcTemplate.queryForList("SELECT created_at FROM outbox_event ORDER BY id LIMIT 1", Timestamp.class);
+        if (oldest.isEmpty()) {
+            return 0;
+        }
+        return Duration.between(oldest.get(0).toLocalDateTime(), LocalDateTime.now()).toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,77 @@
+package com.prorunner.prorunner.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends domain events to the outbox_event table. Callers must already be in a transaction, so
+ * the event commits or rolls back together with the change it describes; OutboxRelayService
+ * delivers it afterwards.
+ */
+@Service
+public class OutboxService {
+
+    public static final String APPENDED_METRIC = "prorunner.outbox.appended";
+
+    private static final String INSERT_SQL = "INSERT INTO outbox_event (aggregate_type, aggregate_id, event_type, payload, created_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, Long aggregateId, String eventType, Map<String, Object> payload) {
+        jdbcTemplate.update(INSERT_SQL, aggregateType, aggregateId, eventType, toJson(payload),
+                Timestamp.valueOf(LocalDateTime.now()));
+        meterRegistry.counter(APPENDED_METRIC, "aggregate", aggregateType, "type", eventType).increment();
+    }
+
+    // One batched insert for the same event on many aggregates, keyed by aggregate id
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(String aggregateType, String eventType, Map<Long, Map<String, Object>> payloads) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(payloads.size());
+        payloads.forEach((aggregateId, payload) -> rows.add(new Object[]{aggregateType, aggregateId, eventType, toJson(payload), now}));
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        meterRegistry.counter(APPENDED_METRIC, "aggregate", aggregateType, "type", eventType).increment(rows.size());
+    }
+
+    // Payload from alternating keys and values; values may be null, key order is kept
+    public static Map<String, Object> payload(Object... keysAndValues) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            payload.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return payload;
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload cannot be serialized: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.event.PromotionsChangedEvent;
+import com.prorunner.prorunner.model.CartProduct;
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.model.Product;
+import com.prorunner.prorunner.pricing.CompiledPromotions;
+import com.prorunner.prorunner.pricing.LinePrice;
+import com.prorunner.prorunner.repository.PromotionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prices cart lines and order items against the active promotions. The promotions are compiled
+ * into a CompiledPromotions index on first use, after every PromotionsChangedEvent and when a
+ * promotion starts or ends; between those, pricing never touches the database.
+ */
+@Service
+public class PricingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingService.class);
+
+    @Autowired
+    private PromotionRepository promotionRepository;
+
+    private volatile CompiledPromotions compiled;
+
+    // Moves on every change so a compile that read the old promotions is not cached over the invalidation
+    private final AtomicLong generation = new AtomicLong();
+
+    public LinePrice price(Product product, Money unitPrice, int quantity) {
+        return currentRules().price(product.getId(), product.getCategory(), unitPrice, quantity);
+    }
+
+    // Reprices a cart line at the unit price it was added with
+    public void applyTo(CartProduct cartProduct) {
+        LinePrice price = price(cartProduct.getProduct(), cartProduct.getUnitPrice(), cartProduct.getQuantity());
+        cartProduct.setDiscount(price.discount());
+        cartProduct.setPromotionId(price.promotionId());
+        cartProduct.setSubtotal(price.subtotal());
+    }
+
+    public CompiledPromotions currentRules() {
+        CompiledPromotions snapshot = compiled;
+        if (snapshot == null || snapshot.isStale(LocalDateTime.now())) {
+            snapshot = recompile();
+        }
+        return snapshot;
+    }
+
+    // One thread compiles; the others wait and use its result
+    private synchronized CompiledPromotions recompile() {
+        LocalDateTime now = LocalDateTime.now();
+        CompiledPromotions snapshot = compiled;
+        if (snapshot != null && !snapshot.isStale(now)) {
+            return snapshot;
+        }
+        long start = System.nanoTime();
+        long compiledGeneration = generation.get();
+        snapshot = CompiledPromotions.compile(promotionRepository.findActiveNotEnded(now), now);
+        if (generation.get() == compiledGeneration) {
+            compiled = snapshot;
+        }
+        logger.info("Compiled {} active promotions into {} SKU and {} category rules in {} ms",
+                snapshot.getPromotionCount(), snapshot.getSkuRuleCount(), snapshot.getCategoryRuleCount(),
+                (System.nanoTime() - start) / 1_000_000);
+        return snapshot;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPromotionsChanged(PromotionsChangedEvent event) {
+        generation.incrementAndGet();
+        compiled = null;
+    }
+}
@@ -0,0 +1,388 @@
+package com.prorunner.prorunner.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prorunner.prorunner.dto.ProductDTO;
+import com.prorunner.prorunner.dto.ProductImportReportDTO;
+import com.prorunner.prorunner.event.ProductCatalogChangedEvent;
+import com.prorunner.prorunner.event.WishlistedProductChangedEvent;
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.util.CsvLineParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams products from CSV or NDJSON input into the product table.
+ * Rows are parsed one line at a time, validated in parallel per batch and written
+ * with JDBC batch statements, so memory stays bounded by the batch size.
+ * Rows without an id are inserted, with stock and availability defaulted when missing. Rows
+ * carrying an id update the existing product, setting only the columns the row has a value
+ * for; blank CSV cells and absent JSON fields leave the stored value as it is. Updated rows are
+ * locked first, so stock changes are appended to the outbox and restocks and price drops are
+ * recorded for wishlist notifications in the batch's transaction.
+ */
+@Service
+public class ProductImportService {
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format fromContentType(String contentType) {
+            if (contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json")) {
+                return NDJSON;
+            }
+            return CSV;
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO product (name, description, price_minor, size, category, image_url, stock, reserved_stock, availability, gender, color) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?)";
+
+    // Columns an update row may set; bit i of a row's column mask stands for UPDATE_COLUMNS[i]
+    private static final String[] UPDATE_COLUMNS = {
+            "name", "description", "price_minor", "size", "category", "image_url", "stock", "availability", "gender", "color"
+    };
+
+    // Widths of the text columns in UPDATE_COLUMNS, 0 for the others. A longer value would fail
+    // the batch statement and with it every row of the batch, so it is rejected up front
+    private static final int[] COLUMN_LENGTHS = {255, 500, 0, 255, 255, 255, 0, 0, 255, 255};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Value("${prorunner.import.batch-size:1000}")
+    private int batchSize;
+
+    // Stock and price of a product before an update row changed them
+    private record StoredValues(int stock, long priceMinor) {
+    }
+
+    // A parsed input line: either a product or the reason it was rejected
+    private record ImportRow(long lineNumber, ProductDTO product, String error) {
+        ImportRow rejected(String reason) {
+            return new ImportRow(lineNumber, product, reason);
+        }
+    }
+
+    public ProductImportReportDTO importProducts(InputStream input, Format format) throws IOException {
+        long start = System.currentTimeMillis();
+        ProductImportReportDTO report = new ProductImportReportDTO();
+
+        long committed = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<String> header = null;
+            List<ImportRow> batch = new ArrayList<>(batchSize);
+            String line;
+            long lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && header == null) {
+                    header = CsvLineParser.parse(line).stream()
+                            .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                            .toList();
+                    continue;
+                }
+
+                batch.add(format == Format.CSV ? parseCsv(lineNumber, header, line) : parseJson(lineNumber, line));
+                if (batch.size() >= batchSize) {
+                    committed += processBatch(batch, report);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                committed += processBatch(batch, report);
+            }
+        } finally {
+            // Batches commit one by one, so the ones that did are announced even when a later one fails.
+            // Once for the whole import rather than per batch, so downstream caches rebuild once
+            if (committed > 0) {
+                eventPublisher.publishEvent(new ProductCatalogChangedEvent("import", (int) committed));
+            }
+        }
+
+        report.setDurationMs(System.currentTimeMillis() - start);
+        logger.info("Product import finished: {} rows in {} ms ({} inserted, {} updated, {} rejected)",
+                report.getProcessed(), report.getDurationMs(), report.getInserted(), report.getUpdated(), report.getRejected());
+        return report;
+    }
+
+    // Writes the batch in one transaction and returns the number of products it inserted or updated
+    private long processBatch(List<ImportRow> batch, ProductImportReportDTO report) {
+        List<ImportRow> validated = batch.parallelStream()
+                .map(this::validate)
+                .toList();
+
+        List<ProductDTO> inserts = new ArrayList<>();
+        List<ImportRow> updates = new ArrayList<>();
+        for (ImportRow row : validated) {
+            if (row.error() != null) {
+                reject(report, row);
+            } else if (row.product().getId() == null) {
+                inserts.add(row.product());
+            } else {
+                updates.add(row);
+            }
+        }
+
+        long written = report.getInserted() + report.getUpdated();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(), (ps, product) -> {
+                    ps.setString(1, product.getName());
+                    ps.setString(2, product.getDescription());
+                    ps.setLong(3, product.getPrice().getMinorUnits());
+                    ps.setString(4, product.getSize());
+                    ps.setString(5, product.getCategory());
+                    ps.setString(6, product.getImageUrl());
+                    ps.setInt(7, product.getStock());
+                    ps.setBoolean(8, product.getAvailability());
+                    ps.setString(9, product.getGender());
+                    ps.setString(10, product.getColor());
+                });
+                report.setInserted(report.getInserted() + inserts.size());
+            }
+            if (updates.isEmpty()) {
+                return;
+            }
+            Map<Long, StoredValues> stored = lockForUpdate(updates);
+            List<Long> restocked = new ArrayList<>();
+            Map<Long, Map<String, Object>> stockEvents = new LinkedHashMap<>();
+            // Rows setting the same columns share a statement, so each group is one JDBC batch
+            Map<Integer, List<ImportRow>> updatesByColumns = new LinkedHashMap<>();
+            for (ImportRow row : updates) {
+                updatesByColumns.computeIfAbsent(columnMask(row.product()), mask -> new ArrayList<>()).add(row);
+            }
+            updatesByColumns.forEach((mask, rows) -> {
+                int[][] counts = jdbcTemplate.batchUpdate(updateSql(mask), rows, rows.size(), (ps, row) -> {
+                    ProductDTO product = row.product();
+                    int index = 1;
+                    for (int column = 0; column < UPDATE_COLUMNS.length; column++) {
+                        if ((mask & (1 << column)) != 0) {
+                            ps.setObject(index++, columnValue(product, column));
+                        }
+                    }
+                    ps.setObject(index, product.getId(), Types.BIGINT);
+                });
+                int[] updateCounts = counts.length > 0 ? counts[0] : new int[0];
+                for (int i = 0; i < updateCounts.length; i++) {
+                    // Drivers that rewrite batches report SUCCESS_NO_INFO instead of a row count
+                    ImportRow row = rows.get(i);
+                    StoredValues previous = stored.get(row.product().getId());
+                    if (previous != null && (updateCounts[i] > 0 || updateCounts[i] == Statement.SUCCESS_NO_INFO)) {
+                        report.setUpdated(report.getUpdated() + 1);
+                        stored.put(row.product().getId(), applied(row.product(), previous, restocked, stockEvents));
+                    } else {
+                        reject(report, row.rejected("Product with ID " + row.product().getId() + " does not exist"));
+                    }
+                }
+            });
+            outboxService.appendAll("product", "StockChanged", stockEvents);
+            if (!restocked.isEmpty()) {
+                eventPublisher.publishEvent(WishlistedProductChangedEvent.restocked(restocked));
+            }
+        });
+
+        report.setProcessed(report.getProcessed() + batch.size());
+        report.setBatches(report.getBatches() + 1);
+        logger.info("Product import progress: {} rows processed ({} inserted, {} updated, {} rejected)",
+                report.getProcessed(), report.getInserted(), report.getUpdated(), report.getRejected());
+        return report.getInserted() + report.getUpdated() - written;
+    }
+
+    // Locks the products the update rows target, in id order, and returns their stock and price
+    private Map<Long, StoredValues> lockForUpdate(List<ImportRow> updates) {
+        List<Long> ids = updates.stream().map(row -> row.product().getId()).distinct().sorted().toList();
+        Map<Long, StoredValues> stored = new HashMap<>(ids.size() * 2);
+        jdbcTemplate.query("SELECT id, stock, price_minor FROM product WHERE id IN (" +
+                        String.join(",", Collections.nCopies(ids.size(), "?")) + ") ORDER BY id FOR UPDATE",
+                rs -> {
+                    stored.put(rs.getLong(1), new StoredValues(rs.getInt(2), rs.getLong(3)));
+                },
+                ids.toArray());
+        return stored;
+    }
+
+    // Returns the values after the row's update and records the stock change, restock or price drop it caused
+    private StoredValues applied(ProductDTO product, StoredValues previous, List<Long> restocked,
+                                 Map<Long, Map<String, Object>> stockEvents) {
+        int stock = product.getStock() != null ? product.getStock() : previous.stock();
+        long priceMinor = product.getPrice() != null ? product.getPrice().getMinorUnits() : previous.priceMinor();
+        // A product updated twice in one batch keeps one event, from its first stock to its last
+        Map<String, Object> earlier = stockEvents.get(product.getId());
+        int firstStock = earlier != null ? (Integer) earlier.get("previousStock") : previous.stock();
+        if (stock != firstStock) {
+            stockEvents.put(product.getId(), OutboxService.payload(
+                    "productId", product.getId(), "previousStock", firstStock, "stock", stock, "source", "import"));
+        } else {
+            stockEvents.remove(product.getId());
+        }
+        if (previous.stock() <= 0 && stock > 0) {
+            restocked.add(product.getId());
+        }
+        if (priceMinor < previous.priceMinor()) {
+            eventPublisher.publishEvent(WishlistedProductChangedEvent.priceDropped(product.getId(), previous.priceMinor()));
+        }
+        return new StoredValues(stock, priceMinor);
+    }
+
+    private void reject(ProductImportReportDTO report, ImportRow row) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add("Line " + row.lineNumber() + ": " + row.error());
+        }
+    }
+
+    private ImportRow validate(ImportRow row) {
+        if (row.error() != null) {
+            return row;
+        }
+        ProductDTO product = row.product();
+        boolean insert = product.getId() == null;
+        if (insert ? product.getName() == null || product.getName().isBlank()
+                : product.getName() != null && product.getName().isBlank()) {
+            return row.rejected("Product name is required");
+        }
+        if (insert ? product.getPrice() == null || product.getPrice().isNegative()
+                : product.getPrice() != null && product.getPrice().isNegative()) {
+            return row.rejected("Price must be zero or positive");
+        }
+        if (insert && product.getStock() == null) {
+            product.setStock(10);
+        }
+        if (product.getStock() != null && product.getStock() < 0) {
+            return row.rejected("Stock cannot be negative");
+        }
+        for (int column = 0; column < UPDATE_COLUMNS.length; column++) {
+            if (COLUMN_LENGTHS[column] > 0 && columnValue(product, column) instanceof String value
+                    && value.length() > COLUMN_LENGTHS[column]) {
+                return row.rejected(UPDATE_COLUMNS[column] + " cannot exceed " + COLUMN_LENGTHS[column] + " characters");
+            }
+        }
+        if (insert && product.getAvailability() == null) {
+            product.setAvailability(product.getStock() > 0);
+        }
+        if (!insert && columnMask(product) == 0) {
+            return row.rejected("No columns to update for product with ID " + product.getId());
+        }
+        return row;
+    }
+
+    private static int columnMask(ProductDTO product) {
+        int mask = 0;
+        for (int column = 0; column < UPDATE_COLUMNS.length; column++) {
+            if (columnValue(product, column) != null) {
+                mask |= 1 << column;
+            }
+        }
+        return mask;
+    }
+
+    private static Object columnValue(ProductDTO product, int column) {
+        return switch (column) {
+            case 0 -> product.getName();
+            case 1 -> product.getDescription();
+            case 2 -> product.getPrice() == null ? null : product.getPrice().getMinorUnits();
+            case 3 -> product.getSize();
+            case 4 -> product.getCategory();
+            case 5 -> product.getImageUrl();
+            case 6 -> product.getStock();
+            case 7 -> product.getAvailability();
+            case 8 -> product.getGender();
+            case 9 -> product.getColor();
+            default -> throw new IllegalArgumentException("Unknown update column " + column);
+        };
+    }
+
+    private static String updateSql(int mask) {
+        StringBuilder sql = new StringBuilder("UPDATE product SET ");
+        for (int column = 0; column < UPDATE_COLUMNS.length; column++) {
+            if ((mask & (1 << column)) != 0) {
+                sql.append(UPDATE_COLUMNS[column]).append(" = ?, ");
+            }
+        }
+        return sql.append("version = version + 1 WHERE id = ?").toString();
+    }
+
+    private ImportRow parseJson(long lineNumber, String line) {
+        try {
+            return new ImportRow(lineNumber, objectMapper.readValue(line, ProductDTO.class), null);
+        } catch (JsonProcessingException e) {
+            return new ImportRow(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private ImportRow parseCsv(long lineNumber, List<String> header, String line) {
+        try {
+            List<String> values = CsvLineParser.parse(line);
+            ProductDTO product = new ProductDTO();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                String value = values.get(i).trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                switch (header.get(i)) {
+                    case "id" -> product.setId(Long.parseLong(value));
+                    case "name" -> product.setName(value);
+                    case "description" -> product.setDescription(value);
+                    case "price" -> product.setPrice(Money.of(new BigDecimal(value)));
+                    case "size" -> product.setSize(value);
+                    case "category" -> product.setCategory(value);
+                    case "stock" -> product.setStock(Integer.parseInt(value));
+                    case "availability" -> product.setAvailability(Boolean.parseBoolean(value));
+                    case "gender" -> product.setGender(value);
+                    case "color" -> product.setColor(value);
+                    case "imageurl", "image_url" -> product.setImageUrl(value);
+                    default -> {
+                        // Unknown columns are ignored so exports with extra fields can be re-imported
+                    }
+                }
+            }
+            return new ImportRow(lineNumber, product, null);
+        } catch (IllegalArgumentException e) {
+            return new ImportRow(lineNumber, null, "Malformed CSV row: " + e.getMessage());
+        }
+    }
+}
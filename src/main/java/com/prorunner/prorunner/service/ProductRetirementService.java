@@ -0,0 +1,208 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.dto.ProductRetirementJobDTO;
+import com.prorunner.prorunner.event.ProductCatalogChangedEvent;
+import com.prorunner.prorunner.model.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Removes a product from every cart with set-based statements instead of one
+ * delete + total recompute per cart line. Work is split into chunks of carts, each
+ * committed separately so no single transaction grows with the product's popularity;
+ * each chunk appends a CartLineRemoved event per cart it changed.
+ * A retirement first checks that no order or wishlist still references the product, then
+ * marks it unavailable so carts stop taking it while the sweep runs, and deletes it last.
+ * Background jobs stay queryable for job-ttl-ms after they finish and are then dropped.
+ */
+@Service
+public class ProductRetirementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductRetirementService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Value("${prorunner.product-retirement.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${prorunner.product-retirement.job-ttl-ms:3600000}")
+    private long jobTtlMs;
+
+    private final Map<String, ProductRetirementJobDTO> jobs = new ConcurrentHashMap<>();
+
+    // Removes the product from all carts, returns the number of cart lines removed
+    public long removeFromAllCarts(Long productId) {
+        return removeFromAllCarts(productId, removed -> { });
+    }
+
+    public long removeFromAllCarts(Long productId, LongConsumer progress) {
+        long removed = 0;
+        while (true) {
+            Long chunkRemoved = transactionTemplate.execute(status -> removeChunk(productId));
+            if (chunkRemoved == null || chunkRemoved == 0) {
+                break;
+            }
+            removed += chunkRemoved;
+            progress.accept(removed);
+        }
+        logger.info("Removed product {} from {} cart lines", productId, removed);
+        return removed;
+    }
+
+    public ProductRetirementJobDTO startRetirement(Long productId) {
+        checkDeletable(productId);
+        markUnavailable(productId);
+        expireFinishedJobs();
+
+        ProductRetirementJobDTO job = new ProductRetirementJobDTO();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setProductId(productId);
+        job.setStatus("RUNNING");
+        job.setStartedAt(LocalDateTime.now());
+        job.setTotalCartLines(countCartLines(productId));
+        jobs.put(job.getJobId(), job);
+
+        taskExecutor.execute(() -> {
+            try {
+                removeFromAllCarts(productId, job::setCartLinesRemoved);
+                productService.deleteProduct(productId);
+                job.setStatus("COMPLETED");
+            } catch (RuntimeException e) {
+                logger.error("Retirement job {} for product {} failed: {}", job.getJobId(), productId, e.getMessage(), e);
+                job.setError(e.getMessage());
+                job.setStatus("FAILED");
+            } finally {
+                job.setFinishedAt(LocalDateTime.now());
+            }
+        });
+        return job;
+    }
+
+    public ProductRetirementJobDTO getJob(String jobId) {
+        expireFinishedJobs();
+        ProductRetirementJobDTO job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Retirement job not found with ID: " + jobId);
+        }
+        return job;
+    }
+
+    private void expireFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(jobTtlMs));
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    // Fails fast, before anything is changed, when the product is missing or the delete would break a reference
+    private void checkDeletable(Long productId) {
+        productService.getProductById(productId);
+        Long orderItems = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_item WHERE product_id = ?", Long.class, productId);
+        if (orderItems != null && orderItems > 0) {
+            throw new IllegalStateException("Product " + productId + " appears in " + orderItems
+                    + " order items and cannot be deleted; mark it unavailable instead");
+        }
+        Long wishlistItems = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM wishlist_item WHERE product_id = ?", Long.class, productId);
+        if (wishlistItems != null && wishlistItems > 0) {
+            throw new IllegalStateException("Product " + productId + " is on " + wishlistItems
+                    + " wishlists and cannot be deleted; mark it unavailable instead");
+        }
+    }
+
+    // Committed before the sweep starts, so a cart add racing the sweep fails its version check and is refused on retry
+    private void markUnavailable(Long productId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE product SET availability = false, version = version + 1 WHERE id = ?", productId);
+            eventPublisher.publishEvent(new ProductCatalogChangedEvent("retirement", 1));
+        });
+    }
+
+    private long countCartLines(Long productId) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cart_product WHERE product_id = ?", Long.class, productId);
+        return count == null ? 0 : count;
+    }
+
+    private long removeChunk(Long productId) {
+        // Product first, then the lines, in the order cart writers take them. The locked lines
+        // keep their quantities until the delete, so the reservation released below matches
+        jdbcTemplate.query("SELECT id FROM product WHERE id = ? FOR UPDATE", rs -> { }, productId);
+        List<Long> cartIds = new ArrayList<>(chunkSize);
+        long[] reservedQuantity = {0};
+        jdbcTemplate.query("SELECT cart_id, quantity FROM cart_product WHERE product_id = ? ORDER BY cart_id LIMIT ? FOR UPDATE",
+                rs -> {
+                    cartIds.add(rs.getLong(1));
+                    reservedQuantity[0] += rs.getInt(2);
+                },
+                productId, chunkSize);
+        if (cartIds.isEmpty()) {
+            return 0;
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(cartIds.size(), "?"));
+        List<Object> params = new ArrayList<>(cartIds.size() + 1);
+        params.add(productId);
+        params.addAll(cartIds);
+
+        // Recompute totals from the remaining lines in one statement for the whole chunk.
+        // Versions are bumped so concurrent JPA writers holding these rows fail their version check
+        jdbcTemplate.update("UPDATE cart SET version = version + 1, total_price_minor = (" +
+                        "SELECT COALESCE(SUM(cp.subtotal_minor), 0) FROM cart_product cp " +
+                        "WHERE cp.cart_id = cart.id AND cp.product_id <> ?) " +
+                        "WHERE id IN (" + placeholders + ")",
+                params.toArray());
+        int deleted = jdbcTemplate.update("DELETE FROM cart_product WHERE product_id = ? AND cart_id IN (" + placeholders + ")",
+                params.toArray());
+        jdbcTemplate.update("UPDATE product SET reserved_stock = GREATEST(reserved_stock - ?, 0), version = version + 1 WHERE id = ?",
+                reservedQuantity[0], productId);
+
+        // Same payload as CartService's line removals, with the recomputed total
+        Map<Long, Map<String, Object>> events = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, user_id, total_price_minor FROM cart WHERE id IN (" + placeholders + ")",
+                rs -> {
+                    long cartId = rs.getLong(1);
+                    events.put(cartId, OutboxService.payload(
+                            "cartId", cartId, "userId", rs.getObject(2, Long.class),
+                            "productId", productId, "quantity", 0, "totalPrice", Money.ofMinor(rs.getLong(3))));
+                },
+                cartIds.toArray());
+        outboxService.appendAll("cart", "CartLineRemoved", events);
+        return deleted;
+    }
+}
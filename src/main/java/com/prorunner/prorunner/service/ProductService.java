@@ -1,12 +1,20 @@
 package com.prorunner.prorunner.service;
 
+import com.prorunner.prorunner.concurrency.RetryOnConflict;
+import com.prorunner.prorunner.datasource.ReplicaRead;
 import com.prorunner.prorunner.dto.ProductDTO;
+import com.prorunner.prorunner.event.ProductCatalogChangedEvent;
+import com.prorunner.prorunner.event.WishlistedProductChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import com.prorunner.prorunner.model.Money;
 import com.prorunner.prorunner.model.Product;
 import com.prorunner.prorunner.repository.ProductRepository;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import jakarta.persistence.criteria.Predicate;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
@@ -24,6 +32,33 @@ public class ProductService {
     @Autowired
     private ModelMapper modelMapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    private void catalogChanged(int affectedProducts) {
+        eventPublisher.publishEvent(new ProductCatalogChangedEvent("product", affectedProducts));
+    }
+
+    private void stockChanged(Product product, int previousStock) {
+        if (previousStock != product.getStock()) {
+            outboxService.append("product", product.getId(), "StockChanged", OutboxService.payload(
+                    "productId", product.getId(), "previousStock", previousStock, "stock", product.getStock(), "source", "product"));
+        }
+    }
+
+    // Restocks and price drops are recorded in this transaction and fan out to the product's wishlists later
+    private void notifyWishlists(Product product, int previousStock, Money previousPrice) {
+        if (previousStock <= 0 && product.getStock() > 0) {
+            eventPublisher.publishEvent(WishlistedProductChangedEvent.restocked(List.of(product.getId())));
+        }
+        if (previousPrice != null && product.getPrice() != null && product.getPrice().compareTo(previousPrice) < 0) {
+            eventPublisher.publishEvent(WishlistedProductChangedEvent.priceDropped(product.getId(), previousPrice.getMinorUnits()));
+        }
+    }
+
     private ProductDTO mapToDTO(Product product) {
         return modelMapper.map(product, ProductDTO.class);
     }
@@ -32,19 +67,56 @@ public class ProductService {
         return modelMapper.map(productDTO, Product.class);
     }
 
+    // An entity about to be saved; an existing row also carries its stock and price before the save
+    private record SaveTarget(Product product, Integer previousStock, Money previousPrice) {
+    }
+
+    // DTOs carry no version, so an id-bearing save copies onto the loaded row to keep its version
+    // (and its reserved stock); an unknown id becomes a fresh insert, as merge did before.
+    private SaveTarget toEntityForSave(ProductDTO productDTO) {
+        if (productDTO.getId() != null) {
+            Optional<Product> existing = productRepository.findById(productDTO.getId());
+            if (existing.isPresent()) {
+                Product product = existing.get();
+                SaveTarget target = new SaveTarget(product, product.getStock(), product.getPrice());
+                modelMapper.map(productDTO, product);
+                return target;
+            }
+        }
+        Product product = mapToEntity(productDTO);
+        product.setId(null);
+        return new SaveTarget(product, null, null);
+    }
+
+    // An id-bearing save that changed an existing row announces its stock change and wishlist news
+    private void saved(SaveTarget target) {
+        if (target.previousStock() != null) {
+            stockChanged(target.product(), target.previousStock());
+            notifyWishlists(target.product(), target.previousStock(), target.previousPrice());
+        }
+    }
+
+    @ReplicaRead
+    @Transactional(readOnly = true)
     public List<ProductDTO> getAllProducts(){
         return productRepository.findAll().stream()
                 .map(this::mapToDTO).toList();
     }
 
     // To save a single product
+    @Transactional
     public ProductDTO saveProduct(ProductDTO productDTO){
-        Product product = mapToEntity(productDTO);
+        SaveTarget target = toEntityForSave(productDTO);
+        Product product = target.product();
         Product savedProduct = productRepository.save(product);
+        catalogChanged(1);
+        saved(target);
         return mapToDTO(product);
     }
 
     // Fetch product by its id
+    @ReplicaRead
+    @Transactional(readOnly = true)
     public ProductDTO getProductById(Long id){
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
@@ -57,14 +129,18 @@ public class ProductService {
             throw new RuntimeException("Product not found with ID: " + id);
         }
         productRepository.deleteById(id);
+        catalogChanged(1);
     }
 
     // To save a list of products at once
+    @Transactional
     public List<ProductDTO> saveAllProducts(List<ProductDTO> productDTOs) {
-        List<Product> products = productDTOs.stream()
-                .map(this::mapToEntity)
+        List<SaveTarget> targets = productDTOs.stream()
+                .map(this::toEntityForSave)
                 .toList();
-        List<Product> savedProducts = productRepository.saveAll(products);
+        List<Product> savedProducts = productRepository.saveAll(targets.stream().map(SaveTarget::product).toList());
+        catalogChanged(savedProducts.size());
+        targets.forEach(this::saved);
         return savedProducts.stream()
                 .map(this::mapToDTO)
                 .toList();
@@ -72,6 +148,8 @@ public class ProductService {
     }
 
     // Update product stock
+    @Transactional
+    @RetryOnConflict
     public ProductDTO updateProductStock(Long productId, int stock) {
         if (stock < 0) {
             throw new IllegalArgumentException("Stock cannot be negative.");
@@ -80,15 +158,23 @@ public class ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product with ID " + productId + " does not exist."));
 
+        int previousStock = product.getStock();
         product.setStock(stock);
         Product updatedProduct = productRepository.save(product);
+        catalogChanged(1);
+        stockChanged(updatedProduct, previousStock);
+        notifyWishlists(updatedProduct, previousStock, null);
         return mapToDTO(updatedProduct);
     }
 
     // Update product details
+    @Transactional
+    @RetryOnConflict
     public ProductDTO updateProduct(Long productId, ProductDTO updatedProductDTO) {
         Product existingProduct = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
+        int previousStock = existingProduct.getStock();
+        Money previousPrice = existingProduct.getPrice();
 
         existingProduct.setName(updatedProductDTO.getName());
         existingProduct.setDescription(updatedProductDTO.getDescription());
@@ -102,10 +188,15 @@ public class ProductService {
         existingProduct.setColor(updatedProductDTO.getColor());
 
         Product updatedProduct = productRepository.save(existingProduct);
+        catalogChanged(1);
+        stockChanged(updatedProduct, previousStock);
+        notifyWishlists(updatedProduct, previousStock, previousPrice);
         return mapToDTO(updatedProduct);
     }
 
     // Fetch products with pagination
+    @ReplicaRead
+    @Transactional(readOnly = true)
     public Page<ProductDTO> getProducts(int page, int size, String sortBy){
         Pageable pageable = PageRequest.of(page,size,Sort.by(sortBy));
         return productRepository.findAll(pageable)
@@ -114,6 +205,8 @@ public class ProductService {
 
 
     // Filter products dynamically with pagination
+    @ReplicaRead
+    @Transactional(readOnly = true)
     public Page<ProductDTO> filterProducts(
             String category,
             String gender,
@@ -135,8 +228,8 @@ public class ProductService {
             if (gender != null) predicates.add(criteriaBuilder.equal(root.get("gender"), gender));
             if (color != null) predicates.add(criteriaBuilder.equal(root.get("color"), color));
             if (size != null) predicates.add(criteriaBuilder.equal(root.get("size"), size));
-            if (minPrice != null) predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("price"), minPrice));
-            if (maxPrice != null) predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("price"), maxPrice));
+            if (minPrice != null) predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.<Money>get("price"), Money.of(minPrice)));
+            if (maxPrice != null) predicates.add(criteriaBuilder.lessThanOrEqualTo(root.<Money>get("price"), Money.of(maxPrice)));
             if (availability != null) predicates.add(criteriaBuilder.equal(root.get("availability"), availability));
 
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
@@ -145,9 +238,12 @@ public class ProductService {
 
 
     // Save or update a product
+    @Transactional
     public ProductDTO saveOrUpdateProduct(ProductDTO productDTO) {
-        Product product = mapToEntity(productDTO);
-        product = productRepository.save(product);
+        SaveTarget target = toEntityForSave(productDTO);
+        Product product = productRepository.save(target.product());
+        catalogChanged(1);
+        saved(target);
         return mapToDTO(product);
     }
 
@@ -0,0 +1,114 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.dto.PromotionDTO;
+import com.prorunner.prorunner.event.PromotionsChangedEvent;
+import com.prorunner.prorunner.model.Promotion;
+import com.prorunner.prorunner.model.PromotionTier;
+import com.prorunner.prorunner.repository.ProductRepository;
+import com.prorunner.prorunner.repository.PromotionRepository;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class PromotionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionService.class);
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Autowired
+    private PromotionRepository promotionRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ModelMapper modelMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public List<PromotionDTO> getPromotions() {
+        return promotionRepository.findAll(Sort.by("id")).stream()
+                .map(promotion -> modelMapper.map(promotion, PromotionDTO.class))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public PromotionDTO createPromotion(PromotionDTO promotionDTO) {
+        validate(promotionDTO);
+        Promotion promotion = modelMapper.map(promotionDTO, Promotion.class);
+        promotion.setId(null);
+        promotion = promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PromotionsChangedEvent(promotion.getId()));
+        logger.info("Promotion {} ({}) created", promotion.getId(), promotion.getName());
+        return modelMapper.map(promotion, PromotionDTO.class);
+    }
+
+    // Promotions are deactivated rather than deleted so order items keep pointing at them
+    @Transactional
+    public PromotionDTO deactivatePromotion(Long promotionId) {
+        Promotion promotion = promotionRepository.findById(promotionId)
+                .orElseThrow(() -> new RuntimeException("Promotion not found with ID: " + promotionId));
+        promotion.setActive(false);
+        eventPublisher.publishEvent(new PromotionsChangedEvent(promotionId));
+        logger.info("Promotion {} deactivated", promotionId);
+        return modelMapper.map(promotion, PromotionDTO.class);
+    }
+
+    private void validate(PromotionDTO promotion) {
+        if (promotion.getName() == null || promotion.getName().isBlank()) {
+            throw new IllegalArgumentException("Promotion name is required");
+        }
+        if (promotion.getType() == null) {
+            throw new IllegalArgumentException("Promotion type is required");
+        }
+        if ((promotion.getProductId() == null) == (promotion.getCategory() == null || promotion.getCategory().isBlank())) {
+            throw new IllegalArgumentException("A promotion targets either a productId or a category");
+        }
+        if (promotion.getProductId() != null && !productRepository.existsById(promotion.getProductId())) {
+            throw new IllegalArgumentException("Product with ID " + promotion.getProductId() + " does not exist");
+        }
+        if (promotion.getStartsAt() != null && promotion.getEndsAt() != null
+                && !promotion.getEndsAt().isAfter(promotion.getStartsAt())) {
+            throw new IllegalArgumentException("endsAt must be after startsAt");
+        }
+        switch (promotion.getType()) {
+            case PERCENT_OFF -> checkPercent(promotion.getPercentOff());
+            case BUY_X_GET_Y -> {
+                if (promotion.getBuyQuantity() == null || promotion.getBuyQuantity() < 1
+                        || promotion.getFreeQuantity() == null || promotion.getFreeQuantity() < 1) {
+                    throw new IllegalArgumentException("buyQuantity and freeQuantity must be at least 1");
+                }
+            }
+            case TIERED -> {
+                if (promotion.getTiers() == null || promotion.getTiers().isEmpty()) {
+                    throw new IllegalArgumentException("A tiered promotion needs at least one tier");
+                }
+                for (PromotionTier tier : promotion.getTiers()) {
+                    if (tier.getMinQuantity() < 1) {
+                        throw new IllegalArgumentException("Tier minQuantity must be at least 1");
+                    }
+                    checkPercent(tier.getPercentOff());
+                }
+            }
+        }
+    }
+
+    private static void checkPercent(BigDecimal percent) {
+        if (percent == null || percent.signum() <= 0 || percent.compareTo(HUNDRED) > 0 || percent.scale() > 2) {
+            throw new IllegalArgumentException("percentOff must be greater than 0 and at most 100, with up to 2 decimals");
+        }
+    }
+}
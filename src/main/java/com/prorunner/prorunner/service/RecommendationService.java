@@ -0,0 +1,456 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.analytics.LongLongHashMap;
+import com.prorunner.prorunner.analytics.SaleLine;
+import com.prorunner.prorunner.dto.ProductRecommendationDTO;
+import com.prorunner.prorunner.dto.RecommendationStatusDTO;
+import com.prorunner.prorunner.event.OrderPlacedEvent;
+import com.prorunner.prorunner.event.WishlistItemChangedEvent;
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.recommendation.CoOccurrenceMatrix;
+import com.prorunner.prorunner.recommendation.ProductNeighbors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+/**
+ * "Customers also bought": item-to-item recommendations from a CoOccurrenceMatrix of products
+ * bought in the same order (purchase-weight per order) and kept on the same wishlist
+ * (wishlist-weight per wishlist). The matrix is rebuilt from order_item and wishlist_item at
+ * startup and every rebuild-interval-ms, chunk-size orders or wishlists per query, and between
+ * rebuilds follows placed orders and wishlist changes after they commit. Each product's top
+ * neighbors are precomputed, so serving is one map lookup and one product query; the lists of
+ * products touched by an update are recomputed every refresh-interval-ms, from a copy of their
+ * rows taken under the lock, so checkouts never wait for the ranking. Orders placed while a
+ * rebuild scans are replayed onto the new matrix unless the scan already counted them. Lists
+ * that only move because a neighbor's own count changed wait for the next rebuild; wishlist
+ * changes racing each other or a rebuild may be miscounted until then. Orders with more than
+ * max-basket-items products (bulk buys) are skipped, and orders moved to the order archive stop
+ * counting at the next rebuild.
+ */
+@Service
+public class RecommendationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationService.class);
+
+    public static final String UPDATES_METRIC = "prorunner.recommendations.updates";
+
+    private static final String ORDER_CHUNK_END_SQL = "SELECT MAX(id) FROM (SELECT id FROM orders " +
+            "WHERE id > ? AND id <= ? ORDER BY id LIMIT ?) chunk";
+
+    private static final String ORDER_LINES_SQL = "SELECT order_id, product_id FROM order_item " +
+            "WHERE order_id > ? AND order_id <= ? ORDER BY order_id";
+
+    private static final String WISHLIST_CHUNK_END_SQL = "SELECT MAX(id) FROM (SELECT id FROM wishlist " +
+            "WHERE id > ? ORDER BY id LIMIT ?) chunk";
+
+    // Served by uk_wishlist_item_wishlist_product (wishlist_id, product_id)
+    private static final String WISHLIST_LINES_SQL = "SELECT wishlist_id, product_id FROM wishlist_item " +
+            "WHERE wishlist_id > ? AND wishlist_id <= ? ORDER BY wishlist_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${prorunner.recommendations.enabled:true}")
+    private boolean enabled;
+
+    @Value("${prorunner.recommendations.neighbors:20}")
+    private int neighborsPerProduct;
+
+    @Value("${prorunner.recommendations.min-support:2}")
+    private long minSupport;
+
+    @Value("${prorunner.recommendations.purchase-weight:2}")
+    private long purchaseWeight;
+
+    @Value("${prorunner.recommendations.wishlist-weight:1}")
+    private long wishlistWeight;
+
+    @Value("${prorunner.recommendations.max-basket-items:50}")
+    private int maxBasketItems;
+
+    @Value("${prorunner.recommendations.chunk-size:5000}")
+    private int chunkSize;
+
+    private final Counter orderUpdates;
+    private final Counter wishlistUpdates;
+    private final Timer rebuildTimer;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // An update received while a rebuild runs, replayed onto the rebuilt matrix
+    private record PendingOrder(long orderId, long[] productIds) {
+    }
+
+    private record PendingWishlistChange(long productId, long[] otherProductIds, long weight) {
+    }
+
+    // Guarded by this: the matrix, the products to refresh and the changes seen during a rebuild
+    private CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+    private LongLongHashMap dirty = new LongLongHashMap();
+    private List<PendingOrder> ordersDuringRebuild;
+    private List<PendingWishlistChange> wishlistChangesDuringRebuild;
+
+    // Held for a whole refresh, so two refreshes cannot store their lists out of order
+    private final Object refreshLock = new Object();
+
+    // Read without locking; values are replaced, never modified
+    private volatile Map<Long, ProductNeighbors> neighbors = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastRebuildAt;
+    private volatile long lastRebuildMs;
+    private volatile long ordersScanned;
+    private volatile long wishlistsScanned;
+
+    public RecommendationService(MeterRegistry meterRegistry) {
+        this.orderUpdates = Counter.builder(UPDATES_METRIC)
+                .description("Baskets folded into the co-occurrence matrix between rebuilds")
+                .tag("source", "order")
+                .register(meterRegistry);
+        this.wishlistUpdates = Counter.builder(UPDATES_METRIC)
+                .description("Baskets folded into the co-occurrence matrix between rebuilds")
+                .tag("source", "wishlist")
+                .register(meterRegistry);
+        this.rebuildTimer = Timer.builder("prorunner.recommendations.rebuild")
+                .description("Time to rebuild the co-occurrence matrix and neighbor lists")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${prorunner.recommendations.rebuild-interval-ms:21600000}",
+            initialDelayString = "${prorunner.recommendations.rebuild-interval-ms:21600000}")
+    public void scheduledRebuild() {
+        if (enabled && !rebuilding.get()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${prorunner.recommendations.refresh-interval-ms:1000}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long[] productIds = event.getLines().stream().mapToLong(SaleLine::productId).distinct().toArray();
+        // Single-product orders still count towards the product's occurrences, as in a rebuild
+        if (productIds.length == 0 || productIds.length > maxBasketItems) {
+            return;
+        }
+        long orderId = event.getOrderId();
+        synchronized (this) {
+            markDirty(matrix.addBasket(productIds, purchaseWeight));
+            // The rebuild's scan may or may not have seen the order; it is replayed if not
+            if (ordersDuringRebuild != null) {
+                ordersDuringRebuild.add(new PendingOrder(orderId, productIds));
+            }
+        }
+        orderUpdates.increment();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWishlistItemChanged(WishlistItemChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long productId = event.getProductId();
+        long[] others = event.getOtherProductIds().stream().mapToLong(Long::longValue).toArray();
+        long weight = event.isAdded() ? wishlistWeight : -wishlistWeight;
+        synchronized (this) {
+            matrix.addToBasket(productId, others, weight);
+            markDirty(productId);
+            markDirty(others);
+            if (wishlistChangesDuringRebuild != null) {
+                wishlistChangesDuringRebuild.add(new PendingWishlistChange(productId, others, weight));
+            }
+        }
+        wishlistUpdates.increment();
+    }
+
+    /**
+     * Recounts every order and wishlist into a new matrix and recomputes all neighbor lists,
+     * then swaps both in. Updates that arrive meanwhile go to the current matrix and are
+     * replayed onto the new one: every wishlist change, and every order the scan did not count,
+     * whether it committed after the scan passed its id or has a higher id than the scan read.
+     * Rejected while another rebuild is running.
+     */
+    public RecommendationStatusDTO rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("Recommendations are already being rebuilt");
+        }
+        long start = System.nanoTime();
+        try {
+            // Recording starts before the id range is read, so an order is either scanned or recorded
+            synchronized (this) {
+                ordersDuringRebuild = new ArrayList<>();
+                wishlistChangesDuringRebuild = new ArrayList<>();
+            }
+            long[] orderIdRange = jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM orders",
+                    (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+            long firstOrderId = orderIdRange[0];
+            long upToOrderId = orderIdRange[1];
+            // One bit per id in the scanned range: a few MB even for tens of millions of orders
+            BitSet scannedOrders = new BitSet();
+            CoOccurrenceMatrix rebuilt = new CoOccurrenceMatrix();
+            long orders = scanOrders(rebuilt, upToOrderId,
+                    orderId -> scannedOrders.set(Math.toIntExact(orderId - firstOrderId)));
+            long wishlists = scanWishlists(rebuilt);
+
+            Map<Long, ProductNeighbors> rebuiltNeighbors = new ConcurrentHashMap<>(rebuilt.products() * 2);
+            rebuilt.forEachProduct((productId, row) -> put(rebuiltNeighbors, productId, rebuilt));
+
+            synchronized (this) {
+                // The rebuilt lists predate these changes, so their products are refreshed below
+                for (PendingOrder order : ordersDuringRebuild) {
+                    long offset = order.orderId() - firstOrderId;
+                    if (order.orderId() > upToOrderId || offset < 0 || !scannedOrders.get((int) offset)) {
+                        markDirty(rebuilt.addBasket(order.productIds(), purchaseWeight));
+                    }
+                }
+                for (PendingWishlistChange change : wishlistChangesDuringRebuild) {
+                    rebuilt.addToBasket(change.productId(), change.otherProductIds(), change.weight());
+                    markDirty(change.productId());
+                    markDirty(change.otherProductIds());
+                }
+                ordersDuringRebuild = null;
+                wishlistChangesDuringRebuild = null;
+                matrix = rebuilt;
+                neighbors = rebuiltNeighbors;
+            }
+            refresh();
+
+            long nanos = System.nanoTime() - start;
+            rebuildTimer.record(nanos, TimeUnit.NANOSECONDS);
+            ordersScanned = orders;
+            wishlistsScanned = wishlists;
+            lastRebuildAt = LocalDateTime.now();
+            lastRebuildMs = nanos / 1_000_000;
+            logger.info("Recommendations rebuilt from {} orders and {} wishlists: {} products, {} pairs in {} ms",
+                    orders, wishlists, rebuilt.products(), rebuilt.pairs(), lastRebuildMs);
+        } finally {
+            synchronized (this) {
+                ordersDuringRebuild = null;
+                wishlistChangesDuringRebuild = null;
+            }
+            rebuilding.set(false);
+        }
+        return getStatus();
+    }
+
+    /**
+     * Recomputes the neighbor lists of the products updated since the last refresh. Only the
+     * copy of their rows is taken under the matrix lock; ranking runs outside it, so orders and
+     * wishlist changes are not held up while a burst of products is refreshed.
+     */
+    public int refresh() {
+        synchronized (refreshLock) {
+            long[] productIds;
+            CoOccurrenceMatrix snapshot;
+            Map<Long, ProductNeighbors> current;
+            synchronized (this) {
+                if (dirty.isEmpty()) {
+                    return 0;
+                }
+                productIds = new long[dirty.size()];
+                int[] index = {0};
+                dirty.forEach((productId, marks) -> productIds[index[0]++] = productId);
+                dirty.clear();
+                snapshot = matrix.snapshot(productIds);
+                current = neighbors;
+            }
+            for (long productId : productIds) {
+                put(current, productId, snapshot);
+            }
+            return productIds.length;
+        }
+    }
+
+    // The precomputed top neighbors, best first; empty for products without any
+    public ProductNeighbors getNeighbors(long productId) {
+        return neighbors.getOrDefault(productId, ProductNeighbors.EMPTY);
+    }
+
+    /**
+     * Up to limit products bought or wishlisted together with the product, best first.
+     * Products since deleted or unavailable are left out.
+     */
+    public List<ProductRecommendationDTO> getRecommendations(long productId, int limit) {
+        if (limit < 1 || limit > neighborsPerProduct) {
+            throw new IllegalArgumentException("limit must be between 1 and " + neighborsPerProduct);
+        }
+        ProductNeighbors top = getNeighbors(productId);
+        if (top.size() == 0) {
+            return new ArrayList<>();
+        }
+        Object[] ids = new Object[top.size()];
+        for (int rank = 0; rank < top.size(); rank++) {
+            ids[rank] = top.productId(rank);
+        }
+        // A projection over JdbcTemplate: loading entities costs more than the rest of the request
+        Map<Long, ProductRecommendationDTO> products = new HashMap<>(ids.length * 2);
+        jdbcTemplate.query("SELECT id, name, image_url, price_minor FROM product WHERE availability = true AND id IN (" +
+                String.join(",", Collections.nCopies(ids.length, "?")) + ")", rs -> {
+            ProductRecommendationDTO dto = new ProductRecommendationDTO();
+            dto.setProductId(rs.getLong(1));
+            dto.setName(rs.getString(2));
+            dto.setImageUrl(rs.getString(3));
+            dto.setPrice(Money.ofMinor(rs.getLong(4)));
+            products.put(dto.getProductId(), dto);
+        }, ids);
+        List<ProductRecommendationDTO> recommendations = new ArrayList<>(limit);
+        for (int rank = 0; rank < top.size() && recommendations.size() < limit; rank++) {
+            ProductRecommendationDTO dto = products.get(top.productId(rank));
+            if (dto != null) {
+                dto.setScore(top.score(rank));
+                recommendations.add(dto);
+            }
+        }
+        return recommendations;
+    }
+
+    public RecommendationStatusDTO getStatus() {
+        RecommendationStatusDTO status = new RecommendationStatusDTO();
+        synchronized (this) {
+            status.setProducts(matrix.products());
+            status.setPairs(matrix.pairs());
+            status.setPendingRefresh(dirty.size());
+        }
+        status.setProductsWithNeighbors((int) neighbors.values().stream().filter(n -> n.size() > 0).count());
+        status.setOrdersScanned(ordersScanned);
+        status.setWishlistsScanned(wishlistsScanned);
+        status.setLastRebuildAt(lastRebuildAt);
+        status.setLastRebuildMs(lastRebuildMs);
+        return status;
+    }
+
+    private void put(Map<Long, ProductNeighbors> target, long productId, CoOccurrenceMatrix source) {
+        ProductNeighbors top = source.neighbors(productId, neighborsPerProduct, minSupport);
+        if (top.size() == 0) {
+            target.remove(productId);
+        } else {
+            target.put(productId, top);
+        }
+    }
+
+    private void markDirty(long... productIds) {
+        for (long productId : productIds) {
+            dirty.addTo(productId, 1);
+        }
+    }
+
+    // Reports each order it reads to scanned, including orders too large to count
+    private long scanOrders(CoOccurrenceMatrix target, long upToOrderId, LongConsumer scanned) {
+        long orders = 0;
+        long afterId = 0;
+        while (afterId < upToOrderId) {
+            Long chunkEnd = jdbcTemplate.queryForObject(ORDER_CHUNK_END_SQL, Long.class, afterId, upToOrderId, chunkSize);
+            if (chunkEnd == null) {
+                break;
+            }
+            orders += scanBaskets(ORDER_LINES_SQL, afterId, chunkEnd, target, purchaseWeight, maxBasketItems, scanned);
+            afterId = chunkEnd;
+        }
+        return orders;
+    }
+
+    private long scanWishlists(CoOccurrenceMatrix target) {
+        long wishlists = 0;
+        long afterId = 0;
+        while (true) {
+            Long chunkEnd = jdbcTemplate.queryForObject(WISHLIST_CHUNK_END_SQL, Long.class, afterId, chunkSize);
+            if (chunkEnd == null) {
+                break;
+            }
+            // Wishlists are not capped: a removal must take back exactly what the add counted
+            wishlists += scanBaskets(WISHLIST_LINES_SQL, afterId, chunkEnd, target, wishlistWeight, Integer.MAX_VALUE, basketId -> { });
+            afterId = chunkEnd;
+        }
+        return wishlists;
+    }
+
+    // Folds the baskets of one chunk, rows ordered by basket id; returns the baskets seen
+    private long scanBaskets(String sql, long afterId, long upToId, CoOccurrenceMatrix target, long weight, int maxItems,
+                             LongConsumer scanned) {
+        long[] basketCount = {0};
+        long[] currentBasket = {0};
+        LongList items = new LongList();
+        jdbcTemplate.query(sql, rs -> {
+            long basketId = rs.getLong(1);
+            if (basketId != currentBasket[0]) {
+                fold(target, items, weight, maxItems);
+                currentBasket[0] = basketId;
+                basketCount[0]++;
+                scanned.accept(basketId);
+            }
+            items.add(rs.getLong(2));
+        }, afterId, upToId);
+        fold(target, items, weight, maxItems);
+        return basketCount[0];
+    }
+
+    private static void fold(CoOccurrenceMatrix target, LongList items, long weight, int maxItems) {
+        if (items.size() > 0 && items.size() <= maxItems) {
+            target.addBasket(items.toArray(), weight);
+        }
+        items.clear();
+    }
+
+    // Growable long array for the rows of one basket
+    private static final class LongList {
+        private long[] values = new long[16];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
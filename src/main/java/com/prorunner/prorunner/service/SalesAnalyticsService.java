@@ -0,0 +1,378 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.analytics.LongLongHashMap;
+import com.prorunner.prorunner.analytics.RollupWindow;
+import com.prorunner.prorunner.analytics.SaleLine;
+import com.prorunner.prorunner.analytics.SalesDimension;
+import com.prorunner.prorunner.analytics.SalesRollups;
+import com.prorunner.prorunner.dto.SalesAnalyticsStatusDTO;
+import com.prorunner.prorunner.dto.SalesPeriodDTO;
+import com.prorunner.prorunner.dto.SalesRankingDTO;
+import com.prorunner.prorunner.event.OrderPlacedEvent;
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.model.Product;
+import com.prorunner.prorunner.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the SalesRollups up to date and serves them. Each placed order is folded in after it
+ * commits, from the lines carried by its OrderPlacedEvent, so reporting adds no queries to
+ * checkout and no scans of orders or order_item. The rollups are checkpointed to a file every
+ * checkpoint interval and on shutdown; at startup the checkpoint is loaded and orders placed
+ * after it are replayed from the database in chunks, so a crash loses nothing but time.
+ * Orders that commit out of id order across a checkpoint can be missed by that replay.
+ */
+@Service
+public class SalesAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesAnalyticsService.class);
+
+    public static final String FOLDED_METRIC = "prorunner.analytics.orders.folded";
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final String CHUNK_END_SQL = "SELECT MAX(id) FROM (SELECT id FROM orders " +
+            "WHERE id > ? ORDER BY id LIMIT ?) chunk";
+
+    // Lines of a range of orders with the product attributes the rollups count by
+    private static final String REPLAY_LINES_SQL = "SELECT o.id, o.created_at, oi.product_id, p.category, p.gender, " +
+            "oi.quantity, oi.subtotal_minor FROM orders o JOIN order_item oi ON oi.order_id = o.id " +
+            "LEFT JOIN product p ON p.id = oi.product_id WHERE o.id > ? AND o.id <= ? ORDER BY o.id, oi.id";
+
+    private record ReplayedOrder(long orderId, LocalDateTime createdAt, List<SaleLine> lines) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${prorunner.analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${prorunner.analytics.checkpoint.path:analytics-checkpoint.bin}")
+    private Path checkpointPath;
+
+    @Value("${prorunner.analytics.replay.chunk-size:1000}")
+    private int replayChunkSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Counter folded;
+    private final Timer checkpointTimer;
+
+    private SalesRollups rollups = new SalesRollups();
+
+    // Ids folded between startup and the first checkpoint after the replay, so an order committed
+    // while the replay runs is counted once whether the replay or its event reaches it first
+    private LongLongHashMap foldedSinceStartup = new LongLongHashMap();
+    private boolean replayed;
+
+    // Last order in the loaded checkpoint, where the startup replay resumes
+    private long checkpointedOrderId;
+
+    private volatile boolean dirty;
+    private volatile LocalDateTime lastCheckpointAt;
+    private volatile long lastCheckpointBytes;
+    private volatile long lastCheckpointMs;
+
+    public SalesAnalyticsService(MeterRegistry meterRegistry) {
+        this.folded = Counter.builder(FOLDED_METRIC)
+                .description("Placed orders folded into the sales rollups")
+                .register(meterRegistry);
+        this.checkpointTimer = Timer.builder("prorunner.analytics.checkpoint")
+                .description("Time to write the sales rollup checkpoint")
+                .register(meterRegistry);
+    }
+
+    // Before the web server starts, so no order is folded into rollups about to be replaced
+    @PostConstruct
+    public void loadCheckpoint() {
+        if (!enabled || !Files.exists(checkpointPath)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpointPath)))) {
+            rollups = SalesRollups.readFrom(in);
+            checkpointedOrderId = rollups.getLastOrderId();
+            logger.info("Loaded sales rollups from {}: {} orders, up to order {}",
+                    checkpointPath, rollups.getOrdersFolded(), rollups.getLastOrderId());
+        } catch (IOException e) {
+            // Rebuilt from the orders of the last DAY window by the replay
+            logger.error("Ignoring unreadable sales rollup checkpoint {}: {}", checkpointPath, e.getMessage());
+            rollups = new SalesRollups();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayOnStartup() {
+        if (enabled) {
+            replay();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (enabled) {
+            fold(event.getOrderId(), event.getCreatedAt(), event.getLines());
+        }
+    }
+
+    /**
+     * Folds the orders placed after the loaded checkpoint from the database, chunk-size orders per
+     * query. Orders too old for the longest window are skipped. Returns the number of orders folded.
+     */
+    public long replay() {
+        long start = System.currentTimeMillis();
+        long afterId = checkpointedOrderId;
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(RollupWindow.DAY.getSeconds() * RollupWindow.DAY.getPeriods());
+        Long first = jdbcTemplate.queryForObject("SELECT MIN(id) FROM orders WHERE id > ? AND created_at >= ?",
+                Long.class, afterId, Timestamp.valueOf(cutoff));
+
+        long orders = 0;
+        if (first != null) {
+            afterId = first - 1;
+            while (true) {
+                Long upToId = jdbcTemplate.queryForObject(CHUNK_END_SQL, Long.class, afterId, replayChunkSize);
+                if (upToId == null) {
+                    break;
+                }
+                orders += replayChunk(afterId, upToId);
+                afterId = upToId;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            replayed = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Replayed {} orders into the sales rollups in {} ms", orders, System.currentTimeMillis() - start);
+        return orders;
+    }
+
+    // Writes the rollups to a temporary file and moves it over the checkpoint
+    public synchronized SalesAnalyticsStatusDTO checkpoint() {
+        long start = System.nanoTime();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+        lock.readLock().lock();
+        try {
+            dirty = false;
+            rollups.writeTo(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            Path target = checkpointPath.toAbsolutePath();
+            Files.createDirectories(target.getParent());
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+                bytes.writeTo(out);
+                out.getChannel().force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            throw new UncheckedIOException("Writing the sales rollup checkpoint failed: " + e.getMessage(), e);
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Replayed orders are covered by the checkpoint now, late events for them have arrived
+            if (replayed) {
+                foldedSinceStartup = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long nanos = System.nanoTime() - start;
+        checkpointTimer.record(nanos, TimeUnit.NANOSECONDS);
+        lastCheckpointAt = LocalDateTime.now();
+        lastCheckpointBytes = bytes.size();
+        lastCheckpointMs = nanos / 1_000_000;
+        logger.debug("Sales rollup checkpoint written: {} bytes in {} ms", lastCheckpointBytes, lastCheckpointMs);
+        return getStatus();
+    }
+
+    @Scheduled(fixedDelayString = "${prorunner.analytics.checkpoint.interval-ms:60000}")
+    public void scheduledCheckpoint() {
+        if (enabled && dirty) {
+            try {
+                checkpoint();
+            } catch (UncheckedIOException e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        scheduledCheckpoint();
+    }
+
+    public List<SalesRankingDTO> getTopProducts(String window, int periods, int limit, String by) {
+        List<SalesRollups.Ranking> rankings = rank(SalesDimension.PRODUCT, window, periods, limit, by);
+        Map<Long, Product> products = productRepository.findAllById(rankings.stream().map(SalesRollups.Ranking::key).toList())
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<SalesRankingDTO> top = new ArrayList<>(rankings.size());
+        for (SalesRollups.Ranking ranking : rankings) {
+            Product product = products.get(ranking.key());
+            top.add(toDTO(ranking, ranking.key(), product == null ? null : product.getName()));
+        }
+        return top;
+    }
+
+    // Every category (or gender) sold in the span, best first
+    public List<SalesRankingDTO> getRanking(SalesDimension dimension, String window, int periods, String by) {
+        List<SalesRollups.Ranking> rankings = rank(dimension, window, periods, MAX_LIMIT, by);
+        lock.readLock().lock();
+        try {
+            return rankings.stream()
+                    .map(ranking -> toDTO(ranking, null, rollups.label(ranking.key())))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SalesPeriodDTO> getSeries(String window, int periods) {
+        RollupWindow rollupWindow = RollupWindow.parse(window);
+        List<SalesRollups.PeriodTotals> series;
+        lock.readLock().lock();
+        try {
+            series = rollups.series(rollupWindow, periods, nowEpochSecond());
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<SalesPeriodDTO> points = new ArrayList<>(series.size());
+        for (SalesRollups.PeriodTotals totals : series) {
+            SalesPeriodDTO point = new SalesPeriodDTO();
+            point.setPeriodStart(LocalDateTime.ofEpochSecond(totals.period() * rollupWindow.getSeconds(), 0, ZoneOffset.UTC));
+            point.setOrders(totals.orders());
+            point.setUnits(totals.units());
+            point.setRevenue(Money.ofMinor(totals.revenueMinor()));
+            points.add(point);
+        }
+        return points;
+    }
+
+    public SalesAnalyticsStatusDTO getStatus() {
+        SalesAnalyticsStatusDTO status = new SalesAnalyticsStatusDTO();
+        lock.readLock().lock();
+        try {
+            status.setOrdersFolded(rollups.getOrdersFolded());
+            status.setLastOrderId(rollups.getLastOrderId());
+        } finally {
+            lock.readLock().unlock();
+        }
+        status.setCheckpointPath(checkpointPath.toAbsolutePath().toString());
+        status.setLastCheckpointAt(lastCheckpointAt);
+        status.setLastCheckpointBytes(lastCheckpointBytes);
+        status.setLastCheckpointMs(lastCheckpointMs);
+        return status;
+    }
+
+    private void fold(long orderId, LocalDateTime createdAt, List<SaleLine> lines) {
+        lock.writeLock().lock();
+        try {
+            if (foldedSinceStartup != null && foldedSinceStartup.addTo(orderId, 1) > 1) {
+                return;
+            }
+            rollups.add(orderId, createdAt.toEpochSecond(ZoneOffset.UTC), lines);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        folded.increment();
+    }
+
+    private long replayChunk(long afterId, long upToId) {
+        List<ReplayedOrder> orders = new ArrayList<>();
+        jdbcTemplate.query(REPLAY_LINES_SQL, rs -> {
+            long orderId = rs.getLong(1);
+            if (orders.isEmpty() || orders.get(orders.size() - 1).orderId() != orderId) {
+                orders.add(new ReplayedOrder(orderId, rs.getTimestamp(2).toLocalDateTime(), new ArrayList<>()));
+            }
+            orders.get(orders.size() - 1).lines()
+                    .add(new SaleLine(rs.getLong(3), rs.getString(4), rs.getString(5), rs.getInt(6), rs.getLong(7)));
+        }, afterId, upToId);
+        for (ReplayedOrder order : orders) {
+            fold(order.orderId(), order.createdAt(), order.lines());
+        }
+        return orders.size();
+    }
+
+    private List<SalesRollups.Ranking> rank(SalesDimension dimension, String window, int periods, int limit, String by) {
+        RollupWindow rollupWindow = RollupWindow.parse(window);
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        boolean byRevenue;
+        if ("revenue".equalsIgnoreCase(by)) {
+            byRevenue = true;
+        } else if ("units".equalsIgnoreCase(by)) {
+            byRevenue = false;
+        } else {
+            throw new IllegalArgumentException("Unknown by " + by + ", expected units or revenue");
+        }
+        lock.readLock().lock();
+        try {
+            return rollups.top(dimension, rollupWindow, periods, limit, byRevenue, nowEpochSecond());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static SalesRankingDTO toDTO(SalesRollups.Ranking ranking, Long productId, String name) {
+        SalesRankingDTO dto = new SalesRankingDTO();
+        dto.setProductId(productId);
+        dto.setName(name);
+        dto.setUnits(ranking.units());
+        dto.setRevenue(Money.ofMinor(ranking.revenueMinor()));
+        return dto;
+    }
+
+    // Same clock as the orders' created_at, local wall-clock time
+    private static long nowEpochSecond() {
+        return LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,133 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.dto.StockSyncResultDTO;
+import com.prorunner.prorunner.dto.StockUpdateDTO;
+import com.prorunner.prorunner.event.ProductCatalogChangedEvent;
+import com.prorunner.prorunner.event.WishlistedProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies warehouse stock levels for many products at once.
+ * Updates are deduplicated, split into chunks, and each chunk runs in its own short
+ * transaction: one locking SELECT to read current stock, then one batched UPDATE
+ * for the rows whose stock actually changed. Restocks are recorded for wishlist notifications
+ * in the chunk's transaction, and the catalog event covers every chunk that committed, also
+ * when a later chunk fails.
+ */
+@Service
+public class StockSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockSyncService.class);
+
+    private static final String UPDATE_SQL = "UPDATE product SET stock = ?, version = version + 1 WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Value("${prorunner.stock-sync.chunk-size:1000}")
+    private int chunkSize;
+
+    public StockSyncResultDTO syncStock(List<StockUpdateDTO> updates) {
+        long start = System.currentTimeMillis();
+
+        // Last value wins when the same product appears twice in one push
+        Map<Long, Integer> requested = new LinkedHashMap<>();
+        for (StockUpdateDTO update : updates) {
+            if (update.getProductId() == null || update.getStock() == null) {
+                throw new IllegalArgumentException("Each stock update needs a productId and a stock value.");
+            }
+            if (update.getStock() < 0) {
+                throw new IllegalArgumentException("Stock cannot be negative for product " + update.getProductId() + ".");
+            }
+            requested.put(update.getProductId(), update.getStock());
+        }
+
+        StockSyncResultDTO result = new StockSyncResultDTO();
+        result.setRequested(requested.size());
+
+        List<Long> productIds = new ArrayList<>(requested.keySet());
+        int updated = 0;
+        try {
+            for (int from = 0; from < productIds.size(); from += chunkSize) {
+                List<Long> chunk = productIds.subList(from, Math.min(from + chunkSize, productIds.size()));
+                int firstChange = result.getChanges().size();
+                transactionTemplate.executeWithoutResult(status -> applyChunk(chunk, requested, result));
+                updated += result.getChanges().size() - firstChange;
+            }
+        } finally {
+            // Chunks commit one by one, so the ones that did are announced even when a later one fails
+            if (updated > 0) {
+                eventPublisher.publishEvent(new ProductCatalogChangedEvent("stock-sync", updated));
+            }
+        }
+
+        result.setDurationMs(System.currentTimeMillis() - start);
+        logger.info("Stock sync finished: {} requested, {} updated, {} unchanged, {} missing in {} ms",
+                result.getRequested(), result.getUpdated(), result.getUnchanged(),
+                result.getMissingProductIds().size(), result.getDurationMs());
+        return result;
+    }
+
+    private void applyChunk(List<Long> chunk, Map<Long, Integer> requested, StockSyncResultDTO result) {
+        String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+        Map<Long, Integer> current = new HashMap<>(chunk.size() * 2);
+        jdbcTemplate.query("SELECT id, stock FROM product WHERE id IN (" + placeholders + ") FOR UPDATE",
+                rs -> {
+                    current.put(rs.getLong(1), rs.getInt(2));
+                },
+                chunk.toArray());
+
+        List<Object[]> changed = new ArrayList<>();
+        List<Long> restocked = new ArrayList<>();
+        Map<Long, Map<String, Object>> events = new LinkedHashMap<>();
+        for (Long productId : chunk) {
+            Integer oldStock = current.get(productId);
+            int newStock = requested.get(productId);
+            if (oldStock == null) {
+                result.getMissingProductIds().add(productId);
+            } else if (oldStock == newStock) {
+                result.setUnchanged(result.getUnchanged() + 1);
+            } else {
+                changed.add(new Object[]{newStock, productId});
+                result.getChanges().add(new long[]{productId, oldStock, newStock});
+                events.put(productId, OutboxService.payload(
+                        "productId", productId, "previousStock", oldStock, "stock", newStock, "source", "stock-sync"));
+                if (oldStock <= 0 && newStock > 0) {
+                    restocked.add(productId);
+                }
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, changed);
+            outboxService.appendAll("product", "StockChanged", events);
+            result.setUpdated(result.getUpdated() + changed.size());
+        }
+        if (!restocked.isEmpty()) {
+            eventPublisher.publishEvent(WishlistedProductChangedEvent.restocked(restocked));
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package com.prorunner.prorunner.service;
 
+import com.prorunner.prorunner.datasource.ReplicaRead;
 import com.prorunner.prorunner.model.Address;
 import com.prorunner.prorunner.model.User;
 import com.prorunner.prorunner.model.Cart;
+import com.prorunner.prorunner.model.Money;
 import com.prorunner.prorunner.repository.AddressRepository;
 import com.prorunner.prorunner.repository.CartRepository;
 import com.prorunner.prorunner.repository.UserRepository;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -15,6 +16,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -49,11 +51,13 @@ public class UserService implements UserDetailsService {
         this.addressRepository = addressRepository;
     }
 
+    @Transactional(readOnly = true)
     public boolean doesUserExist(Long userId) {
         return userRepository.existsById(userId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
@@ -93,7 +97,7 @@ public class UserService implements UserDetailsService {
         user.setRoles(roles);
 
         Cart cart = new Cart();
-        cart.setTotalPrice(0.0);
+        cart.setTotalPrice(Money.ZERO);
         cart.setUser(user);
 
         user.setCart(cart);
@@ -110,6 +114,7 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    @Transactional(readOnly = true)
     public Page<User> getUsers(int page, int size, String sortBy) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
         return userRepository.findAll(pageable);
@@ -131,6 +136,8 @@ public class UserService implements UserDetailsService {
         return userRepository.save(user);
     }
 
+    @ReplicaRead
+    @Transactional(readOnly = true)
     public List<User> searchUsers(String username, String email, String role) {
 
         if((username == null || username.isEmpty()) &&
@@ -157,6 +164,7 @@ public class UserService implements UserDetailsService {
     }
 
 
+    @Transactional
     public User updateUserRole(Long id, Set<String> roles) {
         User user = getUserById(id);
         user.setRoles(roles);
@@ -165,6 +173,8 @@ public class UserService implements UserDetailsService {
 
 
 
+    @ReplicaRead
+    @Transactional(readOnly = true)
     public Page<User> searchUsersWithPagination(String username, String email, String role, Pageable pageable) {
         Specification<User> spec = (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
@@ -198,6 +208,7 @@ public class UserService implements UserDetailsService {
     }
 
 
+    @Transactional
     public Address updateAddress(Long userId, Long addressId, Address updatedAddress){
 
         Address address = addressRepository.findById(addressId)
@@ -228,6 +239,7 @@ public class UserService implements UserDetailsService {
         addressRepository.delete(address);
     }
 
+    @Transactional(readOnly = true)
     public List<Address> getUserAddresses(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
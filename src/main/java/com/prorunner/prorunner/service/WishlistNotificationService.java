@@ -0,0 +1,182 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.event.WishlistedProductChangedEvent;
+import com.prorunner.prorunner.model.WishlistNotificationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns restocks and price drops of wishlisted products into rows of the wishlist_notification
+ * outbox. Product writes only upsert one wishlist_change row per product and type, in their own
+ * transaction, so a change is never lost to a crash or deploy; changes to the same product are
+ * coalesced until the next flush, which walks the product's wishlist lines through the
+ * (product_id, id) index and writes one INSERT ... SELECT per chunk of lines before deleting the
+ * change. A product wishlisted by hundreds of thousands of users therefore costs the admin
+ * request one row and the flush a few hundred statements.
+ */
+@Service
+public class WishlistNotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WishlistNotificationService.class);
+
+    public static final String WRITTEN_METRIC = "prorunner.wishlist.notifications.written";
+
+    // Upper wishlist_item id of the next chunk of lines for a product
+    private static final String CHUNK_END_SQL = "SELECT MAX(id) FROM (SELECT id FROM wishlist_item " +
+            "WHERE product_id = ? AND id > ? ORDER BY id LIMIT ?) chunk";
+
+    // Skips users who still have an unsent notification of the same type for the product. The
+    // unique (user_id, product_id, type, unsent) index enforces that when another instance's flush
+    // inserts the same rows concurrently, and IGNORE drops those duplicates instead of failing the chunk
+    private static final String INSERT_SQL = "INSERT IGNORE INTO wishlist_notification (user_id, product_id, type, price_minor, created_at) " +
+            "SELECT w.user_id, wi.product_id, ?, ?, ? FROM wishlist_item wi JOIN wishlist w ON w.id = wi.wishlist_id " +
+            "WHERE wi.product_id = ? AND wi.id > ? AND wi.id <= ? AND NOT EXISTS (SELECT 1 FROM wishlist_notification n " +
+            "WHERE n.user_id = w.user_id AND n.product_id = wi.product_id AND n.type = ? AND n.unsent = 1)";
+
+    // Keeps the price before the first drop of a burst; the revision tells the flush whether a
+    // newer change arrived while it was writing
+    private static final String RECORD_SQL = "INSERT INTO wishlist_change (product_id, type, previous_price_minor, revision, changed_at) " +
+            "VALUES (?, ?, ?, 0, ?) ON DUPLICATE KEY UPDATE " +
+            "previous_price_minor = GREATEST(previous_price_minor, VALUES(previous_price_minor)), " +
+            "revision = revision + 1, changed_at = VALUES(changed_at)";
+
+    private static final String PENDING_SQL = "SELECT product_id, type, previous_price_minor, revision FROM wishlist_change " +
+            "ORDER BY changed_at";
+
+    private static final String DONE_SQL = "DELETE FROM wishlist_change WHERE product_id = ? AND type = ? AND revision = ?";
+
+    private record PendingChange(long productId, WishlistNotificationType type, long previousPriceMinor, long revision) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${prorunner.wishlist-notifications.enabled:true}")
+    private boolean enabled;
+
+    @Value("${prorunner.wishlist-notifications.chunk-size:5000}")
+    private int chunkSize;
+
+    private final Map<WishlistNotificationType, Counter> written = new EnumMap<>(WishlistNotificationType.class);
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final AtomicLong pending = new AtomicLong();
+
+    public WishlistNotificationService(MeterRegistry meterRegistry) {
+        for (WishlistNotificationType type : WishlistNotificationType.values()) {
+            written.put(type, Counter.builder(WRITTEN_METRIC)
+                    .description("Wishlist notifications written to the outbox")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("prorunner.wishlist.notifications.pending", pending, AtomicLong::get)
+                .description("Changed products found by the last wishlist notification flush")
+                .register(meterRegistry);
+    }
+
+    // Runs inside the publishing product write's transaction, so the change commits with it
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onProductChanged(WishlistedProductChangedEvent event) {
+        if (!enabled || event.getProductIds().isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String type = event.getType().name();
+        // In id order, so concurrent writers upsert shared rows in the same order
+        List<Object[]> rows = event.getProductIds().stream()
+                .sorted()
+                .map(productId -> new Object[]{productId, type, event.getPreviousPriceMinor(), now})
+                .toList();
+        jdbcTemplate.batchUpdate(RECORD_SQL, rows);
+    }
+
+    @Scheduled(fixedDelayString = "${prorunner.wishlist-notifications.flush-interval-ms:2000}")
+    public void scheduledFlush() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    // Writes the notifications for every pending change; returns the number of rows written
+    public long flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return 0;
+        }
+        long total = 0;
+        try {
+            List<PendingChange> changes = jdbcTemplate.query(PENDING_SQL, (rs, rowNum) -> new PendingChange(rs.getLong(1),
+                    WishlistNotificationType.valueOf(rs.getString(2)), rs.getLong(3), rs.getLong(4)));
+            pending.set(changes.size());
+            for (PendingChange change : changes) {
+                try {
+                    total += write(change);
+                    // A change recorded meanwhile has a newer revision and stays for the next flush
+                    jdbcTemplate.update(DONE_SQL, change.productId(), change.type().name(), change.revision());
+                } catch (RuntimeException e) {
+                    // Retried on the next flush; rows already written are skipped by the unsent check
+                    logger.error("Writing {} notifications for product {} failed: {}",
+                            change.type(), change.productId(), e.getMessage(), e);
+                }
+            }
+        } finally {
+            flushing.set(false);
+        }
+        return total;
+    }
+
+    private long write(PendingChange change) {
+        long start = System.nanoTime();
+        List<long[]> product = jdbcTemplate.query("SELECT stock, price_minor FROM product WHERE id = ?",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)}, change.productId());
+        if (product.isEmpty()) {
+            return 0;
+        }
+        long stock = product.get(0)[0];
+        long priceMinor = product.get(0)[1];
+        // The change may have been undone before the flush: sold out again, or price back up
+        boolean stillTrue = change.type() == WishlistNotificationType.BACK_IN_STOCK
+                ? stock > 0
+                : priceMinor < change.previousPriceMinor();
+        if (!stillTrue) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String type = change.type().name();
+        long rows = 0;
+        int chunks = 0;
+        long afterId = 0;
+        while (true) {
+            Long upToId = jdbcTemplate.queryForObject(CHUNK_END_SQL, Long.class, change.productId(), afterId, chunkSize);
+            if (upToId == null) {
+                break;
+            }
+            rows += jdbcTemplate.update(INSERT_SQL, type, priceMinor, now, change.productId(), afterId, upToId, type);
+            chunks++;
+            afterId = upToId;
+        }
+        written.get(change.type()).increment(rows);
+        if (rows > 0) {
+            logger.info("Wrote {} {} notifications for product {} in {} chunks, {} ms",
+                    rows, type, change.productId(), chunks, (System.nanoTime() - start) / 1_000_000);
+        }
+        return rows;
+    }
+}
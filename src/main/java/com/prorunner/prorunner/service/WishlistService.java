@@ -2,20 +2,28 @@ package com.prorunner.prorunner.service;
 
 import com.prorunner.prorunner.dto.WishlistDTO;
 import com.prorunner.prorunner.dto.WishlistItemDTO;
+import com.prorunner.prorunner.event.WishlistItemChangedEvent;
+import com.prorunner.prorunner.exception.InvalidPaginationException;
 import com.prorunner.prorunner.model.Product;
 import com.prorunner.prorunner.model.User;
 import com.prorunner.prorunner.model.Wishlist;
 import com.prorunner.prorunner.model.WishlistItem;
-import com.prorunner.prorunner.repository.CartRepository;
 import com.prorunner.prorunner.repository.ProductRepository;
 import com.prorunner.prorunner.repository.UserRepository;
+import com.prorunner.prorunner.repository.WishlistItemRepository;
 import com.prorunner.prorunner.repository.WishlistRepository;
-import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,26 +39,57 @@ public class WishlistService {        //wishlistService
     private WishlistRepository wishlistRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private WishlistItemRepository wishlistItemRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
     // Helper method to map Wishlist to WishlistDTO
     private WishlistDTO mapToDTO(Wishlist wishlist) {
-        WishlistDTO wishlistDTO = modelMapper.map(wishlist, WishlistDTO.class);
-        wishlistDTO.setItems(wishlist.getItems().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList()));
+        WishlistDTO wishlistDTO = new WishlistDTO();
+        wishlistDTO.setId(wishlist.getId());
+        wishlistDTO.setUserId(wishlist.getUser().getId());
+        wishlistDTO.setItems(hydrate(wishlistItemRepository.findProductIdsByWishlistId(wishlist.getId())));
         return wishlistDTO;
     }
 
-    // Helper method to map WishlistItem to WishlistItemDTO
-    private WishlistItemDTO mapToDTO(WishlistItem item) {
+    // Loads the products behind a list of wishlist lines in one query, keeping the lines' order
+    private List<WishlistItemDTO> hydrate(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<WishlistItemDTO> items = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            Product product = products.get(productId);
+            if (product != null) {
+                items.add(mapToDTO(product));
+            }
+        }
+        return items;
+    }
+
+    // Co-wishlist counts follow the wishlist after commit, see RecommendationService
+    private void wishlistChanged(WishlistDTO wishlist, Long productId, boolean added) {
+        List<Long> others = wishlist.getItems().stream()
+                .map(WishlistItemDTO::getProductId)
+                .filter(id -> !id.equals(productId))
+                .collect(Collectors.toList());
+        eventPublisher.publishEvent(new WishlistItemChangedEvent(wishlist.getId(), productId, others, added));
+    }
+
+    // Helper method to map a wishlisted Product to WishlistItemDTO
+    private WishlistItemDTO mapToDTO(Product product) {
         WishlistItemDTO dto = new WishlistItemDTO();
-        dto.setProductId(item.getProduct().getId());
-        dto.setProductName(item.getProduct().getName());
-        dto.setImageUrl(item.getProduct().getImageUrl()); // Ensure this field exists
-        dto.setSize(item.getProduct().getSize()); // Ensure this field exists
-        dto.setColor(item.getProduct().getColor()); // Ensure this field exists
-        dto.setUnitPrice(item.getProduct().getPrice()); // Ensure this field exists
+        dto.setProductId(product.getId());
+        dto.setProductName(product.getName());
+        dto.setImageUrl(product.getImageUrl());
+        dto.setSize(product.getSize());
+        dto.setColor(product.getColor());
+        dto.setUnitPrice(product.getPrice());
         return dto;
     }
 
@@ -84,23 +123,17 @@ public class WishlistService {        //wishlistService
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
 
-        // Ensure wishlist is persisted before adding items
-        if (wishlist.getId() == null) {
-            wishlist = wishlistRepository.save(wishlist);
-        }
-
-        // Check if the product is already in the wishlist
-        boolean productExists = wishlist.getItems().stream()
-                .anyMatch(item -> item.getProduct().getId().equals(productId));
-
-        if (!productExists) {
+        // Index lookup on (wishlist_id, product_id); the unique key rejects a concurrent duplicate add
+        if (!wishlistItemRepository.existsInWishlist(wishlist.getId(), productId)) {
             WishlistItem item = new WishlistItem();
             item.setProduct(product);
-            item.setWishlist(wishlist); // Ensure wishlist reference is set
-            wishlist.getItems().add(item);
+            item.setWishlist(wishlist);
+            wishlistItemRepository.save(item);
+            WishlistDTO wishlistDTO = mapToDTO(wishlist);
+            wishlistChanged(wishlistDTO, productId, true);
+            return wishlistDTO;
         }
 
-        wishlistRepository.save(wishlist);
         return mapToDTO(wishlist);
     }
 
@@ -110,15 +143,25 @@ public class WishlistService {        //wishlistService
         Wishlist wishlist = wishlistRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Wishlist not found for user with ID: "+userId));
 
-        boolean removed = wishlist.getItems().removeIf(item -> item.getProduct().getId().equals(productId));
-
-        if (!removed) {
+        if (wishlistItemRepository.deleteFromWishlist(wishlist.getId(), productId) == 0) {
             throw new RuntimeException("Product not found in wishlist");
         }
 
-        wishlistRepository.save(wishlist);
+        WishlistDTO wishlistDTO = mapToDTO(wishlist);
+        wishlistChanged(wishlistDTO, productId, false);
+        return wishlistDTO;
+    }
 
-        return mapToDTO(wishlist);
+    @Transactional(readOnly = true)
+    public Page<WishlistItemDTO> getWishlistItems(Long userId, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidPaginationException("Page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        Wishlist wishlist = wishlistRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Wishlist not found for user with ID: " + userId));
+
+        Page<Long> productIds = wishlistItemRepository.findProductIdsByWishlistId(wishlist.getId(), PageRequest.of(page, size));
+        return new PageImpl<>(hydrate(productIds.getContent()), productIds.getPageable(), productIds.getTotalElements());
     }
 
 }
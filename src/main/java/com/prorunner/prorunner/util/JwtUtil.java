@@ -39,6 +39,23 @@ public class JwtUtil {
         }
     }
 
+    // Verify the signature and expiry once and return the claims, so callers needing
+    // several claims do not re-parse the token for each one
+    public Claims parseClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    // Extract Roles from parsed claims
+    public Set<String> extractRoles(Claims claims) {
+        return ((List<?>) claims.get("roles")).stream()
+                .map(Object::toString)
+                .collect(Collectors.toSet());
+    }
+
     // Extract Username from Token
     public String extractUsername(String token) {
         return Jwts.parserBuilder()
@@ -57,9 +74,7 @@ public class JwtUtil {
                 .parseClaimsJws(token)
                 .getBody();
 
-        return ((List<?>) claims.get("roles")).stream()
-                .map(Object::toString)
-                .collect(Collectors.toSet());
+        return extractRoles(claims);
     }
 
     public Long extractUserId(String token) {
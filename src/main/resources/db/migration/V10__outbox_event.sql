@@ -0,0 +1,12 @@
+-- Transactional outbox: domain events are inserted in the transaction that made the change
+-- and removed by OutboxRelayService once every sink has accepted them.
+
+create table outbox_event (
+    id bigint not null auto_increment,
+    aggregate_type varchar(32) not null,
+    aggregate_id bigint not null,
+    event_type varchar(64) not null,
+    payload text not null,
+    created_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
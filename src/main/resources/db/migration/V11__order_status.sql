@@ -0,0 +1,33 @@
+-- Order status becomes an enum-backed state machine (OrderStatus) with maintained per-status counts.
+
+update orders set status = upper(status) where status is not null;
+update orders set status = 'PLACED' where status is null
+    or status not in ('PLACED', 'PAID', 'PICKED', 'SHIPPED', 'DELIVERED', 'CANCELLED');
+alter table orders modify column status varchar(32) not null;
+alter table orders add column status_updated_at datetime(6);
+
+-- Fulfillment works through the oldest orders of a status
+create index idx_orders_status_created on orders (status, created_at);
+
+-- Per-status order counts, spread over 16 slots per status so concurrent orders and transitions
+-- increment different rows; a count is the sum of its slots (OrderStatusService.SLOTS)
+create table order_status_count (
+    status varchar(32) not null,
+    slot integer not null,
+    order_count bigint not null,
+    primary key (status, slot)
+) engine=InnoDB;
+
+insert into order_status_count (status, slot, order_count)
+select s.status, n.slot, 0 from (
+    select 'PLACED' as status union all select 'PAID' union all select 'PICKED'
+    union all select 'SHIPPED' union all select 'DELIVERED' union all select 'CANCELLED'
+) s cross join (
+    select 0 as slot union all select 1 union all select 2 union all select 3
+    union all select 4 union all select 5 union all select 6 union all select 7
+    union all select 8 union all select 9 union all select 10 union all select 11
+    union all select 12 union all select 13 union all select 14 union all select 15
+) n;
+
+update order_status_count set order_count = (select count(*) from orders o where o.status = order_status_count.status)
+where slot = 0;
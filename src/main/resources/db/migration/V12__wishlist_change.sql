@@ -0,0 +1,13 @@
+-- Restocks and price drops of products waiting to be fanned out to wishlist_notification.
+-- Written in the product write's own transaction and deleted by WishlistNotificationService once
+-- the notifications are written, so a crash between the two only delays them. One row per
+-- product and type: repeated changes bump the revision instead of adding rows.
+
+create table wishlist_change (
+    product_id bigint not null,
+    type varchar(32) not null,
+    previous_price_minor bigint not null,
+    revision bigint not null,
+    changed_at datetime(6) not null,
+    primary key (product_id, type)
+) engine=InnoDB;
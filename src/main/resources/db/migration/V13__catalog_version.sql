@@ -0,0 +1,10 @@
+-- Catalog version shared by every application instance, bumped in the transaction of each
+-- catalog write and served as the ETag of catalog responses (see CatalogVersionService)
+
+create table catalog_version (
+    id integer not null,
+    version bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+insert into catalog_version (id, version) values (1, 0);
@@ -0,0 +1,18 @@
+-- One unsent notification per user, product and type, enforced by the schema rather than only by
+-- the flush's NOT EXISTS check, which two instances flushing the same change can both pass.
+-- unsent is 1 until the row is sent and NULL afterwards; NULLs never collide in a unique index,
+-- so sent notifications are kept as history while a second unsent one is rejected.
+
+alter table wishlist_notification add column unsent tinyint generated always as (case when sent_at is null then 1 end);
+
+-- Duplicates written by concurrent flushes before this migration: the oldest unsent row stays
+delete from wishlist_notification where sent_at is null and id not in (
+    select id from (
+        select min(id) as id from wishlist_notification where sent_at is null group by user_id, product_id, type
+    ) keep
+);
+
+create unique index uk_wishlist_notification_unsent on wishlist_notification (user_id, product_id, type, unsent);
+
+-- Covered by the unique index, which the flush's unsent check now uses
+drop index idx_wishlist_notification_user_product on wishlist_notification;
@@ -0,0 +1,113 @@
+-- Baseline: the schema previously created by spring.jpa.hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate).
+
+create table addresses (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    city varchar(255) not null,
+    country varchar(255) not null,
+    postalcode varchar(255) not null,
+    state varchar(255) not null,
+    street varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table cart (
+    total_price float(53),
+    id bigint not null auto_increment,
+    user_id bigint,
+    session_id varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table cart_product (
+    quantity integer not null,
+    subtotal float(53),
+    unit_price float(53),
+    cart_id bigint not null,
+    id bigint not null auto_increment,
+    product_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table order_item (
+    quantity integer not null,
+    subtotal float(53),
+    unit_price float(53),
+    id bigint not null auto_increment,
+    order_id bigint not null,
+    product_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table orders (
+    total_price float(53),
+    address_id bigint not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    status varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table product (
+    availability bit not null,
+    price float(53) not null,
+    reserved_stock integer not null,
+    stock integer not null,
+    id bigint not null auto_increment,
+    description varchar(500),
+    category varchar(255),
+    color varchar(255),
+    gender varchar(255),
+    image_url varchar(255),
+    name varchar(255) not null,
+    size varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table user_roles (
+    user_id bigint not null,
+    role varchar(255)
+) engine=InnoDB;
+
+create table users (
+    id bigint not null auto_increment,
+    email varchar(255) not null,
+    name varchar(255) not null,
+    password varchar(255) not null,
+    phone_number varchar(255) not null,
+    username varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table wishlist (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table wishlist_item (
+    id bigint not null auto_increment,
+    product_id bigint not null,
+    wishlist_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table cart add constraint UK9emlp6m95v5er2bcqkjsw48he unique (user_id);
+alter table cart add constraint UK2kkquqx3hjqiys102tpfrm7jm unique (session_id);
+alter table users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+alter table users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+alter table wishlist add constraint UKrcuy9aqx9c6q56x1xdoty8r3q unique (user_id);
+alter table addresses add constraint FK1fa36y2oqhao3wgg2rw1pi459 foreign key (user_id) references users (id);
+alter table cart add constraint FKg5uhi8vpsuy0lgloxk2h4w5o6 foreign key (user_id) references users (id);
+alter table cart_product add constraint FKlv5x4iresnv4xspvomrwd8ej9 foreign key (cart_id) references cart (id);
+alter table cart_product add constraint FK2kdlr8hs2bwl14u8oop49vrxi foreign key (product_id) references product (id);
+alter table order_item add constraint FKt4dc2r9nbvbujrljv3e23iibt foreign key (order_id) references orders (id);
+alter table order_item add constraint FK551losx9j75ss5d6bfsqvijna foreign key (product_id) references product (id);
+alter table orders add constraint FKhlglkvf5i60dv6dn397ethgpt foreign key (address_id) references addresses (id);
+alter table orders add constraint FK32ql8ubntj5uh44ph9659tiih foreign key (user_id) references users (id);
+alter table user_roles add constraint FKhfh9dx7w3ubf1co1vdev94g3f foreign key (user_id) references users (id);
+alter table wishlist add constraint FKtrd6335blsefl2gxpb8lr0gr7 foreign key (user_id) references users (id);
+alter table wishlist_item add constraint FK5s5jxai41c8tqklyy111ngqh7 foreign key (product_id) references product (id);
+alter table wishlist_item add constraint FK5iw5sajivrxnt4qjxqlgo8yb1 foreign key (wishlist_id) references wishlist (id);
@@ -0,0 +1,35 @@
+-- Composite indexes for the hot lookups in CartProductRepository, OrderRepository,
+-- ProductRetirementService and ProductService.filterProducts.
+
+-- The old add-to-cart path could insert a second line for the same product in a cart. Fold such
+-- duplicates into the oldest line; quantities and subtotals add up, so cart totals and reserved
+-- stock stay as they were
+update cart_product set
+    quantity = (select total_quantity from (
+        select cart_id, product_id, sum(quantity) as total_quantity from cart_product group by cart_id, product_id
+    ) merged where merged.cart_id = cart_product.cart_id and merged.product_id = cart_product.product_id),
+    subtotal = (select total_subtotal from (
+        select cart_id, product_id, sum(subtotal) as total_subtotal from cart_product group by cart_id, product_id
+    ) merged where merged.cart_id = cart_product.cart_id and merged.product_id = cart_product.product_id)
+where id in (
+    select keep_id from (select min(id) as keep_id from cart_product group by cart_id, product_id having count(*) > 1) kept
+);
+
+delete from cart_product where id not in (
+    select keep_id from (select min(id) as keep_id from cart_product group by cart_id, product_id) kept
+);
+
+-- findByCartAndProduct / findByCart: one line per product per cart, looked up by both columns
+create unique index uk_cart_product_cart_product on cart_product (cart_id, product_id);
+
+-- Removal of a product from all carts scans by product in cart order and sums quantities
+create index idx_cart_product_product_cart on cart_product (product_id, cart_id, quantity);
+
+-- Order history per user, newest first
+create index idx_orders_user_created on orders (user_id, created_at);
+
+-- filterProducts: equality filters on category/gender/color/size, range on price
+create index idx_product_filter on product (category, gender, color, size, price);
+
+-- filterProducts with only a price range, and price sorting
+create index idx_product_price on product (price);
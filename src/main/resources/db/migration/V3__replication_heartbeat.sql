@@ -0,0 +1,8 @@
+-- Heartbeat stamped on the primary and read back from replicas to measure replication lag
+create table replication_heartbeat (
+    id integer not null,
+    beat_at bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+insert into replication_heartbeat (id, beat_at) values (1, 0);
@@ -0,0 +1,4 @@
+-- Version columns for optimistic locking on the rows written concurrently by carts, orders and stock updates
+alter table product add column version bigint not null default 0;
+alter table cart add column version bigint not null default 0;
+alter table cart_product add column version bigint not null default 0;
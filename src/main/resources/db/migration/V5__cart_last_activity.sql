@@ -0,0 +1,5 @@
+-- Last write to a cart, used by CartJanitorService to find idle guest carts
+alter table cart add column last_activity_at datetime(6) not null default current_timestamp(6);
+
+-- Guest carts (user_id is null) ordered by idleness
+create index idx_cart_user_activity on cart (user_id, last_activity_at);
@@ -0,0 +1,35 @@
+-- Money columns move from float(53) to bigint minor units (cents), see Money and MoneyConverter.
+-- Each amount is rounded to the cent once here; from then on totals are exact integer sums.
+
+-- The price indexes are rebuilt on the new column
+drop index idx_product_filter on product;
+drop index idx_product_price on product;
+
+alter table product add column price_minor bigint not null default 0;
+update product set price_minor = round(price * 100);
+alter table product drop column price;
+
+create index idx_product_filter on product (category, gender, color, size, price_minor);
+create index idx_product_price on product (price_minor);
+
+alter table cart add column total_price_minor bigint not null default 0;
+update cart set total_price_minor = round(coalesce(total_price, 0) * 100);
+alter table cart drop column total_price;
+
+alter table cart_product add column unit_price_minor bigint not null default 0;
+alter table cart_product add column subtotal_minor bigint not null default 0;
+update cart_product set unit_price_minor = round(coalesce(unit_price, 0) * 100);
+update cart_product set subtotal_minor = unit_price_minor * quantity;
+alter table cart_product drop column unit_price;
+alter table cart_product drop column subtotal;
+
+alter table orders add column total_price_minor bigint not null default 0;
+update orders set total_price_minor = round(coalesce(total_price, 0) * 100);
+alter table orders drop column total_price;
+
+alter table order_item add column unit_price_minor bigint not null default 0;
+alter table order_item add column subtotal_minor bigint not null default 0;
+update order_item set unit_price_minor = round(coalesce(unit_price, 0) * 100),
+                      subtotal_minor = round(coalesce(subtotal, 0) * 100);
+alter table order_item drop column unit_price;
+alter table order_item drop column subtotal;
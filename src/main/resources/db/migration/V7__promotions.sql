@@ -0,0 +1,34 @@
+-- Promotions and the discount applied to each cart line and order item.
+-- promotion.product_id has no foreign key so deleting a product is not blocked by old promotions.
+
+create table promotion (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    type varchar(32) not null,
+    product_id bigint,
+    category varchar(255),
+    percent_off decimal(5,2),
+    buy_quantity integer,
+    free_quantity integer,
+    starts_at datetime(6),
+    ends_at datetime(6),
+    active bit not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table promotion_tier (
+    promotion_id bigint not null,
+    min_quantity integer not null,
+    percent_off decimal(5,2) not null
+) engine=InnoDB;
+
+alter table promotion_tier add constraint fk_promotion_tier_promotion foreign key (promotion_id) references promotion (id);
+
+-- PricingService compiles the active, unexpired promotions
+create index idx_promotion_active_ends on promotion (active, ends_at);
+
+alter table cart_product add column discount_minor bigint not null default 0;
+alter table cart_product add column promotion_id bigint;
+
+alter table order_item add column discount_minor bigint not null default 0;
+alter table order_item add column promotion_id bigint;
@@ -0,0 +1,9 @@
+-- One wishlist line per product: membership checks and removals become single index lookups
+-- on (wishlist_id, product_id) instead of walking the wishlist's items.
+
+-- Keep the oldest line of any duplicates created before the constraint existed
+delete from wishlist_item where id not in (
+    select keep_id from (select min(id) as keep_id from wishlist_item group by wishlist_id, product_id) kept
+);
+
+create unique index uk_wishlist_item_wishlist_product on wishlist_item (wishlist_id, product_id);
@@ -0,0 +1,22 @@
+-- Back-in-stock and price-drop notifications for wishlisted products, written by
+-- WishlistNotificationService and delivered by whatever reads the unsent rows.
+
+create table wishlist_notification (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    product_id bigint not null,
+    type varchar(32) not null,
+    price_minor bigint not null,
+    created_at datetime(6) not null,
+    sent_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+-- Reverse index product -> wishlist lines, walked in id order in fixed-size chunks
+create index idx_wishlist_item_product on wishlist_item (product_id, id);
+
+-- A user gets one unsent notification per product and type however often the product changes
+create index idx_wishlist_notification_user_product on wishlist_notification (user_id, product_id, type, sent_at);
+
+-- Delivery reads unsent rows in insertion order
+create index idx_wishlist_notification_unsent on wishlist_notification (sent_at, id);
@@ -0,0 +1,96 @@
+package com.prorunner.prorunner.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongLongHashMapTest {
+
+    @Test
+    void matchesAHashMapThroughResizes() {
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            // Ids spaced by a power of two collide in the low bits without the hash spreading them
+            long key = 1 + (random.nextInt(10_000) << 10);
+            long delta = random.nextInt(100) - 20;
+            assertEquals(expected.merge(key, delta, Long::sum), map.addTo(key, delta));
+        }
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        int[] seen = {0};
+        map.forEach((key, value) -> {
+            assertEquals(expected.get(key), value);
+            seen[0]++;
+        });
+        assertEquals(expected.size(), seen[0]);
+    }
+
+    @Test
+    void absentKeysReadAsZero() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.addTo(5, 0);
+        assertTrue(map.containsKey(5));
+        assertEquals(0, map.get(5));
+        assertFalse(map.containsKey(6));
+        assertEquals(0, map.get(6));
+        assertThrows(IllegalArgumentException.class, () -> map.addTo(0, 1));
+    }
+
+    @Test
+    void topKeysRanksByValueThenLowerKey() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.addTo(10, 5);
+        map.addTo(3, 9);
+        map.addTo(7, 5);
+        map.addTo(1, 1);
+        map.addTo(8, 9);
+        assertArrayEquals(new long[]{3, 8, 7, 10}, map.topKeys(4));
+        assertArrayEquals(new long[]{3, 8, 7, 10, 1}, map.topKeys(100));
+        assertArrayEquals(new long[0], map.topKeys(0));
+    }
+
+    @Test
+    void copyAndClearAreIndependent() {
+        LongLongHashMap map = new LongLongHashMap();
+        for (long key = 1; key <= 100; key++) {
+            map.addTo(key, key);
+        }
+        LongLongHashMap copy = map.copy();
+        map.addTo(1, 1000);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.get(50));
+        assertEquals(100, copy.size());
+        assertEquals(1, copy.get(1));
+        copy.addTo(101, 7);
+        assertEquals(7, copy.get(101));
+    }
+
+    @Test
+    void roundTripsThroughTheCheckpointFormat() throws IOException {
+        LongLongHashMap map = new LongLongHashMap();
+        map.addTo(Long.MAX_VALUE, -3);
+        map.addTo(42, 1L << 40);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        map.writeTo(new DataOutputStream(bytes));
+        LongLongHashMap read = LongLongHashMap.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(2, read.size());
+        assertEquals(-3, read.get(Long.MAX_VALUE));
+        assertEquals(1L << 40, read.get(42));
+    }
+}
@@ -0,0 +1,65 @@
+package com.prorunner.prorunner.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BlockCodecTest {
+
+    private static final long[] VALUES = {0, 1, -1, 63, -64, 64, 127, 128, 300, -300, 1L << 35,
+            Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+
+    @Test
+    void roundTripsEveryFieldKind() {
+        BlockEncoder encoder = new BlockEncoder();
+        for (long value : VALUES) {
+            encoder.putZigZag(value);
+        }
+        encoder.putVarLong(Long.MAX_VALUE);
+        encoder.putVarLong(-1);
+        encoder.putByte(-7);
+        encoder.putString("");
+        encoder.putString("Laufschuh – größe 42 👟");
+
+        BlockDecoder decoder = new BlockDecoder(Arrays.copyOf(encoder.bytes(), encoder.size()));
+        for (long value : VALUES) {
+            assertEquals(value, decoder.getZigZag());
+        }
+        assertEquals(Long.MAX_VALUE, decoder.getVarLong());
+        assertEquals(-1, decoder.getVarLong());
+        assertEquals(-7, decoder.getByte());
+        assertEquals("", decoder.getString());
+        assertEquals("Laufschuh – größe 42 👟", decoder.getString());
+    }
+
+    @Test
+    void smallValuesTakeOneByte() {
+        BlockEncoder encoder = new BlockEncoder();
+        encoder.putVarLong(127);
+        encoder.putZigZag(-64);
+        encoder.putZigZag(63);
+        assertEquals(3, encoder.size());
+        encoder.putVarLong(128);
+        assertEquals(5, encoder.size());
+        // Unsigned varints spend ten bytes on a negative value, which is what zigzag avoids
+        encoder.putVarLong(-1);
+        assertEquals(15, encoder.size());
+    }
+
+    @Test
+    void growsPastTheInitialBuffer() {
+        BlockEncoder encoder = new BlockEncoder();
+        String name = "x".repeat(1_000);
+        for (int i = 0; i < 100; i++) {
+            encoder.putZigZag(-i * 1_000_003L);
+            encoder.putString(name + i);
+        }
+        BlockDecoder decoder = new BlockDecoder(encoder.bytes());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(-i * 1_000_003L, decoder.getZigZag());
+            assertEquals(name + i, decoder.getString());
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.prorunner.prorunner.benchmark;
+
+import com.prorunner.prorunner.concurrency.OptimisticRetryAspect;
+import com.prorunner.prorunner.exception.ConcurrentUpdateException;
+import com.prorunner.prorunner.service.CartService;
+import com.prorunner.prorunner.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires concurrent addProductToCart, addProductQuantity, removeProductFromCart and placeOrder
+ * calls at a handful of SKUs and checks the inventory invariants after every round:
+ * stock never negative, reserved stock equal to the quantities sitting in carts, and
+ * initial stock equal to remaining stock plus ordered quantities (no lost updates).
+ * Each round doubles the thread count, so the throughput table doubles as a scaling benchmark.
+ * Run with: mvn test -Pbenchmark -Dtest=CartInventoryStressTest
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class CartInventoryStressTest {
+
+    private static final int SKUS = 4;
+    private static final int USERS = 32;
+    private static final int INITIAL_STOCK = 5_000;
+    private static final int OPS_PER_ROUND = 4_000;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<long[]> shoppers = new ArrayList<>(); // {userId, addressId, cartId}
+
+    // Outcome of one round
+    private static final class RoundStats {
+        final AtomicLong succeeded = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong exhausted = new AtomicLong();
+        final AtomicLong transientFailures = new AtomicLong();
+        final Map<String, AtomicLong> succeededByOperation = new ConcurrentHashMap<>();
+        final List<Throwable> unexpected = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @Test
+    void invariantsHoldUnderContention() throws InterruptedException {
+        seed();
+
+        System.out.printf("%n%-8s %8s %10s %9s %10s %9s %9s %10s %8s%n",
+                "threads", "ops", "succeeded", "rejected", "exhausted", "retries", "ops/s", "orders/s", "scaling");
+        double singleThreadRate = 0;
+        for (int threads : THREAD_COUNTS) {
+            double retriesBefore = retries();
+            long start = System.nanoTime();
+            RoundStats stats = runRound(threads);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            assertTrue(stats.unexpected.isEmpty(), "Unexpected failures: " + stats.unexpected);
+            assertInvariants();
+
+            double rate = OPS_PER_ROUND / seconds;
+            if (singleThreadRate == 0) {
+                singleThreadRate = rate;
+            }
+            long orders = stats.succeededByOperation.getOrDefault("placeOrder", new AtomicLong()).get();
+            System.out.printf("%-8d %8d %10d %9d %10d %9.0f %9.0f %10.1f %7.2fx%n",
+                    threads, OPS_PER_ROUND, stats.succeeded.get(), stats.rejected.get(),
+                    stats.exhausted.get() + stats.transientFailures.get(), retries() - retriesBefore,
+                    rate, orders / seconds, rate / singleThreadRate);
+        }
+    }
+
+    private RoundStats runRound(int threads) throws InterruptedException {
+        RoundStats stats = new RoundStats();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(OPS_PER_ROUND);
+        for (int i = 0; i < OPS_PER_ROUND; i++) {
+            executor.execute(() -> {
+                try {
+                    runOperation(stats);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(done.await(5, TimeUnit.MINUTES), "Round with " + threads + " threads did not finish");
+        return stats;
+    }
+
+    private void runOperation(RoundStats stats) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] shopper = shoppers.get(random.nextInt(shoppers.size()));
+        Long productId = productIds.get(random.nextInt(productIds.size()));
+        int roll = random.nextInt(100);
+        String operation = roll < 45 ? "addProductToCart"
+                : roll < 65 ? "addProductQuantity"
+                : roll < 80 ? "removeProductFromCart"
+                : "placeOrder";
+        try {
+            switch (operation) {
+                case "addProductToCart" -> cartService.addProductToCart(null, shopper[0], productId, 1 + random.nextInt(3));
+                case "addProductQuantity" -> cartService.addProductQuantity(null, shopper[0], productId, random.nextBoolean());
+                case "removeProductFromCart" -> cartService.removeProductFromCart(null, shopper[0], productId);
+                default -> orderService.placeOrder(shopper[2], shopper[0], shopper[1]);
+            }
+            stats.succeeded.incrementAndGet();
+            stats.succeededByOperation.computeIfAbsent(operation, key -> new AtomicLong()).incrementAndGet();
+        } catch (ConcurrentUpdateException e) {
+            stats.exhausted.incrementAndGet();
+        } catch (ConcurrencyFailureException e) {
+            // Lock timeouts and deadlocks roll back cleanly; the invariants must still hold
+            stats.transientFailures.incrementAndGet();
+        } catch (RuntimeException e) {
+            // Business rule rejections (item not in cart, empty cart, out of stock) use these two types
+            if (e.getClass() == RuntimeException.class || e.getClass() == IllegalArgumentException.class) {
+                stats.rejected.incrementAndGet();
+            } else {
+                stats.unexpected.add(e);
+            }
+        }
+    }
+
+    private void assertInvariants() {
+        Map<Long, Long> inCarts = sumByProduct("SELECT product_id, SUM(quantity) FROM cart_product GROUP BY product_id");
+        Map<Long, Long> ordered = sumByProduct("SELECT product_id, SUM(quantity) FROM order_item GROUP BY product_id");
+        for (Long productId : productIds) {
+            Map<String, Object> row = jdbcTemplate.queryForMap(
+                    "SELECT stock, reserved_stock FROM product WHERE id = ?", productId);
+            long stock = ((Number) row.get("stock")).longValue();
+            long reserved = ((Number) row.get("reserved_stock")).longValue();
+
+            assertTrue(stock >= 0, "Stock went negative for product " + productId + ": " + stock);
+            assertEquals(inCarts.getOrDefault(productId, 0L), reserved,
+                    "Reserved stock differs from cart quantities for product " + productId);
+            assertEquals(INITIAL_STOCK, stock + ordered.getOrDefault(productId, 0L),
+                    "Stock plus ordered quantity differs from the initial stock for product " + productId);
+        }
+    }
+
+    private Map<Long, Long> sumByProduct(String sql) {
+        Map<Long, Long> sums = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            sums.put(rs.getLong(1), rs.getLong(2));
+        });
+        return sums;
+    }
+
+    private double retries() {
+        return meterRegistry.find(OptimisticRetryAspect.CONFLICT_METRIC).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private void seed() {
+        String run = Long.toString(System.nanoTime(), 36);
+        for (int i = 0; i < SKUS; i++) {
+            jdbcTemplate.update("INSERT INTO product (availability, price_minor, reserved_stock, stock, name, category) " +
+                    "VALUES (true, ?, 0, ?, ?, 'shoes')", 4_999 + i * 1_000, INITIAL_STOCK, "Stress SKU " + i + " " + run);
+            productIds.add(jdbcTemplate.queryForObject("SELECT id FROM product WHERE name = ?", Long.class,
+                    "Stress SKU " + i + " " + run));
+        }
+        for (int i = 0; i < USERS; i++) {
+            String username = "stress-" + run + "-" + i;
+            jdbcTemplate.update("INSERT INTO users (email, name, password, phone_number, username) " +
+                    "VALUES (?, ?, 'x', '0000000000', ?)", username + "@example.com", "Stress " + i, username);
+            Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+            jdbcTemplate.update("INSERT INTO addresses (user_id, city, country, postalcode, state, street) " +
+                    "VALUES (?, 'City', 'Country', '00000', 'State', 'Street')", userId);
+            Long addressId = jdbcTemplate.queryForObject("SELECT id FROM addresses WHERE user_id = ?", Long.class, userId);
+            // Carts exist up front so the rounds measure contention on stock, not cart creation races
+            Long cartId = cartService.getOrCreateCart(null, userId).getId();
+            shoppers.add(new long[]{userId, addressId, cartId});
+        }
+    }
+}
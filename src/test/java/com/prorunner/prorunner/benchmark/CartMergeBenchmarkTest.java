@@ -0,0 +1,169 @@
+package com.prorunner.prorunner.benchmark;
+
+import com.prorunner.prorunner.metrics.SqlStats;
+import com.prorunner.prorunner.model.Cart;
+import com.prorunner.prorunner.model.CartProduct;
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.repository.CartProductRepository;
+import com.prorunner.prorunner.repository.CartRepository;
+import com.prorunner.prorunner.service.CartService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Guest-to-user cart merge for 1, 10 and 100-line guest carts, comparing CartService.mergeCarts
+ * (set-based upsert) with the previous per-line find-and-save loop. Half of the guest lines
+ * are products the user already has, so both the insert and the add-quantity paths are exercised.
+ * Reports mean latency and SQL statements per merge, and checks quantities and reserved stock.
+ * Run with: mvn test -Pbenchmark -Dtest=CartMergeBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class CartMergeBenchmarkTest {
+
+    private static final int[] GUEST_LINES = {1, 10, 100};
+    private static final int WARMUP = 20;
+    private static final int MERGES = 100;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartProductRepository cartProductRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Long> productIds = new ArrayList<>();
+    private int sequence;
+
+    @Test
+    void mergeCartsBySize() {
+        String run = Long.toString(System.nanoTime(), 36);
+        for (int i = 0; i < 2 * GUEST_LINES[GUEST_LINES.length - 1]; i++) {
+            jdbcTemplate.update("INSERT INTO product (availability, price_minor, reserved_stock, stock, name) " +
+                    "VALUES (true, ?, 0, 1000000, ?)", 1_000 + 100 * i, "Merge " + run + " " + i);
+        }
+        productIds.addAll(jdbcTemplate.queryForList("SELECT id FROM product WHERE name LIKE ? ORDER BY id",
+                Long.class, "Merge " + run + " %"));
+
+        System.out.printf("%n%-12s %-10s %12s %16s%n", "guest lines", "strategy", "mean us", "statements/merge");
+        for (int lines : GUEST_LINES) {
+            measure(lines, "loop", this::loopMerge);
+            measure(lines, "set-based", (session, userId) -> cartService.mergeCarts(session, userId));
+        }
+    }
+
+    private void measure(int lines, String strategy, BiConsumer<String, Long> merge) {
+        for (int i = 0; i < WARMUP; i++) {
+            long[] shopper = seedShopper(lines);
+            merge.accept("merge-" + shopper[1], shopper[0]);
+        }
+
+        long[][] shoppers = new long[MERGES][];
+        for (int i = 0; i < MERGES; i++) {
+            shoppers[i] = seedShopper(lines);
+        }
+        long expectedReserved = reservedStock();
+        long expectedQuantity = quantityInUserCarts(shoppers) + (long) MERGES * guestQuantity(lines);
+
+        long statements = 0;
+        long nanos = 0;
+        for (long[] shopper : shoppers) {
+            SqlStats stats = SqlStats.start();
+            long start = System.nanoTime();
+            merge.accept("merge-" + shopper[1], shopper[0]);
+            nanos += System.nanoTime() - start;
+            statements += stats.getStatements();
+            SqlStats.clear();
+        }
+
+        assertEquals(expectedQuantity, quantityInUserCarts(shoppers), "Merged quantities differ");
+        assertEquals(expectedReserved, reservedStock(), "Merging must not change reserved stock");
+        System.out.printf("%-12d %-10s %12.1f %16.1f%n", lines, strategy,
+                nanos / 1_000.0 / MERGES, statements / (double) MERGES);
+    }
+
+    // The merge this replaced: per-line lookup and save, then a total, a delete and two cart saves
+    private void loopMerge(String guestSessionId, Long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Cart guestCart = cartRepository.findBySessionId(guestSessionId).orElseThrow();
+            Cart userCart = cartRepository.findByUserId(userId).orElseThrow();
+            for (CartProduct guestProduct : guestCart.getCartProducts()) {
+                CartProduct userProduct = cartProductRepository.findByCartAndProduct(userCart, guestProduct.getProduct())
+                        .orElseGet(() -> new CartProduct(userCart, guestProduct.getProduct(), 0, guestProduct.getUnitPrice()));
+                userProduct.setQuantity(userProduct.getQuantity() + guestProduct.getQuantity());
+                userProduct.updateSubtotal();
+                cartProductRepository.save(userProduct);
+            }
+            userCart.setTotalPrice(userCart.getCartProducts().stream().map(CartProduct::getSubtotal).reduce(Money.ZERO, Money::plus));
+            cartRepository.save(userCart);
+            guestCart.getCartProducts().clear();
+            cartRepository.delete(guestCart);
+            cartRepository.save(userCart);
+        });
+    }
+
+    // Creates a user with a cart holding every other guest product, and a guest cart; returns {userId, sequence}
+    private long[] seedShopper(int lines) {
+        int n = ++sequence;
+        String username = "merge-user-" + System.nanoTime() + "-" + n;
+        jdbcTemplate.update("INSERT INTO users (email, name, password, phone_number, username) " +
+                "VALUES (?, 'Merge', 'x', '0000000000', ?)", username + "@example.com", username);
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+        jdbcTemplate.update("INSERT INTO cart (total_price_minor, user_id) VALUES (0, ?)", userId);
+        Long userCartId = jdbcTemplate.queryForObject("SELECT id FROM cart WHERE user_id = ?", Long.class, userId);
+        jdbcTemplate.update("INSERT INTO cart (total_price_minor, session_id) VALUES (0, ?)", "merge-" + n);
+        Long guestCartId = jdbcTemplate.queryForObject("SELECT id FROM cart WHERE session_id = ?", Long.class, "merge-" + n);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int line = 0; line < lines; line++) {
+            rows.add(new Object[]{guestCartId, 2, productIds.get(line)});
+            if (line % 2 == 0) {
+                rows.add(new Object[]{userCartId, 1, productIds.get(line)});
+            }
+        }
+        // A product only the user has
+        rows.add(new Object[]{userCartId, 1, productIds.get(productIds.size() - 1)});
+        jdbcTemplate.batchUpdate("INSERT INTO cart_product (cart_id, quantity, unit_price_minor, subtotal_minor, product_id) " +
+                "SELECT ?, ?, price_minor, price_minor, id FROM product WHERE id = ?", rows);
+        return new long[]{userId, n};
+    }
+
+    private static long guestQuantity(int lines) {
+        return 2L * lines;
+    }
+
+    private long quantityInUserCarts(long[][] shoppers) {
+        long total = 0;
+        for (long[] shopper : shoppers) {
+            Long quantity = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(cp.quantity), 0) FROM cart_product cp " +
+                    "JOIN cart c ON c.id = cp.cart_id WHERE c.user_id = ?", Long.class, shopper[0]);
+            total += quantity == null ? 0 : quantity;
+        }
+        return total;
+    }
+
+    private long reservedStock() {
+        Long reserved = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(reserved_stock), 0) FROM product", Long.class);
+        return reserved == null ? 0 : reserved;
+    }
+}
@@ -0,0 +1,250 @@
+package com.prorunner.prorunner.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the hot queries against a seeded H2 database migrated by Flyway, once with the
+ * V2 indexes and once after dropping them, printing the plan and the mean latency of each.
+ * Foreign key columns keep their implicit indexes in both runs, as they do in InnoDB.
+ * Run with: mvn test -Pbenchmark -Dtest=IndexPlanBenchmarkTest
+ */
+@Tag("benchmark")
+class IndexPlanBenchmarkTest {
+
+    private static final String URL = "jdbc:h2:mem:index_plan;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final int USERS = 2_000;
+    private static final int PRODUCTS = 50_000;
+    private static final int CARTS = 2_000;
+    private static final int LINES_PER_CART = 10;
+    private static final int ORDERS = 50_000;
+    private static final int ITERATIONS = 5_000;
+
+    private static final String[] CATEGORIES = {"shoes", "shirts", "shorts", "jackets", "socks", "caps", "bags", "tights"};
+    private static final String[] GENDERS = {"men", "women", "unisex"};
+    private static final String[] COLORS = {"black", "white", "red", "blue", "green", "grey"};
+    private static final String[] SIZES = {"XS", "S", "M", "L", "XL"};
+
+    private static Connection connection;
+
+    // query name -> index the plan is expected to use
+    private static final Map<String, String> EXPECTED_INDEXES = new LinkedHashMap<>();
+
+    static {
+        EXPECTED_INDEXES.put("findByCartAndProduct", "uk_cart_product_cart_product");
+        EXPECTED_INDEXES.put("cartLinesByProduct", "idx_cart_product_product_cart");
+        EXPECTED_INDEXES.put("ordersByUser", "idx_orders_user_created");
+        EXPECTED_INDEXES.put("filterProducts", "idx_product_filter");
+        EXPECTED_INDEXES.put("filterByPrice", "idx_product_price");
+    }
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+        connection = DriverManager.getConnection(URL, "sa", "");
+        seed();
+    }
+
+    @AfterAll
+    static void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void indexesChangeQueryPlans() throws SQLException {
+        Map<String, double[]> results = new LinkedHashMap<>();
+        for (String query : EXPECTED_INDEXES.keySet()) {
+            measure(query); // warm up JIT and page cache before comparing
+        }
+
+        for (String query : EXPECTED_INDEXES.keySet()) {
+            String plan = explain(query);
+            System.out.printf("%n[with indexes] %s%n%s%n", query, plan);
+            // H2 may prefer the index backing a foreign key when it is as selective as ours
+            assertTrue(plan.contains(EXPECTED_INDEXES.get(query)) || plan.contains("_INDEX_"),
+                    query + " should use " + EXPECTED_INDEXES.get(query) + " but plan was: " + plan);
+            assertFalse(plan.contains("tableScan"), query + " should not scan the table: " + plan);
+            results.put(query, new double[]{measure(query), 0});
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            for (String index : EXPECTED_INDEXES.values()) {
+                statement.execute("DROP INDEX " + index);
+            }
+        }
+
+        for (String query : EXPECTED_INDEXES.keySet()) {
+            System.out.printf("%n[without indexes] %s%n%s%n", query, explain(query));
+            results.get(query)[1] = measure(query);
+        }
+
+        System.out.printf("%n%-22s %16s %16s %10s%n", "query", "indexed us/op", "no index us/op", "speedup");
+        results.forEach((query, timings) -> System.out.printf("%-22s %16.1f %16.1f %9.1fx%n",
+                query, timings[0], timings[1], timings[1] / timings[0]));
+    }
+
+    private static String sql(String query) {
+        return switch (query) {
+            case "findByCartAndProduct" -> "SELECT * FROM cart_product WHERE cart_id = ? AND product_id = ?";
+            case "cartLinesByProduct" -> "SELECT cart_id, quantity FROM cart_product WHERE product_id = ? ORDER BY cart_id LIMIT 500";
+            case "ordersByUser" -> "SELECT * FROM orders WHERE user_id = ? ORDER BY created_at DESC";
+            case "filterProducts" -> "SELECT * FROM product WHERE category = ? AND gender = ? AND color = ? AND size = ? " +
+                    "AND price_minor BETWEEN ? AND ? ORDER BY id LIMIT 20";
+            case "filterByPrice" -> "SELECT * FROM product WHERE price_minor BETWEEN ? AND ? ORDER BY price_minor LIMIT 20";
+            default -> throw new IllegalArgumentException(query);
+        };
+    }
+
+    private static void bind(String query, PreparedStatement ps, Random random) throws SQLException {
+        switch (query) {
+            case "findByCartAndProduct" -> {
+                ps.setLong(1, 1 + random.nextInt(CARTS));
+                ps.setLong(2, 1 + random.nextInt(PRODUCTS));
+            }
+            case "cartLinesByProduct" -> ps.setLong(1, 1 + random.nextInt(PRODUCTS));
+            case "ordersByUser" -> ps.setLong(1, 1 + random.nextInt(USERS));
+            case "filterProducts" -> {
+                ps.setString(1, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                ps.setString(2, GENDERS[random.nextInt(GENDERS.length)]);
+                ps.setString(3, COLORS[random.nextInt(COLORS.length)]);
+                ps.setString(4, SIZES[random.nextInt(SIZES.length)]);
+                ps.setLong(5, 2_000);
+                ps.setLong(6, 12_000);
+            }
+            case "filterByPrice" -> {
+                long low = 100L * random.nextInt(180);
+                ps.setLong(1, low);
+                ps.setLong(2, low + 50);
+            }
+            default -> throw new IllegalArgumentException(query);
+        }
+    }
+
+    private static String explain(String query) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + sql(query))) {
+            bind(query, ps, new Random(1));
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+
+    private static double measure(String query) throws SQLException {
+        Random random = new Random(42);
+        try (PreparedStatement ps = connection.prepareStatement(sql(query))) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                run(query, ps, random);
+            }
+            return (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+        }
+    }
+
+    private static void run(String query, PreparedStatement ps, Random random) throws SQLException {
+        bind(query, ps, random);
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                rs.getLong(1);
+            }
+        }
+    }
+
+    private static void seed() throws SQLException {
+        Random random = new Random(7);
+        connection.setAutoCommit(false);
+
+        try (PreparedStatement users = connection.prepareStatement(
+                "INSERT INTO users (email, name, password, phone_number, username) VALUES (?, ?, 'x', '0000000000', ?)");
+             PreparedStatement addresses = connection.prepareStatement(
+                     "INSERT INTO addresses (user_id, city, country, postalcode, state, street) VALUES (?, 'City', 'Country', '00000', 'State', 'Street')")) {
+            for (int i = 1; i <= USERS; i++) {
+                users.setString(1, "user" + i + "@example.com");
+                users.setString(2, "User " + i);
+                users.setString(3, "user" + i);
+                users.addBatch();
+                addresses.setLong(1, i);
+                addresses.addBatch();
+            }
+            users.executeBatch();
+            addresses.executeBatch();
+        }
+
+        try (PreparedStatement products = connection.prepareStatement(
+                "INSERT INTO product (availability, price_minor, reserved_stock, stock, category, color, gender, name, size) " +
+                        "VALUES (true, ?, 0, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= PRODUCTS; i++) {
+                products.setLong(1, 500 + random.nextInt(19_500));
+                products.setInt(2, random.nextInt(200));
+                products.setString(3, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                products.setString(4, COLORS[random.nextInt(COLORS.length)]);
+                products.setString(5, GENDERS[random.nextInt(GENDERS.length)]);
+                products.setString(6, "Product " + i);
+                products.setString(7, SIZES[random.nextInt(SIZES.length)]);
+                products.addBatch();
+                if (i % 5_000 == 0) {
+                    products.executeBatch();
+                }
+            }
+        }
+
+        try (PreparedStatement carts = connection.prepareStatement("INSERT INTO cart (total_price_minor, session_id) VALUES (0, ?)");
+             PreparedStatement lines = connection.prepareStatement(
+                     "INSERT INTO cart_product (quantity, subtotal_minor, unit_price_minor, cart_id, product_id) VALUES (1, 1000, 1000, ?, ?)")) {
+            for (int cart = 1; cart <= CARTS; cart++) {
+                carts.setString(1, "session-" + cart);
+                carts.addBatch();
+            }
+            carts.executeBatch();
+            for (int cart = 1; cart <= CARTS; cart++) {
+                // Consecutive product ids keep (cart_id, product_id) unique
+                int firstProduct = 1 + random.nextInt(PRODUCTS - LINES_PER_CART);
+                for (int line = 0; line < LINES_PER_CART; line++) {
+                    lines.setLong(1, cart);
+                    lines.setLong(2, firstProduct + line);
+                    lines.addBatch();
+                }
+            }
+            lines.executeBatch();
+        }
+
+        try (PreparedStatement orders = connection.prepareStatement(
+                "INSERT INTO orders (total_price_minor, address_id, created_at, user_id, status) VALUES (5000, ?, ?, ?, 'PLACED')")) {
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 1; i <= ORDERS; i++) {
+                long user = 1 + random.nextInt(USERS);
+                orders.setLong(1, user);
+                orders.setTimestamp(2, Timestamp.valueOf(now.minusMinutes(random.nextInt(500_000))));
+                orders.setLong(3, user);
+                orders.addBatch();
+                if (i % 5_000 == 0) {
+                    orders.executeBatch();
+                }
+            }
+        }
+
+        connection.commit();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.prorunner.prorunner.benchmark;
+
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.model.Product;
+import com.prorunner.prorunner.repository.ProductRepository;
+import com.prorunner.prorunner.service.CartService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Allocation per call of CartService.addProductToCart with application logging at INFO
+ * (hot-path statements disabled) and at DEBUG (enabled), plus a check that a guarded
+ * statement with boxed arguments allocates nothing when its level is off. Allocation is read
+ * from the test thread's counter over several windows after a warmup long enough for the JIT,
+ * keeping the lowest. The benchmark profile keeps one application context alive: every context
+ * registers a Micrometer turbo filter with the shared logback context, and with more than one
+ * installed, isDebugEnabled() allocates logback's argument array instead of it being scalar-replaced.
+ * Run with: mvn test -Pbenchmark -Dtest=LoggingAllocationBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class LoggingAllocationBenchmarkTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 5_000;
+    private static final int ROUNDS = 5;
+
+    private static final Logger benchLogger = LoggerFactory.getLogger(LoggingAllocationBenchmarkTest.class);
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private LoggingSystem loggingSystem;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void addProductToCartAllocation() {
+        Product product = new Product();
+        product.setName("Allocation benchmark shoe");
+        product.setPrice(Money.of(59.99));
+        product.setStock(10_000_000);
+        product.setAvailability(true);
+        Long productId = productRepository.save(product).getId();
+
+        loggingSystem.setLogLevel("com.prorunner", LogLevel.INFO);
+        double infoBytes = bytesPerCall(() -> cartService.addProductToCart("alloc-info", null, productId, 1));
+
+        loggingSystem.setLogLevel("com.prorunner", LogLevel.DEBUG);
+        double debugBytes = bytesPerCall(() -> cartService.addProductToCart("alloc-debug", null, productId, 1));
+        loggingSystem.setLogLevel("com.prorunner", null);
+
+        System.out.printf("%naddProductToCart allocation: %.0f bytes/call at INFO, %.0f bytes/call at DEBUG (+%.0f)%n",
+                infoBytes, debugBytes, debugBytes - infoBytes);
+    }
+
+    @Test
+    void guardedStatementAllocatesNothingWhenDisabled() {
+        loggingSystem.setLogLevel(LoggingAllocationBenchmarkTest.class.getName(), LogLevel.INFO);
+        int[] stock = {1_000, 2_000};
+
+        double guarded = bytesPerCall(() -> {
+            if (benchLogger.isDebugEnabled()) {
+                benchLogger.debug("Product details: Name: {}, Available Stock: {}, Reserved Stock: {}",
+                        "shoe", stock[0], stock[1]);
+            }
+        });
+        double unguarded = bytesPerCall(() -> benchLogger.debug("Product details: Name: {}, Available Stock: {}, Reserved Stock: {}",
+                "shoe", stock[0], stock[1]));
+
+        System.out.printf("%nDisabled DEBUG statement: %.1f bytes/call guarded, %.1f bytes/call unguarded%n",
+                guarded, unguarded);
+        assertTrue(guarded < 1.0, "Guarded disabled statement should not allocate, measured " + guarded);
+    }
+
+    private double bytesPerCall(Runnable call) {
+        for (int i = 0; i < WARMUP; i++) {
+            call.run();
+        }
+        double lowest = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < ITERATIONS; i++) {
+                call.run();
+            }
+            lowest = Math.min(lowest, (threads.getCurrentThreadAllocatedBytes() - before) / (double) ITERATIONS);
+        }
+        return lowest;
+    }
+}
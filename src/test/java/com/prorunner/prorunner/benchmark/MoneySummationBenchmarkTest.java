@@ -0,0 +1,118 @@
+package com.prorunner.prorunner.benchmark;
+
+import com.prorunner.prorunner.model.Money;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cart total computation for 1, 10 and 100-line carts: the previous Double subtotals summed
+ * through BigDecimal.valueOf and rounded back to double, against Money subtotals summed as long
+ * minor units. Reports ns and bytes allocated per total, and checks that both agree to the cent
+ * and that the long path allocates the same few bytes (result and iterator) whatever the cart size.
+ * Run with: mvn test -Pbenchmark -Dtest=MoneySummationBenchmarkTest
+ */
+@Tag("benchmark")
+class MoneySummationBenchmarkTest {
+
+    private static final int[] LINES = {1, 10, 100};
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Stand-ins for a cart line before and after the change
+    private record DoubleLine(Double subtotal) {
+    }
+
+    private record MoneyLine(Money subtotal) {
+    }
+
+    @Test
+    void cartTotalBySize() {
+        Random random = new Random(42);
+        double singleLineBytes = -1;
+        System.out.printf("%n%-8s %-16s %12s %14s%n", "lines", "strategy", "ns/total", "bytes/total");
+        for (int lines : LINES) {
+            List<DoubleLine> doubleLines = new ArrayList<>(lines);
+            List<MoneyLine> moneyLines = new ArrayList<>(lines);
+            for (int i = 0; i < lines; i++) {
+                long subtotalMinor = 99 + 100L * random.nextInt(300) * (1 + random.nextInt(3));
+                doubleLines.add(new DoubleLine(subtotalMinor / 100.0));
+                moneyLines.add(new MoneyLine(Money.ofMinor(subtotalMinor)));
+            }
+
+            double[] bigDecimal = measure(() -> bigDecimalTotal(doubleLines));
+            double[] minorUnits = measure(() -> minorUnitsTotal(moneyLines));
+            System.out.printf("%-8d %-16s %12.1f %14.1f%n", lines, "BigDecimal", bigDecimal[0], bigDecimal[1]);
+            System.out.printf("%-8d %-16s %12.1f %14.1f%n", lines, "long minor", minorUnits[0], minorUnits[1]);
+
+            assertEquals(Money.of(bigDecimalTotal(doubleLines)), minorUnitsTotal(moneyLines));
+            if (singleLineBytes < 0) {
+                singleLineBytes = minorUnits[1];
+            }
+            // Nothing is allocated per line
+            assertTrue(minorUnits[1] <= singleLineBytes + 1,
+                    "Summation of " + lines + " lines allocated " + minorUnits[1] + " bytes per total");
+        }
+    }
+
+    @Test
+    void repeatedAdditionDoesNotDrift() {
+        double doubleTotal = 0;
+        Money moneyTotal = Money.ZERO;
+        Money tenCents = Money.of(0.10);
+        for (int i = 0; i < 1_000; i++) {
+            doubleTotal += 0.10;
+            moneyTotal = moneyTotal.plus(tenCents);
+        }
+        System.out.printf("%n1000 x 0.10: double %s, Money %s%n", doubleTotal, moneyTotal);
+        assertEquals(Money.ofMinor(10_000), moneyTotal);
+    }
+
+    // CartService.updateCartTotal before the change
+    private static double bigDecimalTotal(List<DoubleLine> lines) {
+        BigDecimal total = lines.stream()
+                .map(line -> BigDecimal.valueOf(line.subtotal()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return total.setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    // CartService.updateCartTotal after the change
+    private static Money minorUnitsTotal(List<MoneyLine> lines) {
+        long totalMinor = 0;
+        for (MoneyLine line : lines) {
+            totalMinor = Math.addExact(totalMinor, line.subtotal().getMinorUnits());
+        }
+        return Money.ofMinor(totalMinor);
+    }
+
+    // Returns {ns per call, bytes allocated per call}
+    private double[] measure(Supplier<?> call) {
+        Object sink = null;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = call.get();
+        }
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = call.get();
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        assertTrue(sink != null);
+        return new double[]{nanos / (double) ITERATIONS, bytes / (double) ITERATIONS};
+    }
+}
@@ -0,0 +1,145 @@
+package com.prorunner.prorunner.benchmark;
+
+import com.prorunner.prorunner.dto.NavigationCategoryDTO;
+import com.prorunner.prorunner.dto.NavigationFacetDTO;
+import com.prorunner.prorunner.dto.NavigationTreeDTO;
+import com.prorunner.prorunner.dto.ProductDTO;
+import com.prorunner.prorunner.service.NavigationService;
+import com.prorunner.prorunner.service.ProductService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seeds 20,000 products over 12 categories, 3 genders, 8 colors and 10 sizes and compares a
+ * storefront page view built from filterProducts calls (one per category and facet value, for
+ * the counts) with one read of the navigation tree. Checks the tree's counts match the filter
+ * totals, that a product write shows up after the debounce with a new version and that a
+ * stock-only write keeps the version. Reports the aggregate rebuild time.
+ * Run with: mvn test -Pbenchmark -Dtest=NavigationBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class NavigationBenchmarkTest {
+
+    private static final int PRODUCTS = 20_000;
+    private static final int CATEGORIES = 12;
+    private static final String[] GENDERS = {"Men", "Women", "Unisex"};
+    private static final int COLORS = 8;
+    private static final int SIZES = 10;
+    private static final int TREE_READS = 100_000;
+    private static final int REBUILDS = 20;
+
+    @Autowired
+    private NavigationService navigationService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void navigationTree() throws InterruptedException {
+        String run = "nav" + System.nanoTime();
+        seedProducts(run);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REBUILDS; i++) {
+            navigationService.rebuild();
+        }
+        double rebuildMs = (System.nanoTime() - start) / 1e6 / REBUILDS;
+        NavigationTreeDTO tree = navigationService.getTree();
+
+        // Before: the counts of one page view, a filter query per category and facet value
+        start = System.nanoTime();
+        int filterCalls = 0;
+        for (int c = 0; c < CATEGORIES; c++) {
+            String category = run + "-" + c;
+            NavigationCategoryDTO node = category(tree, category);
+            assertEquals(total(category, null, null, null), node.getProducts());
+            filterCalls++;
+            for (NavigationFacetDTO gender : node.getGenders()) {
+                assertEquals(total(category, gender.getValue(), null, null), gender.getProducts());
+                filterCalls++;
+            }
+            for (NavigationFacetDTO color : node.getColors()) {
+                assertEquals(total(category, null, color.getValue(), null), color.getProducts());
+                filterCalls++;
+            }
+            for (NavigationFacetDTO size : node.getSizes()) {
+                assertEquals(total(category, null, null, size.getValue()), size.getProducts());
+                filterCalls++;
+            }
+        }
+        double filterMs = (System.nanoTime() - start) / 1e6;
+        assertEquals(CATEGORIES * (1 + GENDERS.length + COLORS + SIZES), filterCalls);
+
+        start = System.nanoTime();
+        long seen = 0;
+        for (int i = 0; i < TREE_READS; i++) {
+            seen += navigationService.getTree().getCategories().size();
+        }
+        double treeUs = (System.nanoTime() - start) / 1e3 / TREE_READS;
+        assertTrue(seen > 0);
+
+        System.out.printf("%n%-36s %12s%n", "page view navigation", "ms");
+        System.out.printf("%-36s %12.2f%n", filterCalls + " filterProducts calls", filterMs);
+        System.out.printf("%-36s %12.4f%n", "navigation tree read", treeUs / 1000);
+        System.out.printf("aggregate rebuild: %.2f ms over %d products%n", rebuildMs, tree.getProducts());
+
+        // A stock-only write rebuilds to the same content and keeps the version
+        Long productId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM product WHERE category = ?", Long.class, run + "-0");
+        productService.updateProductStock(productId, 500);
+        assertSame(tree, navigationService.rebuild());
+
+        // A new color appears once the debounced rebuild has run
+        ProductDTO product = productService.getProductById(productId);
+        product.setColor(run + "-new");
+        productService.updateProduct(productId, product);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (navigationService.getTree().getVersion() == tree.getVersion() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        NavigationTreeDTO updated = navigationService.getTree();
+        assertNotEquals(tree.getVersion(), updated.getVersion());
+        NavigationFacetDTO newColor = category(updated, run + "-0").getColors().stream()
+                .filter(color -> color.getValue().equals(run + "-new"))
+                .findFirst().orElse(null);
+        assertNotNull(newColor);
+        assertEquals(1, newColor.getProducts());
+    }
+
+    private long total(String category, String gender, String color, String size) {
+        return productService.filterProducts(category, gender, color, size, null, null, null, 0, 1, "id")
+                .getTotalElements();
+    }
+
+    private static NavigationCategoryDTO category(NavigationTreeDTO tree, String name) {
+        List<NavigationCategoryDTO> matches = tree.getCategories().stream()
+                .filter(category -> category.getName().equals(name))
+                .toList();
+        assertEquals(1, matches.size(), name);
+        return matches.get(0);
+    }
+
+    private void seedProducts(String run) {
+        jdbcTemplate.update("INSERT INTO product (availability, price_minor, reserved_stock, stock, category, gender, color, size, name) " +
+                "SELECT MOD(\"X\", 7) > 0, 500 + MOD(\"X\" * 37, 2000), 0, 100, CONCAT(?, '-', MOD(\"X\", ?)), " +
+                "CASE MOD(\"X\" / 12, 3) WHEN 0 THEN 'Men' WHEN 1 THEN 'Women' ELSE 'Unisex' END, " +
+                "CONCAT('color-', MOD(\"X\" / 36, ?)), CONCAT('', 36 + MOD(\"X\" / 288, ?)), CONCAT(?, '-', \"X\") " +
+                "FROM SYSTEM_RANGE(1, ?)", run, CATEGORIES, COLORS, SIZES, run, PRODUCTS);
+    }
+}
@@ -0,0 +1,209 @@
+package com.prorunner.prorunner.benchmark;
+
+import com.prorunner.prorunner.archive.OrderArchive;
+import com.prorunner.prorunner.archive.OrderSegment;
+import com.prorunner.prorunner.dto.OrderArchiveReportDTO;
+import com.prorunner.prorunner.dto.OrderDTO;
+import com.prorunner.prorunner.dto.OrderItemDTO;
+import com.prorunner.prorunner.model.OrderStatus;
+import com.prorunner.prorunner.service.OrderArchiveService;
+import com.prorunner.prorunner.service.OrderService;
+import com.prorunner.prorunner.service.OrderStatusService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seeds 20 users with 2,000 delivered orders each, two years old, plus a few recent ones, and
+ * archives the old ones. Checks every user's order history and a sample of single orders read
+ * the same before and after, that the archived rows left orders and order_item and that the
+ * status counts survive a reconcile. Reports segment bytes per order against the row data and
+ * user history and single order latency with the orders live versus archived.
+ * Run with: mvn test -Pbenchmark -Dtest=OrderArchiveBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderArchiveBenchmarkTest {
+
+    private static final int USERS = 20;
+    private static final int OLD_ORDERS_PER_USER = 2_000;
+    private static final int RECENT_ORDERS_PER_USER = 5;
+    private static final int PRODUCTS = 200;
+    private static final int LOOKUP_SAMPLE = 500;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderArchive orderArchive;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderStatusService orderStatusService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void archiveOldOrders() {
+        String run = "archive-" + System.nanoTime();
+        long firstProductId = seedProducts(run);
+        List<Long> userIds = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            userIds.add(seedUser(run + "-" + u, firstProductId));
+        }
+        List<Long> sampleIds = jdbcTemplate.queryForList("SELECT id FROM orders WHERE user_id IN (" +
+                userIds.stream().map(String::valueOf).collect(Collectors.joining(",")) + ") ORDER BY MOD(id * 7919, 10007) LIMIT ?",
+                Long.class, LOOKUP_SAMPLE);
+        long rowBytes = rowBytes(userIds);
+        Map<OrderStatus, Long> countsBefore = orderStatusService.reconcileCounts();
+
+        Map<Long, List<String>> historiesBefore = histories(userIds);
+        Map<Long, String> lookupsBefore = lookups(sampleIds);
+        double liveHistoryMs = timeHistories(userIds);
+        double liveLookupUs = timeLookups(sampleIds);
+
+        long start = System.nanoTime();
+        OrderArchiveReportDTO report = orderArchiveService.run(LocalDateTime.now().minusDays(365));
+        double archiveMs = (System.nanoTime() - start) / 1e6;
+        assertTrue(report.isCompleted());
+        assertTrue(report.getOrdersArchived() >= USERS * OLD_ORDERS_PER_USER);
+
+        Map<Long, List<String>> historiesAfter = histories(userIds);
+        assertEquals(historiesBefore, historiesAfter);
+        assertEquals(lookupsBefore, lookups(sampleIds));
+        double archivedHistoryMs = timeHistories(userIds);
+        double archivedLookupUs = timeLookups(sampleIds);
+
+        for (Long userId : userIds) {
+            assertEquals(RECENT_ORDERS_PER_USER, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM orders WHERE user_id = ?", Integer.class, userId));
+            assertEquals(RECENT_ORDERS_PER_USER * 3, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM order_item oi JOIN orders o ON o.id = oi.order_id WHERE o.user_id = ?", Integer.class, userId));
+        }
+        assertEquals(countsBefore, orderStatusService.reconcileCounts());
+
+        // A second run finds nothing left to move
+        OrderArchiveReportDTO again = orderArchiveService.run(LocalDateTime.now().minusDays(365));
+        assertEquals(0, again.getOrdersArchived());
+        assertEquals(0, again.getSegmentsWritten());
+
+        long segmentBytes = orderArchive.getSegments().stream().mapToLong(OrderSegment::getFileBytes).sum();
+        long archivedOrders = report.getOrdersArchived();
+        System.out.printf("%narchived %d orders, %d items into %d segments in %.1f ms%n",
+                archivedOrders, report.getItemsArchived(), report.getSegmentsWritten(), archiveMs);
+        System.out.printf("row data %.1f bytes/order, segments %.1f bytes/order (%.1fx smaller)%n",
+                (double) rowBytes / archivedOrders, (double) segmentBytes / archivedOrders, (double) rowBytes / segmentBytes);
+        System.out.printf("%-10s %18s %18s%n", "orders", "history ms/user", "order by id us");
+        System.out.printf("%-10s %18.2f %18.1f%n", "live", liveHistoryMs, liveLookupUs);
+        System.out.printf("%-10s %18.2f %18.1f%n", "archived", archivedHistoryMs, archivedLookupUs);
+    }
+
+    private Map<Long, List<String>> histories(List<Long> userIds) {
+        Map<Long, List<String>> histories = new HashMap<>();
+        for (Long userId : userIds) {
+            List<OrderDTO> orders = orderService.getUserOrders(userId);
+            assertEquals(OLD_ORDERS_PER_USER + RECENT_ORDERS_PER_USER, orders.size());
+            histories.put(userId, orders.stream().map(this::describe).collect(Collectors.toList()));
+        }
+        return histories;
+    }
+
+    private Map<Long, String> lookups(List<Long> orderIds) {
+        Map<Long, String> lookups = new HashMap<>();
+        for (Long orderId : orderIds) {
+            lookups.put(orderId, describe(orderService.getOrderById(orderId)));
+        }
+        return lookups;
+    }
+
+    private double timeHistories(List<Long> userIds) {
+        long start = System.nanoTime();
+        for (Long userId : userIds) {
+            orderService.getUserOrders(userId);
+        }
+        return (System.nanoTime() - start) / 1e6 / userIds.size();
+    }
+
+    private double timeLookups(List<Long> orderIds) {
+        long start = System.nanoTime();
+        for (Long orderId : orderIds) {
+            orderService.getOrderById(orderId);
+        }
+        return (System.nanoTime() - start) / 1e3 / orderIds.size();
+    }
+
+    // Every field the API returns, items in id order
+    private String describe(OrderDTO order) {
+        StringBuilder out = new StringBuilder();
+        out.append(order.getId()).append('|').append(order.getUserId()).append('|').append(order.getShippingAddressId())
+                .append('|').append(order.getTotalPrice()).append('|').append(order.getStatus())
+                .append('|').append(order.getStatusUpdatedAt()).append('|').append(order.getCreatedAt());
+        order.getOrderItems().stream()
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .forEach((OrderItemDTO item) -> out.append("; ").append(item.getId()).append('|').append(item.getProductId())
+                        .append('|').append(item.getProductName()).append('|').append(item.getQuantity())
+                        .append('|').append(item.getUnitPrice()).append('|').append(item.getDiscount())
+                        .append('|').append(item.getSubtotal()).append('|').append(item.getPromotionId()));
+        return out.toString();
+    }
+
+    // Column bytes of the old orders and their items as stored: 8 per bigint and timestamp, 4 per int, status text
+    private long rowBytes(List<Long> userIds) {
+        String users = userIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        Long orders = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(8 * 6 + LENGTH(status)), 0) FROM orders " +
+                "WHERE user_id IN (" + users + ") AND status = 'DELIVERED'", Long.class);
+        Long items = jdbcTemplate.queryForObject("SELECT COUNT(*) * (8 * 7 + 4) FROM order_item oi JOIN orders o ON o.id = oi.order_id " +
+                "WHERE o.user_id IN (" + users + ") AND o.status = 'DELIVERED'", Long.class);
+        return orders + items;
+    }
+
+    private long seedProducts(String run) {
+        jdbcTemplate.update("INSERT INTO product (availability, price_minor, reserved_stock, stock, category, gender, name) " +
+                "SELECT true, 500 + MOD(\"X\" * 37, 2000), 0, 100, CONCAT('category-', MOD(\"X\", 12)), 'Unisex', " +
+                "CONCAT(?, ' running shoe ', \"X\") FROM SYSTEM_RANGE(1, ?)", run, PRODUCTS);
+        return jdbcTemplate.queryForObject("SELECT MIN(id) FROM product WHERE name LIKE ?", Long.class, run + " %");
+    }
+
+    // One user with OLD_ORDERS_PER_USER delivered orders about two years back and a few recent placed ones, three items each
+    private long seedUser(String username, long firstProductId) {
+        jdbcTemplate.update("INSERT INTO users (email, name, password, phone_number, username) " +
+                "VALUES (?, 'Archive', 'x', '0000000000', ?)", username + "@example.com", username);
+        long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+        jdbcTemplate.update("INSERT INTO addresses (user_id, city, country, postalcode, state, street) " +
+                "VALUES (?, 'City', 'Country', '00000', 'State', 'Street')", userId);
+        long addressId = jdbcTemplate.queryForObject("SELECT id FROM addresses WHERE user_id = ?", Long.class, userId);
+        Timestamp old = Timestamp.valueOf(LocalDateTime.now().minusYears(2).withNano(0));
+        jdbcTemplate.update("INSERT INTO orders (total_price_minor, address_id, created_at, user_id, status, status_updated_at) " +
+                "SELECT 3000 + MOD(\"X\" * 131, 9000), ?, DATEADD('MINUTE', \"X\" * 7, CAST(? AS TIMESTAMP)), ?, 'DELIVERED', " +
+                "DATEADD('HOUR', 72, DATEADD('MINUTE', \"X\" * 7, CAST(? AS TIMESTAMP))) FROM SYSTEM_RANGE(1, ?)",
+                addressId, old, userId, old, OLD_ORDERS_PER_USER);
+        jdbcTemplate.update("INSERT INTO orders (total_price_minor, address_id, created_at, user_id, status, status_updated_at) " +
+                "SELECT 4000, ?, DATEADD('SECOND', -\"X\", CURRENT_TIMESTAMP), ?, 'PLACED', NULL FROM SYSTEM_RANGE(1, ?)",
+                addressId, userId, RECENT_ORDERS_PER_USER);
+        jdbcTemplate.update("INSERT INTO order_item (quantity, order_id, product_id, unit_price_minor, subtotal_minor, discount_minor, promotion_id) " +
+                "SELECT 1 + MOD(o.id, 3), o.id, ? + MOD(o.id * 31 + r.\"X\" * 17, ?), 1000 + r.\"X\" * 250, " +
+                "(1 + MOD(o.id, 3)) * (1000 + r.\"X\" * 250) - CASE WHEN MOD(o.id, 5) = 0 THEN 100 ELSE 0 END, " +
+                "CASE WHEN MOD(o.id, 5) = 0 THEN 100 ELSE 0 END, NULL " +
+                "FROM orders o CROSS JOIN SYSTEM_RANGE(0, 2) r WHERE o.user_id = ?",
+                firstProductId, PRODUCTS, userId);
+        return userId;
+    }
+}
@@ -0,0 +1,133 @@
+package com.prorunner.prorunner.benchmark;
+
+import com.prorunner.prorunner.dto.OrderStatusTransitionResultDTO;
+import com.prorunner.prorunner.model.Order;
+import com.prorunner.prorunner.model.OrderStatus;
+import com.prorunner.prorunner.repository.OrderRepository;
+import com.prorunner.prorunner.service.OrderStatusService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Moves 50,000 orders through PAID, PICKED, SHIPPED and DELIVERED with the chunked bulk transition,
+ * against a per-order load-and-save loop on a 1,000-order sample. Reports orders per second and
+ * the cost of reading per-status counts from the maintained counters versus COUNT ... GROUP BY,
+ * and checks invalid transitions are rejected and the counters match the orders table.
+ * Run with: mvn test -Pbenchmark -Dtest=OrderStatusBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderStatusBenchmarkTest {
+
+    private static final int ORDERS = 50_000;
+    private static final int LOOP_SAMPLE = 1_000;
+    private static final int COUNT_READS = 200;
+    private static final OrderStatus[] PIPELINE = {OrderStatus.PAID, OrderStatus.PICKED, OrderStatus.SHIPPED, OrderStatus.DELIVERED};
+
+    @Autowired
+    private OrderStatusService orderStatusService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void bulkTransitions() {
+        List<Long> orderIds = seed();
+        List<Long> loopIds = seed().subList(0, LOOP_SAMPLE);
+        orderStatusService.reconcileCounts();
+
+        System.out.printf("%n%-10s %-10s %10s %12s %14s%n", "status", "strategy", "orders", "ms", "orders/s");
+        for (OrderStatus target : PIPELINE) {
+            long start = System.nanoTime();
+            OrderStatusTransitionResultDTO result = orderStatusService.transition(orderIds, target);
+            double ms = (System.nanoTime() - start) / 1e6;
+            assertEquals(ORDERS, result.getUpdated());
+            System.out.printf("%-10s %-10s %10d %12.1f %14.0f%n", target, "bulk", ORDERS, ms, ORDERS / ms * 1000);
+
+            start = System.nanoTime();
+            loopTransition(loopIds, target);
+            ms = (System.nanoTime() - start) / 1e6;
+            System.out.printf("%-10s %-10s %10d %12.1f %14.0f%n", target, "loop", LOOP_SAMPLE, ms, LOOP_SAMPLE / ms * 1000);
+        }
+        // The loop bypassed the service, so its counts are rebuilt before comparing
+        orderStatusService.reconcileCounts();
+
+        OrderStatusTransitionResultDTO invalid = orderStatusService.transition(orderIds.subList(0, 10), OrderStatus.PAID);
+        assertEquals(10, invalid.getRejected().size());
+        assertEquals(0, invalid.getUpdated());
+        OrderStatusTransitionResultDTO retried = orderStatusService.transition(orderIds.subList(0, 10), OrderStatus.DELIVERED);
+        assertEquals(10, retried.getUnchanged());
+
+        long start = System.nanoTime();
+        Map<OrderStatus, Long> counters = null;
+        for (int i = 0; i < COUNT_READS; i++) {
+            counters = orderStatusService.getStatusCounts();
+        }
+        double counterUs = (System.nanoTime() - start) / 1e3 / COUNT_READS;
+        start = System.nanoTime();
+        Map<OrderStatus, Long> counted = null;
+        for (int i = 0; i < COUNT_READS; i++) {
+            counted = countByStatus();
+        }
+        double countUs = (System.nanoTime() - start) / 1e3 / COUNT_READS;
+        System.out.printf("status counts: counters %.1f us, COUNT GROUP BY %.1f us%n", counterUs, countUs);
+        assertEquals(counted, counters);
+    }
+
+    // Before bulk transitions: one transaction per order, loaded and saved through JPA
+    private void loopTransition(List<Long> orderIds, OrderStatus target) {
+        for (Long orderId : orderIds) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Order order = orderRepository.findById(orderId).orElseThrow();
+                if (order.getStatus().canTransitionTo(target)) {
+                    order.setStatus(target);
+                    orderRepository.save(order);
+                }
+            });
+        }
+    }
+
+    private Map<OrderStatus, Long> countByStatus() {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status, 0L);
+        }
+        jdbcTemplate.query("SELECT status, COUNT(*) FROM orders GROUP BY status",
+                rs -> {
+                    counts.put(OrderStatus.valueOf(rs.getString(1)), rs.getLong(2));
+                });
+        return counts;
+    }
+
+    // ORDERS placed orders for one new user
+    private List<Long> seed() {
+        String username = "status-" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO users (email, name, password, phone_number, username) " +
+                "VALUES (?, 'Status', 'x', '0000000000', ?)", username + "@example.com", username);
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+        jdbcTemplate.update("INSERT INTO addresses (user_id, city, country, postalcode, state, street) " +
+                "VALUES (?, 'City', 'Country', '00000', 'State', 'Street')", userId);
+        Long addressId = jdbcTemplate.queryForObject("SELECT id FROM addresses WHERE user_id = ?", Long.class, userId);
+        jdbcTemplate.update("INSERT INTO orders (total_price_minor, address_id, created_at, user_id, status) " +
+                "SELECT 5000, ?, CURRENT_TIMESTAMP, ?, 'PLACED' FROM SYSTEM_RANGE(1, ?)", addressId, userId, ORDERS);
+        return jdbcTemplate.queryForList("SELECT id FROM orders WHERE user_id = ? ORDER BY id", Long.class, userId);
+    }
+}
@@ -0,0 +1,174 @@
+package com.prorunner.prorunner.benchmark;
+
+import com.prorunner.prorunner.outbox.FileOutboxSink;
+import com.prorunner.prorunner.outbox.OutboxEvent;
+import com.prorunner.prorunner.outbox.OutboxSink;
+import com.prorunner.prorunner.outbox.QueueOutboxSink;
+import com.prorunner.prorunner.service.OutboxRelayService;
+import com.prorunner.prorunner.service.OutboxService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Appends 50,000 stock events in batches, then relays them to the queue and file sinks plus a sink
+ * that rejects every fifth batch. Reports append and relay throughput and the delivery lag, and
+ * checks that every event reached every sink at least once, that rejected batches were redelivered
+ * and that events appended in a rolled-back transaction are never relayed.
+ * Run with: mvn test -Pbenchmark -Dtest=OutboxRelayBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "prorunner.outbox.sinks=queue,file,flaky",
+        "prorunner.outbox.relay.enabled=false",
+        "prorunner.outbox.queue.capacity=1000000",
+        "prorunner.outbox.file.path=target/outbox-benchmark.jsonl"
+})
+@ActiveProfiles("test")
+class OutboxRelayBenchmarkTest {
+
+    private static final int EVENTS = 50_000;
+    private static final int APPEND_BATCH = 1_000;
+
+    @TestConfiguration
+    static class FlakySinkConfig {
+
+        @Bean
+        FlakySink flakySink() {
+            return new FlakySink();
+        }
+    }
+
+    // Rejects every fifth batch it is offered
+    static class FlakySink implements OutboxSink {
+
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger rejected = new AtomicInteger();
+
+        @Override
+        public String getName() {
+            return "flaky";
+        }
+
+        @Override
+        public void publish(List<OutboxEvent> events) {
+            if (batches.incrementAndGet() % 5 == 0) {
+                rejected.incrementAndGet();
+                throw new IllegalStateException("simulated outage");
+            }
+        }
+    }
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxRelayService outboxRelayService;
+
+    @Autowired
+    private QueueOutboxSink queueOutboxSink;
+
+    @Autowired
+    private FileOutboxSink fileOutboxSink;
+
+    @Autowired
+    private FlakySink flakySink;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void relayThroughput() throws IOException {
+        // Relay whatever earlier tests left in the shared database, then drop it from the queue
+        while (backlog() > 0) {
+            outboxRelayService.relay();
+        }
+        while (queueOutboxSink.poll() != null) {
+            // Drop whatever the application context produced while starting
+        }
+        Files.deleteIfExists(fileOutboxSink.getPath());
+
+        // Rolled back with its transaction: never visible to the relay
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxService.append("product", -1L, "StockChanged", OutboxService.payload("productId", -1L));
+            status.setRollbackOnly();
+        });
+
+        long appendStart = System.nanoTime();
+        for (int from = 0; from < EVENTS; from += APPEND_BATCH) {
+            Map<Long, Map<String, Object>> events = new LinkedHashMap<>();
+            for (long id = from; id < from + APPEND_BATCH; id++) {
+                events.put(id, OutboxService.payload("productId", id, "previousStock", 0, "stock", 10, "source", "benchmark"));
+            }
+            transactionTemplate.executeWithoutResult(status -> outboxService.appendAll("product", "StockChanged", events));
+        }
+        double appendSeconds = (System.nanoTime() - appendStart) / 1e9;
+
+        long relayStart = System.nanoTime();
+        long relayed = 0;
+        int polls = 0;
+        while (backlog() > 0) {
+            relayed += outboxRelayService.relay();
+            polls++;
+        }
+        double relaySeconds = (System.nanoTime() - relayStart) / 1e9;
+
+        List<OutboxEvent> delivered = new ArrayList<>();
+        queueOutboxSink.drainTo(delivered, Integer.MAX_VALUE);
+        Set<Long> aggregates = new HashSet<>();
+        for (OutboxEvent event : delivered) {
+            aggregates.add(event.aggregateId());
+        }
+        long fileLines;
+        try (var lines = Files.lines(fileOutboxSink.getPath())) {
+            fileLines = lines.count();
+        }
+        Timer lag = meterRegistry.get("prorunner.outbox.delivery.lag").timer();
+
+        System.out.printf("%nappended %d events in %.2f s (%.0f events/s)%n", EVENTS, appendSeconds, EVENTS / appendSeconds);
+        System.out.printf("relayed %d events in %d polls, %.2f s (%.0f events/s), %d batches rejected by the flaky sink%n",
+                relayed, polls, relaySeconds, relayed / relaySeconds, flakySink.rejected.get());
+        System.out.printf("queue received %d, file %d lines, delivery lag mean %.0f ms, max %.0f ms%n",
+                delivered.size(), fileLines, lag.mean(TimeUnit.MILLISECONDS), lag.max(TimeUnit.MILLISECONDS));
+
+        assertEquals(EVENTS, relayed);
+        assertEquals(EVENTS, aggregates.size(), "Every event reaches the queue");
+        assertTrue(aggregates.stream().allMatch(id -> id >= 0), "Rolled-back events are never relayed");
+        assertTrue(flakySink.rejected.get() > 0);
+        // Sinks ahead of the flaky one see the rejected batches twice
+        assertTrue(delivered.size() > EVENTS && fileLines == delivered.size());
+    }
+
+    private long backlog() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_event", Long.class);
+        return count == null ? 0 : count;
+    }
+}
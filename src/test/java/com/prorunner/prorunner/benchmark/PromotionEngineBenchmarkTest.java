@@ -0,0 +1,176 @@
+package com.prorunner.prorunner.benchmark;
+
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.model.Promotion;
+import com.prorunner.prorunner.model.PromotionTier;
+import com.prorunner.prorunner.model.PromotionType;
+import com.prorunner.prorunner.pricing.CompiledPromotions;
+import com.prorunner.prorunner.pricing.LinePrice;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Prices 100-line carts against 10,000 active promotions (SKU and category percent-off,
+ * buy-X-get-Y and tiered volume pricing), comparing the compiled per-SKU/per-category index
+ * with scanning every promotion for every line. Reports compile time and us per cart, and
+ * checks both give the same discount on every line.
+ * Run with: mvn test -Pbenchmark -Dtest=PromotionEngineBenchmarkTest
+ */
+@Tag("benchmark")
+class PromotionEngineBenchmarkTest {
+
+    private static final int PROMOTIONS = 10_000;
+    private static final int PRODUCTS = 20_000;
+    private static final String[] CATEGORIES = {"shoes", "shirts", "shorts", "jackets", "socks", "tights", "caps", "bags"};
+    private static final int LINES = 100;
+    private static final int CARTS = 200;
+    private static final int WARMUP_ROUNDS = 3;
+
+    private record Line(long productId, String category, Money unitPrice, int quantity) {
+    }
+
+    @Test
+    void priceCartsAgainstTenThousandPromotions() {
+        Random random = new Random(7);
+        LocalDateTime now = LocalDateTime.now();
+        List<Promotion> promotions = promotions(random, now);
+        List<List<Line>> carts = carts(random);
+
+        long compileStart = System.nanoTime();
+        CompiledPromotions compiled = CompiledPromotions.compile(promotions, now);
+        double compileMs = (System.nanoTime() - compileStart) / 1e6;
+
+        for (List<Line> cart : carts) {
+            for (Line line : cart) {
+                assertEquals(scan(promotions, line, now), compiled.price(line.productId(), line.category(),
+                        line.unitPrice(), line.quantity()).discount().getMinorUnits(), "Discount differs for " + line);
+            }
+        }
+
+        double indexedUs = 0;
+        double scanUs = 0;
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            indexedUs = timePerCart(carts, line -> compiled.price(line.productId(), line.category(),
+                    line.unitPrice(), line.quantity()).discount().getMinorUnits());
+            scanUs = timePerCart(carts.subList(0, CARTS / 10), line -> scan(promotions, line, now));
+        }
+
+        System.out.printf("%n%d promotions compiled into %d SKU and %d category rules in %.1f ms%n",
+                compiled.getPromotionCount(), compiled.getSkuRuleCount(), compiled.getCategoryRuleCount(), compileMs);
+        System.out.printf("%-10s %14s%n", "strategy", "us/100-line cart");
+        System.out.printf("%-10s %14.1f%n", "indexed", indexedUs);
+        System.out.printf("%-10s %14.1f%n", "scan", scanUs);
+    }
+
+    private interface LinePricer {
+        long discount(Line line);
+    }
+
+    private static double timePerCart(List<List<Line>> carts, LinePricer pricer) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (List<Line> cart : carts) {
+            for (Line line : cart) {
+                sink += pricer.discount(line);
+            }
+        }
+        double us = (System.nanoTime() - start) / 1_000.0 / carts.size();
+        if (sink < 0) {
+            throw new IllegalStateException();
+        }
+        return us;
+    }
+
+    // Every promotion checked against every line: what pricing costs without the index
+    private static long scan(List<Promotion> promotions, Line line, LocalDateTime now) {
+        long unit = line.unitPrice().getMinorUnits();
+        long gross = unit * line.quantity();
+        long best = 0;
+        for (Promotion promotion : promotions) {
+            boolean applies = promotion.getProductId() != null
+                    ? promotion.getProductId() == line.productId()
+                    : promotion.getCategory().equals(line.category());
+            if (!applies || (promotion.getStartsAt() != null && promotion.getStartsAt().isAfter(now))) {
+                continue;
+            }
+            long discount = switch (promotion.getType()) {
+                case PERCENT_OFF -> percentOf(gross, promotion.getPercentOff());
+                case BUY_X_GET_Y -> (long) (line.quantity() / (promotion.getBuyQuantity() + promotion.getFreeQuantity()))
+                        * promotion.getFreeQuantity() * unit;
+                case TIERED -> {
+                    long tierDiscount = 0;
+                    for (PromotionTier tier : promotion.getTiers()) {
+                        if (line.quantity() >= tier.getMinQuantity()) {
+                            tierDiscount = Math.max(tierDiscount, percentOf(gross, tier.getPercentOff()));
+                        }
+                    }
+                    yield tierDiscount;
+                }
+            };
+            best = Math.max(best, discount);
+        }
+        return Math.min(best, gross);
+    }
+
+    private static long percentOf(long amount, BigDecimal percent) {
+        return (amount * percent.movePointRight(2).intValue() + 5_000) / 10_000;
+    }
+
+    private static List<Promotion> promotions(Random random, LocalDateTime now) {
+        List<Promotion> promotions = new ArrayList<>(PROMOTIONS);
+        for (int i = 0; i < PROMOTIONS; i++) {
+            Promotion promotion = new Promotion();
+            promotion.setId((long) i + 1);
+            promotion.setName("Promotion " + i);
+            // Mostly SKU promotions, some category-wide ones; a few have not started yet
+            if (random.nextInt(100) < 90) {
+                promotion.setProductId(1L + random.nextInt(PRODUCTS));
+            } else {
+                promotion.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            }
+            if (random.nextInt(100) < 5) {
+                promotion.setStartsAt(now.plusDays(1));
+            }
+            int kind = random.nextInt(100);
+            if (kind < 60) {
+                promotion.setType(PromotionType.PERCENT_OFF);
+                promotion.setPercentOff(BigDecimal.valueOf(5 + random.nextInt(40)));
+            } else if (kind < 80) {
+                promotion.setType(PromotionType.BUY_X_GET_Y);
+                promotion.setBuyQuantity(1 + random.nextInt(3));
+                promotion.setFreeQuantity(1);
+            } else {
+                promotion.setType(PromotionType.TIERED);
+                promotion.setTiers(List.of(
+                        new PromotionTier(5, BigDecimal.valueOf(5)),
+                        new PromotionTier(10 + random.nextInt(5), new BigDecimal("7.5")),
+                        new PromotionTier(25, BigDecimal.valueOf(10 + random.nextInt(10)))));
+            }
+            promotions.add(promotion);
+        }
+        return promotions;
+    }
+
+    private static List<List<Line>> carts(Random random) {
+        List<List<Line>> carts = new ArrayList<>(CARTS);
+        for (int cart = 0; cart < CARTS; cart++) {
+            List<Line> lines = new ArrayList<>(LINES);
+            for (int i = 0; i < LINES; i++) {
+                // Team orders: some lines are large enough to reach volume tiers
+                int quantity = random.nextInt(10) == 0 ? 5 + random.nextInt(40) : 1 + random.nextInt(4);
+                lines.add(new Line(1L + random.nextInt(PRODUCTS), CATEGORIES[random.nextInt(CATEGORIES.length)],
+                        Money.ofMinor(499 + 100L * random.nextInt(150)), quantity));
+            }
+            carts.add(lines);
+        }
+        return carts;
+    }
+}
@@ -0,0 +1,176 @@
+package com.prorunner.prorunner.benchmark;
+
+import com.prorunner.prorunner.analytics.SaleLine;
+import com.prorunner.prorunner.dto.ProductRecommendationDTO;
+import com.prorunner.prorunner.dto.RecommendationStatusDTO;
+import com.prorunner.prorunner.event.OrderPlacedEvent;
+import com.prorunner.prorunner.event.WishlistItemChangedEvent;
+import com.prorunner.prorunner.recommendation.ProductNeighbors;
+import com.prorunner.prorunner.service.RecommendationService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seeds 2,000 products in clusters of 10, 100,000 orders of three products from one cluster and
+ * 2,000 wishlists of four, then rebuilds the recommendations. Checks each sampled product's
+ * neighbors come from its own cluster, that placed orders and wishlist changes move the lists
+ * incrementally and that a wishlist add and remove cancel out. Reports rebuild time, the
+ * neighbor lookup and endpoint latency against an on-demand co-occurrence query on order_item,
+ * and incremental order throughput.
+ * Run with: mvn test -Pbenchmark -Dtest=RecommendationBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class RecommendationBenchmarkTest {
+
+    private static final int PRODUCTS = 2_000;
+    private static final int CLUSTER = 10;
+    private static final int ORDERS = 100_000;
+    private static final int WISHLISTS = 2_000;
+    private static final int SAMPLE = 200;
+    private static final int SQL_SAMPLE = 50;
+    private static final int INCREMENTAL_ORDERS = 20_000;
+
+    // What the endpoint would do without the precomputed lists
+    private static final String ON_DEMAND_SQL = "SELECT b.product_id, COUNT(*) FROM order_item a " +
+            "JOIN order_item b ON b.order_id = a.order_id AND b.product_id <> a.product_id " +
+            "WHERE a.product_id = ? GROUP BY b.product_id ORDER BY COUNT(*) DESC, b.product_id LIMIT 10";
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void recommendations() {
+        String run = "rec-" + System.nanoTime();
+        long firstProductId = seedProducts(run);
+        seedOrders(run, firstProductId);
+        seedWishlists(run, firstProductId);
+
+        RecommendationStatusDTO status = recommendationService.rebuild();
+        System.out.printf("%nrebuilt from %d orders and %d wishlists: %d products, %d pairs in %d ms%n",
+                status.getOrdersScanned(), status.getWishlistsScanned(), status.getProducts(), status.getPairs(),
+                status.getLastRebuildMs());
+
+        for (int i = 0; i < SAMPLE; i++) {
+            long productId = firstProductId + (i * 37L) % PRODUCTS;
+            ProductNeighbors neighbors = recommendationService.getNeighbors(productId);
+            assertEquals(CLUSTER - 1, neighbors.size(), "neighbors of " + productId);
+            for (int rank = 0; rank < neighbors.size(); rank++) {
+                assertEquals(cluster(productId, firstProductId), cluster(neighbors.productId(rank), firstProductId));
+            }
+        }
+
+        long start = System.nanoTime();
+        long found = 0;
+        for (int i = 0; i < 100_000; i++) {
+            found += recommendationService.getNeighbors(firstProductId + i % PRODUCTS).size();
+        }
+        double lookupUs = (System.nanoTime() - start) / 1e3 / 100_000;
+        assertTrue(found > 0);
+
+        start = System.nanoTime();
+        for (int i = 0; i < SAMPLE; i++) {
+            List<ProductRecommendationDTO> recommendations = recommendationService.getRecommendations(firstProductId + i, 10);
+            assertEquals(CLUSTER - 1, recommendations.size());
+        }
+        double endpointUs = (System.nanoTime() - start) / 1e3 / SAMPLE;
+
+        start = System.nanoTime();
+        for (int i = 0; i < SQL_SAMPLE; i++) {
+            jdbcTemplate.queryForList(ON_DEMAND_SQL, firstProductId + i);
+        }
+        double sqlUs = (System.nanoTime() - start) / 1e3 / SQL_SAMPLE;
+
+        System.out.printf("%-34s %12s%n", "lookup", "us/call");
+        System.out.printf("%-34s %12.2f%n", "precomputed neighbors", lookupUs);
+        System.out.printf("%-34s %12.1f%n", "recommendations with products", endpointUs);
+        System.out.printf("%-34s %12.1f%n", "on-demand co-occurrence query", sqlUs);
+
+        // Two products from different clusters bought together often enough to lead each other's lists
+        long a = firstProductId;
+        long b = firstProductId + PRODUCTS - 1;
+        start = System.nanoTime();
+        for (int i = 0; i < INCREMENTAL_ORDERS; i++) {
+            recommendationService.onOrderPlaced(new OrderPlacedEvent(Long.MAX_VALUE - i, LocalDateTime.now(),
+                    List.of(line(a), line(b))));
+        }
+        double perOrderUs = (System.nanoTime() - start) / 1e3 / INCREMENTAL_ORDERS;
+        recommendationService.refresh();
+        assertEquals(b, recommendationService.getNeighbors(a).productId(0));
+        assertEquals(a, recommendationService.getNeighbors(b).productId(0));
+        System.out.printf("incremental: %.2f us per placed order, %d orders/s%n", perOrderUs, (long) (1e6 / perOrderUs));
+
+        // A wishlist add followed by its removal leaves the lists as they were
+        long c = firstProductId + 5;
+        float before = recommendationService.getNeighbors(c).score(0);
+        List<Long> others = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            others.add(firstProductId + PRODUCTS / 2 + i);
+        }
+        recommendationService.onWishlistItemChanged(new WishlistItemChangedEvent(1, c, others, true));
+        recommendationService.refresh();
+        recommendationService.onWishlistItemChanged(new WishlistItemChangedEvent(1, c, others, false));
+        recommendationService.refresh();
+        assertEquals(before, recommendationService.getNeighbors(c).score(0));
+    }
+
+    private static SaleLine line(long productId) {
+        return new SaleLine(productId, "category", "Unisex", 1, 1000);
+    }
+
+    private static long cluster(long productId, long firstProductId) {
+        return (productId - firstProductId) / CLUSTER;
+    }
+
+    private long seedProducts(String run) {
+        jdbcTemplate.update("INSERT INTO product (availability, price_minor, reserved_stock, stock, category, gender, name) " +
+                "SELECT true, 500 + MOD(\"X\" * 37, 2000), 0, 100, CONCAT('category-', MOD(\"X\", 12)), 'Unisex', " +
+                "CONCAT(?, '-', \"X\") FROM SYSTEM_RANGE(1, ?)", run, PRODUCTS);
+        return jdbcTemplate.queryForObject("SELECT MIN(id) FROM product WHERE name LIKE ?", Long.class, run + "-%");
+    }
+
+    // ORDERS orders of three distinct products from one cluster each, offsets h, h + s and h + s + 1
+    // with s from 1 to 8 drawn independently of the cluster, so every pair within a cluster occurs
+    private void seedOrders(String run, long firstProductId) {
+        jdbcTemplate.update("INSERT INTO users (email, name, password, phone_number, username) " +
+                "VALUES (?, 'Rec', 'x', '0000000000', ?)", run + "@example.com", run);
+        long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, run);
+        jdbcTemplate.update("INSERT INTO addresses (user_id, city, country, postalcode, state, street) " +
+                "VALUES (?, 'City', 'Country', '00000', 'State', 'Street')", userId);
+        long addressId = jdbcTemplate.queryForObject("SELECT id FROM addresses WHERE user_id = ?", Long.class, userId);
+        jdbcTemplate.update("INSERT INTO orders (total_price_minor, address_id, created_at, user_id, status) " +
+                "SELECT 3000, ?, CURRENT_TIMESTAMP, ?, 'PLACED' FROM SYSTEM_RANGE(1, ?)", addressId, userId, ORDERS);
+        jdbcTemplate.update("INSERT INTO order_item (quantity, order_id, product_id, unit_price_minor, subtotal_minor, discount_minor) " +
+                "SELECT 1, o.id, ? + MOD(o.id, ?) * ? + MOD(o.id / 200 + CASE r.\"X\" WHEN 0 THEN 0 " +
+                "WHEN 1 THEN 1 + MOD(o.id / 2000, 8) ELSE 2 + MOD(o.id / 2000, 8) END, ?), 1000, 1000, 0 " +
+                "FROM orders o CROSS JOIN SYSTEM_RANGE(0, 2) r WHERE o.user_id = ?",
+                firstProductId, PRODUCTS / CLUSTER, CLUSTER, CLUSTER, userId);
+    }
+
+    // WISHLISTS wishlists of four distinct products from one cluster each
+    private void seedWishlists(String run, long firstProductId) {
+        jdbcTemplate.update("INSERT INTO users (email, name, password, phone_number, username) " +
+                "SELECT CONCAT(?, '-w', \"X\", '@example.com'), 'Rec', 'x', '0000000000', CONCAT(?, '-w', \"X\") " +
+                "FROM SYSTEM_RANGE(1, ?)", run, run, WISHLISTS);
+        jdbcTemplate.update("INSERT INTO wishlist (user_id) SELECT id FROM users WHERE username LIKE ?", run + "-w%");
+        jdbcTemplate.update("INSERT INTO wishlist_item (wishlist_id, product_id) " +
+                "SELECT w.id, ? + MOD(w.id * 31, ?) * ? + MOD(w.id + r.\"X\" * 3, ?) FROM wishlist w " +
+                "JOIN users u ON u.id = w.user_id CROSS JOIN SYSTEM_RANGE(0, 3) r WHERE u.username LIKE ?",
+                firstProductId, PRODUCTS / CLUSTER, CLUSTER, CLUSTER, run + "-w%");
+    }
+}
@@ -0,0 +1,249 @@
+package com.prorunner.prorunner.benchmark;
+
+import com.prorunner.prorunner.analytics.RollupWindow;
+import com.prorunner.prorunner.analytics.SaleLine;
+import com.prorunner.prorunner.analytics.SalesDimension;
+import com.prorunner.prorunner.analytics.SalesRollups;
+import com.prorunner.prorunner.dto.SalesAnalyticsStatusDTO;
+import com.prorunner.prorunner.service.SalesAnalyticsService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * "Top sellers today" and sales per category answered by GROUP BY over orders and order_item
+ * against the in-memory SalesRollups, at 20,000 and 100,000 orders of history: the query grows
+ * with history, the rollup read does not. Also reports the cost of folding an order in (time and
+ * bytes allocated) and of a checkpoint round trip, and checks that rollups, checkpoint and SQL
+ * agree.
+ * Run with: mvn test -Pbenchmark -Dtest=SalesAnalyticsBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class SalesAnalyticsBenchmarkTest {
+
+    private static final int PRODUCTS = 500;
+    private static final int[] HISTORY = {20_000, 100_000};
+    private static final int SQL_REPEATS = 10;
+    private static final int ROLLUP_REPEATS = 2_000;
+    private static final int FOLD_WARMUP = 50_000;
+    private static final int FOLD_ITERATIONS = 500_000;
+
+    private static final String TOP_PRODUCTS_SQL = "SELECT oi.product_id, SUM(oi.quantity) units, SUM(oi.subtotal_minor) " +
+            "FROM order_item oi JOIN orders o ON o.id = oi.order_id WHERE o.user_id = ? AND o.created_at >= ? " +
+            "GROUP BY oi.product_id ORDER BY units DESC, oi.product_id LIMIT 10";
+
+    private static final String CATEGORY_SQL = "SELECT p.category, SUM(oi.quantity), SUM(oi.subtotal_minor) " +
+            "FROM order_item oi JOIN orders o ON o.id = oi.order_id JOIN product p ON p.id = oi.product_id " +
+            "WHERE o.user_id = ? AND o.created_at >= ? GROUP BY p.category";
+
+    private static final String LINES_SQL = "SELECT o.id, o.created_at, oi.product_id, p.category, p.gender, " +
+            "oi.quantity, oi.subtotal_minor FROM orders o JOIN order_item oi ON oi.order_id = o.id " +
+            "JOIN product p ON p.id = oi.product_id WHERE o.user_id = ? AND o.id > ? ORDER BY o.id, oi.id";
+
+    private record SeededOrder(long orderId, long epochSecond, List<SaleLine> lines) {
+    }
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Test
+    void rollupsAgainstGroupBy() throws IOException {
+        String run = "sales-" + System.nanoTime();
+        long firstProductId = seedProducts(run);
+        long[] user = seedUser(run);
+        SalesRollups rollups = new SalesRollups();
+        long now = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+
+        System.out.printf("%n%-10s %-14s %14s %14s%n", "orders", "query", "GROUP BY us", "rollup us");
+        int seeded = 0;
+        long lastOrderId = 0;
+        for (int history : HISTORY) {
+            seedOrders(user, firstProductId, history - seeded);
+            seeded = history;
+            List<SeededOrder> orders = loadOrders(user[0], lastOrderId);
+            long start = System.nanoTime();
+            for (SeededOrder order : orders) {
+                rollups.add(order.orderId(), order.epochSecond(), order.lines());
+            }
+            double foldMs = (System.nanoTime() - start) / 1e6;
+            lastOrderId = orders.get(orders.size() - 1).orderId();
+            System.out.printf("folded %d orders in %.1f ms%n", orders.size(), foldMs);
+
+            List<long[]> sqlTop = new ArrayList<>();
+            double sqlUs = time(SQL_REPEATS, i -> {
+                sqlTop.clear();
+                jdbcTemplate.query(TOP_PRODUCTS_SQL, rs -> {
+                    sqlTop.add(new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)});
+                }, user[0], startOfToday(i));
+            });
+            List<SalesRollups.Ranking> rollupTop = new ArrayList<>();
+            double rollupUs = time(ROLLUP_REPEATS, i -> {
+                rollupTop.clear();
+                rollupTop.addAll(rollups.top(SalesDimension.PRODUCT, RollupWindow.DAY, 1, 10, false, now));
+            });
+            System.out.printf("%-10d %-14s %14.1f %14.1f%n", history, "top products", sqlUs, rollupUs);
+            assertEquals(sqlTop.size(), rollupTop.size());
+            for (int i = 0; i < sqlTop.size(); i++) {
+                assertEquals(sqlTop.get(i)[0], rollupTop.get(i).key());
+                assertEquals(sqlTop.get(i)[1], rollupTop.get(i).units());
+                assertEquals(sqlTop.get(i)[2], rollupTop.get(i).revenueMinor());
+            }
+
+            Map<String, Long> sqlCategories = new HashMap<>();
+            double categorySqlUs = time(SQL_REPEATS, i -> jdbcTemplate.query(CATEGORY_SQL, rs -> {
+                sqlCategories.put(rs.getString(1), rs.getLong(2));
+            }, user[0], startOfToday(i)));
+            Map<String, Long> rollupCategories = new HashMap<>();
+            double categoryRollupUs = time(ROLLUP_REPEATS, i -> {
+                for (SalesRollups.Ranking ranking : rollups.top(SalesDimension.CATEGORY, RollupWindow.DAY, 1, 100, false, now)) {
+                    rollupCategories.put(rollups.label(ranking.key()), ranking.units());
+                }
+            });
+            System.out.printf("%-10d %-14s %14.1f %14.1f%n", history, "categories", categorySqlUs, categoryRollupUs);
+            assertEquals(sqlCategories, rollupCategories);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long start = System.nanoTime();
+        rollups.writeTo(new DataOutputStream(bytes));
+        double writeMs = (System.nanoTime() - start) / 1e6;
+        start = System.nanoTime();
+        SalesRollups restored = SalesRollups.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        double readMs = (System.nanoTime() - start) / 1e6;
+        System.out.printf("checkpoint: %d bytes, written in %.1f ms, read in %.1f ms%n", bytes.size(), writeMs, readMs);
+        assertEquals(rollups.getLastOrderId(), restored.getLastOrderId());
+        assertEquals(rollups.top(SalesDimension.PRODUCT, RollupWindow.DAY, 1, 50, true, now),
+                restored.top(SalesDimension.PRODUCT, RollupWindow.DAY, 1, 50, true, now));
+        assertEquals(rollups.series(RollupWindow.MINUTE, 120, now), restored.series(RollupWindow.MINUTE, 120, now));
+
+        SalesAnalyticsStatusDTO status = salesAnalyticsService.checkpoint();
+        assertTrue(Files.size(Path.of(status.getCheckpointPath())) > 0);
+    }
+
+    @Test
+    void foldCost() {
+        Random random = new Random(42);
+        String[] categories = {"Shoes", "Shirts", "Shorts", "Socks", "Jackets", "Hats"};
+        String[] genders = {"Men", "Women", "Unisex"};
+        List<List<SaleLine>> carts = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            List<SaleLine> lines = new ArrayList<>();
+            for (int line = 0; line < 1 + random.nextInt(4); line++) {
+                lines.add(new SaleLine(1 + random.nextInt(20_000), categories[random.nextInt(categories.length)],
+                        genders[random.nextInt(genders.length)], 1 + random.nextInt(3), 999 + random.nextInt(20_000)));
+            }
+            carts.add(lines);
+        }
+        SalesRollups rollups = new SalesRollups();
+        long now = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+        for (int i = 0; i < FOLD_WARMUP; i++) {
+            rollups.add(i + 1, now, carts.get(i % carts.size()));
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < FOLD_ITERATIONS; i++) {
+            rollups.add(FOLD_WARMUP + i + 1, now, carts.get(i % carts.size()));
+        }
+        double nsPerOrder = (System.nanoTime() - start) / (double) FOLD_ITERATIONS;
+        double bytesPerOrder = (threads.getThreadAllocatedBytes(threadId) - bytesBefore) / (double) FOLD_ITERATIONS;
+        System.out.printf("%nfold: %.0f ns and %.1f bytes allocated per order, %d orders/s%n",
+                nsPerOrder, bytesPerOrder, (long) (1e9 / nsPerOrder));
+        assertEquals(FOLD_WARMUP + FOLD_ITERATIONS, rollups.getOrdersFolded());
+        // The two label id arrays and the iterator; nothing per SKU once the maps have grown
+        assertTrue(bytesPerOrder < 256, "Folding allocated " + bytesPerOrder + " bytes per order");
+    }
+
+    private double time(int repeats, IntConsumer query) {
+        query.accept(0);
+        long start = System.nanoTime();
+        for (int i = 1; i <= repeats; i++) {
+            query.accept(i);
+        }
+        return (System.nanoTime() - start) / 1e3 / repeats;
+    }
+
+    // Midnight plus i microseconds, so H2 cannot answer a repeated query from its result cache
+    private static Timestamp startOfToday(int i) {
+        return Timestamp.valueOf(LocalDate.now().atStartOfDay().plusNanos(i * 1_000L));
+    }
+
+    // PRODUCTS products over 12 categories and 3 genders; returns the first id
+    private long seedProducts(String run) {
+        jdbcTemplate.update("INSERT INTO product (availability, price_minor, reserved_stock, stock, category, gender, name) " +
+                "SELECT true, 500 + MOD(\"X\" * 37, 2000), 0, 100, CONCAT('category-', MOD(\"X\", 12)), " +
+                "CASE MOD(\"X\", 3) WHEN 0 THEN 'Men' WHEN 1 THEN 'Women' ELSE 'Unisex' END, CONCAT(?, '-', \"X\") " +
+                "FROM SYSTEM_RANGE(1, ?)", run, PRODUCTS);
+        return jdbcTemplate.queryForObject("SELECT MIN(id) FROM product WHERE name LIKE ?", Long.class, run + "-%");
+    }
+
+    // {userId, addressId}
+    private long[] seedUser(String run) {
+        jdbcTemplate.update("INSERT INTO users (email, name, password, phone_number, username) " +
+                "VALUES (?, 'Sales', 'x', '0000000000', ?)", run + "@example.com", run);
+        long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, run);
+        jdbcTemplate.update("INSERT INTO addresses (user_id, city, country, postalcode, state, street) " +
+                "VALUES (?, 'City', 'Country', '00000', 'State', 'Street')", userId);
+        long addressId = jdbcTemplate.queryForObject("SELECT id FROM addresses WHERE user_id = ?", Long.class, userId);
+        return new long[]{userId, addressId};
+    }
+
+    // Orders of three lines each, skewed towards some products
+    private void seedOrders(long[] user, long firstProductId, int orders) {
+        Long lastId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM orders", Long.class);
+        jdbcTemplate.update("INSERT INTO orders (total_price_minor, address_id, created_at, user_id, status) " +
+                "SELECT 0, ?, CURRENT_TIMESTAMP, ?, 'PLACED' FROM SYSTEM_RANGE(1, ?)", user[1], user[0], orders);
+        jdbcTemplate.update("INSERT INTO order_item (quantity, order_id, product_id, unit_price_minor, subtotal_minor, discount_minor) " +
+                "SELECT 1 + MOD(o.id, 3), o.id, ? + MOD(o.id * o.id + r.\"X\" * 17, ?), 1000, (1 + MOD(o.id, 3)) * 1000, 0 " +
+                "FROM orders o CROSS JOIN SYSTEM_RANGE(0, 2) r WHERE o.user_id = ? AND o.id > ?",
+                firstProductId, PRODUCTS, user[0], lastId);
+    }
+
+    private List<SeededOrder> loadOrders(long userId, long afterId) {
+        List<SeededOrder> orders = new ArrayList<>();
+        jdbcTemplate.query(LINES_SQL, rs -> {
+            long orderId = rs.getLong(1);
+            if (orders.isEmpty() || orders.get(orders.size() - 1).orderId() != orderId) {
+                orders.add(new SeededOrder(orderId, rs.getTimestamp(2).toLocalDateTime().toEpochSecond(ZoneOffset.UTC),
+                        new ArrayList<>()));
+            }
+            orders.get(orders.size() - 1).lines()
+                    .add(new SaleLine(rs.getLong(3), rs.getString(4), rs.getString(5), rs.getInt(6), rs.getLong(7)));
+        }, userId, afterId);
+        return orders;
+    }
+}
@@ -0,0 +1,143 @@
+package com.prorunner.prorunner.benchmark;
+
+import com.prorunner.prorunner.dto.WishlistDTO;
+import com.prorunner.prorunner.dto.WishlistItemDTO;
+import com.prorunner.prorunner.metrics.SqlStats;
+import com.prorunner.prorunner.model.Wishlist;
+import com.prorunner.prorunner.model.WishlistItem;
+import com.prorunner.prorunner.repository.WishlistRepository;
+import com.prorunner.prorunner.service.WishlistService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Wishlist reads and duplicate adds for 10, 100 and 500-item wishlists, comparing WishlistService
+ * (indexed membership check, one batched product load) with the previous walk over the lazily
+ * loaded items and their products. Reports mean latency and SQL statements per call, checks the
+ * paginated endpoint and that the unique key rejects a duplicate line.
+ * Run with: mvn test -Pbenchmark -Dtest=WishlistBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class WishlistBenchmarkTest {
+
+    private static final int[] ITEMS = {10, 100, 500};
+    private static final int WARMUP = 10;
+    private static final int CALLS = 50;
+
+    @Autowired
+    private WishlistService wishlistService;
+
+    @Autowired
+    private WishlistRepository wishlistRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Long> productIds = new ArrayList<>();
+
+    @Test
+    void wishlistBySize() {
+        String run = Long.toString(System.nanoTime(), 36);
+        for (int i = 0; i < ITEMS[ITEMS.length - 1]; i++) {
+            jdbcTemplate.update("INSERT INTO product (availability, price_minor, reserved_stock, stock, name) " +
+                    "VALUES (true, ?, 0, 100, ?)", 1_000 + 100 * i, "Wish " + run + " " + i);
+        }
+        productIds.addAll(jdbcTemplate.queryForList("SELECT id FROM product WHERE name LIKE ? ORDER BY id",
+                Long.class, "Wish " + run + " %"));
+
+        System.out.printf("%n%-8s %-22s %12s %16s%n", "items", "operation", "mean us", "statements/call");
+        for (int items : ITEMS) {
+            long userId = seedWishlist(run, items);
+            Long lastProduct = productIds.get(items - 1);
+
+            measure(items, "read (loop)", userId, this::loopRead);
+            measure(items, "read (batched)", userId, wishlistService::getOrCreateWishlist);
+            measure(items, "duplicate add (loop)", userId, id -> loopAdd(id, lastProduct));
+            measure(items, "duplicate add (index)", userId, id -> wishlistService.addProductToWishlist(id, lastProduct));
+
+            WishlistDTO wishlist = wishlistService.getOrCreateWishlist(userId);
+            assertEquals(items, wishlist.getItems().size(), "Duplicate adds must not create lines");
+            assertEquals(productIds.subList(0, items), wishlist.getItems().stream().map(WishlistItemDTO::getProductId).toList());
+
+            Page<WishlistItemDTO> page = wishlistService.getWishlistItems(userId, 1, 7);
+            assertEquals(items, page.getTotalElements());
+            assertEquals(productIds.get(7), page.getContent().get(0).getProductId());
+
+            assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                    "INSERT INTO wishlist_item (wishlist_id, product_id) VALUES (?, ?)", wishlist.getId(), lastProduct));
+        }
+    }
+
+    private void measure(int items, String operation, long userId, LongConsumer call) {
+        for (int i = 0; i < WARMUP; i++) {
+            call.accept(userId);
+        }
+        long statements = 0;
+        long nanos = 0;
+        for (int i = 0; i < CALLS; i++) {
+            SqlStats stats = SqlStats.start();
+            long start = System.nanoTime();
+            call.accept(userId);
+            nanos += System.nanoTime() - start;
+            statements += stats.getStatements();
+            SqlStats.clear();
+        }
+        System.out.printf("%-8d %-22s %12.1f %16.1f%n", items, operation, nanos / 1_000.0 / CALLS, statements / (double) CALLS);
+    }
+
+    // The read this replaced: every item's product loaded lazily while mapping
+    private void loopRead(long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Wishlist wishlist = wishlistRepository.findByUserId(userId).orElseThrow();
+            for (WishlistItem item : wishlist.getItems()) {
+                item.getProduct().getName();
+            }
+        });
+    }
+
+    // The duplicate check this replaced: a scan over the items, touching each product
+    private void loopAdd(long userId, Long productId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Wishlist wishlist = wishlistRepository.findByUserId(userId).orElseThrow();
+            boolean exists = wishlist.getItems().stream().anyMatch(item -> item.getProduct().getId().equals(productId));
+            assertEquals(true, exists);
+            for (WishlistItem item : wishlist.getItems()) {
+                item.getProduct().getName();
+            }
+        });
+    }
+
+    private long seedWishlist(String run, int items) {
+        String username = "wish-" + run + "-" + items;
+        jdbcTemplate.update("INSERT INTO users (email, name, password, phone_number, username) " +
+                "VALUES (?, 'Wish', 'x', '0000000000', ?)", username + "@example.com", username);
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+        jdbcTemplate.update("INSERT INTO wishlist (user_id) VALUES (?)", userId);
+        Long wishlistId = jdbcTemplate.queryForObject("SELECT id FROM wishlist WHERE user_id = ?", Long.class, userId);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            rows.add(new Object[]{wishlistId, productIds.get(i)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO wishlist_item (wishlist_id, product_id) VALUES (?, ?)", rows);
+        return userId;
+    }
+}
@@ -0,0 +1,114 @@
+package com.prorunner.prorunner.benchmark;
+
+import com.prorunner.prorunner.dto.ProductDTO;
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.service.ProductService;
+import com.prorunner.prorunner.service.WishlistNotificationService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Restock and price drop of one product wishlisted by many users (100,000 by default, set
+ * -Dwishlist.watchers=500000 for the full-size run). Reports how long the admin request takes,
+ * how long the flush takes to fan out to the wishlist_notification outbox, and checks that
+ * bursts of changes are coalesced and that users with an unsent notification are not written twice.
+ * Run with: mvn test -Pbenchmark -Dtest=WishlistNotificationBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "prorunner.wishlist-notifications.flush-interval-ms=3600000")
+@ActiveProfiles("test")
+class WishlistNotificationBenchmarkTest {
+
+    private static final int WATCHERS = Integer.getInteger("wishlist.watchers", 100_000);
+    private static final int BURST = 20;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private WishlistNotificationService wishlistNotificationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void restockFansOutToWishlists() {
+        String run = Long.toString(System.nanoTime(), 36);
+        long productId = seed(run);
+        System.out.printf("%n%d wishlists hold the product%n", WATCHERS);
+        System.out.printf("%-34s %12s %12s%n", "step", "ms", "rows");
+
+        // A burst of admin writes: sold out, restocked, stock adjusted again and again
+        long start = System.nanoTime();
+        for (int i = 0; i < BURST; i++) {
+            productService.updateProductStock(productId, i % 2 == 0 ? 0 : 10 + i);
+        }
+        productService.updateProductStock(productId, 25);
+        double requestMs = (System.nanoTime() - start) / 1e6 / (BURST + 1);
+        System.out.printf("%-34s %12.2f %12s%n", "stock update request (mean)", requestMs, "-");
+
+        long rows = timedFlush("flush after restock burst");
+        assertEquals(WATCHERS, rows, "One notification per watcher, however many restocks");
+        assertEquals(WATCHERS, notifications(productId, "BACK_IN_STOCK"));
+
+        // Undelivered notifications are not duplicated by the next restock
+        productService.updateProductStock(productId, 0);
+        productService.updateProductStock(productId, 5);
+        assertEquals(0, timedFlush("flush with notifications unsent"));
+
+        // A drop that is undone before the flush notifies nobody
+        ProductDTO product = productService.getProductById(productId);
+        Money listPrice = product.getPrice();
+        product.setPrice(Money.ofMinor(listPrice.getMinorUnits() - 1_000));
+        productService.updateProduct(productId, product);
+        product.setPrice(listPrice);
+        productService.updateProduct(productId, product);
+        assertEquals(0, timedFlush("flush after undone price drop"));
+
+        product.setPrice(Money.ofMinor(listPrice.getMinorUnits() - 2_000));
+        productService.updateProduct(productId, product);
+        assertEquals(WATCHERS, timedFlush("flush after price drop"));
+        assertEquals(WATCHERS, notifications(productId, "PRICE_DROP"));
+    }
+
+    private long timedFlush(String step) {
+        long start = System.nanoTime();
+        long rows = wishlistNotificationService.flush();
+        System.out.printf("%-34s %12.1f %12d%n", step, (System.nanoTime() - start) / 1e6, rows);
+        return rows;
+    }
+
+    private long notifications(long productId, String type) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wishlist_notification WHERE product_id = ? AND type = ?",
+                Long.class, productId, type);
+        return count == null ? 0 : count;
+    }
+
+    // One sold-out product and WATCHERS users who each wishlisted it, plus a second product each
+    private long seed(String run) {
+        jdbcTemplate.update("INSERT INTO product (availability, price_minor, reserved_stock, stock, name) " +
+                "VALUES (false, 12999, 0, 0, ?)", "Notify " + run);
+        jdbcTemplate.update("INSERT INTO product (availability, price_minor, reserved_stock, stock, name) " +
+                "VALUES (true, 4999, 0, 10, ?)", "Notify other " + run);
+        long productId = jdbcTemplate.queryForObject("SELECT id FROM product WHERE name = ?", Long.class, "Notify " + run);
+        long otherId = jdbcTemplate.queryForObject("SELECT id FROM product WHERE name = ?", Long.class, "Notify other " + run);
+
+        String users = "nw-" + run + "-%";
+        jdbcTemplate.update("INSERT INTO users (email, name, password, phone_number, username) " +
+                "SELECT CONCAT('nw-', ?, '-', \"X\", '@example.com'), 'Watcher', 'x', '0000000000', CONCAT('nw-', ?, '-', \"X\") " +
+                "FROM SYSTEM_RANGE(1, ?)", run, run, WATCHERS);
+        jdbcTemplate.update("INSERT INTO wishlist (user_id) SELECT id FROM users WHERE username LIKE ?", users);
+        // Interleaved with other products so the product's lines are spread over the table
+        for (long id : new long[]{otherId, productId}) {
+            jdbcTemplate.update("INSERT INTO wishlist_item (wishlist_id, product_id) " +
+                    "SELECT w.id, ? FROM wishlist w JOIN users u ON u.id = w.user_id WHERE u.username LIKE ?", id, users);
+        }
+        return productId;
+    }
+}
@@ -0,0 +1,88 @@
+package com.prorunner.prorunner.controller;
+
+import com.prorunner.prorunner.dto.ProductDTO;
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional GETs of catalog responses against the shared catalog version. The version is
+ * re-read on every request here (version-check-ms=0), so a bump of the row stands in for a
+ * write committed on another instance.
+ */
+@SpringBootTest(properties = "prorunner.catalog.version-check-ms=0")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CatalogEtagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long productId;
+
+    @BeforeEach
+    void createProduct() {
+        ProductDTO product = new ProductDTO();
+        product.setName("ETag shoe");
+        product.setPrice(Money.of(45.0));
+        product.setStock(8);
+        product.setAvailability(true);
+        productId = productService.saveProduct(product).getId();
+    }
+
+    @Test
+    void unchangedCatalogAnswersNotModified() throws Exception {
+        String etag = fetchEtag();
+
+        mockMvc.perform(get("/api/products/{id}", productId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void catalogWriteInvalidatesTag() throws Exception {
+        String etag = fetchEtag();
+        productService.updateProductStock(productId, 3);
+
+        mockMvc.perform(get("/api/products/{id}", productId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        assertNotEquals(etag, fetchEtag());
+    }
+
+    @Test
+    void writeOnAnotherInstanceInvalidatesTag() throws Exception {
+        String etag = fetchEtag();
+        jdbcTemplate.update("UPDATE catalog_version SET version = version + 1 WHERE id = 1");
+
+        mockMvc.perform(get("/api/products/{id}", productId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    private String fetchEtag() throws Exception {
+        String etag = mockMvc.perform(get("/api/products/{id}", productId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+}
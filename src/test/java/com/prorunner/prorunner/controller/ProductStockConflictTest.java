@@ -0,0 +1,85 @@
+package com.prorunner.prorunner.controller;
+
+import com.prorunner.prorunner.concurrency.OptimisticRetryAspect;
+import com.prorunner.prorunner.dto.ProductDTO;
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.model.Product;
+import com.prorunner.prorunner.repository.ProductRepository;
+import com.prorunner.prorunner.service.ProductService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A stock update whose version check fails on every attempt: the retry aspect gives up after
+ * max-attempts, counts the conflicts and the exhaustion, and the request is answered with 409.
+ */
+@SpringBootTest(properties = {
+        "prorunner.optimistic-retry.max-attempts=3",
+        "prorunner.optimistic-retry.backoff-ms=0"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductStockConflictTest {
+
+    private static final String OPERATION = "ProductService.updateProductStock";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoSpyBean
+    private ProductRepository productRepository;
+
+    @Test
+    void exhaustedRetriesAnswerConflict() throws Exception {
+        ProductDTO product = new ProductDTO();
+        product.setName("Contended shoe");
+        product.setPrice(Money.of(70.0));
+        product.setStock(5);
+        product.setAvailability(true);
+        Long productId = productService.saveProduct(product).getId();
+
+        clearInvocations(productRepository);
+        // Every save loses the version check, as if another request committed in between each time
+        doThrow(new ObjectOptimisticLockingFailureException(Product.class, productId))
+                .when(productRepository).save(any(Product.class));
+        double conflictsBefore = count(OptimisticRetryAspect.CONFLICT_METRIC);
+        double exhaustedBefore = count(OptimisticRetryAspect.EXHAUSTED_METRIC);
+
+        mockMvc.perform(patch("/api/products/{productId}/stock", productId).param("stock", "2")
+                        .with(user("admin").authorities(() -> "ADMIN")))
+                .andExpect(status().isConflict());
+
+        verify(productRepository, times(3)).save(any(Product.class));
+        assertEquals(3, count(OptimisticRetryAspect.CONFLICT_METRIC) - conflictsBefore);
+        assertEquals(1, count(OptimisticRetryAspect.EXHAUSTED_METRIC) - exhaustedBefore);
+    }
+
+    private double count(String metric) {
+        Counter counter = meterRegistry.find(metric).tag("entity", "product").tag("operation", OPERATION).counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
@@ -0,0 +1,73 @@
+package com.prorunner.prorunner.controller;
+
+import com.prorunner.prorunner.dto.ProductDTO;
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Per-request SQL accounting and the admin slow endpoint report. With a statement budget of
+ * zero every request that touches the database counts as over budget.
+ */
+@SpringBootTest(properties = "prorunner.sql-stats.statement-budget=0")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SqlStatsReportTest {
+
+    private static final String PRODUCT_ENDPOINT = "$.data[?(@.endpoint == 'GET /api/products/{id}')]";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void overBudgetRequestsAreReportedPerEndpoint() throws Exception {
+        ProductDTO product = new ProductDTO();
+        product.setName("SQL stats shoe");
+        product.setPrice(Money.of(39.0));
+        product.setStock(4);
+        product.setAvailability(true);
+        Long productId = productService.saveProduct(product).getId();
+
+        mockMvc.perform(delete("/api/admin/sql-stats").with(user("admin").authorities(() -> "ADMIN")))
+                .andExpect(status().isOk());
+
+        for (int i = 0; i < 2; i++) {
+            String statements = mockMvc.perform(get("/api/products/{id}", productId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader("X-Sql-Statements");
+            assertNotNull(statements);
+            assertTrue(Long.parseLong(statements) > 0, "Product lookup should issue SQL, got " + statements);
+        }
+
+        mockMvc.perform(get("/api/admin/sql-stats").param("orderBy", "statements")
+                        .with(user("admin").authorities(() -> "ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(PRODUCT_ENDPOINT + ".requests", contains(2)))
+                .andExpect(jsonPath(PRODUCT_ENDPOINT + ".overBudgetRequests", contains(2)))
+                .andExpect(jsonPath(PRODUCT_ENDPOINT + ".maxStatements", contains(greaterThan(0))));
+    }
+
+    @Test
+    void reportRequiresAdmin() throws Exception {
+        mockMvc.perform(get("/api/admin/sql-stats").with(user("shopper").authorities(() -> "USER")))
+                .andExpect(status().isForbidden());
+    }
+}
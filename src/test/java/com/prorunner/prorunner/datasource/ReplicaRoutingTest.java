@@ -0,0 +1,133 @@
+package com.prorunner.prorunner.datasource;
+
+import com.prorunner.prorunner.dto.CartDTO;
+import com.prorunner.prorunner.dto.ProductDTO;
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.repository.ProductRepository;
+import com.prorunner.prorunner.service.CartService;
+import com.prorunner.prorunner.service.ProductService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routes reads between two embedded databases: a primary and a "replica" that does not
+ * actually replicate, so the test fakes replication by stamping the replica's heartbeat
+ * row itself and marks the replica apart with a product only it contains.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+        "prorunner.datasource.replica.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "prorunner.datasource.replica.check-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final String REPLICA_ONLY_PRODUCT = "Replica only shoe";
+
+    private static JdbcTemplate replica;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private ReplicaDataSource replicaDataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void createReplica() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.update("INSERT INTO product (name, price_minor, stock, reserved_stock, availability) VALUES (?, 1000, 5, 0, true)",
+                REPLICA_ONLY_PRODUCT);
+    }
+
+    @Test
+    void readOnlyTransactionsUseFreshReplica() {
+        replica.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", System.currentTimeMillis());
+        replicaLagMonitor.check();
+        assertTrue(replicaDataSource.getReplicas().get(0).isHealthy());
+
+        assertTrue(productNames().contains(REPLICA_ONLY_PRODUCT), "read-only query should be served by the replica");
+
+        ProductDTO product = new ProductDTO();
+        product.setName("Primary shoe");
+        product.setPrice(Money.of(20.0));
+        product.setStock(3);
+        product.setAvailability(true);
+        productService.saveProduct(product);
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product WHERE name = 'Primary shoe'", Integer.class),
+                "writes should go to the primary");
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM product WHERE name = 'Primary shoe'", Integer.class));
+    }
+
+    @Test
+    void unmarkedReadsSeeTheirOwnWritesWhileReplicaIsFresh() {
+        replica.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", System.currentTimeMillis());
+        replicaLagMonitor.check();
+        assertTrue(productNames().contains(REPLICA_ONLY_PRODUCT), "catalog reads should still use the replica");
+
+        ProductDTO product = new ProductDTO();
+        product.setName("Cart routing shoe");
+        product.setPrice(Money.of(30.0));
+        product.setStock(5);
+        product.setAvailability(true);
+        Long productId = productService.saveProduct(product).getId();
+        CartDTO cart = cartService.addProductToCart("routing-session", null, productId, 2);
+
+        // Neither row exists on the replica, so these reads only succeed on the primary
+        assertEquals(2, cartService.getCartProductCount(cart.getId()), "cart reads should go to the primary");
+        assertTrue(productRepository.findById(productId).isPresent(), "finders outside a transaction should go to the primary");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        replica.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", System.currentTimeMillis() - 60_000);
+        replicaLagMonitor.check();
+        assertFalse(replicaDataSource.getReplicas().get(0).isHealthy());
+
+        long fallbacks = replicaDataSource.getFallbackCount();
+        assertFalse(productNames().contains(REPLICA_ONLY_PRODUCT), "a lagging replica should not serve reads");
+        assertTrue(replicaDataSource.getFallbackCount() > fallbacks);
+    }
+
+    @Test
+    void replicaLeavesRotationWhenChecksStop() throws InterruptedException {
+        // Within the allowed 5 s of lag at the check, but only for about 50 ms more
+        replica.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", System.currentTimeMillis() - 4_950);
+        replicaLagMonitor.check();
+        assertTrue(replicaDataSource.getReplicas().get(0).getLagMillis() <= 5_000);
+
+        Thread.sleep(100);
+        assertFalse(replicaDataSource.getReplicas().get(0).isHealthy(), "a check must not vouch for a replica indefinitely");
+        assertFalse(productNames().contains(REPLICA_ONLY_PRODUCT));
+    }
+
+    private List<String> productNames() {
+        return productService.getAllProducts().stream().map(ProductDTO::getName).toList();
+    }
+}
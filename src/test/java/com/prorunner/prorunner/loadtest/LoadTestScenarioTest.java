@@ -0,0 +1,303 @@
+package com.prorunner.prorunner.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the app on H2 with a synthetic dataset and replays a weighted traffic mix over HTTP:
+ * browse, filter, search, product detail, add to cart, guest cart merge, checkout and order
+ * history. Virtual users run closed-loop for a warm-up and then a measured period; latencies are
+ * recorded per endpoint in HdrHistograms and reported as throughput and p50/p99/p99.9.
+ * <p>
+ * Results are written to target/loadtest/results.json and compared with
+ * src/test/resources/loadtest/baseline.json: an endpoint regresses when its p99 grows or its
+ * throughput drops by more than the tolerance, or its error rate grows by five points.
+ * Refresh the baseline on the reference machine with -Dprorunner.loadtest.update-baseline=true.
+ * Run with: mvn test -Ploadtest [-Dprorunner.loadtest.products=20000 -Dprorunner.loadtest.virtual-users=32 ...]
+ */
+@Tag("loadtest")
+// Expected rejections (sold-out products) are logged with stack traces; they are counted per endpoint instead
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.com.prorunner=OFF")
+@ActiveProfiles("test")
+class LoadTestScenarioTest {
+
+    private static final Path BASELINE = Path.of("src/test/resources/loadtest/baseline.json");
+    private static final Path RESULTS = Path.of("target/loadtest/results.json");
+    private static final double MAX_ERROR_RATE_INCREASE = 0.05;
+
+    // Scenario name -> weight in the traffic mix
+    private static final Map<String, Integer> MIX = new TreeMap<>(Map.of(
+            "browse", 25,
+            "filter", 20,
+            "search", 10,
+            "productDetail", 15,
+            "addToCart", 12,
+            "merge", 3,
+            "checkout", 5,
+            "orderHistory", 10));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${prorunner.loadtest.products:5000}")
+    private int products;
+
+    @Value("${prorunner.loadtest.users:500}")
+    private int users;
+
+    @Value("${prorunner.loadtest.cart-lines-per-user:3}")
+    private int cartLinesPerUser;
+
+    @Value("${prorunner.loadtest.orders-per-user:5}")
+    private int ordersPerUser;
+
+    @Value("${prorunner.loadtest.seed:42}")
+    private long seed;
+
+    @Value("${prorunner.loadtest.virtual-users:16}")
+    private int virtualUsers;
+
+    @Value("${prorunner.loadtest.warmup-seconds:10}")
+    private int warmupSeconds;
+
+    @Value("${prorunner.loadtest.duration-seconds:30}")
+    private int durationSeconds;
+
+    @Value("${prorunner.loadtest.tolerance:0.5}")
+    private double tolerance;
+
+    @Value("${prorunner.loadtest.update-baseline:false}")
+    private boolean updateBaseline;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private SyntheticDataGenerator.Dataset dataset;
+
+    // Per-endpoint latency and outcome counters for the current phase
+    private static final class EndpointStats {
+        final Histogram latencyMicros = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        final AtomicLong clientErrors = new AtomicLong();
+        final AtomicLong serverErrors = new AtomicLong();
+    }
+
+    /** One endpoint's numbers, as stored in the results and baseline files. */
+    public record EndpointResult(long requests, long clientErrors, long serverErrors, double throughput,
+                                 double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+
+        double errorRate() {
+            return requests == 0 ? 0 : (clientErrors + serverErrors) / (double) requests;
+        }
+    }
+
+    private volatile Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    @Test
+    void replayTrafficMix() throws Exception {
+        long seedStart = System.nanoTime();
+        dataset = new SyntheticDataGenerator(jdbcTemplate, seed)
+                .generate(products, users, cartLinesPerUser, ordersPerUser);
+        System.out.printf("%nSeeded %d products and %d users in %d ms%n", dataset.productIds().size(),
+                dataset.shoppers().size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+        runPhase(warmupSeconds);
+        stats = new ConcurrentHashMap<>();
+        runPhase(durationSeconds);
+
+        Map<String, EndpointResult> results = new TreeMap<>();
+        stats.forEach((endpoint, endpointStats) -> results.put(endpoint, result(endpointStats)));
+        report(results);
+
+        Files.createDirectories(RESULTS.getParent());
+        objectMapper.writeValue(RESULTS.toFile(), results);
+        if (updateBaseline || !Files.exists(BASELINE)) {
+            Files.createDirectories(BASELINE.getParent());
+            objectMapper.writeValue(BASELINE.toFile(), results);
+            System.out.println("Baseline written to " + BASELINE);
+            return;
+        }
+
+        List<String> regressions = compareWithBaseline(results);
+        assertTrue(regressions.isEmpty(), "Regressions against the baseline:\n" + String.join("\n", regressions));
+    }
+
+    private void runPhase(int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(virtualUsers);
+        for (int i = 0; i < virtualUsers; i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    runScenario(pickScenario());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(seconds + 60L, TimeUnit.SECONDS), "Virtual users did not stop");
+    }
+
+    private String pickScenario() {
+        int roll = ThreadLocalRandom.current().nextInt(MIX.values().stream().mapToInt(Integer::intValue).sum());
+        for (Map.Entry<String, Integer> entry : MIX.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Traffic mix weights are inconsistent");
+    }
+
+    private void runScenario(String scenario) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        SyntheticDataGenerator.Shopper shopper = dataset.shoppers().get(random.nextInt(dataset.shoppers().size()));
+        long productId = dataset.productIds().get(SyntheticDataGenerator.popularIndex(random, dataset.productIds().size()));
+
+        switch (scenario) {
+            case "browse" -> send("GET /api/products/paginated", "GET",
+                    "/api/products/paginated?page=" + SyntheticDataGenerator.popularIndex(random, 50) + "&size=20");
+            case "filter" -> send("GET /api/products (filter)", "GET", "/api/products?category="
+                    + pick(SyntheticDataGenerator.CATEGORIES) + "&gender=" + pick(SyntheticDataGenerator.GENDERS)
+                    + "&availability=true&pageSize=20");
+            // There is no free-text product search; shoppers narrow down by attributes and price instead
+            case "search" -> {
+                int minPrice = 10 * random.nextInt(10);
+                send("GET /api/products (search)", "GET", "/api/products?color=" + pick(SyntheticDataGenerator.COLORS)
+                        + "&size=" + pick(SyntheticDataGenerator.SIZES) + "&minPrice=" + minPrice
+                        + "&maxPrice=" + (minPrice + 50) + "&sortBy=price&pageSize=20");
+            }
+            case "productDetail" -> send("GET /api/products/{id}", "GET", "/api/products/" + productId);
+            case "addToCart" -> send("POST /api/cart/add", "POST",
+                    "/api/cart/add?userId=" + shopper.userId() + "&productId=" + productId + "&quantity=1");
+            case "merge" -> {
+                String sessionId = UUID.randomUUID().toString();
+                send("POST /api/cart/add (guest)", "POST",
+                        "/api/cart/add?sessionId=" + sessionId + "&productId=" + productId + "&quantity=1");
+                send("POST /api/cart/merge", "POST",
+                        "/api/cart/merge?guestSessionId=" + sessionId + "&userId=" + shopper.userId());
+            }
+            case "checkout" -> {
+                send("POST /api/cart/add", "POST",
+                        "/api/cart/add?userId=" + shopper.userId() + "&productId=" + productId + "&quantity=1");
+                send("POST /api/orders/{cartId}", "POST", "/api/orders/" + shopper.cartId()
+                        + "?userId=" + shopper.userId() + "&addressId=" + shopper.addressId());
+            }
+            case "orderHistory" -> send("GET /api/orders/user/{userId}", "GET", "/api/orders/user/" + shopper.userId());
+            default -> throw new IllegalArgumentException(scenario);
+        }
+    }
+
+    private void send(String endpoint, String method, String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        EndpointStats endpointStats = stats.computeIfAbsent(endpoint, key -> new EndpointStats());
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = 599;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        endpointStats.latencyMicros.recordValue(
+                Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), TimeUnit.MINUTES.toMicros(1)));
+        if (status >= 500) {
+            endpointStats.serverErrors.incrementAndGet();
+        } else if (status >= 400) {
+            // Expected under load: out of stock, a cart emptied by a concurrent checkout, retries exhausted
+            endpointStats.clientErrors.incrementAndGet();
+        }
+    }
+
+    private EndpointResult result(EndpointStats endpointStats) {
+        Histogram histogram = endpointStats.latencyMicros;
+        return new EndpointResult(histogram.getTotalCount(), endpointStats.clientErrors.get(),
+                endpointStats.serverErrors.get(), histogram.getTotalCount() / (double) durationSeconds,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+    }
+
+    private void report(Map<String, EndpointResult> results) {
+        System.out.printf("%n%d virtual users, %d s measured after %d s warm-up%n", virtualUsers, durationSeconds, warmupSeconds);
+        System.out.printf("%-32s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "4xx", "5xx", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        results.forEach((endpoint, r) -> System.out.printf("%-32s %9d %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint, r.requests(), r.clientErrors(), r.serverErrors(), r.throughput(),
+                r.p50Ms(), r.p99Ms(), r.p999Ms(), r.maxMs()));
+    }
+
+    private List<String> compareWithBaseline(Map<String, EndpointResult> results) throws IOException {
+        Map<String, EndpointResult> baseline = objectMapper.readValue(BASELINE.toFile(),
+                objectMapper.getTypeFactory().constructMapType(TreeMap.class, String.class, EndpointResult.class));
+        List<String> regressions = new ArrayList<>();
+        System.out.printf("%nAgainst baseline (tolerance %.0f%%):%n", tolerance * 100);
+        System.out.printf("%-32s %14s %14s %14s%n", "endpoint", "req/s change", "p99 change", "error rate");
+        baseline.forEach((endpoint, base) -> {
+            EndpointResult current = results.get(endpoint);
+            if (current == null) {
+                regressions.add(endpoint + ": no requests recorded");
+                return;
+            }
+            double throughputChange = current.throughput() / base.throughput() - 1;
+            double p99Change = current.p99Ms() / base.p99Ms() - 1;
+            System.out.printf("%-32s %13.1f%% %13.1f%% %6.1f%% (%.1f%%)%n", endpoint, throughputChange * 100,
+                    p99Change * 100, current.errorRate() * 100, base.errorRate() * 100);
+            if (throughputChange < -tolerance) {
+                regressions.add(String.format("%s: throughput %.1f req/s vs %.1f in the baseline",
+                        endpoint, current.throughput(), base.throughput()));
+            }
+            if (p99Change > tolerance) {
+                regressions.add(String.format("%s: p99 %.2f ms vs %.2f ms in the baseline",
+                        endpoint, current.p99Ms(), base.p99Ms()));
+            }
+            // Some 4xx/5xx are part of the mix (sold-out products, carts emptied by a concurrent checkout)
+            if (current.errorRate() > base.errorRate() + MAX_ERROR_RATE_INCREASE) {
+                regressions.add(String.format("%s: error rate %.1f%% vs %.1f%% in the baseline",
+                        endpoint, current.errorRate() * 100, base.errorRate() * 100));
+            }
+        });
+        return regressions;
+    }
+
+    private static String pick(String[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+}
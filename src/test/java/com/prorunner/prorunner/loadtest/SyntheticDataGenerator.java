@@ -0,0 +1,200 @@
+package com.prorunner.prorunner.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds a synthetic shop through JDBC batches: products with skewed category, colour and size
+ * mixes and log-normal prices per category, users with an address, a cart holding a few lines
+ * and an order history. Reserved stock is derived from the seeded cart lines so the
+ * inventory invariants hold from the start. The same seed always produces the same data.
+ */
+class SyntheticDataGenerator {
+
+    static final String[] CATEGORIES = {"shoes", "shirts", "shorts", "jackets", "socks", "tights", "caps", "bags"};
+    private static final int[] CATEGORY_WEIGHTS = {30, 18, 12, 10, 10, 8, 6, 6};
+    private static final double[] CATEGORY_BASE_PRICES = {110, 35, 40, 120, 12, 45, 25, 60};
+
+    static final String[] GENDERS = {"men", "women", "unisex"};
+    private static final int[] GENDER_WEIGHTS = {45, 45, 10};
+
+    static final String[] COLORS = {"black", "white", "blue", "grey", "red", "green", "orange"};
+    private static final int[] COLOR_WEIGHTS = {30, 20, 15, 12, 10, 8, 5};
+
+    static final String[] SIZES = {"XS", "S", "M", "L", "XL"};
+    private static final int[] SIZE_WEIGHTS = {8, 20, 32, 25, 15};
+
+    private static final String[] ORDER_STATUSES = {"DELIVERED", "SHIPPED", "PLACED", "CANCELLED"};
+    private static final int[] ORDER_STATUS_WEIGHTS = {70, 15, 10, 5};
+
+    private static final int BATCH_SIZE = 1_000;
+
+    record Shopper(long userId, long addressId, long cartId) {
+    }
+
+    record Dataset(List<Long> productIds, List<Shopper> shoppers) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random;
+
+    SyntheticDataGenerator(JdbcTemplate jdbcTemplate, long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.random = new Random(seed);
+    }
+
+    Dataset generate(int products, int users, int cartLinesPerUser, int ordersPerUser) {
+        String run = Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+        List<Long> productIds = seedProducts(run, products);
+        List<Shopper> shoppers = seedUsers(run, users);
+        seedCarts(shoppers, productIds, cartLinesPerUser);
+        seedOrders(run, shoppers, productIds, ordersPerUser);
+        return new Dataset(productIds, shoppers);
+    }
+
+    private List<Long> seedProducts(String run, int count) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            int category = pick(CATEGORY_WEIGHTS);
+            // Log-normal around the category's typical price, ending in .99 like a real price list
+            long dollars = (long) Math.max(4, Math.floor(CATEGORY_BASE_PRICES[category] * Math.exp(random.nextGaussian() * 0.35)));
+            long priceMinor = 100 * dollars + 99;
+            // A few products are sold out; the rest have a long-tailed stock level
+            int stock = random.nextInt(100) < 5 ? 0 : 5 + (int) (-80 * Math.log(1 - random.nextDouble()));
+            rows.add(new Object[]{stock > 0, priceMinor, stock, CATEGORIES[category], COLORS[pick(COLOR_WEIGHTS)],
+                    GENDERS[pick(GENDER_WEIGHTS)], "LT " + run + " " + i, SIZES[pick(SIZE_WEIGHTS)],
+                    "Synthetic " + CATEGORIES[category] + " product " + i});
+            if (rows.size() == BATCH_SIZE) {
+                insertProducts(rows);
+            }
+        }
+        insertProducts(rows);
+        return jdbcTemplate.queryForList("SELECT id FROM product WHERE name LIKE ? ORDER BY id", Long.class, "LT " + run + " %");
+    }
+
+    private void insertProducts(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO product (availability, price_minor, reserved_stock, stock, category, color, " +
+                    "gender, name, size, description) VALUES (?, ?, 0, ?, ?, ?, ?, ?, ?, ?)", rows);
+            rows.clear();
+        }
+    }
+
+    private List<Shopper> seedUsers(String run, int count) {
+        List<Object[]> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String username = "lt-" + run + "-" + i;
+            users.add(new Object[]{username + "@example.com", "Load Test User " + i, username});
+        }
+        for (int from = 0; from < count; from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate("INSERT INTO users (email, name, password, phone_number, username) " +
+                    "VALUES (?, ?, 'x', '0000000000', ?)", users.subList(from, Math.min(from + BATCH_SIZE, count)));
+        }
+        jdbcTemplate.update("INSERT INTO addresses (user_id, city, country, postalcode, state, street) " +
+                "SELECT id, 'City', 'Country', '00000', 'State', 'Street' FROM users WHERE username LIKE ?", "lt-" + run + "-%");
+        jdbcTemplate.update("INSERT INTO cart (total_price_minor, user_id) SELECT 0, id FROM users WHERE username LIKE ?",
+                "lt-" + run + "-%");
+
+        return jdbcTemplate.query("SELECT u.id, a.id, c.id FROM users u " +
+                        "JOIN addresses a ON a.user_id = u.id JOIN cart c ON c.user_id = u.id " +
+                        "WHERE u.username LIKE ? ORDER BY u.id",
+                (rs, rowNum) -> new Shopper(rs.getLong(1), rs.getLong(2), rs.getLong(3)),
+                "lt-" + run + "-%");
+    }
+
+    private void seedCarts(List<Shopper> shoppers, List<Long> productIds, int linesPerUser) {
+        List<Object[]> lines = new ArrayList<>();
+        for (Shopper shopper : shoppers) {
+            int lineCount = random.nextInt(linesPerUser + 1);
+            // Consecutive popular products keep (cart_id, product_id) unique
+            int first = popularIndex(productIds.size() - lineCount);
+            for (int line = 0; line < lineCount; line++) {
+                lines.add(new Object[]{1 + random.nextInt(2), shopper.cartId(), productIds.get(first + line)});
+            }
+        }
+        for (int from = 0; from < lines.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate("INSERT INTO cart_product (quantity, subtotal_minor, unit_price_minor, cart_id, product_id) " +
+                            "SELECT ?, 0, price_minor, ?, id FROM product WHERE id = ?",
+                    lines.subList(from, Math.min(from + BATCH_SIZE, lines.size())));
+        }
+        jdbcTemplate.update("UPDATE cart_product SET subtotal_minor = unit_price_minor * quantity WHERE subtotal_minor = 0");
+        jdbcTemplate.update("UPDATE cart SET total_price_minor = (SELECT COALESCE(SUM(cp.subtotal_minor), 0) FROM cart_product cp " +
+                "WHERE cp.cart_id = cart.id) WHERE total_price_minor = 0");
+        // Seeded lines reserve stock exactly like addProductToCart does
+        jdbcTemplate.update("UPDATE product SET reserved_stock = (SELECT COALESCE(SUM(cp.quantity), 0) " +
+                "FROM cart_product cp WHERE cp.product_id = product.id)");
+    }
+
+    private void seedOrders(String run, List<Shopper> shoppers, List<Long> productIds, int ordersPerUser) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> orders = new ArrayList<>();
+        for (Shopper shopper : shoppers) {
+            // Uniform around the mean: some users have no history, some have twice the average
+            int count = random.nextInt(2 * ordersPerUser + 1);
+            for (int i = 0; i < count; i++) {
+                orders.add(new Object[]{shopper.addressId(),
+                        Timestamp.valueOf(now.minusMinutes(random.nextInt(2 * 365 * 24 * 60))),
+                        shopper.userId(), ORDER_STATUSES[pick(ORDER_STATUS_WEIGHTS)]});
+            }
+        }
+        for (int from = 0; from < orders.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate("INSERT INTO orders (total_price_minor, address_id, created_at, user_id, status) " +
+                    "VALUES (0, ?, ?, ?, ?)", orders.subList(from, Math.min(from + BATCH_SIZE, orders.size())));
+        }
+
+        List<Long> orderIds = jdbcTemplate.queryForList("SELECT o.id FROM orders o JOIN users u ON u.id = o.user_id " +
+                "WHERE u.username LIKE ? ORDER BY o.id", Long.class, "lt-" + run + "-%");
+        List<Object[]> items = new ArrayList<>();
+        for (Long orderId : orderIds) {
+            int itemCount = 1 + pick(new int[]{50, 30, 15, 5});
+            int first = popularIndex(productIds.size() - itemCount);
+            for (int item = 0; item < itemCount; item++) {
+                items.add(new Object[]{1 + random.nextInt(2), orderId, productIds.get(first + item)});
+            }
+            if (items.size() >= BATCH_SIZE) {
+                insertOrderItems(items);
+            }
+        }
+        insertOrderItems(items);
+        jdbcTemplate.update("UPDATE orders SET total_price_minor = (SELECT COALESCE(SUM(oi.subtotal_minor), 0) FROM order_item oi " +
+                "WHERE oi.order_id = orders.id) WHERE total_price_minor = 0");
+    }
+
+    private void insertOrderItems(List<Object[]> items) {
+        if (!items.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO order_item (quantity, subtotal_minor, unit_price_minor, order_id, product_id) " +
+                    "SELECT ?, 0, price_minor, ?, id FROM product WHERE id = ?", items);
+            jdbcTemplate.update("UPDATE order_item SET subtotal_minor = unit_price_minor * quantity WHERE subtotal_minor = 0");
+            items.clear();
+        }
+    }
+
+    private int popularIndex(int size) {
+        return popularIndex(random, size);
+    }
+
+    // Index skewed towards the front of the list so a small set of products gets most of the traffic
+    static int popularIndex(Random random, int size) {
+        return (int) (size * Math.pow(random.nextDouble(), 3));
+    }
+
+    private int pick(int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+}
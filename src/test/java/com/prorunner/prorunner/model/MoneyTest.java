@@ -0,0 +1,51 @@
+package com.prorunner.prorunner.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    @Test
+    void roundsHalfUpToTheMinorUnit() {
+        assertEquals(1000, Money.of(new BigDecimal("9.995")).getMinorUnits());
+        assertEquals(999, Money.of(new BigDecimal("9.994")).getMinorUnits());
+        assertEquals(-1000, Money.of(new BigDecimal("-9.995")).getMinorUnits());
+        assertEquals(5999, Money.of(59.99).getMinorUnits());
+        // 0.1 + 0.2 is 0.30000000000000004 as a double and still 30 cents
+        assertEquals(30, Money.of(0.1 + 0.2).getMinorUnits());
+    }
+
+    @Test
+    void keepsTheApiDecimalShape() {
+        assertEquals(new BigDecimal("59.99"), Money.ofMinor(5999).toBigDecimal());
+        assertEquals("0.05", Money.ofMinor(5).toString());
+        assertSame(Money.ZERO, Money.ofMinor(0));
+    }
+
+    @Test
+    void arithmeticIsExact() {
+        Money sum = Money.ZERO;
+        for (int i = 0; i < 1_000; i++) {
+            sum = sum.plus(Money.of(0.1));
+        }
+        assertEquals(Money.ofMinor(10_000), sum);
+        assertEquals(Money.ofMinor(2997), Money.ofMinor(999).times(3));
+        assertTrue(Money.ofMinor(100).minus(Money.ofMinor(101)).isNegative());
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE / 2 + 1).times(2));
+    }
+
+    @Test
+    void rejectsMixedCurrencies() {
+        Money euros = Money.ofMinor(100, Currency.getInstance("EUR"));
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMinor(100).plus(euros));
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMinor(100).compareTo(euros));
+    }
+}
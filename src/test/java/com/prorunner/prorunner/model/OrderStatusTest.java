@@ -0,0 +1,36 @@
+package com.prorunner.prorunner.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatusTest {
+
+    @Test
+    void followsTheFulfilmentPipeline() {
+        assertTrue(OrderStatus.PLACED.canTransitionTo(OrderStatus.PAID));
+        assertTrue(OrderStatus.PAID.canTransitionTo(OrderStatus.PICKED));
+        assertTrue(OrderStatus.PICKED.canTransitionTo(OrderStatus.SHIPPED));
+        assertTrue(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.DELIVERED));
+        assertFalse(OrderStatus.PLACED.canTransitionTo(OrderStatus.SHIPPED));
+        assertFalse(OrderStatus.PAID.canTransitionTo(OrderStatus.PLACED));
+        assertFalse(OrderStatus.PLACED.canTransitionTo(OrderStatus.PLACED));
+    }
+
+    @Test
+    void cancellingIsOnlyPossibleBeforeShipping() {
+        assertEquals(EnumSet.of(OrderStatus.PLACED, OrderStatus.PAID, OrderStatus.PICKED), OrderStatus.CANCELLED.previous());
+        assertFalse(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.CANCELLED));
+    }
+
+    @Test
+    void deliveredAndCancelledAreFinal() {
+        assertTrue(OrderStatus.DELIVERED.next().isEmpty());
+        assertTrue(OrderStatus.CANCELLED.next().isEmpty());
+        assertTrue(OrderStatus.PLACED.previous().isEmpty());
+    }
+}
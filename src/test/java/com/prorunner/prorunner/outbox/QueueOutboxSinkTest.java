@@ -0,0 +1,45 @@
+package com.prorunner.prorunner.outbox;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QueueOutboxSinkTest {
+
+    @Test
+    void rejectsABatchThatDoesNotFitWhole() {
+        QueueOutboxSink sink = new QueueOutboxSink(5);
+        sink.publish(events(1, 3));
+        assertThrows(IllegalStateException.class, () -> sink.publish(events(4, 3)));
+        // Nothing of the rejected batch was queued, so the relay's retry cannot duplicate part of it
+        assertEquals(3, sink.size());
+        sink.publish(events(4, 2));
+        assertEquals(5, sink.size());
+    }
+
+    @Test
+    void drainingMakesRoomInOrder() {
+        QueueOutboxSink sink = new QueueOutboxSink(4);
+        sink.publish(events(1, 4));
+        assertThrows(IllegalStateException.class, () -> sink.publish(events(5, 1)));
+
+        List<OutboxEvent> drained = new ArrayList<>();
+        assertEquals(3, sink.drainTo(drained, 3));
+        assertEquals(List.of(1L, 2L, 3L), drained.stream().map(OutboxEvent::id).toList());
+        sink.publish(events(5, 3));
+        assertEquals(4L, sink.poll().id());
+        assertEquals(3, sink.size());
+    }
+
+    private static List<OutboxEvent> events(long firstId, int count) {
+        return LongStream.range(firstId, firstId + count)
+                .mapToObj(id -> new OutboxEvent(id, "product", id, "StockChanged", "{}", LocalDateTime.now()))
+                .toList();
+    }
+}
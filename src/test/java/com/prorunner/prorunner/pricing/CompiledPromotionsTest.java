@@ -0,0 +1,111 @@
+package com.prorunner.prorunner.pricing;
+
+import com.prorunner.prorunner.model.Money;
+import com.prorunner.prorunner.model.Promotion;
+import com.prorunner.prorunner.model.PromotionTier;
+import com.prorunner.prorunner.model.PromotionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledPromotionsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 12, 0);
+
+    private static final Money UNIT = Money.ofMinor(10_00);
+
+    @Test
+    void bestPercentOffWinsAndRoundsHalfUp() {
+        CompiledPromotions promotions = CompiledPromotions.compile(List.of(
+                percentOff(1, 7L, null, "10"), percentOff(2, 7L, null, "12.5")), NOW);
+        LinePrice price = promotions.price(7L, "Running", Money.ofMinor(9_99), 1);
+        // 12.5% of 9.99 is 1.24875
+        assertEquals(Money.ofMinor(1_25), price.discount());
+        assertEquals(Money.ofMinor(8_74), price.subtotal());
+        assertEquals(2L, price.promotionId());
+    }
+
+    @Test
+    void buyXGetYFreesWholeBundlesOnly() {
+        CompiledPromotions promotions = CompiledPromotions.compile(List.of(buyXGetY(3, 7L, 2, 1)), NOW);
+        assertNull(promotions.price(7L, null, UNIT, 2).promotionId());
+        assertEquals(Money.ofMinor(10_00), promotions.price(7L, null, UNIT, 3).discount());
+        assertEquals(Money.ofMinor(20_00), promotions.price(7L, null, UNIT, 7).discount());
+    }
+
+    @Test
+    void tiersMergeIntoTheBestPercentReached() {
+        Promotion small = tiered(4, "Running", new PromotionTier(5, new BigDecimal("5")), new PromotionTier(10, new BigDecimal("10")));
+        // A lower percent at a higher threshold never beats a tier already reached
+        Promotion other = tiered(5, "Running", new PromotionTier(8, new BigDecimal("15")), new PromotionTier(20, new BigDecimal("8")));
+        CompiledPromotions promotions = CompiledPromotions.compile(List.of(small, other), NOW);
+        assertNull(promotions.price(1L, "Running", UNIT, 4).promotionId());
+        assertEquals(Money.ofMinor(2_50), promotions.price(1L, "Running", UNIT, 5).discount());
+        assertEquals(Money.ofMinor(12_00), promotions.price(1L, "Running", UNIT, 8).discount());
+        assertEquals(Money.ofMinor(30_00), promotions.price(1L, "Running", UNIT, 20).discount());
+        assertEquals(5L, promotions.price(1L, "Running", UNIT, 20).promotionId());
+    }
+
+    @Test
+    void skuAndCategoryRulesDoNotStack() {
+        CompiledPromotions promotions = CompiledPromotions.compile(List.of(
+                percentOff(1, 7L, null, "10"), percentOff(2, null, "Running", "20")), NOW);
+        LinePrice price = promotions.price(7L, "Running", UNIT, 1);
+        assertEquals(Money.ofMinor(2_00), price.discount());
+        assertEquals(2L, price.promotionId());
+        assertEquals(Money.ofMinor(1_00), promotions.price(7L, "Trail", UNIT, 1).discount());
+    }
+
+    @Test
+    void skipsInactiveExpiredAndFuturePromotions() {
+        Promotion inactive = percentOff(1, 7L, null, "50");
+        inactive.setActive(false);
+        Promotion expired = percentOff(2, 7L, null, "40");
+        expired.setEndsAt(NOW);
+        Promotion future = percentOff(3, 7L, null, "30");
+        future.setStartsAt(NOW.plusDays(2));
+        Promotion current = percentOff(4, 7L, null, "10");
+        current.setEndsAt(NOW.plusDays(1));
+
+        CompiledPromotions promotions = CompiledPromotions.compile(List.of(inactive, expired, future, current), NOW);
+        assertEquals(1, promotions.getPromotionCount());
+        assertEquals(4L, promotions.price(7L, null, UNIT, 1).promotionId());
+        assertFalse(promotions.isStale(NOW.plusHours(23)));
+        assertTrue(promotions.isStale(NOW.plusDays(1)));
+    }
+
+    private static Promotion promotion(long id, PromotionType type, Long productId, String category) {
+        Promotion promotion = new Promotion();
+        promotion.setId(id);
+        promotion.setType(type);
+        promotion.setProductId(productId);
+        promotion.setCategory(category);
+        return promotion;
+    }
+
+    private static Promotion percentOff(long id, Long productId, String category, String percent) {
+        Promotion promotion = promotion(id, PromotionType.PERCENT_OFF, productId, category);
+        promotion.setPercentOff(new BigDecimal(percent));
+        return promotion;
+    }
+
+    private static Promotion buyXGetY(long id, Long productId, int buy, int free) {
+        Promotion promotion = promotion(id, PromotionType.BUY_X_GET_Y, productId, null);
+        promotion.setBuyQuantity(buy);
+        promotion.setFreeQuantity(free);
+        return promotion;
+    }
+
+    private static Promotion tiered(long id, String category, PromotionTier... tiers) {
+        Promotion promotion = promotion(id, PromotionType.TIERED, null, category);
+        promotion.setTiers(List.of(tiers));
+        return promotion;
+    }
+}
@@ -0,0 +1,82 @@
+package com.prorunner.prorunner.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CoOccurrenceMatrixTest {
+
+    @Test
+    void ranksNeighborsByCosineSimilarity() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+        // 1 and 2 always go together; 3 is a best seller bought with 1 as often, but with everything
+        for (int i = 0; i < 4; i++) {
+            matrix.addBasket(new long[]{1, 2, 3}, 1);
+        }
+        for (int i = 0; i < 12; i++) {
+            matrix.addBasket(new long[]{3, 100 + i}, 1);
+        }
+        ProductNeighbors top = matrix.neighbors(1, 5, 1);
+        assertEquals(2, top.size());
+        assertEquals(2, top.productId(0));
+        assertEquals(1.0f, top.score(0));
+        assertEquals(3, top.productId(1));
+        assertEquals((float) (4 / Math.sqrt(4.0 * 16)), top.score(1));
+    }
+
+    @Test
+    void keepsTheLimitBestWithTiesToTheLowerId() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+        matrix.addBasket(new long[]{1, 9, 8, 7, 6}, 2);
+        ProductNeighbors top = matrix.neighbors(1, 3, 1);
+        assertEquals(3, top.size());
+        assertEquals(6, top.productId(0));
+        assertEquals(7, top.productId(1));
+        assertEquals(8, top.productId(2));
+    }
+
+    @Test
+    void dropsPairsBelowMinSupport() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+        matrix.addBasket(new long[]{1, 2}, 2);
+        matrix.addBasket(new long[]{1, 3}, 1);
+        ProductNeighbors top = matrix.neighbors(1, 10, 2);
+        assertEquals(1, top.size());
+        assertEquals(2, top.productId(0));
+        assertSame(ProductNeighbors.EMPTY, matrix.neighbors(99, 10, 1));
+    }
+
+    @Test
+    void removingABasketTakesItsWeightBack() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+        matrix.addBasket(new long[]{1, 2, 2}, 1);
+        matrix.addToBasket(3, new long[]{1, 2}, 1);
+        assertEquals(1, matrix.weight(3, 1));
+        assertEquals(1, matrix.occurrences(3));
+        matrix.addToBasket(3, new long[]{1, 2}, -1);
+        assertEquals(0, matrix.weight(3, 1));
+        assertEquals(0, matrix.occurrences(3));
+        assertEquals(1, matrix.weight(1, 2));
+        // Pairs count every pair that ever had a weight
+        assertEquals(3, matrix.pairs());
+        assertEquals(1, matrix.neighbors(1, 10, 1).size());
+    }
+
+    @Test
+    void snapshotRanksLikeTheMatrixAndIgnoresLaterChanges() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+        matrix.addBasket(new long[]{1, 2, 3}, 1);
+        matrix.addBasket(new long[]{1, 3, 4}, 1);
+        matrix.addBasket(new long[]{4, 5}, 1);
+        CoOccurrenceMatrix snapshot = matrix.snapshot(new long[]{1, 4});
+        matrix.addBasket(new long[]{1, 2}, 5);
+
+        ProductNeighbors top = snapshot.neighbors(1, 10, 1);
+        assertEquals(3, top.size());
+        assertEquals(3, top.productId(0));
+        assertEquals(3, snapshot.neighbors(4, 10, 1).size());
+        assertSame(ProductNeighbors.EMPTY, snapshot.neighbors(2, 10, 1));
+        assertEquals(2, matrix.neighbors(1, 10, 1).productId(0));
+    }
+}
@@ -0,0 +1,75 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.dto.CartJanitorReportDTO;
+import com.prorunner.prorunner.dto.ProductDTO;
+import com.prorunner.prorunner.model.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guest cart janitor: an idle guest cart is deleted and the stock its lines reserved goes back
+ * to the product, while a guest cart with recent activity is left alone.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CartJanitorServiceTest {
+
+    @Autowired
+    private CartJanitorService cartJanitorService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void idleGuestCartReleasesReservedStock() {
+        String run = "janitor-" + System.nanoTime();
+        ProductDTO product = new ProductDTO();
+        product.setName(run);
+        product.setPrice(Money.of(25.0));
+        product.setStock(10);
+        product.setAvailability(true);
+        Long productId = productService.saveProduct(product).getId();
+
+        cartService.addProductToCart(run + "-idle", null, productId, 3);
+        cartService.addProductToCart(run + "-active", null, productId, 2);
+        assertEquals(5, reservedStock(productId));
+
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("UPDATE cart SET last_activity_at = ? WHERE session_id = ?",
+                Timestamp.valueOf(now.minusDays(4)), run + "-idle");
+
+        CartJanitorReportDTO report = cartJanitorService.run(now.minusDays(3));
+
+        assertTrue(report.isCompleted());
+        assertTrue(report.getCartsDeleted() >= 1, "cartsDeleted " + report.getCartsDeleted());
+        assertTrue(report.getReservedUnitsReleased() >= 3, "reservedUnitsReleased " + report.getReservedUnitsReleased());
+        assertEquals(2, reservedStock(productId));
+        assertEquals(0, guestCarts(run + "-idle"));
+        assertEquals(1, guestCarts(run + "-active"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_product cp JOIN cart c ON c.id = cp.cart_id " +
+                "WHERE c.session_id = ?", Integer.class, run + "-idle"));
+    }
+
+    private int reservedStock(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT reserved_stock FROM product WHERE id = ?", Integer.class, productId);
+    }
+
+    private int guestCarts(String sessionId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart WHERE session_id = ?", Integer.class, sessionId);
+    }
+}
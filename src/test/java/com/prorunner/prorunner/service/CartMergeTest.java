@@ -0,0 +1,81 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.dto.CartDTO;
+import com.prorunner.prorunner.dto.ProductDTO;
+import com.prorunner.prorunner.model.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guest-to-user cart merges: the CartsMerged event counts guest lines, not upserted rows, and
+ * an empty guest cart is removed like a merged one.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CartMergeTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void mergedLinesCountsGuestLines() {
+        String run = "merge-" + System.nanoTime();
+        Long userId = user(run);
+        Long shared = product(run + "-shared");
+        Long guestOnly = product(run + "-guest");
+        cartService.addProductToCart(null, userId, shared, 1);
+        cartService.addProductToCart(run, null, shared, 2);
+        cartService.addProductToCart(run, null, guestOnly, 1);
+
+        CartDTO merged = cartService.mergeCarts(run, userId);
+
+        assertEquals(2, merged.getCartProducts().size());
+        assertEquals(Money.of(40.0), merged.getTotalPrice());
+        String payload = jdbcTemplate.queryForObject("SELECT payload FROM outbox_event WHERE aggregate_type = 'cart' " +
+                "AND aggregate_id = ? AND event_type = 'CartsMerged'", String.class, merged.getId());
+        assertTrue(payload.contains("\"mergedLines\":2"), payload);
+        assertEquals(0, guestCarts(run));
+    }
+
+    @Test
+    void emptyGuestCartIsDeleted() {
+        String run = "merge-" + System.nanoTime();
+        Long userId = user(run);
+        cartService.getOrCreateGuestCart(run);
+
+        cartService.mergeCarts(run, userId);
+
+        assertEquals(0, guestCarts(run));
+    }
+
+    private Long user(String run) {
+        jdbcTemplate.update("INSERT INTO users (email, name, password, phone_number, username) VALUES (?, 'Merge', 'x', '1', ?)",
+                run + "@example.com", run);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, run);
+    }
+
+    private Long product(String name) {
+        ProductDTO product = new ProductDTO();
+        product.setName(name);
+        product.setPrice(Money.of(10.0));
+        product.setStock(10);
+        product.setAvailability(true);
+        return productService.saveProduct(product).getId();
+    }
+
+    private int guestCarts(String sessionId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart WHERE session_id = ?", Integer.class, sessionId);
+    }
+}
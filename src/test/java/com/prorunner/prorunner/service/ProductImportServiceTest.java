@@ -0,0 +1,79 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.dto.ProductImportReportDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Imports in batches of two, so a stream that breaks after the first batch leaves that batch
+ * committed. The catalog version is re-read on every call (version-check-ms=0) and only moves
+ * when the import announces a catalog change.
+ */
+@SpringBootTest(properties = {
+        "prorunner.import.batch-size=2",
+        "prorunner.catalog.version-check-ms=0"
+})
+@ActiveProfiles("test")
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importFailingPartwayAnnouncesCommittedBatches() {
+        String run = "import-" + System.nanoTime();
+        String csv = "name,price,stock\n" + run + "-a,10.00,1\n" + run + "-b,11.00,2\n" + run + "-c,12.00,3\n";
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+        long version = catalogVersionService.currentVersion();
+
+        assertThrows(IOException.class, () -> productImportService.importProducts(
+                new SequenceInputStream(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), broken),
+                ProductImportService.Format.CSV));
+
+        assertEquals(2, productsNamed(run));
+        assertTrue(catalogVersionService.currentVersion() > version, "the committed batch should be announced");
+    }
+
+    @Test
+    void overlongColumnRejectsOnlyItsRow() throws IOException {
+        String run = "import-" + System.nanoTime();
+        String csv = "name,price,color\n" + run + "-a,10.00,red\n" + run + "-b,11.00," + "x".repeat(256) + "\n";
+
+        ProductImportReportDTO report = productImportService.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ProductImportService.Format.CSV);
+
+        assertEquals(1, report.getInserted());
+        assertEquals(1, report.getRejected());
+        assertTrue(report.getErrors().get(0).contains("color cannot exceed 255 characters"), report.getErrors().toString());
+        assertEquals(1, productsNamed(run));
+    }
+
+    private int productsNamed(String prefix) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product WHERE name LIKE ?", Integer.class, prefix + "-%");
+        return count == null ? 0 : count;
+    }
+}
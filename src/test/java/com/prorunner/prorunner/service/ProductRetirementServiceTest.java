@@ -0,0 +1,111 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.dto.CartDTO;
+import com.prorunner.prorunner.dto.ProductDTO;
+import com.prorunner.prorunner.dto.ProductRetirementJobDTO;
+import com.prorunner.prorunner.model.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sweeps a product out of carts in chunks of one cart, so totals, reserved stock and cart
+ * events are checked across several committed chunks.
+ */
+@SpringBootTest(properties = "prorunner.product-retirement.chunk-size=1")
+@ActiveProfiles("test")
+class ProductRetirementServiceTest {
+
+    @Autowired
+    private ProductRetirementService productRetirementService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sweepRecomputesTotalsAndReleasesReservedStock() {
+        String run = "retire-" + System.nanoTime();
+        Long retired = product(run + "-retired", 10.0);
+        Long kept = product(run + "-kept", 5.0);
+        cartService.addProductToCart(run + "-1", null, retired, 2);
+        CartDTO mixed = cartService.addProductToCart(run + "-1", null, kept, 1);
+        CartDTO single = cartService.addProductToCart(run + "-2", null, retired, 3);
+        assertEquals(5, reservedStock(retired));
+
+        assertEquals(2, productRetirementService.removeFromAllCarts(retired));
+
+        assertEquals(Money.of(5.0), cartService.getCartById(mixed.getId()).getTotalPrice());
+        assertEquals(Money.of(0.0), cartService.getCartById(single.getId()).getTotalPrice());
+        assertEquals(0, reservedStock(retired));
+        assertEquals(1, reservedStock(kept));
+        assertEquals(1, cartEvents(mixed.getId(), retired));
+        assertEquals(1, cartEvents(single.getId(), retired));
+    }
+
+    @Test
+    void retirementStopsCartAddsAndDeletesProduct() throws InterruptedException {
+        String run = "retire-" + System.nanoTime();
+        Long retired = product(run + "-retired", 10.0);
+        cartService.addProductToCart(run + "-1", null, retired, 1);
+
+        ProductRetirementJobDTO job = productRetirementService.startRetirement(retired);
+        RuntimeException refused = assertThrows(RuntimeException.class,
+                () -> cartService.addProductToCart(run + "-2", null, retired, 1));
+        assertTrue(refused.getMessage().contains("not available"), refused.getMessage());
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while ("RUNNING".equals(productRetirementService.getJob(job.getJobId()).getStatus())
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals("COMPLETED", productRetirementService.getJob(job.getJobId()).getStatus());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product WHERE id = ?", Integer.class, retired));
+    }
+
+    @Test
+    void wishlistedProductIsNotRetired() {
+        String run = "retire-" + System.nanoTime();
+        Long wishlisted = product(run + "-wishlisted", 10.0);
+        jdbcTemplate.update("INSERT INTO users (email, name, password, phone_number, username) VALUES (?, 'Retire', 'x', '1', ?)",
+                run + "@example.com", run);
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, run);
+        jdbcTemplate.update("INSERT INTO wishlist (user_id) VALUES (?)", userId);
+        Long wishlistId = jdbcTemplate.queryForObject("SELECT id FROM wishlist WHERE user_id = ?", Long.class, userId);
+        jdbcTemplate.update("INSERT INTO wishlist_item (wishlist_id, product_id) VALUES (?, ?)", wishlistId, wishlisted);
+
+        assertThrows(IllegalStateException.class, () -> productRetirementService.startRetirement(wishlisted));
+        assertTrue(jdbcTemplate.queryForObject("SELECT availability FROM product WHERE id = ?", Boolean.class, wishlisted),
+                "a refused retirement changes nothing");
+    }
+
+    private Long product(String name, double price) {
+        ProductDTO product = new ProductDTO();
+        product.setName(name);
+        product.setPrice(Money.of(price));
+        product.setStock(20);
+        product.setAvailability(true);
+        return productService.saveProduct(product).getId();
+    }
+
+    private int reservedStock(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT reserved_stock FROM product WHERE id = ?", Integer.class, productId);
+    }
+
+    private int cartEvents(Long cartId, Long productId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_event WHERE aggregate_type = 'cart' " +
+                "AND aggregate_id = ? AND event_type = 'CartLineRemoved' AND payload LIKE ?",
+                Integer.class, cartId, "%\"productId\":" + productId + ",%");
+    }
+}
@@ -0,0 +1,87 @@
+package com.prorunner.prorunner.service;
+
+import com.prorunner.prorunner.dto.StockSyncResultDTO;
+import com.prorunner.prorunner.dto.StockUpdateDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stock sync diffs across chunks of two: only changed products are written and reported,
+ * unchanged and unknown ones are counted apart, and the last value wins for a product sent twice.
+ */
+@SpringBootTest(properties = "prorunner.stock-sync.chunk-size=2")
+@ActiveProfiles("test")
+class StockSyncServiceTest {
+
+    @Autowired
+    private StockSyncService stockSyncService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void writesAndReportsOnlyChangedStock() {
+        long changed = product(5);
+        long restocked = product(0);
+        long unchanged = product(7);
+        long missing = unchanged + 1_000_000;
+
+        StockSyncResultDTO result = stockSyncService.syncStock(List.of(
+                new StockUpdateDTO(changed, 8), new StockUpdateDTO(restocked, 4), new StockUpdateDTO(unchanged, 7),
+                new StockUpdateDTO(missing, 3), new StockUpdateDTO(changed, 9)));
+
+        assertEquals(4, result.getRequested());
+        assertEquals(2, result.getUpdated());
+        assertEquals(1, result.getUnchanged());
+        assertEquals(List.of(missing), result.getMissingProductIds());
+        Map<Long, long[]> changes = result.getChanges().stream().collect(Collectors.toMap(change -> change[0], change -> change));
+        assertArrayEquals(new long[]{changed, 5, 9}, changes.get(changed));
+        assertArrayEquals(new long[]{restocked, 0, 4}, changes.get(restocked));
+
+        assertEquals(9, stock(changed));
+        assertEquals(4, stock(restocked));
+        assertEquals(0, version(unchanged), "unchanged products are not written");
+        assertEquals(1, stockEvents(changed));
+        assertEquals(1, stockEvents(restocked));
+        assertEquals(0, stockEvents(unchanged));
+    }
+
+    private long product(int stock) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO product (name, price_minor, stock, reserved_stock, availability) VALUES ('Stock sync shoe', 1000, ?, 0, true)",
+                    Statement.RETURN_GENERATED_KEYS);
+            ps.setInt(1, stock);
+            return ps;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+
+    private int stock(long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM product WHERE id = ?", Integer.class, productId);
+    }
+
+    private long version(long productId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM product WHERE id = ?", Long.class, productId);
+    }
+
+    private int stockEvents(long productId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_event WHERE aggregate_type = 'product' " +
+                "AND aggregate_id = ? AND event_type = 'StockChanged'", Integer.class, productId);
+    }
+}
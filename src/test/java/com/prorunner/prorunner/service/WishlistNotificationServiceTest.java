@@ -0,0 +1,69 @@
+package com.prorunner.prorunner.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The schema keeps one unsent notification per user, product and type. Flushes of the same
+ * change, as two instances would run them, leave one row, and a sent row does not block a new one.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class WishlistNotificationServiceTest {
+
+    private static final String INSERT_CHANGE_SQL = "INSERT INTO wishlist_change " +
+            "(product_id, type, previous_price_minor, revision, changed_at) VALUES (?, 'BACK_IN_STOCK', 0, 0, ?)";
+
+    @Autowired
+    private WishlistNotificationService wishlistNotificationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void oneUnsentNotificationPerUserProductAndType() {
+        String run = "notify-" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO product (name, price_minor, stock, reserved_stock, availability) VALUES (?, 1000, 5, 0, true)", run);
+        Long productId = jdbcTemplate.queryForObject("SELECT id FROM product WHERE name = ?", Long.class, run);
+        jdbcTemplate.update("INSERT INTO users (email, name, password, phone_number, username) VALUES (?, 'Notify', 'x', '1', ?)",
+                run + "@example.com", run);
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, run);
+        jdbcTemplate.update("INSERT INTO wishlist (user_id) VALUES (?)", userId);
+        Long wishlistId = jdbcTemplate.queryForObject("SELECT id FROM wishlist WHERE user_id = ?", Long.class, userId);
+        jdbcTemplate.update("INSERT INTO wishlist_item (wishlist_id, product_id) VALUES (?, ?)", wishlistId, productId);
+
+        // The same change flushed twice, as when a second instance read it before the first deleted it
+        for (int flush = 0; flush < 2; flush++) {
+            jdbcTemplate.update(INSERT_CHANGE_SQL, productId, Timestamp.valueOf(LocalDateTime.now()));
+            wishlistNotificationService.flush();
+        }
+        assertEquals(1, unsent(userId, productId));
+
+        assertThrows(DuplicateKeyException.class, () -> jdbcTemplate.update(
+                "INSERT INTO wishlist_notification (user_id, product_id, type, price_minor, created_at) " +
+                        "VALUES (?, ?, 'BACK_IN_STOCK', 1000, ?)", userId, productId, Timestamp.valueOf(LocalDateTime.now())));
+
+        jdbcTemplate.update("UPDATE wishlist_notification SET sent_at = ? WHERE user_id = ? AND product_id = ?",
+                Timestamp.valueOf(LocalDateTime.now()), userId, productId);
+        jdbcTemplate.update(INSERT_CHANGE_SQL, productId, Timestamp.valueOf(LocalDateTime.now()));
+        wishlistNotificationService.flush();
+        assertEquals(1, unsent(userId, productId));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM wishlist_notification WHERE user_id = ? AND product_id = ?", Integer.class, userId, productId));
+    }
+
+    private int unsent(Long userId, Long productId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wishlist_notification " +
+                "WHERE user_id = ? AND product_id = ? AND sent_at IS NULL", Integer.class, userId, productId);
+    }
+}
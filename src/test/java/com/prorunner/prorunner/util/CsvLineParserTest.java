@@ -0,0 +1,34 @@
+package com.prorunner.prorunner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvLineParserTest {
+
+    @Test
+    void splitsPlainFields() {
+        assertEquals(List.of("1", "Runner", "59.99"), CsvLineParser.parse("1,Runner,59.99"));
+    }
+
+    @Test
+    void keepsEmptyFields() {
+        assertEquals(List.of("", "a", "", ""), CsvLineParser.parse(",a,,"));
+        assertEquals(List.of(""), CsvLineParser.parse(""));
+    }
+
+    @Test
+    void quotedFieldsHoldCommasAndDoubledQuotes() {
+        assertEquals(List.of("Trail, waterproof", "The \"Pro\" shoe", "x"),
+                CsvLineParser.parse("\"Trail, waterproof\",\"The \"\"Pro\"\" shoe\",x"));
+        assertEquals(List.of(""), CsvLineParser.parse("\"\""));
+    }
+
+    @Test
+    void rejectsAnUnterminatedQuote() {
+        assertThrows(IllegalArgumentException.class, () -> CsvLineParser.parse("1,\"open"));
+    }
+}